@@ -19,7 +19,6 @@ import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.decoder.rpce.RpcUdpHeader;
 import org.krakenapps.pcap.decoder.rpce.packet.UdpPDUInterface;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class DomainAnnouncementBrowser implements UdpPDUInterface {
 
@@ -127,14 +126,14 @@ public class DomainAnnouncementBrowser implements UdpPDUInterface {
 	public void parse(Buffer b, RpcUdpHeader h) {
 		opcode = b.get();
 		updateCount = b.get();
-		periodicity = ByteOrderConverter.swap(b.getInt());
-		machineGroup = ByteOrderConverter.swap(b.getInt());
+		periodicity = b.getIntLE();
+		machineGroup = b.getIntLE();
 		browserConfigVersionMajor = b.get();
 		browserConfigVersionMinor = b.get();
-		serverType = ByteOrderConverter.swap(b.getInt());
+		serverType = b.getIntLE();
 		browserVersionMajor = b.get();
 		browserVersionMinor = b.get();
-		signature = ByteOrderConverter.swap(b.getShort());
+		signature = b.getShortLE();
 		localMasterBrowserName = NetBiosNameCodec.readOemName(b);
 
 	}
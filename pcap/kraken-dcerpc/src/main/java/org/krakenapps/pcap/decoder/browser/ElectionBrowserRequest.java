@@ -19,7 +19,6 @@ import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.decoder.rpce.RpcUdpHeader;
 import org.krakenapps.pcap.decoder.rpce.packet.UdpPDUInterface;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class ElectionBrowserRequest implements UdpPDUInterface {
 
@@ -82,9 +81,9 @@ public class ElectionBrowserRequest implements UdpPDUInterface {
 	public void parse(Buffer b, RpcUdpHeader h) {
 		opcode = b.get();
 		version = b.get();
-		criteria = ByteOrderConverter.swap(b.getInt());
-		uptime = ByteOrderConverter.swap(b.getInt());
-		unused = ByteOrderConverter.swap(b.getInt());
+		criteria = b.getIntLE();
+		uptime = b.getIntLE();
+		unused = b.getIntLE();
 		serverName = NetBiosNameCodec.readOemName(b);
 	}
 
@@ -18,7 +18,6 @@ package org.krakenapps.pcap.decoder.browser;
 import org.krakenapps.pcap.decoder.rpce.RpcUdpHeader;
 import org.krakenapps.pcap.decoder.rpce.packet.UdpPDUInterface;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class GetBackupListRequest implements UdpPDUInterface {
 
@@ -54,7 +53,7 @@ public class GetBackupListRequest implements UdpPDUInterface {
 	public void parse(Buffer b, RpcUdpHeader h) {
 		opcode = b.get();
 		requestedCount = b.get();
-		token = ByteOrderConverter.swap(b.getInt());
+		token = b.getIntLE();
 	}
 
 }
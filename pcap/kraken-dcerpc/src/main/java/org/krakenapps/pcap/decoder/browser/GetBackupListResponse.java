@@ -18,7 +18,6 @@ package org.krakenapps.pcap.decoder.browser;
 import org.krakenapps.pcap.decoder.rpce.RpcUdpHeader;
 import org.krakenapps.pcap.decoder.rpce.packet.UdpPDUInterface;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class GetBackupListResponse implements UdpPDUInterface {
 
@@ -63,7 +62,7 @@ public class GetBackupListResponse implements UdpPDUInterface {
 	public void parse(Buffer b, RpcUdpHeader h) {
 		opcode = b.get();
 		backupServerCount = b.get();
-		token = ByteOrderConverter.swap(b.getInt());
+		token = b.getIntLE();
 	}
 
 }
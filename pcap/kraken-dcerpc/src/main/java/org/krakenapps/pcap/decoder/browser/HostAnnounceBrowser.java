@@ -19,7 +19,6 @@ import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.decoder.rpce.RpcUdpHeader;
 import org.krakenapps.pcap.decoder.rpce.packet.UdpPDUInterface;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 // this packet type is udp only
 public class HostAnnounceBrowser implements UdpPDUInterface {
@@ -122,10 +121,10 @@ public class HostAnnounceBrowser implements UdpPDUInterface {
 		periodicity = b.getInt();
 		serverName = NetBiosNameCodec.readOemName(b, 16);
 		osVersionMajor = b.get();
-		serverType = ByteOrderConverter.swap(b.getInt());
+		serverType = b.getIntLE();
 		browserVersionMajor = b.get();
 		browserversionMinor = b.get();
-		signature = ByteOrderConverter.swap(b.getShort());
+		signature = b.getShortLE();
 		comments = NetBiosNameCodec.readOemName(b);
 
 	}
@@ -19,7 +19,6 @@ import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.decoder.rpce.RpcUdpHeader;
 import org.krakenapps.pcap.decoder.rpce.packet.UdpPDUInterface;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class LocalMasterAnnouncementBrowser implements UdpPDUInterface {
 
@@ -127,14 +126,14 @@ public class LocalMasterAnnouncementBrowser implements UdpPDUInterface {
 	public void parse(Buffer b, RpcUdpHeader h) {
 		opcode = b.get();
 		updateCount = b.get();
-		periodicity = ByteOrderConverter.swap(b.getInt());
+		periodicity = b.getIntLE();
 		serverName = NetBiosNameCodec.readOemName(b, 16);
 		osVersionMajor = b.get();
 		osVersionMinor = b.get();
-		serverType = ByteOrderConverter.swap(b.getInt());
+		serverType = b.getIntLE();
 		browserConfigVersionMajor = b.get();
 		browserConfigVersionMinor = b.get();
-		signature = ByteOrderConverter.swap(b.getShort());
+		signature = b.getShortLE();
 		comments = NetBiosNameCodec.readOemName(b); // null terminated string
 
 
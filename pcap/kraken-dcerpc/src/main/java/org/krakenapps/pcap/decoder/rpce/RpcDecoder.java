@@ -30,7 +30,6 @@ import org.krakenapps.pcap.decoder.rpce.rr.BrowserType;
 import org.krakenapps.pcap.decoder.rpce.tcppacket.association.TcpPDUInterface;
 import org.krakenapps.pcap.decoder.smb.SmbProcessor;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class RpcDecoder implements SmbProcessor{
 
@@ -85,7 +84,7 @@ public class RpcDecoder implements SmbProcessor{
 		UdpPDUInterface data; // data
 		BrowserType opCode;
 		b.mark();
-		opCode = BrowserType.parse(ByteOrderConverter.swap(b.getShort()) & 0xffff);
+		opCode = BrowserType.parse(b.getShortLE() & 0xffff);
 		b.reset();
 		switch(opCode){
 			case HostAnnouncement:
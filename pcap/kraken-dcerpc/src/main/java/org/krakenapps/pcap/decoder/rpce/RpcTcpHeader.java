@@ -17,7 +17,6 @@ package org.krakenapps.pcap.decoder.rpce;
 
 import org.krakenapps.pcap.decoder.rpce.rr.TcpPDUType;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class RpcTcpHeader {
 
@@ -68,9 +67,9 @@ public class RpcTcpHeader {
 		ptype = TcpPDUType.parse(b.get());
 		pfc_flags = b.get();
 		b.gets(packedDrep);
-		fragLength = ByteOrderConverter.swap(b.getShort());
-		authLength = ByteOrderConverter.swap(b.getShort());
-		callId = ByteOrderConverter.swap(b.getInt());
+		fragLength = b.getShortLE();
+		authLength = b.getShortLE();
+		callId = b.getIntLE();
 //		System.out.println("vers = " + rpcVers);
 //		System.out.println("versMinor = " + rpcVersMinor);
 //		System.out.println("ptype = " + ptype);
@@ -18,7 +18,6 @@ package org.krakenapps.pcap.decoder.rpce;
 import org.krakenapps.pcap.decoder.rpce.rr.UdpPDUType;
 import org.krakenapps.pcap.decoder.rpce.structure.Uuid;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class RpcUdpHeader {
 	// first Flags
@@ -79,14 +78,14 @@ public class RpcUdpHeader {
 		object.parse(b);
 		if_id.parse(b);
 		act_id.parse(b);
-		serverBoot = ByteOrderConverter.swap(b.getInt());
-		ifVers = ByteOrderConverter.swap(b.getInt());
-		seqNum = ByteOrderConverter.swap(b.getInt());
-		opNum = ByteOrderConverter.swap(b.getShort());
-		iHint = ByteOrderConverter.swap(b.getShort());
-		aHint = ByteOrderConverter.swap(b.getShort());
-		len = ByteOrderConverter.swap(b.getShort());
-		fragNum = ByteOrderConverter.swap(b.getShort());
+		serverBoot = b.getIntLE();
+		ifVers = b.getIntLE();
+		seqNum = b.getIntLE();
+		opNum = b.getShortLE();
+		iHint = b.getShortLE();
+		aHint = b.getShortLE();
+		len = b.getShortLE();
+		fragNum = b.getShortLE();
 		authProto = b.get();
 		serialLo = b.get();
 		
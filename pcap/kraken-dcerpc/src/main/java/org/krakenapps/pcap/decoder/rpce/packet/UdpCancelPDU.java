@@ -17,7 +17,6 @@ package org.krakenapps.pcap.decoder.rpce.packet;
 
 import org.krakenapps.pcap.decoder.rpce.RpcUdpHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class UdpCancelPDU implements UdpPDUInterface{
 
@@ -37,8 +36,8 @@ public class UdpCancelPDU implements UdpPDUInterface{
 	}
 	@Override
 	public void parse(Buffer b, RpcUdpHeader h) {
-		vers = ByteOrderConverter.swap(b.getInt());
-		cancelID = ByteOrderConverter.swap(b.getInt());
+		vers = b.getIntLE();
+		cancelID = b.getIntLE();
 	}
 	
 }
@@ -17,7 +17,6 @@ package org.krakenapps.pcap.decoder.rpce.packet;
 
 import org.krakenapps.pcap.decoder.rpce.RpcUdpHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class UdpFackPDU implements UdpPDUInterface{
 
@@ -33,12 +32,12 @@ public class UdpFackPDU implements UdpPDUInterface{
 	public void parse(Buffer b, RpcUdpHeader h) {
 		vers = b.get();
 		pad1 = b.get();
-		windowSize = ByteOrderConverter.swap(b.getShort());
-		maxTsdu = ByteOrderConverter.swap(b.getInt());
-		maxFragSize = ByteOrderConverter.swap(b.getInt());
-		serialNum = ByteOrderConverter.swap(b.getShort());
-		selackLen = ByteOrderConverter.swap(b.getShort());
-		selack = ByteOrderConverter.swap(b.getInt());
+		windowSize = b.getShortLE();
+		maxTsdu = b.getIntLE();
+		maxFragSize = b.getIntLE();
+		serialNum = b.getShortLE();
+		selackLen = b.getShortLE();
+		selack = b.getIntLE();
 	}
 
 	public byte getVers() {
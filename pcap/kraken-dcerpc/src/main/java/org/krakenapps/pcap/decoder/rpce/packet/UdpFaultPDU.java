@@ -17,7 +17,6 @@ package org.krakenapps.pcap.decoder.rpce.packet;
 
 import org.krakenapps.pcap.decoder.rpce.RpcUdpHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class UdpFaultPDU implements UdpPDUInterface{
 
@@ -33,7 +32,7 @@ public class UdpFaultPDU implements UdpPDUInterface{
 
 	@Override
 	public void parse(Buffer b, RpcUdpHeader h) {
-		st = ByteOrderConverter.swap(b.getInt());
+		st = b.getIntLE();
 	}
 	
 }
@@ -20,7 +20,6 @@ import org.krakenapps.pcap.decoder.rpce.packet.UdpPDUInterface;
 import org.krakenapps.pcap.decoder.rpce.structure.AuthVerifierCo;
 import org.krakenapps.pcap.decoder.rpce.structure.Uuid;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class UdpRequest implements UdpPDUInterface {
 
@@ -37,9 +36,9 @@ public class UdpRequest implements UdpPDUInterface {
 
 	@Override
 	public void parse(Buffer b, RpcUdpHeader h) {
-		allocHint = ByteOrderConverter.swap(b.getInt());
-		pContId = ByteOrderConverter.swap(b.getShort());
-		opNum = ByteOrderConverter.swap(b.getShort());
+		allocHint = b.getIntLE();
+		pContId = b.getShortLE();
+		opNum = b.getShortLE();
 		object.parse(b);
 		// TODO: Uuid parsing & authVerifier check
 		// authVerifier.parse(b);
@@ -18,7 +18,6 @@ package org.krakenapps.pcap.decoder.rpce.packet;
 import org.krakenapps.pcap.decoder.rpce.RpcUdpHeader;
 import org.krakenapps.pcap.decoder.rpce.structure.AuthVerifierCo;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class UdpResponse implements UdpPDUInterface {
 
@@ -34,8 +33,8 @@ public class UdpResponse implements UdpPDUInterface {
 
 	@Override
 	public void parse(Buffer b , RpcUdpHeader h) {
-		allocHint = ByteOrderConverter.swap(b.getInt());
-		pContId = ByteOrderConverter.swap(b.getShort());
+		allocHint = b.getIntLE();
+		pContId = b.getShortLE();
 		cancelCount = b.get();
 		reserved = b.get();
 		authVerifier.parse(b);
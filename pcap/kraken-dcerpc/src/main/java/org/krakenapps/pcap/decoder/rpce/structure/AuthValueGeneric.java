@@ -16,7 +16,6 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class AuthValueGeneric implements AuthValue {
 
@@ -77,10 +76,10 @@ public class AuthValueGeneric implements AuthValue {
 
 	@Override
 	public void parse(Buffer b) {
-		assocUuidCrc = ByteOrderConverter.swap(b.getInt());
+		assocUuidCrc = b.getIntLE();
 		subType = b.get();
 		checksumLength = b.get();
-		credLength = ByteOrderConverter.swap(b.getShort());
+		credLength = b.getShortLE();
 		credentials = new byte[credLength];
 		checksum = new byte[checksumLength];
 		b.gets(credentials);
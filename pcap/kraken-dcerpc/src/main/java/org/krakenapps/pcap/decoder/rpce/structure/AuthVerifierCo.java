@@ -17,7 +17,6 @@ package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.decoder.rpce.rr.AuthenticationLevel;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class AuthVerifierCo {
 
@@ -38,7 +37,7 @@ public class AuthVerifierCo {
 		authLevel = b.get();
 		PadLength = b.get();
 		authReserved = b.get();
-		authContextId = ByteOrderConverter.swap(b.getInt());
+		authContextId = b.getIntLE();
 		//System.out.println("authType = " + authType);
 		//System.out.println("authLevel = " + authLevel);
 		//System.out.println("PadLength = " + PadLength);
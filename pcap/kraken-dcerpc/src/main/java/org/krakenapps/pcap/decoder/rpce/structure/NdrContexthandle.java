@@ -16,14 +16,13 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class NdrContexthandle {
 
 	private int contextHandleAttribues;
 	private Uuid contextHandleUuid;
 	public void parse(Buffer b){
-		contextHandleAttribues = ByteOrderConverter.swap(b.getInt());
+		contextHandleAttribues = b.getIntLE();
 		contextHandleUuid.parse(b);
 	}
 	public int getContextHandleAttribues() {
@@ -16,7 +16,6 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class PContElem {
 
@@ -27,7 +26,7 @@ public class PContElem {
 	private PSyntaxId []transferSyntaxes; // n_transfer_syn = size;
 	
 	public void parse(Buffer b){
-		pContID = ByteOrderConverter.swap(b.getShort());
+		pContID = b.getShortLE();
 		nTransferSyn = b.get();
 		reserved = b.get();
 		abstractSyntax = new PSyntaxId();
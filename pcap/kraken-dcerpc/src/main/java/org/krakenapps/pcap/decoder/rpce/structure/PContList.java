@@ -16,7 +16,6 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class PContList {
 
@@ -28,7 +27,7 @@ public class PContList {
 	public void parse(Buffer b){
 		nContextElem = b.get();
 		reserved = b.get();
-		reserved2 = ByteOrderConverter.swap(b.getShort());
+		reserved2 = b.getShortLE();
 		pContElems = new PContElem[nContextElem];
 		//System.out.println("nContextElem = " + nContextElem);
 		//System.out.println("reserved = " + reserved);
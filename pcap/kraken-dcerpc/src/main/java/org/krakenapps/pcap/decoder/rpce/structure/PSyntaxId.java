@@ -16,7 +16,6 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class PSyntaxId {
 
@@ -31,8 +30,8 @@ public class PSyntaxId {
 	public void parse(Buffer b){
 		tmpbuffer = new byte[16];
 		b.gets(tmpbuffer);
-		if_ver = ByteOrderConverter.swap(b.getShort());
-		if_ver_minor = ByteOrderConverter.swap(b.getShort());
+		if_ver = b.getShortLE();
+		if_ver_minor = b.getShortLE();
 		//System.out.println("if_ver = "+ if_ver);
 		//System.out.println("if_ver_minor =" + if_ver_minor);
 	}
@@ -16,14 +16,13 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class PortAny {
 
 	private short length;
 	private byte []portSpec; // size of length
 	public void parse(Buffer b){
-		length = ByteOrderConverter.swap(b.getShort());
+		length = b.getShortLE();
 		portSpec = new byte[length];
 		b.gets(portSpec);
 	}
@@ -16,7 +16,6 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class RpcConnDiscOptionalData {
 
@@ -27,7 +26,7 @@ public class RpcConnDiscOptionalData {
 		rpcInfo = new RpcrtOptionalData();
 	}
 	public void parse(Buffer b){
-		reasonCode = ByteOrderConverter.swap(b.getShort());
+		reasonCode = b.getShortLE();
 		rpcInfo.parse(b);
 	}
 	public short getReasonCode() {
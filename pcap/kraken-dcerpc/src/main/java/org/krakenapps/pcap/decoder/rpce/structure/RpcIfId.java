@@ -16,7 +16,6 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class RpcIfId {
 
@@ -24,9 +23,9 @@ public class RpcIfId {
 	private int versMajor;
 	private int versMinor;
 	public void parse(Buffer b){
-		uid = ByteOrderConverter.swap(b.getInt());
-		versMajor = ByteOrderConverter.swap(b.getInt());
-		versMinor = ByteOrderConverter.swap(b.getInt());
+		uid = b.getIntLE();
+		versMajor = b.getIntLE();
+		versMinor = b.getIntLE();
 	}
 	public int getUid() {
 		return uid;
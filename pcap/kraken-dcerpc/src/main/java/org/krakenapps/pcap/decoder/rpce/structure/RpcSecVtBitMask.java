@@ -16,7 +16,6 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class RpcSecVtBitMask {
 
@@ -24,9 +23,9 @@ public class RpcSecVtBitMask {
 	private short length;
 	private int bits;
 	public void parse(Buffer b){
-		command = ByteOrderConverter.swap(b.getShort());
-		length = ByteOrderConverter.swap(b.getShort());
-		bits = ByteOrderConverter.swap(b.getInt());
+		command = b.getShortLE();
+		length = b.getShortLE();
+		bits = b.getIntLE();
 	}
 	
 	public short getCommand() {
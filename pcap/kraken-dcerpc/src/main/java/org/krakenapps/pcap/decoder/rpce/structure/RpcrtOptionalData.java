@@ -16,7 +16,6 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class RpcrtOptionalData {
 
@@ -38,7 +37,7 @@ public class RpcrtOptionalData {
 		rpcVersMinors = b.get();
 		b.gets(reserved);
 		b.gets(packedDrep);
-		regectStatus = ByteOrderConverter.swap(b.getInt());
+		regectStatus = b.getIntLE();
 		b.gets(reserved2);
 	}
 
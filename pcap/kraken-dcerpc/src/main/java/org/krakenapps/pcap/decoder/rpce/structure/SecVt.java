@@ -16,7 +16,6 @@
 package org.krakenapps.pcap.decoder.rpce.structure;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SecVt {
 
@@ -29,8 +28,8 @@ public class SecVt {
 	private short command;
 	private short length; // must be multiple 4
 	public void parse(Buffer b){
-		command = ByteOrderConverter.swap(b.getShort());
-		length = ByteOrderConverter.swap(b.getShort());
+		command = b.getShortLE();
+		length = b.getShortLE();
 	}
 	public short getCommand() {
 		return command;
@@ -19,7 +19,6 @@ import org.krakenapps.pcap.decoder.rpce.RpcTcpHeader;
 import org.krakenapps.pcap.decoder.rpce.structure.AuthVerifierCo;
 import org.krakenapps.pcap.decoder.rpce.structure.PContList;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class TcpAlterContextPDU implements TcpPDUInterface {
 
@@ -36,9 +35,9 @@ public class TcpAlterContextPDU implements TcpPDUInterface {
 
 	@Override
 	public void parse(Buffer b, RpcTcpHeader h) {
-		maxXmitFrag = ByteOrderConverter.swap(b.getShort());
-		maxRecvFrag = ByteOrderConverter.swap(b.getShort());
-		assocGroupId = ByteOrderConverter.swap(b.getInt());
+		maxXmitFrag = b.getShortLE();
+		maxRecvFrag = b.getShortLE();
+		assocGroupId = b.getIntLE();
 		pContextElem.parse(b);
 		if(h.getAuthLength() != 0){
 			authVerifier.parse(b);
@@ -20,7 +20,6 @@ import org.krakenapps.pcap.decoder.rpce.structure.AuthVerifierCo;
 import org.krakenapps.pcap.decoder.rpce.structure.PResultList;
 import org.krakenapps.pcap.decoder.rpce.structure.PortAny;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class TcpAlterContextResponsePDU implements TcpPDUInterface {
 
@@ -41,9 +40,9 @@ public class TcpAlterContextResponsePDU implements TcpPDUInterface {
 	@Override
 	public void parse(Buffer b, RpcTcpHeader h) {
 		int length = 8;
-		maxXmitFrag = ByteOrderConverter.swap(b.getShort());
-		maxRecvFrag = ByteOrderConverter.swap(b.getShort());
-		assocGroupId = ByteOrderConverter.swap(b.getInt());
+		maxXmitFrag = b.getShortLE();
+		maxRecvFrag = b.getShortLE();
+		assocGroupId = b.getIntLE();
 		secAddr.parse(b);
 		length = length + secAddr.getLength();
 		length = length % 4;
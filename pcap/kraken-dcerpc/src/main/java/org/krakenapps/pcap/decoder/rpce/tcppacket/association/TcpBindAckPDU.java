@@ -20,7 +20,6 @@ import org.krakenapps.pcap.decoder.rpce.structure.AuthVerifierCo;
 import org.krakenapps.pcap.decoder.rpce.structure.PResultList;
 import org.krakenapps.pcap.decoder.rpce.structure.PortAny;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class TcpBindAckPDU implements TcpPDUInterface {
 
@@ -41,9 +40,9 @@ public class TcpBindAckPDU implements TcpPDUInterface {
 	@Override
 	public void parse(Buffer b, RpcTcpHeader h) {
 		int length = 0;
-		maxXmitFrag = ByteOrderConverter.swap(b.getShort());
-		maxRecvFrag = ByteOrderConverter.swap(b.getShort());
-		assocGroupId = ByteOrderConverter.swap(b.getInt());
+		maxXmitFrag = b.getShortLE();
+		maxRecvFrag = b.getShortLE();
+		assocGroupId = b.getIntLE();
 		secAddr.parse(b);
 		secAddr.parse(b);
 		length = length + secAddr.getLength();
@@ -19,7 +19,6 @@ import org.krakenapps.pcap.decoder.rpce.RpcTcpHeader;
 import org.krakenapps.pcap.decoder.rpce.structure.PRtVersionsSupported;
 import org.krakenapps.pcap.decoder.rpce.structure.Uuid;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class TcpBindNakPDU implements TcpPDUInterface {
 
@@ -47,7 +46,7 @@ public class TcpBindNakPDU implements TcpPDUInterface {
 
 	@Override
 	public void parse(Buffer b, RpcTcpHeader h) {
-		providerRejectReason = ByteOrderConverter.swap(b.getInt());
+		providerRejectReason = b.getIntLE();
 		version.parse(b);
 		signature.parse(b);
 	}
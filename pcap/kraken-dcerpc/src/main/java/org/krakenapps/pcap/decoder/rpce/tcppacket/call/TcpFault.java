@@ -19,7 +19,6 @@ import org.krakenapps.pcap.decoder.rpce.RpcTcpHeader;
 import org.krakenapps.pcap.decoder.rpce.structure.AuthVerifierCo;
 import org.krakenapps.pcap.decoder.rpce.tcppacket.association.TcpPDUInterface;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class TcpFault implements TcpPDUInterface {
 
@@ -38,11 +37,11 @@ public class TcpFault implements TcpPDUInterface {
 
 	@Override
 	public void parse(Buffer b, RpcTcpHeader h) {
-		allochint = ByteOrderConverter.swap(b.getInt());
-		pContId = ByteOrderConverter.swap(b.getShort());
+		allochint = b.getIntLE();
+		pContId = b.getShortLE();
 		cancelCount = b.get();
 		reserved = b.get();
-		status = ByteOrderConverter.swap(b.getInt());
+		status = b.getIntLE();
 		b.gets(reserved2);
 		if(h.getAuthLength() != 0){
 			authVerifier.parse(b);
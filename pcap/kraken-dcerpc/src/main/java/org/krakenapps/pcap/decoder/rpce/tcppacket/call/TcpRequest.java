@@ -20,7 +20,6 @@ import org.krakenapps.pcap.decoder.rpce.structure.AuthVerifierCo;
 import org.krakenapps.pcap.decoder.rpce.structure.Uuid;
 import org.krakenapps.pcap.decoder.rpce.tcppacket.association.TcpPDUInterface;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class TcpRequest implements TcpPDUInterface {
 
@@ -36,9 +35,9 @@ public class TcpRequest implements TcpPDUInterface {
 	}
 	@Override
 	public void parse(Buffer b, RpcTcpHeader h) {
-		allocHint = ByteOrderConverter.swap(b.getInt());
-		pContId = ByteOrderConverter.swap(b.getShort());
-		opNum = ByteOrderConverter.swap(b.getShort());
+		allocHint = b.getIntLE();
+		pContId = b.getShortLE();
+		opNum = b.getShortLE();
 		//System.out.println("allocHint = " + allocHint);
 		//System.out.println("pContId = " + pContId);
 		//System.out.println("opNum = " + opNum);
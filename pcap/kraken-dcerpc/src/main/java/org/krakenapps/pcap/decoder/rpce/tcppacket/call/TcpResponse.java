@@ -19,7 +19,6 @@ import org.krakenapps.pcap.decoder.rpce.RpcTcpHeader;
 import org.krakenapps.pcap.decoder.rpce.structure.AuthVerifierCo;
 import org.krakenapps.pcap.decoder.rpce.tcppacket.association.TcpPDUInterface;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class TcpResponse implements TcpPDUInterface {
 
@@ -35,8 +34,8 @@ public class TcpResponse implements TcpPDUInterface {
 
 	@Override
 	public void parse(Buffer b , RpcTcpHeader h) {
-		allocHint = ByteOrderConverter.swap(b.getInt());
-		pContId = ByteOrderConverter.swap(b.getShort());
+		allocHint = b.getIntLE();
+		pContId = b.getShortLE();
 		cancelCount = b.get();
 		reserved = b.get();
 		if(h.getAuthLength() != 0){
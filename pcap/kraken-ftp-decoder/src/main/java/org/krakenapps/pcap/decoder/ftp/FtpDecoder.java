@@ -28,6 +28,7 @@ import org.krakenapps.pcap.decoder.tcp.TcpProcessor;
 import org.krakenapps.pcap.decoder.tcp.TcpSessionKey;
 import org.krakenapps.pcap.util.Buffer;
 import org.krakenapps.pcap.util.BufferInputStream;
+import org.krakenapps.pcap.util.BytePattern;
 import org.krakenapps.pcap.util.ChainBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +37,7 @@ import org.slf4j.LoggerFactory;
  * @author mindori
  */
 public class FtpDecoder implements TcpProcessor {
+	private static final BytePattern CRLF = new BytePattern(new byte[] { 0x0d, 0x0a });
 	private Logger logger = LoggerFactory.getLogger(FtpDecoder.class.getName());
 	private Set<FtpProcessor> callbacks;
 	private Map<TcpSessionKey, FtpSession> sessionMap;
@@ -128,7 +130,7 @@ public class FtpDecoder implements TcpProcessor {
 				break;
 			}
 
-			int length = buffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+			int length = buffer.bytesBefore(CRLF);
 			if (length == 0)
 				return;
 
@@ -51,6 +51,7 @@ import org.krakenapps.pcap.decoder.http.impl.PartialContentManager;
 import org.krakenapps.pcap.decoder.tcp.TcpProcessor;
 import org.krakenapps.pcap.decoder.tcp.TcpSessionKey;
 import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.BytePattern;
 import org.krakenapps.pcap.util.ChainBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,6 +64,8 @@ enum HttpDirection {
  * @author mindori
  */
 public class HttpDecoder implements TcpProcessor {
+	private static final BytePattern CRLF = new BytePattern(new byte[] { 0x0d, 0x0a });
+	private static final BytePattern SP = new BytePattern(new byte[] { 0x20 });
 	private static final int DECODE_NOT_READY = -1;
 	private Logger logger = LoggerFactory.getLogger(HttpDecoder.class.getName());
 
@@ -166,7 +169,7 @@ public class HttpDecoder implements TcpProcessor {
 			case READY:
 			case GOT_METHOD:
 				try {
-					int len = txBuffer.bytesBefore(new byte[] { 0x20 });
+					int len = txBuffer.bytesBefore(SP);
 					if (len == 0) {
 						return;
 					}
@@ -193,7 +196,7 @@ public class HttpDecoder implements TcpProcessor {
 
 			case GOT_URI:
 				try {
-					int len = txBuffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+					int len = txBuffer.bytesBefore(CRLF);
 					if (len == 0) {
 						return;
 					}
@@ -215,7 +218,7 @@ public class HttpDecoder implements TcpProcessor {
 
 			case GOT_HTTP_VER:
 				try {
-					int len = txBuffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+					int len = txBuffer.bytesBefore(CRLF);
 					if (len == 0) {
 						return;
 					}
@@ -312,7 +315,7 @@ public class HttpDecoder implements TcpProcessor {
 			case READY:
 			case GOT_HTTP_VER:
 				try {
-					int len = rxBuffer.bytesBefore(new byte[] { 0x20 });
+					int len = rxBuffer.bytesBefore(SP);
 					if (len == 0) {
 						return;
 					}
@@ -337,7 +340,7 @@ public class HttpDecoder implements TcpProcessor {
 
 			case GOT_STATUS_CODE:
 				try {
-					int len = rxBuffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+					int len = rxBuffer.bytesBefore(CRLF);
 					if (len == 0) {
 						return;
 					}
@@ -358,7 +361,7 @@ public class HttpDecoder implements TcpProcessor {
 
 			case GOT_REASON_PHRASE:
 				try {
-					int len = rxBuffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+					int len = rxBuffer.bytesBefore(CRLF);
 					if (len == 0) {
 						return;
 					}
@@ -871,7 +874,7 @@ public class HttpDecoder implements TcpProcessor {
 
 	private int getChunkedLength(Buffer rxBuffer, HttpResponseImpl response) {
 		try {
-			int length = rxBuffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+			int length = rxBuffer.bytesBefore(CRLF);
 			if (length == 0) {
 				response.setChunkedLength(DECODE_NOT_READY);
 				return DECODE_NOT_READY;
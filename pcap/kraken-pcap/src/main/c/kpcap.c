@@ -41,8 +41,13 @@
 #include "org_krakenapps_pcap_live_PcapDevice.h"
 
 #define MAX_NUMBER_OF_INSTANCE 255L
+#define RECORD_HEADER_LENGTH 16
 
 int checkDeviceStatus(JNIEnv *, int);
+void throwException(JNIEnv *, jclass, const char *);
+void copyPacket(u_char *, const struct pcap_pkthdr *, const u_char *);
+void putRecord(u_char *, const struct pcap_pkthdr *, const u_char *);
+void capturePacket(u_char *, const struct pcap_pkthdr *, const u_char *);
 #if defined(__linux__) || defined (__APPLE__)
   int GetTickCount();
 #endif
@@ -52,6 +57,61 @@ pcap_t *pcds[MAX_NUMBER_OF_INSTANCE] = {0, };
 struct bpf_program *fp[MAX_NUMBER_OF_INSTANCE] = {0, };
 int t_limit[MAX_NUMBER_OF_INSTANCE] = {0, };
 volatile int getPacketFlag[MAX_NUMBER_OF_INSTANCE] = {0, };
+int offline[MAX_NUMBER_OF_INSTANCE] = {0, };
+
+// record which did not fit in the last batch buffer
+u_char *pending[MAX_NUMBER_OF_INSTANCE] = {0, };
+int pendingLength[MAX_NUMBER_OF_INSTANCE] = {0, };
+
+// classes and method ids are resolved once in JNI_OnLoad
+jclass clzPcapPacket = NULL;
+jclass clzPacketHeader = NULL;
+jclass clzPacketPayload = NULL;
+jclass clzIOException = NULL;
+jclass clzEOFException = NULL;
+jclass clzIllegalArgumentException = NULL;
+jmethodID pcapPacket_init = NULL;
+jmethodID packetHeader_init = NULL;
+jmethodID packetPayload_init = NULL;
+
+struct batch {
+	int id;
+	u_char *buf;
+	int length;
+	int written;
+	int full;
+};
+
+struct capture {
+	JNIEnv *env;
+	jobject packet;
+};
+
+
+JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM *vm, void *reserved) {
+	JNIEnv *env;
+
+	if((*vm)->GetEnv(vm, (void **)&env, JNI_VERSION_1_4) != JNI_OK)
+		return JNI_ERR;
+
+	clzPcapPacket = (*env)->NewGlobalRef(env, (*env)->FindClass(env, "org/krakenapps/pcap/packet/PcapPacket"));
+	clzPacketHeader = (*env)->NewGlobalRef(env, (*env)->FindClass(env, "org/krakenapps/pcap/packet/PacketHeader"));
+	clzPacketPayload = (*env)->NewGlobalRef(env, (*env)->FindClass(env, "org/krakenapps/pcap/packet/PacketPayload"));
+	clzIOException = (*env)->NewGlobalRef(env, (*env)->FindClass(env, "java/io/IOException"));
+	clzEOFException = (*env)->NewGlobalRef(env, (*env)->FindClass(env, "java/io/EOFException"));
+	clzIllegalArgumentException = (*env)->NewGlobalRef(env, (*env)->FindClass(env, "java/lang/IllegalArgumentException"));
+	if(clzPcapPacket == NULL || clzPacketHeader == NULL || clzPacketPayload == NULL || clzIOException == NULL
+			|| clzEOFException == NULL || clzIllegalArgumentException == NULL)
+		return JNI_ERR;
+
+	pcapPacket_init = (*env)->GetMethodID(env, clzPcapPacket, "<init>", "(Lorg/krakenapps/pcap/packet/PacketHeader;Lorg/krakenapps/pcap/packet/PacketPayload;)V");
+	packetHeader_init = (*env)->GetMethodID(env, clzPacketHeader, "<init>", "(IIII)V");
+	packetPayload_init = (*env)->GetMethodID(env, clzPacketPayload, "<init>", "([B)V");
+	if(pcapPacket_init == NULL || packetHeader_init == NULL || packetPayload_init == NULL)
+		return JNI_ERR;
+
+	return JNI_VERSION_1_4;
+}
 
 
 // class PcapDevice
@@ -260,6 +320,28 @@ JNIEXPORT void JNICALL Java_org_krakenapps_pcap_live_PcapDevice_open(JNIEnv *env
 		fprintf(stderr, "Error in pcap_open_live: %s\n", errbuf);
 }
 
+JNIEXPORT void JNICALL Java_org_krakenapps_pcap_live_PcapDevice_openOffline(JNIEnv *env, jobject obj, jint id, jstring path) {
+	char errbuf[PCAP_ERRBUF_SIZE];
+	const char *fileName = NULL;
+
+	if(pcds[id] != NULL) {
+		throwException(env, clzIOException, "Device ID is already used");
+		return;
+	}
+
+	fileName = (const char *)(*env)->GetStringUTFChars(env, path, JNI_FALSE);
+	pcds[id] = pcap_open_offline(fileName, errbuf);
+	(*env)->ReleaseStringUTFChars(env, path, fileName);
+
+	if(pcds[id] == NULL) {
+		throwException(env, clzIOException, errbuf);
+		return;
+	}
+
+	offline[id] = 1;
+	t_limit[id] = 0;
+}
+
 JNIEXPORT jobject JNICALL Java_org_krakenapps_pcap_live_PcapDevice_getPacket(JNIEnv *env, jobject obj, jint id) {
 	struct pcap_pkthdr *pkt_header = NULL;
 	const u_char *pkt_data = NULL;
@@ -271,7 +353,7 @@ JNIEXPORT jobject JNICALL Java_org_krakenapps_pcap_live_PcapDevice_getPacket(JNI
 	pkt_header = (struct pcap_pkthdr *)malloc( sizeof(struct pcap_pkthdr) );
 	isNonblock = Java_org_krakenapps_pcap_live_PcapDevice_isNonblock(env, obj, id);
 
-	if(isNonblock)
+	if(isNonblock || offline[id])
 		pkt_data = pcap_next(pcds[id], pkt_header);
 	else {
 		while(pkt_data == NULL && (int)GetTickCount() - startTime < t_limit[id]) {
@@ -287,7 +369,10 @@ JNIEXPORT jobject JNICALL Java_org_krakenapps_pcap_live_PcapDevice_getPacket(JNI
 	}
 
 	if(pkt_data == NULL) {
-		if(isNonblock)
+		if(offline[id]) {
+			throwException(env, clzEOFException, "End of pcap file");
+			return NULL;
+		} else if(isNonblock)
 			return NULL;
 		else {
 			jclass cIOException = (*env)->FindClass(env, "java/io/IOException");
@@ -299,6 +384,78 @@ JNIEXPORT jobject JNICALL Java_org_krakenapps_pcap_live_PcapDevice_getPacket(JNI
 	return makePacket(env, pkt_header, pkt_data);
 }
 
+JNIEXPORT jobject JNICALL Java_org_krakenapps_pcap_live_PcapDevice_pollPacket(JNIEnv *env, jobject obj, jint id) {
+	struct capture c;
+	int ret;
+
+	if(checkDeviceStatus(env, id) == -1) return NULL;
+
+	c.env = env;
+	c.packet = NULL;
+
+	// waits at most read timeout of pcap_open_live, and returns NULL instead of throwing
+	getPacketFlag[id] = 1;
+	ret = pcap_dispatch(pcds[id], 1, capturePacket, (u_char *)&c);
+	getPacketFlag[id] = 0;
+
+	if(ret == -1) {
+		throwException(env, clzIOException, pcap_geterr(pcds[id]));
+		return NULL;
+	}
+
+	return c.packet;
+}
+
+JNIEXPORT jint JNICALL Java_org_krakenapps_pcap_live_PcapDevice_getPackets(JNIEnv *env, jobject obj, jint id, jobject buffer, jint offset, jint length, jint max) {
+	struct batch b;
+	u_char *base = NULL;
+	int ret;
+
+	if(checkDeviceStatus(env, id) == -1) return -1;
+
+	base = (u_char *)(*env)->GetDirectBufferAddress(env, buffer);
+	if(base == NULL) {
+		throwException(env, clzIllegalArgumentException, "Direct buffer is required");
+		return -1;
+	}
+
+	b.id = id;
+	b.buf = base + offset;
+	b.length = length;
+	b.written = 0;
+	b.full = 0;
+
+	if(pendingLength[id] > 0) {
+		if(pendingLength[id] > length) {
+			throwException(env, clzIllegalArgumentException, "Buffer is smaller than captured packet");
+			return -1;
+		}
+
+		memcpy(b.buf, pending[id], pendingLength[id]);
+		b.written = pendingLength[id];
+		pendingLength[id] = 0;
+		max--;
+	}
+
+	if(max <= 0)
+		return b.written;
+
+	getPacketFlag[id] = 1;
+	ret = pcap_dispatch(pcds[id], max, copyPacket, (u_char *)&b);
+	getPacketFlag[id] = 0;
+
+	if(ret == -1) {
+		throwException(env, clzIOException, pcap_geterr(pcds[id]));
+		return -1;
+	}
+
+	// pcap_dispatch returns 0 at the end of savefile
+	if(ret == 0 && b.written == 0 && offline[id])
+		return -1;
+
+	return b.written;
+}
+
 JNIEXPORT void JNICALL Java_org_krakenapps_pcap_live_PcapDevice_write(JNIEnv *env, jobject obj, jint id, jbyteArray packet, jint offset, jint length) {
 	jbyte *pac = NULL;
 
@@ -312,6 +469,28 @@ JNIEXPORT void JNICALL Java_org_krakenapps_pcap_live_PcapDevice_write(JNIEnv *en
 	(*env)->ReleaseByteArrayElements(env, packet, pac, JNI_ABORT);
 }
 
+JNIEXPORT jint JNICALL Java_org_krakenapps_pcap_live_PcapDevice_writePackets(JNIEnv *env, jobject obj, jint id, jbyteArray packets, jintArray lengths, jint count) {
+	jbyte *pac = NULL;
+	jint *len = NULL;
+	int i, offset = 0;
+
+	if(checkDeviceStatus(env, id) == -1) return 0;
+
+	pac = (*env)->GetByteArrayElements(env, packets, NULL);
+	len = (*env)->GetIntArrayElements(env, lengths, NULL);
+
+	/* stop at first failure, caller gets the number of sent packets */
+	for(i = 0; i < count; i++) {
+		if(pcap_sendpacket(pcds[id], (const u_char*) pac+offset, len[i]) == -1)
+			break;
+		offset += len[i];
+	}
+
+	(*env)->ReleaseIntArrayElements(env, lengths, len, JNI_ABORT);
+	(*env)->ReleaseByteArrayElements(env, packets, pac, JNI_ABORT);
+	return i;
+}
+
 JNIEXPORT void JNICALL Java_org_krakenapps_pcap_live_PcapDevice_setNonblock(JNIEnv *env, jobject obj, jint id, jint nonblock) {
 	char errbuf[PCAP_ERRBUF_SIZE];
 
@@ -387,6 +566,11 @@ JNIEXPORT void JNICALL Java_org_krakenapps_pcap_live_PcapDevice_close(JNIEnv *en
 		pcap_freecode(fp[id]);
 		fp[id] = NULL;
 	}
+
+	free(pending[id]);
+	pending[id] = NULL;
+	pendingLength[id] = 0;
+	offline[id] = 0;
 }
 
 JNIEXPORT jobject JNICALL Java_org_krakenapps_pcap_live_PcapDevice_getPcapLibVersion(JNIEnv *env, jclass cls) {
@@ -446,52 +630,99 @@ jbyteArray getAddress(JNIEnv *env, struct sockaddr *addr) {
 
 
 jobject makePacket(JNIEnv *env, struct pcap_pkthdr *header, const u_char *data) {
-	jclass cPacket = (*env)->FindClass(env, "org/krakenapps/pcap/packet/PcapPacket");
-	jmethodID pacMetId = (*env)->GetMethodID(env, cPacket, "<init>", "(Lorg/krakenapps/pcap/packet/PacketHeader;Lorg/krakenapps/pcap/packet/PacketPayload;)V");
 	jobject packetHeader = makePacketHeader(env, header);
 	jobject packetPayload = makePacketPayload(env, data, header->caplen);
-	jobject packet = (*env)->NewObject(env, cPacket, pacMetId, packetHeader, packetPayload);
+	jobject packet = (*env)->NewObject(env, clzPcapPacket, pcapPacket_init, packetHeader, packetPayload);
 
 	return packet;
 }
 
 jobject makePacketHeader(JNIEnv *env, struct pcap_pkthdr *header) {
-	jclass cPacketHeader = (*env)->FindClass(env, "org/krakenapps/pcap/packet/PacketHeader");
-	jmethodID headMetId = (*env)->GetMethodID(env, cPacketHeader, "<init>", "(IIII)V");
-
 	jint tsSec = header->ts.tv_sec;
 	jint tsUsec = header->ts.tv_usec;
 	jint inclLen = header->caplen;
 	jint origLen = header->len;
 
-	jobject packetHeader = (*env)->NewObject(env, cPacketHeader, headMetId, tsSec, tsUsec, inclLen, origLen);
+	jobject packetHeader = (*env)->NewObject(env, clzPacketHeader, packetHeader_init, tsSec, tsUsec, inclLen, origLen);
 
 	return packetHeader;
 }
 
 jobject makePacketPayload(JNIEnv *env, const u_char *data, jint inclLen) {
-	jclass cPacketPayload = (*env)->FindClass(env, "org/krakenapps/pcap/packet/PacketPayload");
-	jmethodID bodyMetId = (*env)->GetMethodID(env, cPacketPayload, "<init>", "([B)V");
-
 	jbyteArray bytes = (*env)->NewByteArray(env, inclLen);
 	jobject packetPayload = NULL;
 
 	(*env)->SetByteArrayRegion(env, bytes, 0, inclLen, (jbyte *)data);
-	packetPayload = (*env)->NewObject(env, cPacketPayload, bodyMetId, bytes);
+	packetPayload = (*env)->NewObject(env, clzPacketPayload, packetPayload_init, bytes);
 
 	return packetPayload;
 }
 
 int checkDeviceStatus(JNIEnv *env, int id) {
 	if(id == -1 || pcds[id] == NULL) {
-		jclass cIOException = (*env)->FindClass(env, "java/io/IOException");
-		(*env)->ThrowNew(env, cIOException, "Device is not opened");
+		throwException(env, clzIOException, "Device is not opened");
 		return -1;
 	}
 
 	return 0;
 }
 
+void throwException(JNIEnv *env, jclass clz, const char *msg) {
+	(*env)->ThrowNew(env, clz, msg);
+}
+
+void copyPacket(u_char *user, const struct pcap_pkthdr *header, const u_char *data) {
+	struct batch *b = (struct batch *)user;
+	int recordLength = RECORD_HEADER_LENGTH + header->caplen;
+
+	// pcap_breakloop is checked before each packet, so this is not reached
+	if(b->full)
+		return;
+
+	if(b->written + recordLength > b->length) {
+		// packet data is valid only in callback, keep a copy for the next call
+		u_char *p = (u_char *)realloc(pending[b->id], recordLength);
+		if(p != NULL) {
+			pending[b->id] = p;
+			pendingLength[b->id] = recordLength;
+			putRecord(p, header, data);
+		} else
+			fprintf(stderr, "Error in copyPacket: cannot allocate pending record\n");
+
+		b->full = 1;
+		pcap_breakloop(pcds[b->id]);
+		return;
+	}
+
+	putRecord(b->buf + b->written, header, data);
+	b->written += recordLength;
+}
+
+void capturePacket(u_char *user, const struct pcap_pkthdr *header, const u_char *data) {
+	struct capture *c = (struct capture *)user;
+	c->packet = makePacket(c->env, (struct pcap_pkthdr *)header, data);
+}
+
+void putRecord(u_char *p, const struct pcap_pkthdr *header, const u_char *data) {
+	bpf_u_int32 fields[4];
+	int i;
+
+	fields[0] = (bpf_u_int32)header->ts.tv_sec;
+	fields[1] = (bpf_u_int32)header->ts.tv_usec;
+	fields[2] = header->caplen;
+	fields[3] = header->len;
+
+	// big endian, the default byte order of java.nio.ByteBuffer
+	for(i=0; i<4; i++) {
+		p[i*4] = (u_char)(fields[i] >> 24);
+		p[i*4+1] = (u_char)(fields[i] >> 16);
+		p[i*4+2] = (u_char)(fields[i] >> 8);
+		p[i*4+3] = (u_char)fields[i];
+	}
+
+	memcpy(p + RECORD_HEADER_LENGTH, data, header->caplen);
+}
+
 #if defined(__linux__) || defined (__APPLE__)
 int GetTickCount() {
 	struct timeval tv;
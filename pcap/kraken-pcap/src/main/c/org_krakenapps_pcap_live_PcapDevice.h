@@ -41,6 +41,14 @@ JNIEXPORT jobjectArray JNICALL Java_org_krakenapps_pcap_live_PcapDevice_getDevic
 JNIEXPORT void JNICALL Java_org_krakenapps_pcap_live_PcapDevice_open
   (JNIEnv *, jobject, jint, jstring, jint, jboolean, jint);
 	
+/*
+ * Class:     org_krakenapps_pcap_live_PcapDevice
+ * Method:    openOffline
+ * Signature: (ILjava/lang/String;)V
+ */
+JNIEXPORT void JNICALL Java_org_krakenapps_pcap_live_PcapDevice_openOffline
+  (JNIEnv *, jobject, jint, jstring);
+
 /*
  * Class:     org_krakenapps_pcap_live_PcapDeviceInputStream
  * Method:    getPacket
@@ -49,6 +57,22 @@ JNIEXPORT void JNICALL Java_org_krakenapps_pcap_live_PcapDevice_open
 JNIEXPORT jobject JNICALL Java_org_krakenapps_pcap_live_PcapDevice_getPacket
   (JNIEnv *, jobject, jint);
 
+/*
+ * Class:     org_krakenapps_pcap_live_PcapDevice
+ * Method:    pollPacket
+ * Signature: (I)Lorg/krakenapps/pcap/packet/PcapPacket;
+ */
+JNIEXPORT jobject JNICALL Java_org_krakenapps_pcap_live_PcapDevice_pollPacket
+  (JNIEnv *, jobject, jint);
+
+/*
+ * Class:     org_krakenapps_pcap_live_PcapDevice
+ * Method:    getPackets
+ * Signature: (ILjava/nio/ByteBuffer;III)I
+ */
+JNIEXPORT jint JNICALL Java_org_krakenapps_pcap_live_PcapDevice_getPackets
+  (JNIEnv *, jobject, jint, jobject, jint, jint, jint);
+
 /*
  * Class:     org_krakenapps_pcap_live_PcapDevice
  * Method:    write
@@ -57,6 +81,14 @@ JNIEXPORT jobject JNICALL Java_org_krakenapps_pcap_live_PcapDevice_getPacket
 JNIEXPORT void JNICALL Java_org_krakenapps_pcap_live_PcapDevice_write
   (JNIEnv *, jobject, jint, jbyteArray, jint, jint);
 
+/*
+ * Class:     org_krakenapps_pcap_live_PcapDevice
+ * Method:    writePackets
+ * Signature: (I[B[II)I
+ */
+JNIEXPORT jint JNICALL Java_org_krakenapps_pcap_live_PcapDevice_writePackets
+  (JNIEnv *, jobject, jint, jbyteArray, jintArray, jint);
+
 /*
  * Class:     org_krakenapps_pcap_live_PcapDevice
  * Method:    setNonblock
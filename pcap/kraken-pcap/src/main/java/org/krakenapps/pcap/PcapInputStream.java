@@ -15,6 +15,7 @@
  */
 package org.krakenapps.pcap;
 
+import java.io.EOFException;
 import java.io.IOException;
 
 import org.krakenapps.pcap.packet.PcapPacket;
@@ -26,9 +27,30 @@ import org.krakenapps.pcap.packet.PcapPacket;
 public interface PcapInputStream {
 	/**
 	 * Reads a packet from stream.
+	 * 
+	 * @throws EOFException
+	 *             if the stream reached the end
 	 */
 	PcapPacket getPacket() throws IOException;
 
+	/**
+	 * Reads a packet without throwing exception at timeout or end of stream,
+	 * so idle and end of file paths are cheap.
+	 * 
+	 * @param timeout
+	 *            the max milliseconds to wait for a packet, ignored by file
+	 *            streams
+	 * @return the packet, or null if timeout elapsed or the stream reached the
+	 *         end. Use isEndOfStream() to tell them apart.
+	 */
+	PcapPacket poll(int timeout) throws IOException;
+
+	/**
+	 * Returns true if the stream reached the end, and no more packet will be
+	 * read.
+	 */
+	boolean isEndOfStream();
+
 	/**
 	 * Closes the packet input stream
 	 */
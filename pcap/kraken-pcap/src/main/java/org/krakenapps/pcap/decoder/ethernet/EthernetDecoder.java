@@ -94,7 +94,14 @@ public class EthernetDecoder {
 		if (processors == null)
 			return;
 
-		for (EthernetProcessor processor : processors)
-			processor.process(frame.dup());
+		for (EthernetProcessor processor : processors) {
+			// each processor gets its own copy, which holds pooled block
+			EthernetFrame dup = frame.dup();
+			try {
+				processor.process(dup);
+			} finally {
+				dup.getData().release();
+			}
+		}
 	}
 }
\ No newline at end of file
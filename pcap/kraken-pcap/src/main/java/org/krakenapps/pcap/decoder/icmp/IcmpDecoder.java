@@ -57,10 +57,14 @@ public class IcmpDecoder implements IpProcessor {
 
 		/* manipulate icmp packet from outside */
 		for (IcmpProcessor callback : callbacks) {
+			IcmpPacket dup = new IcmpPacket(p);
 			try {
-				callback.process(new IcmpPacket(p));
+				callback.process(dup);
 			} catch (Exception e) {
 				e.printStackTrace();
+			} finally {
+				if (dup.getData() != null)
+					dup.getData().release();
 			}
 		}
 		
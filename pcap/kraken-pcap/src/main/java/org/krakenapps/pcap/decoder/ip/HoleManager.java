@@ -15,80 +15,223 @@
  */
 package org.krakenapps.pcap.decoder.ip;
 
-import java.nio.ByteBuffer;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.ChainBuffer;
 
 /**
+ * HoleManager tracks missing ranges of a fragmented datagram with the hole
+ * descriptor list of RFC 815. Received data is kept as slices of fragment
+ * buffers in offset order, without copy, and they are chained when the last
+ * hole is filled.
+ * 
  * @author mindori
  */
 public class HoleManager {
-	private int first = 0;
+	/**
+	 * Max payload length of reassembled datagram.
+	 */
+	public static final int MAX_LENGTH = 65535;
+
+	/* sorted by offset, and never adjacent */
+	private final LinkedList<Hole> holes;
+
+	/* slices of received data by offset, never overlapped */
+	private final TreeMap<Integer, Buffer> pieces;
+
 	private int goal = -1;
-	
-	private Map<Integer, Byte> list;
-	private ByteBuffer reassembled;
-	
+	private int bytes;
+
 	public HoleManager() {
-		list = new HashMap<Integer, Byte>();
-		reassembled = ByteBuffer.allocate(65515);
-	}
-	
-	public int getFirst() {
-		return first;
+		holes = new LinkedList<Hole>();
+		holes.add(new Hole(0, MAX_LENGTH - 1));
+		pieces = new TreeMap<Integer, Buffer>();
 	}
-	
+
+	/**
+	 * Returns the payload length, or -1 if the last fragment is not received.
+	 */
 	public int getGoal() {
 		return goal;
 	}
-	
-	public void setGoal(int goal) {
-		/* fragment's MF == 0 */
-		this.goal = goal;
+
+	/**
+	 * Returns the number of bytes held by received slices.
+	 */
+	public int getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Returns false if the fragment conflicts with the length of datagram.
+	 */
+	public boolean isValid(int offset, int length, boolean more) {
+		int end = offset + length;
+		if (length <= 0 || end > MAX_LENGTH)
+			return false;
+
+		// only the last fragment can have length which is not multiple of 8
+		if (more && (length & 7) != 0)
+			return false;
+
+		if (goal != -1)
+			return more ? end < goal : end == goal;
+
+		if (!more && !pieces.isEmpty()) {
+			Map.Entry<Integer, Buffer> last = pieces.lastEntry();
+			return last.getKey() + last.getValue().getCapacity() <= end;
+		}
+		return true;
 	}
 
-	public ByteBuffer getReassembled() {
-		return reassembled;
+	/**
+	 * Returns the number of bytes in the range which are already received.
+	 */
+	public int overlap(int offset, int length) {
+		int last = offset + length - 1;
+		int missing = 0;
+		for (Hole h : holes) {
+			if (h.first > last)
+				break;
+			if (h.last < offset)
+				continue;
+
+			missing += Math.min(last, h.last) - Math.max(offset, h.first) + 1;
+		}
+		return length - missing;
 	}
-	
-	public void put(Buffer data, int offset, int length) {
-		byte[] b = new byte[length];
-		data.gets(b, 0, length);
-		
-		for(int i = 0; i < length; i++) { 
-			list.put(i + offset, b[i]);
+
+	/**
+	 * Puts the fragment, which starts at current position of data. Data is
+	 * referenced, and position of data is not changed.
+	 * 
+	 * @param keepFirst
+	 *            true if bytes received earlier are kept on overlap, false if
+	 *            they are replaced by this fragment
+	 */
+	public void put(Buffer data, int offset, int length, boolean more, boolean keepFirst) {
+		int start = data.position();
+		int last = offset + length - 1;
+
+		if (!keepFirst) {
+			trim(offset, last);
+			addPiece(data, start, 0, offset, length);
 		}
-	}	
-	
-	public boolean isFlush(int offset, int length) { 
-		if(offset == first) {
-			return true;
+
+		ListIterator<Hole> it = holes.listIterator();
+		while (it.hasNext()) {
+			Hole h = it.next();
+			if (h.last < offset)
+				continue;
+
+			if (h.first > last) {
+				if (more)
+					break;
+
+				// no data after the last fragment
+				it.remove();
+				continue;
+			}
+
+			it.remove();
+			if (keepFirst) {
+				int from = Math.max(offset, h.first);
+				addPiece(data, start, from - offset, from, Math.min(last, h.last) - from + 1);
+			}
+
+			if (h.first < offset)
+				it.add(new Hole(h.first, offset - 1));
+			if (h.last > last && more)
+				it.add(new Hole(last + 1, h.last));
 		}
-		else if(offset < first && (offset + length) > first) { 
-			return true;
+
+		if (!more)
+			goal = offset + length;
+
+		data.position(start);
+	}
+
+	public boolean isReassemble() {
+		return holes.isEmpty();
+	}
+
+	/**
+	 * Chains received slices in order. References of slices are moved to the
+	 * returned buffer.
+	 */
+	public Buffer getReassembled() {
+		Buffer data = new ChainBuffer();
+		for (Buffer piece : pieces.values()) {
+			data.addLast(piece);
+			piece.release();
 		}
-		return false;
+
+		pieces.clear();
+		bytes = 0;
+		return data;
+	}
+
+	/**
+	 * Releases all received slices.
+	 */
+	public void release() {
+		for (Buffer piece : pieces.values())
+			piece.release();
+
+		pieces.clear();
+		bytes = 0;
 	}
-	
-	public void flush(Buffer data) {
-		/* start: hole.first, end: until find empty hole */
-		Byte b;
-		int length = 0;
-		int offset = first;
-		
-		while((b = list.get(offset)) != null) { 
-			reassembled.put(b);
-			offset++;
-			length++;
+
+	private void addPiece(Buffer data, int start, int skip, int offset, int length) {
+		data.position(start + skip);
+		Buffer piece = new ChainBuffer();
+		piece.addLast(data, length);
+		pieces.put(offset, piece);
+		bytes += length;
+	}
+
+	/* cuts out the range from received slices */
+	private void trim(int offset, int last) {
+		Integer from = pieces.floorKey(offset);
+		if (from == null)
+			from = offset;
+
+		List<Map.Entry<Integer, Buffer>> overlapped = new ArrayList<Map.Entry<Integer, Buffer>>(pieces.subMap(
+				from, true, last, true).entrySet());
+
+		for (Map.Entry<Integer, Buffer> e : overlapped) {
+			int pieceOffset = e.getKey();
+			Buffer piece = e.getValue();
+			int pieceLength = piece.getCapacity();
+			int pieceLast = pieceOffset + pieceLength - 1;
+			if (pieceLast < offset)
+				continue;
+
+			pieces.remove(pieceOffset);
+			bytes -= pieceLength;
+
+			if (pieceOffset < offset)
+				addPiece(piece, 0, 0, pieceOffset, offset - pieceOffset);
+			if (pieceLast > last)
+				addPiece(piece, 0, last + 1 - pieceOffset, last + 1, pieceLast - last);
+
+			piece.release();
 		}
-		first += length;
 	}
-	
-	public boolean isReassemble() { 
-		if(first == goal && goal != -1)
-			return true;
-		return false;
+
+	private static class Hole {
+		private final int first;
+		private final int last;
+
+		public Hole(int first, int last) {
+			this.first = first;
+			this.last = last;
+		}
 	}
 }
\ No newline at end of file
@@ -38,6 +38,18 @@ public class IpDecoder implements EthernetProcessor {
 		callbacks = new HashMap<Integer, Set<IpProcessor>>();
 	}
 
+	public IpReassembler getReassembler() {
+		return reassembler;
+	}
+
+	/**
+	 * Replaces the fragment reassembler, so IPv4 and IPv6 decoders can share
+	 * the byte budget.
+	 */
+	public void setReassembler(IpReassembler reassembler) {
+		this.reassembler = reassembler;
+	}
+
 	public void register(int protocol, IpProcessor processor) {
 		Set<IpProcessor> processors = callbacks.get(protocol);
 		if (processors == null) {
@@ -73,7 +85,6 @@ public class IpDecoder implements EthernetProcessor {
 				dispatch(reassembled);
 			}
 		}
-		reassembler.drop();
 	}
 
 	private void dispatch(Ipv4Packet packet) {
@@ -15,29 +15,92 @@
  */
 package org.krakenapps.pcap.decoder.ip;
 
-import java.nio.ByteBuffer;
-import java.util.Comparator;
+import java.net.InetAddress;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.PriorityQueue;
 
 import org.krakenapps.pcap.decoder.ethernet.EthernetFrame;
+import org.krakenapps.pcap.decoder.ipv6.Ipv6Packet;
 import org.krakenapps.pcap.packet.PcapPacket;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ChainBuffer;
+import org.krakenapps.pcap.util.TimerWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
+ * IpReassembler collects fragments of IPv4 and IPv6 datagrams by source,
+ * destination, protocol and id. Fragment data is referenced, not copied, and
+ * total referenced bytes are bounded by the byte budget and by the limit of
+ * each source address. When the budget is exceeded, the oldest datagrams are
+ * dropped first. A datagram which is not completed in drop timeout since its
+ * first fragment is dropped by the timer wheel, measured in packet time. The
+ * wheel can be shared with other decoders of the chain, and then the owner of
+ * the chain advances it.
+ * 
+ * Overlapped IPv4 fragments are handled by the overlap policy. IPv6 datagram
+ * with overlapped fragments is always dropped as required by RFC 5722.
+ * 
  * @author mindori
  */
 public class IpReassembler {
-	private Map<Integer, HoleManagerWrapper> lmap;
-	private PriorityQueue<HoleManagerWrapper> wrapper;
+	public enum OverlapPolicy {
+		/**
+		 * Keeps bytes received earlier, like BSD and Windows stacks.
+		 */
+		First,
+
+		/**
+		 * Replaces bytes received earlier with the later fragment.
+		 */
+		Last,
+
+		/**
+		 * Drops the whole datagram.
+		 */
+		Drop
+	}
+
+	private static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+	private static final int DEFAULT_MAX_SOURCE_BYTES = 1024 * 1024;
+
+	private final Logger logger = LoggerFactory.getLogger(IpReassembler.class.getName());
+
+	/* in order of the first fragment, so the oldest one comes first */
+	private Map<FragmentKey, Datagram> datagrams;
+	private Map<InetAddress, Integer> sourceBytes;
+
 	private int dropTimeout;
+	private int maxBytes;
+	private int maxSourceBytes;
+	private OverlapPolicy overlapPolicy;
+
+	private TimerWheel timers;
+
+	/* true if the wheel is advanced with time of each fragment */
+	private boolean ownTimers;
+
+	// written by decoder thread, read by metrics
+	private volatile int bytes;
+	private volatile int count;
+	private volatile long fragments;
+	private volatile long reassembled;
+	private volatile long overlaps;
+	private volatile long timeouts;
+	private volatile long budgetDrops;
+	private volatile long sourceDrops;
+	private volatile long invalid;
 
 	public IpReassembler() {
-		this.lmap = new HashMap<Integer, HoleManagerWrapper>();
-		this.wrapper = new PriorityQueue<IpReassembler.HoleManagerWrapper>(11, new HoleManagerWrapperComparator());
+		this.datagrams = new LinkedHashMap<FragmentKey, Datagram>();
+		this.sourceBytes = new HashMap<InetAddress, Integer>();
 		this.dropTimeout = 30000;
+		this.maxBytes = DEFAULT_MAX_BYTES;
+		this.maxSourceBytes = DEFAULT_MAX_SOURCE_BYTES;
+		this.overlapPolicy = OverlapPolicy.First;
+		this.timers = new TimerWheel();
+		this.ownTimers = true;
 	}
 
 	public int getDropTimeout() {
@@ -48,96 +111,409 @@ public class IpReassembler {
 		this.dropTimeout = dropTimeout;
 	}
 
-	public Ipv4Packet tryReassemble(Ipv4Packet fragment) {
-		/* check HoleDescriptor */
-		int id = fragment.getId();
-		if (!lmap.containsKey(id)) {
-			HoleManagerWrapper t = new HoleManagerWrapper(id, new HoleManager());
-			lmap.put(id, t);
-			wrapper.add(t);
+	public int getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Sets the max bytes of fragments held by all incomplete datagrams.
+	 */
+	public void setMaxBytes(int maxBytes) {
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("max bytes should be positive");
+
+		this.maxBytes = maxBytes;
+	}
+
+	public int getMaxSourceBytes() {
+		return maxSourceBytes;
+	}
+
+	/**
+	 * Sets the max bytes of fragments held for each source address, so single
+	 * source cannot occupy the whole budget.
+	 */
+	public void setMaxSourceBytes(int maxSourceBytes) {
+		if (maxSourceBytes <= 0)
+			throw new IllegalArgumentException("max source bytes should be positive");
+
+		this.maxSourceBytes = maxSourceBytes;
+	}
+
+	public OverlapPolicy getOverlapPolicy() {
+		return overlapPolicy;
+	}
+
+	/**
+	 * Sets the overlap policy of IPv4 fragments.
+	 */
+	public void setOverlapPolicy(OverlapPolicy overlapPolicy) {
+		if (overlapPolicy == null)
+			throw new IllegalArgumentException("overlap policy should not be null");
+
+		this.overlapPolicy = overlapPolicy;
+	}
+
+	public TimerWheel getTimerWheel() {
+		return timers;
+	}
+
+	/**
+	 * Sets the shared timer wheel. The caller should advance the wheel, since
+	 * reassembler does not advance shared wheel by itself. Pending datagrams
+	 * are moved to the new wheel with their remaining time.
+	 */
+	public void setTimerWheel(TimerWheel timers) {
+		if (timers == null)
+			throw new IllegalArgumentException("timer wheel should not be null");
+
+		for (Datagram d : datagrams.values()) {
+			long delay = this.timers.getDelay(d);
+			this.timers.cancel(d);
+			timers.schedule(d, delay >= 0 ? delay : dropTimeout);
 		}
 
-		HoleManagerWrapper t = lmap.get(id);
-		t.setTime(((EthernetFrame) fragment.getL2Frame()).getPcapPacket());
-		HoleManager h = t.getManager();
+		this.timers = timers;
+		this.ownTimers = false;
+	}
+
+	public Ipv4Packet tryReassemble(Ipv4Packet fragment) {
 		int offset = fragment.getFragmentOffset() * 8;
 		int length = fragment.getTotalLength() - fragment.getIhl();
-		Buffer data = fragment.getData();
+		boolean more = (fragment.getFlags() & 0x01) != 0;
+
+		FragmentKey key = new FragmentKey(fragment.getSourceAddress(), fragment.getDestinationAddress(),
+				fragment.getProtocol(), fragment.getId());
+		Buffer data = put(key, fragment.getL2Frame(), fragment.getData(), offset, length, more, overlapPolicy);
+		if (data == null)
+			return null;
+
+		return Ipv4Packet.makeReassembled(fragment, data, fragment.getIhl() + data.readableBytes());
+	}
+
+	/**
+	 * Reassembles IPv6 fragment. Data of the fragment should start after the
+	 * fragment header.
+	 * 
+	 * @param nextHeader
+	 *            the next header of the fragment header
+	 * @param id
+	 *            the identification of the fragment header
+	 * @param offset
+	 *            the fragment offset in bytes
+	 * @param length
+	 *            the length of fragmentable part in this fragment
+	 * @param more
+	 *            the M flag of the fragment header
+	 * @return the reassembled packet, or null if datagram is not completed
+	 */
+	public Ipv6Packet tryReassemble(Ipv6Packet fragment, int nextHeader, int id, int offset, int length, boolean more) {
+		FragmentKey key = new FragmentKey(fragment.getSourceAddress(), fragment.getDestinationAddress(), nextHeader,
+				id);
+		Buffer data = put(key, fragment.getL2Frame(), fragment.getData(), offset, length, more, OverlapPolicy.Drop);
+		if (data == null)
+			return null;
 
-		/* check MF == 0 */
-		if (fragment.getFlags() == 0) {
-			int goal = offset + length;
-			h.setGoal(goal);
+		Ipv6Packet p = new Ipv6Packet();
+		p.setL2Frame(fragment.getL2Frame());
+		p.setTrafficClass(fragment.getTrafficClass());
+		p.setFlowLabel(fragment.getFlowLabel());
+		p.setPayloadLength(data.readableBytes());
+		p.setNextHeader((byte) nextHeader);
+		p.setHopLimit(fragment.getHopLimit());
+		p.setSource(fragment.getSourceAddress());
+		p.setDestination(fragment.getDestinationAddress());
+		p.setData(data);
+		return p;
+	}
+
+	private Buffer put(FragmentKey key, Object l2Frame, Buffer data, int offset, int length, boolean more,
+			OverlapPolicy policy) {
+		fragments++;
+		if (ownTimers)
+			timers.advance(getTime(l2Frame));
+
+		Datagram d = datagrams.get(key);
+		if (d == null) {
+			d = new Datagram(key);
+			datagrams.put(key, d);
+			count = datagrams.size();
+			timers.schedule(d, dropTimeout);
 		}
 
-		/* put data */
-		h.put(data, offset, length);
+		HoleManager h = d.manager;
+		if (data.readableBytes() < length || !h.isValid(offset, length, more)) {
+			invalid++;
+			discard(d, "invalid fragment");
+			return null;
+		}
 
-		/* check flush */
-		if (h.isFlush(offset, length)) {
-			h.flush(data);
-		} else
+		int overlap = h.overlap(offset, length);
+		if (overlap > 0) {
+			overlaps++;
+			if (policy == OverlapPolicy.Drop) {
+				discard(d, "overlapped fragment");
+				return null;
+			}
+		}
+
+		// both policies hold the union of received ranges
+		int growth = length - overlap;
+		if (getSourceBytes(key.source) + growth > maxSourceBytes) {
+			sourceDrops++;
+			discard(d, "source limit exceeded");
+			return null;
+		}
+
+		if (!reserve(d, growth)) {
+			budgetDrops++;
+			discard(d, "budget exceeded");
 			return null;
+		}
+
+		h.put(data, offset, length, more, policy != OverlapPolicy.Last);
+		account(key.source, growth);
 
-		if (h.isReassemble()) {
-			ByteBuffer b = h.getReassembled();
-			b.position(0);
-			return reassemble(fragment, b, h.getGoal());
-		} else
+		if (!h.isReassemble())
 			return null;
+
+		datagrams.remove(key);
+		timers.cancel(d);
+		count = datagrams.size();
+		account(key.source, -h.getBytes());
+		reassembled++;
+		return h.getReassembled();
 	}
 
-	public void drop() {
-		long now = System.currentTimeMillis();
-		while (!wrapper.isEmpty() && now - wrapper.peek().getTime() > dropTimeout)
-			lmap.remove(wrapper.poll().getId());
+	/* drops the oldest datagrams except the current one, until growth fits */
+	private boolean reserve(Datagram current, int growth) {
+		Iterator<Datagram> it = datagrams.values().iterator();
+		while (bytes + growth > maxBytes && it.hasNext()) {
+			Datagram d = it.next();
+			if (d == current)
+				continue;
+
+			it.remove();
+			release(d);
+			budgetDrops++;
+
+			if (logger.isDebugEnabled())
+				logger.debug("kraken-pcap: fragment budget exceeded, evicted {}", d.key);
+		}
+
+		return bytes + growth <= maxBytes;
 	}
 
-	private Ipv4Packet reassemble(Ipv4Packet fragment, ByteBuffer reassembled, int goal) {
-		byte[] b = new byte[goal];
-		reassembled.get(b, 0, goal);
+	private void discard(Datagram d, String reason) {
+		datagrams.remove(d.key);
+		release(d);
 
-		Buffer data = new ChainBuffer();
-		data.addLast(b);
+		if (logger.isDebugEnabled())
+			logger.debug("kraken-pcap: {}, dropped {}", reason, d.key);
+	}
 
-		int tl = fragment.getIhl() + goal;
-		Ipv4Packet p = Ipv4Packet.makeReassembled(fragment, data, tl);
+	private void release(Datagram d) {
+		timers.cancel(d);
+		account(d.key.source, -d.manager.getBytes());
+		d.manager.release();
+		count = datagrams.size();
+	}
 
-		return p;
+	private int getSourceBytes(InetAddress source) {
+		Integer n = sourceBytes.get(source);
+		return n != null ? n : 0;
+	}
+
+	private void account(InetAddress source, int delta) {
+		if (delta == 0)
+			return;
+
+		int n = getSourceBytes(source) + delta;
+		if (n > 0)
+			sourceBytes.put(source, n);
+		else
+			sourceBytes.remove(source);
+
+		bytes += delta;
+	}
+
+	/* packet time, or wall clock if the frame does not carry it */
+	private long getTime(Object l2Frame) {
+		if (l2Frame instanceof EthernetFrame && ((EthernetFrame) l2Frame).getPcapPacket() != null) {
+			PcapPacket packet = ((EthernetFrame) l2Frame).getPcapPacket();
+			return packet.getPacketHeader().getTsSec() * 1000L + packet.getPacketHeader().getTsUsec() / 1000;
+		}
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Returns bytes of fragments held by incomplete datagrams.
+	 */
+	public int getBytes() {
+		return bytes;
 	}
 
-	private class HoleManagerWrapper {
-		private int id;
-		private HoleManager manager;
-		private long time;
+	/**
+	 * Returns the number of incomplete datagrams.
+	 */
+	public int getDatagramCount() {
+		return count;
+	}
+
+	public Statistics getStatistics() {
+		return new Statistics(this);
+	}
 
-		public HoleManagerWrapper(int id, HoleManager manager) {
+	private static class FragmentKey {
+		private final InetAddress source;
+		private final InetAddress destination;
+		private final int protocol;
+		private final int id;
+
+		public FragmentKey(InetAddress source, InetAddress destination, int protocol, int id) {
+			this.source = source;
+			this.destination = destination;
+			this.protocol = protocol;
 			this.id = id;
-			this.manager = manager;
 		}
 
-		public int getId() {
-			return id;
+		@Override
+		public int hashCode() {
+			return ((source.hashCode() * 31 + destination.hashCode()) * 31 + protocol) * 31 + id;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof FragmentKey))
+				return false;
+
+			FragmentKey o = (FragmentKey) obj;
+			return id == o.id && protocol == o.protocol && source.equals(o.source) && destination.equals(o.destination);
 		}
 
-		public long getTime() {
-			return time;
+		@Override
+		public String toString() {
+			return String.format("src=%s, dst=%s, proto=%d, id=%d", source.getHostAddress(),
+					destination.getHostAddress(), protocol, id & 0xffffffffL);
 		}
+	}
 
-		public void setTime(PcapPacket packet) {
-			this.time = ((long) (packet.getPacketHeader().getTsSec())) * 1000;
-			this.time += packet.getPacketHeader().getTsUsec() / 1000;
+	/* expires in drop timeout since the first fragment */
+	private class Datagram extends TimerWheel.Timer {
+		private final FragmentKey key;
+		private final HoleManager manager;
+
+		public Datagram(FragmentKey key) {
+			this.key = key;
+			this.manager = new HoleManager();
 		}
 
-		public HoleManager getManager() {
-			return manager;
+		@Override
+		protected void onExpire() {
+			datagrams.remove(key);
+			release(this);
+			timeouts++;
+
+			if (logger.isDebugEnabled())
+				logger.debug("kraken-pcap: fragment timeout, {}", key);
 		}
 	}
 
-	private class HoleManagerWrapperComparator implements Comparator<HoleManagerWrapper> {
+	/**
+	 * Snapshot of reassembly counters.
+	 */
+	public static class Statistics {
+		private final int bytes;
+		private final int datagrams;
+		private final long fragments;
+		private final long reassembled;
+		private final long overlaps;
+		private final long timeouts;
+		private final long budgetDrops;
+		private final long sourceDrops;
+		private final long invalid;
+
+		private Statistics(IpReassembler r) {
+			this.bytes = r.bytes;
+			this.datagrams = r.count;
+			this.fragments = r.fragments;
+			this.reassembled = r.reassembled;
+			this.overlaps = r.overlaps;
+			this.timeouts = r.timeouts;
+			this.budgetDrops = r.budgetDrops;
+			this.sourceDrops = r.sourceDrops;
+			this.invalid = r.invalid;
+		}
+
+		/**
+		 * Returns bytes of fragments held by incomplete datagrams.
+		 */
+		public int getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * Returns the number of incomplete datagrams.
+		 */
+		public int getDatagrams() {
+			return datagrams;
+		}
+
+		public long getFragments() {
+			return fragments;
+		}
+
+		/**
+		 * Returns the number of completed datagrams.
+		 */
+		public long getReassembled() {
+			return reassembled;
+		}
+
+		/**
+		 * Returns the number of fragments which overlap received bytes,
+		 * including retransmissions.
+		 */
+		public long getOverlaps() {
+			return overlaps;
+		}
+
+		/**
+		 * Returns the number of datagrams dropped by timeout.
+		 */
+		public long getTimeouts() {
+			return timeouts;
+		}
+
+		/**
+		 * Returns the number of datagrams dropped because the byte budget was
+		 * exceeded, including evicted old datagrams.
+		 */
+		public long getBudgetDrops() {
+			return budgetDrops;
+		}
+
+		/**
+		 * Returns the number of datagrams dropped by the limit of source
+		 * address.
+		 */
+		public long getSourceDrops() {
+			return sourceDrops;
+		}
+
+		/**
+		 * Returns the number of datagrams dropped by inconsistent fragment
+		 * offset or length.
+		 */
+		public long getInvalid() {
+			return invalid;
+		}
+
 		@Override
-		public int compare(HoleManagerWrapper o1, HoleManagerWrapper o2) {
-			return (int) (o1.getTime() - o2.getTime());
+		public String toString() {
+			return String.format("bytes=%d, datagrams=%d, fragments=%d, reassembled=%d, overlaps=%d, timeouts=%d, "
+					+ "budget drops=%d, source drops=%d, invalid=%d", bytes, datagrams, fragments, reassembled,
+					overlaps, timeouts, budgetDrops, sourceDrops, invalid);
 		}
 	}
 }
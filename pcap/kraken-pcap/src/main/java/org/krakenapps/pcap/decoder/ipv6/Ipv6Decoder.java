@@ -24,12 +24,29 @@ import java.util.Set;
 
 import org.krakenapps.pcap.decoder.ethernet.EthernetFrame;
 import org.krakenapps.pcap.decoder.ethernet.EthernetProcessor;
+import org.krakenapps.pcap.decoder.ip.IpReassembler;
 import org.krakenapps.pcap.util.Buffer;
 /**
  * @author xeraph
  */
 public class Ipv6Decoder implements EthernetProcessor {
+	private static final byte FRAGMENT_HEADER = 44;
+	private static final int FRAGMENT_HEADER_LENGTH = 8;
+
 	private Map<Byte, Set<Ipv6Processor>> callbackMap = new HashMap<Byte, Set<Ipv6Processor>>();
+	private IpReassembler reassembler = new IpReassembler();
+
+	public IpReassembler getReassembler() {
+		return reassembler;
+	}
+
+	/**
+	 * Replaces the fragment reassembler, so IPv4 and IPv6 decoders can share
+	 * the byte budget.
+	 */
+	public void setReassembler(IpReassembler reassembler) {
+		this.reassembler = reassembler;
+	}
 
 	public void register(int nextHeader, Ipv6Processor callback) {
 		byte next = (byte) nextHeader;
@@ -98,6 +115,16 @@ public class Ipv6Decoder implements EthernetProcessor {
 		data.discardReadBytes();
 		p.setData(data);
 
+		// fragment header should follow fixed header, other extension headers
+		// are not parsed yet
+		if (nextHeader == FRAGMENT_HEADER) {
+			p = reassemble(p);
+			if (p == null)
+				return;
+
+			nextHeader = p.getNextHeader();
+		}
+
 		Set<Ipv6Processor> set = callbackMap.get(nextHeader);
 		if (set == null)
 			return;
@@ -110,4 +137,29 @@ public class Ipv6Decoder implements EthernetProcessor {
 			}
 		}
 	}
+
+	private Ipv6Packet reassemble(Ipv6Packet p) {
+		Buffer data = p.getData();
+		if (data.readableBytes() < FRAGMENT_HEADER_LENGTH)
+			return null;
+
+		int nextHeader = data.get() & 0xff;
+		data.get(); // reserved
+		int offsetAndFlags = data.getUnsignedShort();
+		int id = data.getInt();
+		data.discardReadBytes();
+
+		int offset = offsetAndFlags & 0xfff8;
+		boolean more = (offsetAndFlags & 0x01) != 0;
+		int length = p.getPayloadLength() - FRAGMENT_HEADER_LENGTH;
+
+		// atomic fragment is processed like unfragmented packet (RFC 6946)
+		if (offset == 0 && !more) {
+			p.setNextHeader((byte) nextHeader);
+			p.setPayloadLength(length);
+			return p;
+		}
+
+		return reassembler.tryReassemble(p, nextHeader, id, offset, length, more);
+	}
 }
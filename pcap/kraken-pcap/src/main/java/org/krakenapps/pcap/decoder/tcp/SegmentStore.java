@@ -0,0 +1,343 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.decoder.tcp;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.krakenapps.pcap.util.Buffer;
+
+/**
+ * SegmentStore keeps out of order segments of one direction until the gap is
+ * filled, ordered by relative sequence number. Segments of same sequence
+ * number are kept in arrival order, so control segments without payload are
+ * handled in order.
+ * 
+ * Payload ranges never overlap in the store. On insert, retransmission of
+ * delivered bytes is dropped, and overlapped bytes are trimmed from the new
+ * segment, except that queued segments which are fully covered by the new one
+ * are replaced. Insert is O(log n), and the first segment is cached, so
+ * checking the next contiguous segment is O(1).
+ * 
+ * Stored segment holds a reference of its data, since the packet buffer is
+ * released after decode if it is pooled. When buffered bytes exceed the max
+ * bytes, the caller can skip the gap before the first segment, so a lost
+ * segment does not hold the whole window.
+ * 
+ * Stores of a session table can share a byte counter, which is adjusted on
+ * every change, so total buffered bytes are read without walking sessions.
+ * 
+ * @author mindori
+ */
+public class SegmentStore {
+	private static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+
+	/* by sequence number in upper 32 bits, and arrival serial in lower */
+	private final TreeMap<Long, Segment> segments;
+	private Segment first;
+	private int serial;
+	private int maxBytes;
+
+	// written by decoder thread, read by metrics
+	private volatile int bytes;
+
+	/* shared by stores of a session table */
+	private AtomicLong totalBytes;
+
+	public SegmentStore() {
+		segments = new TreeMap<Long, Segment>();
+		maxBytes = DEFAULT_MAX_BYTES;
+	}
+
+	public int getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Sets the max bytes of buffered payload, before the gap is skipped.
+	 */
+	public void setMaxBytes(int maxBytes) {
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("max bytes should be positive");
+
+		this.maxBytes = maxBytes;
+	}
+
+	public AtomicLong getTotalBytes() {
+		return totalBytes;
+	}
+
+	/**
+	 * Sets the counter of buffered payload shared with other stores, or null.
+	 * Current bytes of this store are moved to the new counter.
+	 */
+	public void setTotalBytes(AtomicLong totalBytes) {
+		if (this.totalBytes != null)
+			this.totalBytes.addAndGet(-bytes);
+		this.totalBytes = totalBytes;
+		if (totalBytes != null)
+			totalBytes.addAndGet(bytes);
+	}
+
+	/**
+	 * Stores the segment, and retains its data if the segment is kept.
+	 * 
+	 * @param next
+	 *            the relative sequence number of the next byte to deliver
+	 * @return false if the segment was dropped as retransmission or duplicate
+	 */
+	public boolean insert(TcpPacket packet, int next) {
+		int seq = packet.getRelativeSeq();
+		int length = getLength(packet);
+
+		if (length == 0) {
+			if (seq < next)
+				return false;
+
+			put(new Segment(packet, seq, 0));
+			return true;
+		}
+
+		int end = seq + length;
+		if (end <= next)
+			return false;
+
+		// bytes before the preceding segment end
+		int from = Math.max(seq, next);
+		Segment prev = floorData(from);
+		if (prev != null)
+			from = Math.max(from, prev.seq + prev.length);
+		if (from >= end)
+			return false;
+
+		// replace covered segments, and stop at partially overlapped one
+		int to = end;
+		Iterator<Segment> it = segments.tailMap(key(from, 0)).values().iterator();
+		while (it.hasNext()) {
+			Segment s = it.next();
+			if (s.seq >= to)
+				break;
+			if (s.length == 0)
+				continue;
+
+			if (s.seq + s.length <= end) {
+				it.remove();
+				addBytes(-s.length);
+				release(s);
+			} else {
+				to = s.seq;
+				break;
+			}
+		}
+
+		if (first != null && !segments.containsKey(first.key))
+			first = null;
+
+		if (from > seq)
+			packet.getData().skip(from - seq);
+		truncate(packet, to - from);
+
+		if (packet.getData() != null)
+			packet.getData().retain();
+
+		put(new Segment(packet, from, to - from));
+		return true;
+	}
+
+	/**
+	 * Returns the first segment without removing it.
+	 */
+	public TcpPacket peek() {
+		return first != null ? first.packet : null;
+	}
+
+	/**
+	 * Returns the relative sequence number of the first segment, or -1 if
+	 * store is empty.
+	 */
+	public int getFirstSeq() {
+		return first != null ? first.seq : -1;
+	}
+
+	/**
+	 * Removes the segment which starts at the next byte, without releasing its
+	 * data. Caller should release the data after use. Segments behind the next
+	 * byte are released, and the front of partially delivered segment is cut.
+	 * 
+	 * @return the next contiguous segment, or null if there is a gap
+	 */
+	public TcpPacket poll(int next) {
+		while (first != null) {
+			Segment s = first;
+			if (s.seq > next)
+				return null;
+
+			remove(s);
+
+			if (s.seq == next)
+				return s.packet;
+
+			if (s.seq + s.length > next) {
+				Buffer data = s.packet.getData();
+				data.skip(next - s.seq);
+				data.discardReadBytes();
+				return s.packet;
+			}
+
+			// already delivered
+			release(s);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the length of the gap before the first segment, if buffered
+	 * bytes exceed the max bytes. Caller skips the gap by moving the next byte
+	 * to the first segment.
+	 * 
+	 * @return the number of bytes to skip, or 0 if the gap should be kept
+	 */
+	public int getSkip(int next) {
+		if (bytes <= maxBytes || first == null || first.seq <= next)
+			return 0;
+
+		return first.seq - next;
+	}
+
+	/**
+	 * Drops bytes after the end of receive window.
+	 */
+	public void limit(int end) {
+		while (!segments.isEmpty()) {
+			Segment last = segments.lastEntry().getValue();
+			if (last.seq <= end)
+				break;
+
+			remove(last);
+			release(last);
+		}
+
+		Segment s = floorData(end);
+		if (s != null && s.seq + s.length > end) {
+			int length = end - s.seq;
+			truncate(s.packet, length);
+			addBytes(length - s.length);
+			s.length = length;
+		}
+	}
+
+	/**
+	 * Removes all segments and releases their data.
+	 */
+	public void clear() {
+		for (Segment s : segments.values())
+			release(s);
+
+		segments.clear();
+		first = null;
+		addBytes(-bytes);
+	}
+
+	public int size() {
+		return segments.size();
+	}
+
+	/**
+	 * Returns total payload length of buffered segments.
+	 */
+	public int getBytes() {
+		return bytes;
+	}
+
+	private void put(Segment s) {
+		s.key = key(s.seq, serial++);
+		segments.put(s.key, s);
+		addBytes(s.length);
+
+		if (first == null)
+			first = segments.firstEntry().getValue();
+		else if (s.key < first.key)
+			first = s;
+	}
+
+	private void remove(Segment s) {
+		segments.remove(s.key);
+		addBytes(-s.length);
+
+		if (s == first) {
+			Map.Entry<Long, Segment> e = segments.firstEntry();
+			first = e != null ? e.getValue() : null;
+		}
+	}
+
+	private void addBytes(int delta) {
+		if (delta == 0)
+			return;
+
+		bytes += delta;
+		if (totalBytes != null)
+			totalBytes.addAndGet(delta);
+	}
+
+	/* the last segment with payload which starts at or before seq */
+	private Segment floorData(int seq) {
+		for (Segment s : segments.headMap(key(seq, -1), true).descendingMap().values())
+			if (s.length > 0)
+				return s;
+		return null;
+	}
+
+	private static long key(int seq, int serial) {
+		return ((long) seq << 32) | (serial & 0xffffffffL);
+	}
+
+	private static int getLength(TcpPacket packet) {
+		Buffer data = packet.getData();
+		if (data == null)
+			return 0;
+		return Math.min(packet.getDataLength(), data.readableBytes());
+	}
+
+	/* limits payload to the length from current position */
+	private static void truncate(TcpPacket packet, int length) {
+		Buffer data = packet.getData();
+		data.discardReadBytes();
+		if (data.readableBytes() > length) {
+			data.skip(length);
+			data.flip();
+		}
+	}
+
+	private static void release(Segment s) {
+		if (s.packet.getData() != null)
+			s.packet.getData().release();
+	}
+
+	private static class Segment {
+		private final TcpPacket packet;
+		private final int seq;
+		private int length;
+		private long key;
+
+		public Segment(TcpPacket packet, int seq, int length) {
+			this.packet = packet;
+			this.seq = seq;
+			this.length = length;
+		}
+	}
+}
@@ -17,10 +17,13 @@ package org.krakenapps.pcap.decoder.tcp;
 
 import java.util.Collection;
 
+import org.krakenapps.pcap.decoder.ethernet.EthernetFrame;
 import org.krakenapps.pcap.decoder.ip.IpProcessor;
 import org.krakenapps.pcap.decoder.ip.Ipv4Packet;
 import org.krakenapps.pcap.decoder.ipv6.Ipv6Packet;
 import org.krakenapps.pcap.decoder.ipv6.Ipv6Processor;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.TimerWheel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,12 +35,32 @@ public class TcpDecoder implements IpProcessor, Ipv6Processor {
 
 	private TcpPacketHandler packetHandler;
 	private TcpSackHandler sackHandler;
+
+	/* true if the wheel is advanced with time of each segment */
+	private boolean ownTimers;
 	private final Logger logger = LoggerFactory.getLogger(TcpDecoder.class.getName());
 
 	public TcpDecoder(TcpProtocolMapper mapper) {
+		this(mapper, new TcpSessionTable(mapper));
+	}
+
+	/**
+	 * @param capacity
+	 *            the expected number of sessions
+	 * @param direct
+	 *            true if flow keys of session table are stored in direct
+	 *            memory
+	 */
+	public TcpDecoder(TcpProtocolMapper mapper, int capacity, boolean direct) {
+		this(mapper, new TcpSessionTable(mapper, capacity, direct));
+	}
+
+	private TcpDecoder(TcpProtocolMapper mapper, TcpSessionTable sessionTable) {
 		this.mapper = mapper;
+		this.sessionTable = sessionTable;
 		segmentCallbacks = new TcpSegmentCallbacks();
-		sessionTable = new TcpSessionTable(mapper);
+		sessionTable.setTimerWheel(new TimerWheel());
+		ownTimers = true;
 		flagHandler = new TcpFlagHandler(mapper);
 
 		packetHandler = new TcpPacketHandler();
@@ -52,6 +75,93 @@ public class TcpDecoder implements IpProcessor, Ipv6Processor {
 		return sessionTable.getCurrentSessions();
 	}
 
+	public int getSessionCount() {
+		return sessionTable.size();
+	}
+
+	/**
+	 * Returns payload bytes held for reassembly of out of order segments.
+	 */
+	public long getReassemblyBytes() {
+		return sessionTable.getQueuedBytes();
+	}
+
+	public TimerWheel getTimerWheel() {
+		return sessionTable.getTimerWheel();
+	}
+
+	/**
+	 * Sets the timer wheel shared with other decoders of the chain. The caller
+	 * should advance the wheel with packet time.
+	 */
+	public void setTimerWheel(TimerWheel timers) {
+		if (timers == null)
+			throw new IllegalArgumentException("timer wheel should not be null");
+
+		sessionTable.setTimerWheel(timers);
+		ownTimers = false;
+	}
+
+	public int getIdleTimeout(TcpState state) {
+		return sessionTable.getIdleTimeout(state);
+	}
+
+	/**
+	 * Sets the idle timeout of sessions in the state, in milliseconds.
+	 */
+	public void setIdleTimeout(TcpState state, int idleTimeout) {
+		sessionTable.setIdleTimeout(state, idleTimeout);
+	}
+
+	public int getMaxSessions() {
+		return sessionTable.getMaxSessions();
+	}
+
+	/**
+	 * Sets the max number of sessions. The least recently active session is
+	 * evicted when the table is full.
+	 */
+	public void setMaxSessions(int maxSessions) {
+		sessionTable.setMaxSessions(maxSessions);
+	}
+
+	/**
+	 * Returns the number of sessions dropped by idle timeout.
+	 */
+	public long getTimeouts() {
+		return sessionTable.getTimeouts();
+	}
+
+	/**
+	 * Returns the number of sessions evicted by the max session count.
+	 */
+	public long getOverflows() {
+		return sessionTable.getOverflows();
+	}
+
+	public int getMaxQueuedBytes() {
+		return sessionTable.getMaxQueuedBytes();
+	}
+
+	/**
+	 * Sets the max bytes of out of order segments buffered for each direction
+	 * of a session. The gap before buffered segments is skipped beyond that.
+	 */
+	public void setMaxQueuedBytes(int maxQueuedBytes) {
+		sessionTable.setMaxQueuedBytes(maxQueuedBytes);
+	}
+
+	/**
+	 * Returns the number of sequence gaps skipped by the max queued bytes.
+	 */
+	public long getGapSkips() {
+		return sessionTable.getGapSkips();
+	}
+
+	public TcpSessionTable.Statistics getSessionStatistics() {
+		return sessionTable.getStatistics();
+	}
+
 	public void registerSegmentCallback(TcpSegmentCallback callback) {
 		segmentCallbacks.register(callback);
 	}
@@ -91,6 +201,9 @@ public class TcpDecoder implements IpProcessor, Ipv6Processor {
 	}
 
 	private void handle(TcpPacket pkt) {
+		if (ownTimers)
+			sessionTable.getTimerWheel().advance(getTime(pkt));
+
 		/* get session */
 		TcpSessionImpl session = sessionTable.getSession(pkt.getSessionKey());
 		flagHandler.handle(sessionTable, session, pkt);
@@ -128,9 +241,22 @@ public class TcpDecoder implements IpProcessor, Ipv6Processor {
 		else
 			packetHandler.handle(sessionTable, session, pkt);
 
+		// timeout of the new state, if not closed by this segment
+		sessionTable.touch(session);
+
 		segmentCallbacks.fireReceiveCallbacks(session, pkt);
 	}
 
+	/* packet time, or wall clock if the frame does not carry it */
+	private long getTime(TcpPacket pkt) {
+		Object l2Frame = pkt.getIpPacket().getL2Frame();
+		if (l2Frame instanceof EthernetFrame && ((EthernetFrame) l2Frame).getPcapPacket() != null) {
+			PcapPacket packet = ((EthernetFrame) l2Frame).getPcapPacket();
+			return packet.getPacketHeader().getTsSec() * 1000L + packet.getPacketHeader().getTsUsec() / 1000;
+		}
+		return System.currentTimeMillis();
+	}
+
 	private boolean isSack(TcpPacket packet) {
 		if (packet.getOptions() == null)
 			return false;
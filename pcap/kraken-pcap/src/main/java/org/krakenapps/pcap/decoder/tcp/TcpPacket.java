@@ -133,7 +133,12 @@ public class TcpPacket implements TcpSegment, Injectable {
 		s.srcPort = data.getUnsignedShort();
 		s.dstPort = data.getUnsignedShort();
 
-		s.sessionKey = new TcpSessionKeyImpl(s.sourceAddr, s.destinationAddr, s.srcPort, s.dstPort);
+		if (p instanceof Ipv4Packet) {
+			Ipv4Packet ip = (Ipv4Packet) p;
+			s.sessionKey = new TcpSessionKeyImpl(s.sourceAddr, s.destinationAddr, s.srcPort, s.dstPort, ip.getSource(),
+					ip.getDestination());
+		} else
+			s.sessionKey = new TcpSessionKeyImpl(s.sourceAddr, s.destinationAddr, s.srcPort, s.dstPort);
 
 		s.seq = data.getInt();
 		s.ack = data.getInt();
@@ -21,50 +21,51 @@ import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.krakenapps.pcap.Protocol;
 
 public class TcpPortProtocolMapper implements TcpProtocolMapper {
-	private ConcurrentMap<Integer, Protocol> tcpMap;
+	/* indexed by port, so lookup does not box port number */
+	private AtomicReferenceArray<Protocol> tcpMap;
 	private ConcurrentMap<InetSocketAddress, Protocol> temporaryTcpMap;
 	private ConcurrentMap<Protocol, Set<TcpProcessor>> tcpProcessorMap;
 
 	public TcpPortProtocolMapper() {
-		tcpMap = new ConcurrentHashMap<Integer, Protocol>();
+		tcpMap = new AtomicReferenceArray<Protocol>(65536);
 		temporaryTcpMap = new ConcurrentHashMap<InetSocketAddress, Protocol>();
 		tcpProcessorMap = new ConcurrentHashMap<Protocol, Set<TcpProcessor>>();
 
-		tcpMap.put(80, Protocol.HTTP);
-		tcpMap.put(8080, Protocol.HTTP);
-		tcpMap.put(25, Protocol.SMTP);
-		tcpMap.put(587, Protocol.SMTP);
-		tcpMap.put(110, Protocol.POP3);
-		tcpMap.put(1863, Protocol.MSN);
-		tcpMap.put(21, Protocol.FTP);
-		tcpMap.put(138, Protocol.NETBIOS);
-		tcpMap.put(139, Protocol.NETBIOS);
-		tcpMap.put(445, Protocol.NETBIOS);
-		tcpMap.put(22, Protocol.SSH);
-		tcpMap.put(23, Protocol.TELNET);
-		tcpMap.put(43, Protocol.WHOIS);
-		tcpMap.put(53, Protocol.DNS);
-		tcpMap.put(66, Protocol.SQLNET);
-		tcpMap.put(79, Protocol.FINGER);
-		tcpMap.put(143, Protocol.IMAP);
-		tcpMap.put(179, Protocol.BGP);
-		tcpMap.put(1433, Protocol.MSSQL);
-		tcpMap.put(1434, Protocol.MSSQL);
-		tcpMap.put(3306, Protocol.MYSQL);
-		tcpMap.put(5432, Protocol.POSTGRES);
+		tcpMap.set(80, Protocol.HTTP);
+		tcpMap.set(8080, Protocol.HTTP);
+		tcpMap.set(25, Protocol.SMTP);
+		tcpMap.set(587, Protocol.SMTP);
+		tcpMap.set(110, Protocol.POP3);
+		tcpMap.set(1863, Protocol.MSN);
+		tcpMap.set(21, Protocol.FTP);
+		tcpMap.set(138, Protocol.NETBIOS);
+		tcpMap.set(139, Protocol.NETBIOS);
+		tcpMap.set(445, Protocol.NETBIOS);
+		tcpMap.set(22, Protocol.SSH);
+		tcpMap.set(23, Protocol.TELNET);
+		tcpMap.set(43, Protocol.WHOIS);
+		tcpMap.set(53, Protocol.DNS);
+		tcpMap.set(66, Protocol.SQLNET);
+		tcpMap.set(79, Protocol.FINGER);
+		tcpMap.set(143, Protocol.IMAP);
+		tcpMap.set(179, Protocol.BGP);
+		tcpMap.set(1433, Protocol.MSSQL);
+		tcpMap.set(1434, Protocol.MSSQL);
+		tcpMap.set(3306, Protocol.MYSQL);
+		tcpMap.set(5432, Protocol.POSTGRES);
 	}
 
 	public void register(int port, Protocol protocol) {
-		tcpMap.put(port, protocol);
+		tcpMap.set(port, protocol);
 	}
 
 	public void unregister(int port) {
-		if (tcpMap.containsKey(port))
-			tcpMap.remove(port);
+		tcpMap.set(port, null);
 	}
 
 	@Override
@@ -102,13 +103,15 @@ public class TcpPortProtocolMapper implements TcpProtocolMapper {
 	@Override
 	public Protocol map(TcpSegment segment) {
 		TcpSessionKey key = segment.getSessionKey();
-		InetSocketAddress server = new InetSocketAddress(key.getServerIp(), key.getServerPort());
-		if (temporaryTcpMap.containsKey(server))
-			return temporaryTcpMap.get(server);
-		else if (tcpMap.containsKey(key.getServerPort()))
-			return tcpMap.get(key.getServerPort());
 
-		return null;
+		// temporary mappings are rare, avoid socket address for lookup
+		if (!temporaryTcpMap.isEmpty()) {
+			Protocol protocol = temporaryTcpMap.get(new InetSocketAddress(key.getServerIp(), key.getServerPort()));
+			if (protocol != null)
+				return protocol;
+		}
+
+		return tcpMap.get(key.getServerPort());
 	}
 
 	@Override
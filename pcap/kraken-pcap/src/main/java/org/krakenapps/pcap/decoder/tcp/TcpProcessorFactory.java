@@ -15,36 +15,13 @@
  */
 package org.krakenapps.pcap.decoder.tcp;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * @author mindori
+ * Creates tcp processor instance for each decoder pipeline. Processors are
+ * stateful per session, so pipelines running on different threads should not
+ * share processor instance.
+ * 
+ * @author xeraph
  */
-public class WaitQueue {
-	private final List<TcpPacket> queue;
-
-	public WaitQueue() {
-		queue = new ArrayList<TcpPacket>();
-	}
-
-	public WaitQueue(int capacity) {
-		queue = new ArrayList<TcpPacket>(capacity);
-	}
-
-	public void enqueue(TcpPacket element) {
-		queue.add(element);
-	}
-
-	public TcpPacket dequeue(int index) {
-		return queue.get(index);
-	}
-
-	public void remove(int index) {
-		queue.remove(index);
-	}
-
-	public int size() {
-		return queue.size();
-	}
-}
\ No newline at end of file
+public interface TcpProcessorFactory {
+	TcpProcessor newProcessor();
+}
@@ -15,8 +15,6 @@
  */
 package org.krakenapps.pcap.decoder.tcp;
 
-import org.krakenapps.pcap.util.Buffer;
-
 public class TcpSackHandler {
 	private TcpStateUpdater stateUpdater;
 
@@ -37,8 +35,15 @@ public class TcpSackHandler {
 
 			while (true) {
 				reassembledPacket = TcpSackReassembler.reassemble(session, packet, stateUpdater);
-				if (reassembledPacket == null)
-					break;
+				if (reassembledPacket == null) {
+					// too many bytes are buffered behind a lost segment
+					int skip = TcpSackReassembler.skipGap(session, packet);
+					if (skip == 0)
+						break;
+
+					sessionTable.countGapSkip(skip);
+					continue;
+				}
 
 				slideWindow(session, reassembledPacket);
 				stateUpdater.updateState(session, reassembledPacket);
@@ -50,40 +55,19 @@ public class TcpSackHandler {
 
 	private void cleanUpWindow(TcpSessionImpl session, TcpPacket packet) {
 		TcpHost host;
-		WaitQueue queue;
+		SegmentStore store;
 
 		if (packet.getDirection() == TcpDirection.ToServer) {
 			host = session.getClient();
-			queue = session.getClientQueue();
+			store = session.getClientQueue();
 		} else {
 			host = session.getServer();
-			queue = session.getServerQueue();
+			store = session.getServerQueue();
 		}
 
 		/* apply window size */
 		host.setLastAcceptableFrame(packet.getWindow());
-		int end = host.getLastAcceptableFrame();
-
-		/* clear up receive window */
-		for (int i = 0; i < queue.size(); i++) {
-			TcpPacket p = queue.dequeue(i);
-			int seq = p.getRelativeSeq();
-			int lengthOfData = 0;
-			if (p.getData() != null)
-				lengthOfData = p.getData().readableBytes();
-
-			if (seq > end)
-				queue.remove(i);
-			else if (seq + lengthOfData > end) {
-				/* cut garbage data */
-				int garbage = (seq + lengthOfData) - end;
-				int remain = lengthOfData - garbage;
-
-				Buffer data = p.getData();
-				data.skip(remain);
-				data.flip();
-			}
-		}
+		store.limit(host.getLastAcceptableFrame());
 	}
 
 	private void slideWindow(TcpSessionImpl session, TcpPacket packet) {
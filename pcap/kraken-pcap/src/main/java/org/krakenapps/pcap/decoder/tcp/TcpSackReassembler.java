@@ -22,81 +22,79 @@ public class TcpSackReassembler {
 	}
 
 	public static void insert(TcpSessionImpl session, TcpPacket packet) {
-		WaitQueue queue;
-		if (packet.getDirection() == TcpDirection.ToServer)
-			queue = session.getServerQueue();
-		else
-			queue = session.getClientQueue();
-		queue.enqueue(packet);
+		TcpHost host;
+		SegmentStore store;
+
+		if (packet.getDirection() == TcpDirection.ToServer) {
+			host = session.getServer();
+			store = session.getServerQueue();
+		} else {
+			host = session.getClient();
+			store = session.getClientQueue();
+		}
+
+		store.insert(packet, host.getLastFrameReceived());
 	}
 
 	/* return: reassembled packet */
 	public static TcpPacket reassemble(TcpSessionImpl session, TcpPacket packet, TcpStateUpdater stateUpdater) {
 		TcpHost host;
-		WaitQueue queue;
+		SegmentStore store;
 
 		if (packet.getDirection() == TcpDirection.ToServer) {
 			host = session.getServer();
-			queue = session.getServerQueue();
+			store = session.getServerQueue();
 		} else {
 			host = session.getClient();
-			queue = session.getClientQueue();
+			store = session.getClientQueue();
 		}
 
-		return doReassemble(queue, session, host, packet);
+		return doReassemble(store, session, host, packet);
 	}
 
-	private static TcpPacket doReassemble(WaitQueue queue, TcpSessionImpl session, TcpHost host, TcpPacket packet) {
-		TcpPacket p;
-		
-		while (true) {
-			p = findNextDatagram(queue, host.getLastFrameReceived());
-			if (p == null) {
-				return null;
-			}
-				
-			if (p.getData() != null) {
-				Buffer data = p.getData();
-				int readable = data.readableBytes();
-				
-				if(p.getDataLength() < readable) {
-					p.setReassembledLength(p.getDataLength());
-					data.skip(p.getDataLength());
-					data.flip();
-				}
-				else 
-					p.setReassembledLength(readable);
-				
-				if (packet.getDirection() == TcpDirection.ToServer) 
-					session.pushToClientSack(data);
-				else
-					session.pushToServerSack(data);
-			}
-			return p;
+	/**
+	 * Skips the gap before the first buffered segment, if the segment store
+	 * exceeds its max bytes.
+	 * 
+	 * @return the number of skipped bytes
+	 */
+	public static int skipGap(TcpSessionImpl session, TcpPacket packet) {
+		TcpHost host;
+		SegmentStore store;
+
+		if (packet.getDirection() == TcpDirection.ToServer) {
+			host = session.getServer();
+			store = session.getServerQueue();
+		} else {
+			host = session.getClient();
+			store = session.getClientQueue();
 		}
+
+		int skip = store.getSkip(host.getLastFrameReceived());
+		if (skip > 0)
+			host.setLastFrameReceived(skip);
+		return skip;
 	}
-	
-	private static TcpPacket findNextDatagram(WaitQueue queue, int lastReceived) {
-		for (int i = 0; i < queue.size(); i++) {
-			TcpPacket p = queue.dequeue(i);
 
-			int seq = p.getRelativeSeq();
-			if (seq == lastReceived) {
-				queue.remove(i);
-				return p;
-			} else if (seq + p.getDataLength() > lastReceived) {
-				if (seq > lastReceived || p.getData() == null)
-					continue;
+	private static TcpPacket doReassemble(SegmentStore store, TcpSessionImpl session, TcpHost host, TcpPacket packet) {
+		TcpPacket p = store.poll(host.getLastFrameReceived());
+		if (p == null)
+			return null;
+
+		if (p.getData() != null) {
+			Buffer data = p.getData();
+			p.setReassembledLength(data.readableBytes());
 
-				/* check TCP packet range. drop received data(=garbage) */
-				int garbage = lastReceived - seq;
-				Buffer tcpData = p.getData();
-				tcpData.skip(garbage);
-				tcpData.discardReadBytes();
-				queue.remove(i);
-				return p;
+			try {
+				if (packet.getDirection() == TcpDirection.ToServer)
+					session.pushToClientSack(data);
+				else
+					session.pushToServerSack(data);
+			} finally {
+				// taken from the segment store with its reference
+				data.release();
 			}
 		}
-		return null;
+		return p;
 	}
 }
\ No newline at end of file
@@ -48,8 +48,8 @@ public class TcpSessionImpl implements TcpSession {
 	private Buffer clientSent;
 	private Buffer serverSent;
 
-	private WaitQueue clientQueue;
-	private WaitQueue serverQueue;
+	private SegmentStore clientQueue;
+	private SegmentStore serverQueue;
 
 	private ApplicationLayerMapper l7Mapper;
 
@@ -57,6 +57,8 @@ public class TcpSessionImpl implements TcpSession {
 	private int firstFinSeq = -1;
 	private int firstFinAck = -1;
 
+	private TcpSessionTable.IdleTimer idleTimer;
+
 	public TcpSessionImpl(TcpProtocolMapper mapper) {
 		id = LAST_ID.getAndIncrement();
 		key = null;
@@ -70,8 +72,8 @@ public class TcpSessionImpl implements TcpSession {
 		clientSent = new ChainBuffer();
 		serverSent = new ChainBuffer();
 
-		clientQueue = new WaitQueue();
-		serverQueue = new WaitQueue();
+		clientQueue = new SegmentStore();
+		serverQueue = new SegmentStore();
 
 		l7Mapper = new ApplicationLayerMapper(mapper);
 	}
@@ -215,11 +217,11 @@ public class TcpSessionImpl implements TcpSession {
 		l7Mapper.sendToApplicationLayer(protocol, key, TcpDirection.ToClient, data);
 	}
 
-	public WaitQueue getClientQueue() {
+	public SegmentStore getClientQueue() {
 		return clientQueue;
 	}
 
-	public WaitQueue getServerQueue() {
+	public SegmentStore getServerQueue() {
 		return serverQueue;
 	}
 
@@ -247,6 +249,14 @@ public class TcpSessionImpl implements TcpSession {
 		this.firstFinAck = firstFinAck;
 	}
 
+	TcpSessionTable.IdleTimer getIdleTimer() {
+		return idleTimer;
+	}
+
+	void setIdleTimer(TcpSessionTable.IdleTimer idleTimer) {
+		this.idleTimer = idleTimer;
+	}
+
 	public void doEstablish(TcpSessionTable sessionTable, TcpSessionImpl session, TcpPacket packet, TcpStateUpdater stateUpdater) {
 		sessionTable.doEstablish(session, packet, stateUpdater);
 	}
@@ -15,8 +15,13 @@
  */
 package org.krakenapps.pcap.decoder.tcp;
 
+import java.net.Inet4Address;
 import java.net.InetAddress;
 
+import org.krakenapps.pcap.decoder.ip.InternetProtocol;
+import org.krakenapps.pcap.util.FlowTable;
+import org.krakenapps.pcap.util.IpConverter;
+
 /**
  * @author mindori
  */
@@ -27,7 +32,28 @@ public class TcpSessionKeyImpl implements TcpSessionKey {
 	private int port2;
 	private boolean reversed = false;
 
+	/* addresses as int in the order of addr1 and addr2, if ipv4 */
+	private boolean ipv4;
+	private int ip1;
+	private int ip2;
+
 	public TcpSessionKeyImpl(InetAddress clientIp, InetAddress serverIp, int clientPort, int serverPort) {
+		init(clientIp, serverIp, clientPort, serverPort);
+		if (clientIp instanceof Inet4Address && serverIp instanceof Inet4Address)
+			setIpv4(IpConverter.toInt((Inet4Address) clientIp), IpConverter.toInt((Inet4Address) serverIp));
+	}
+
+	/**
+	 * Creates key of ipv4 session with parsed addresses, so packing the key
+	 * does not copy address bytes.
+	 */
+	TcpSessionKeyImpl(InetAddress clientIp, InetAddress serverIp, int clientPort, int serverPort, int clientIpv4,
+			int serverIpv4) {
+		init(clientIp, serverIp, clientPort, serverPort);
+		setIpv4(clientIpv4, serverIpv4);
+	}
+
+	private void init(InetAddress clientIp, InetAddress serverIp, int clientPort, int serverPort) {
 		if (clientIp.hashCode() < serverIp.hashCode()) {
 			this.addr1 = clientIp;
 			this.addr2 = serverIp;
@@ -47,6 +73,28 @@ public class TcpSessionKeyImpl implements TcpSessionKey {
 		addr2 = other.getServerIp();
 		port1 = other.getClientPort();
 		port2 = other.getServerPort();
+		ipv4 = other.ipv4;
+		ip1 = other.reversed ? other.ip2 : other.ip1;
+		ip2 = other.reversed ? other.ip1 : other.ip2;
+	}
+
+	private void setIpv4(int clientIpv4, int serverIpv4) {
+		ipv4 = true;
+		ip1 = reversed ? serverIpv4 : clientIpv4;
+		ip2 = reversed ? clientIpv4 : serverIpv4;
+	}
+
+	/**
+	 * Packs the flow key of ipv4 session.
+	 * 
+	 * @return false if this is not ipv4 session
+	 */
+	boolean packIpv4(long[] key) {
+		if (!ipv4)
+			return false;
+
+		FlowTable.packIpv4(key, InternetProtocol.TCP, ip1, port1, ip2, port2);
+		return true;
 	}
 
 	@Override
@@ -15,29 +15,258 @@
  */
 package org.krakenapps.pcap.decoder.tcp;
 
+import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.krakenapps.pcap.Protocol;
+import org.krakenapps.pcap.decoder.ip.InternetProtocol;
+import org.krakenapps.pcap.util.FlowTable;
+import org.krakenapps.pcap.util.TimerWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * TcpSessionTable holds tcp sessions by session key. Besides clean close by
+ * FIN or RST, a session is dropped when no segment is seen in the idle
+ * timeout of its state, or when the table is full and the session is the
+ * least recently active one. Processors of the dropped session receive
+ * onReset, so they can release their own state.
+ * 
+ * Idle timeout of a session is the shorter one of client and server state, so
+ * half open and closing sessions expire much earlier than established one.
+ * 
+ * Sessions are indexed by packed address and port in flow tables of each ip
+ * version, so lookup does not allocate nor hash address objects. Keys of the
+ * tables can be kept in direct memory for a large number of sessions.
+ * 
+ * Out of order segments of each direction are buffered up to the max queued
+ * bytes. Beyond that, the gap before buffered segments is skipped, and
+ * processors receive the stream after the lost bytes.
+ */
 public class TcpSessionTable {
+	private static final int DEFAULT_MAX_SESSIONS = 262144;
+	private static final int DEFAULT_CAPACITY = 4096;
+	private static final int DEFAULT_MAX_QUEUED_BYTES = 1024 * 1024;
+
+	private final Logger logger = LoggerFactory.getLogger(TcpSessionTable.class.getName());
 	private final TcpProtocolMapper mapper;
-	private Map<TcpSessionKey, TcpSessionImpl> map;
+
+	/* sessions by packed flow key */
+	private FlowTable<TcpSessionImpl> ipv4Sessions;
+	private FlowTable<TcpSessionImpl> ipv6Sessions;
+
+	/* reused by decoder thread for lookup */
+	private final long[] ipv4Key = new long[FlowTable.IPV4_KEY_LENGTH];
+	private final long[] ipv6Key = new long[FlowTable.IPV6_KEY_LENGTH];
+
+	/* sessions never expire if null */
+	private TimerWheel timers;
+	private EnumMap<TcpState, Integer> stateTimeouts;
+	private int maxSessions;
+	private int maxQueuedBytes;
+
+	/* payload bytes buffered by queues of all sessions */
+	private final AtomicLong queuedBytes = new AtomicLong();
+
+	/* sentinel of idle timers in order of last activity, oldest first */
+	private final IdleTimer lru;
+
+	// written by decoder thread, read by metrics
+	private volatile long handshakeTimeouts;
+	private volatile long idleTimeouts;
+	private volatile long closingTimeouts;
+	private volatile long overflows;
+	private volatile long gapSkips;
+	private volatile long skippedBytes;
 
 	public TcpSessionTable(TcpProtocolMapper mapper) {
+		this(mapper, DEFAULT_CAPACITY, false);
+	}
+
+	/**
+	 * @param capacity
+	 *            the expected number of ipv4 sessions, table grows on demand
+	 * @param direct
+	 *            true if flow keys are stored in direct memory
+	 */
+	public TcpSessionTable(TcpProtocolMapper mapper, int capacity, boolean direct) {
 		this.mapper = mapper;
-		map = new ConcurrentHashMap<TcpSessionKey, TcpSessionImpl>();
+		ipv4Sessions = new FlowTable<TcpSessionImpl>(FlowTable.IPV4_KEY_LENGTH, capacity, direct);
+		ipv6Sessions = new FlowTable<TcpSessionImpl>(FlowTable.IPV6_KEY_LENGTH, Math.max(capacity / 16, 16), direct);
+		maxSessions = DEFAULT_MAX_SESSIONS;
+		maxQueuedBytes = DEFAULT_MAX_QUEUED_BYTES;
+		lru = new IdleTimer(null);
+		lru.prev = lru;
+		lru.next = lru;
+
+		stateTimeouts = new EnumMap<TcpState, Integer>(TcpState.class);
+		stateTimeouts.put(TcpState.LISTEN, 60 * 1000);
+		stateTimeouts.put(TcpState.SYN_SENT, 60 * 1000);
+		stateTimeouts.put(TcpState.SYN_RCVD, 60 * 1000);
+		stateTimeouts.put(TcpState.ESTABLISHED, 30 * 60 * 1000);
+		stateTimeouts.put(TcpState.FIN_WAIT_1, 120 * 1000);
+		stateTimeouts.put(TcpState.FIN_WAIT_2, 120 * 1000);
+		stateTimeouts.put(TcpState.CLOSING, 120 * 1000);
+		stateTimeouts.put(TcpState.CLOSE_WAIT, 60 * 1000);
+		stateTimeouts.put(TcpState.LAST_ACK, 30 * 1000);
+		stateTimeouts.put(TcpState.CLOSED, 10 * 1000);
+	}
+
+	public TimerWheel getTimerWheel() {
+		return timers;
+	}
+
+	/**
+	 * Sets the timer wheel for idle timeout of sessions. Idle timers of open
+	 * sessions are moved to the new wheel with their remaining time, or with
+	 * full idle timeout if they were not scheduled. Null disables idle timeout.
+	 */
+	public void setTimerWheel(TimerWheel timers) {
+		TimerWheel old = this.timers;
+		this.timers = timers;
+
+		for (TcpSessionImpl session : values()) {
+			IdleTimer t = session.getIdleTimer();
+			long delay = -1;
+			if (old != null) {
+				delay = old.getDelay(t);
+				old.cancel(t);
+			}
+
+			if (timers != null)
+				timers.schedule(t, delay >= 0 ? delay : getTimeout(session));
+		}
+	}
+
+	public int getIdleTimeout(TcpState state) {
+		return stateTimeouts.get(state);
+	}
+
+	/**
+	 * Sets the time in milliseconds after which a session in the state is
+	 * dropped if no segment is seen. It applies from the next segment of each
+	 * session.
+	 */
+	public void setIdleTimeout(TcpState state, int idleTimeout) {
+		if (state == null)
+			throw new IllegalArgumentException("state should not be null");
+		if (idleTimeout <= 0)
+			throw new IllegalArgumentException("idle timeout should be positive");
+
+		stateTimeouts.put(state, idleTimeout);
+	}
+
+	public int getMaxSessions() {
+		return maxSessions;
+	}
+
+	/**
+	 * Sets the max number of sessions. When a new session is opened in the
+	 * full table, the least recently active session is evicted.
+	 */
+	public void setMaxSessions(int maxSessions) {
+		if (maxSessions <= 0)
+			throw new IllegalArgumentException("max sessions should be positive");
+
+		this.maxSessions = maxSessions;
+	}
+
+	public int getMaxQueuedBytes() {
+		return maxQueuedBytes;
+	}
+
+	/**
+	 * Sets the max bytes of out of order segments buffered for each direction
+	 * of a session. It applies to sessions opened after.
+	 */
+	public void setMaxQueuedBytes(int maxQueuedBytes) {
+		if (maxQueuedBytes <= 0)
+			throw new IllegalArgumentException("max queued bytes should be positive");
+
+		this.maxQueuedBytes = maxQueuedBytes;
+	}
+
+	/**
+	 * Returns the number of sequence gaps skipped by the max queued bytes.
+	 */
+	public long getGapSkips() {
+		return gapSkips;
+	}
+
+	void countGapSkip(int bytes) {
+		gapSkips++;
+		skippedBytes += bytes;
+	}
+
+	/**
+	 * Returns the number of sessions dropped by idle timeout of all states.
+	 */
+	public long getTimeouts() {
+		return handshakeTimeouts + idleTimeouts + closingTimeouts;
+	}
+
+	/**
+	 * Returns the number of sessions evicted by the max session count.
+	 */
+	public long getOverflows() {
+		return overflows;
+	}
+
+	public Statistics getStatistics() {
+		return new Statistics(this);
 	}
 
 	public void openSession(TcpProtocolMapper mapper, TcpSessionKey key, TcpPacket packet) {
+		if (get(key) != null)
+			abnormalClose(key);
+
+		while (size() >= maxSessions && lru.next != lru)
+			evict(lru.next.session);
+
 		TcpSessionImpl session = new TcpSessionImpl(mapper);
 		session.setKey(key);
 		session.createClient(packet);
+		session.setIdleTimer(new IdleTimer(session));
+		session.getClientQueue().setMaxBytes(maxQueuedBytes);
+		session.getServerQueue().setMaxBytes(maxQueuedBytes);
+		session.getClientQueue().setTotalBytes(queuedBytes);
+		session.getServerQueue().setTotalBytes(queuedBytes);
 		
-		map.put(key, session);
+		put(key, session);
+		touch(session);
+	}
+
+	/**
+	 * Marks the session as active, and restarts idle timer with the timeout of
+	 * current state. Closed session is ignored.
+	 */
+	public void touch(TcpSessionImpl session) {
+		IdleTimer t = session.getIdleTimer();
+		if (t == null || get(session.getKey()) != session)
+			return;
+
+		if (t.next != null)
+			unlink(t);
+
+		t.prev = lru.prev;
+		t.next = lru;
+		lru.prev.next = t;
+		lru.prev = t;
+
+		schedule(session);
+	}
+
+	private void schedule(TcpSessionImpl session) {
+		if (timers != null)
+			timers.schedule(session.getIdleTimer(), getTimeout(session));
+	}
+
+	private int getTimeout(TcpSessionImpl session) {
+		return Math.min(stateTimeouts.get(session.getClientState()), stateTimeouts.get(session.getServerState()));
 	}
 
 	public void doEstablish(TcpSessionImpl session, TcpPacket packet, TcpStateUpdater stateUpdater) { 
@@ -61,10 +290,11 @@ public class TcpSessionTable {
 			return;
 				
 		TcpSessionKey key = packet.getSessionKey();
-		Protocol protocol = map.get(key).getProtocol();
+		TcpSessionImpl session = remove(key);
+		Protocol protocol = session.getProtocol();
 		
-		if (map.containsKey(key)) 
-			map.remove(key);
+		untrack(session);
+		clearQueues(session);
 
 		Collection<TcpProcessor> processors = mapper.getTcpProcessors(protocol);
 		if (processors == null)
@@ -75,21 +305,159 @@ public class TcpSessionTable {
 	}
 	
 	public void abnormalClose(TcpSessionKey key) {
-		if (map.containsKey(key)) 
-			map.remove(key);
+		TcpSessionImpl session = remove(key);
+		if (session != null) {
+			untrack(session);
+			clearQueues(session);
+		}
+	}
+
+	private void untrack(TcpSessionImpl session) {
+		IdleTimer t = session.getIdleTimer();
+		if (t == null)
+			return;
+
+		if (timers != null)
+			timers.cancel(t);
+		if (t.next != null)
+			unlink(t);
+	}
+
+	private void unlink(IdleTimer t) {
+		t.prev.next = t.next;
+		t.next.prev = t.prev;
+		t.prev = null;
+		t.next = null;
+	}
+
+	private void expire(TcpSessionImpl session) {
+		TcpSessionKey key = session.getKey();
+		if (get(key) != session)
+			return;
+
+		TcpState state = getIdleState(session);
+		if (state == TcpState.ESTABLISHED)
+			idleTimeouts++;
+		else if (state.ordinal() < TcpState.ESTABLISHED.ordinal())
+			handshakeTimeouts++;
+		else
+			closingTimeouts++;
+
+		if (logger.isDebugEnabled())
+			logger.debug("kraken-pcap: tcp session idle timeout in {}, {}", state, key);
+
+		reset(session);
+	}
+
+	private void evict(TcpSessionImpl session) {
+		overflows++;
+
+		if (logger.isDebugEnabled())
+			logger.debug("kraken-pcap: tcp session table full, evicted {}", session.getKey());
+
+		reset(session);
+	}
+
+	/* state which decided the idle timeout */
+	private TcpState getIdleState(TcpSessionImpl session) {
+		TcpState client = session.getClientState();
+		TcpState server = session.getServerState();
+		return stateTimeouts.get(client) <= stateTimeouts.get(server) ? client : server;
+	}
+
+	/* drops the session, and notifies processors as if RST was received */
+	private void reset(TcpSessionImpl session) {
+		TcpSessionKey key = session.getKey();
+		remove(key);
+		untrack(session);
+		clearQueues(session);
+
+		Collection<TcpProcessor> processors = mapper.getTcpProcessors(session.getProtocol());
+		if (processors == null)
+			return;
+
+		for (TcpProcessor p : processors)
+			p.onReset(key);
+	}
+
+	private void clearQueues(TcpSessionImpl session) {
+		session.getClientQueue().clear();
+		session.getServerQueue().clear();
 	}
 
 	public TcpSessionImpl getSession(TcpSessionKey key) {
-		return map.get(key);
+		return get(key);
 	}
 
 	public List<TcpSession> getCurrentSessions() { 
-		List<TcpSession> sessions = new ArrayList<TcpSession>(map.values());
+		List<TcpSession> sessions = new ArrayList<TcpSession>(values());
 		return sessions;
 	}
 	
+	public int size() {
+		return ipv4Sessions.size() + ipv6Sessions.size();
+	}
+
+	/**
+	 * Returns payload bytes held by out of order queues of all sessions. It
+	 * reads a counter kept by the queues, so it is safe to call from other
+	 * thread.
+	 */
+	public long getQueuedBytes() {
+		return queuedBytes.get();
+	}
+
 	public boolean isExist(TcpSessionKey key) {
-		return map.containsKey(key);
+		return get(key) != null;
+	}
+
+	private TcpSessionImpl get(TcpSessionKey key) {
+		if (packIpv4(key))
+			return ipv4Sessions.get(ipv4Key);
+		return ipv6Sessions.get(ipv6Key);
+	}
+
+	private void put(TcpSessionKey key, TcpSessionImpl session) {
+		if (packIpv4(key))
+			ipv4Sessions.put(ipv4Key, session);
+		else
+			ipv6Sessions.put(ipv6Key, session);
+	}
+
+	private TcpSessionImpl remove(TcpSessionKey key) {
+		if (packIpv4(key))
+			return ipv4Sessions.remove(ipv4Key);
+		return ipv6Sessions.remove(ipv6Key);
+	}
+
+	/* packs into one of lookup keys, and returns true if it is ipv4 key */
+	private boolean packIpv4(TcpSessionKey key) {
+		if (key instanceof TcpSessionKeyImpl && ((TcpSessionKeyImpl) key).packIpv4(ipv4Key))
+			return true;
+
+		InetAddress client = key.getClientIp();
+		InetAddress server = key.getServerIp();
+		byte[] a = client.getAddress();
+		byte[] b = server.getAddress();
+		if (a.length == 4 && b.length == 4) {
+			FlowTable.packIpv4(ipv4Key, InternetProtocol.TCP, toInt(a), key.getClientPort(), toInt(b),
+					key.getServerPort());
+			return true;
+		}
+
+		FlowTable.packIpv6(ipv6Key, InternetProtocol.TCP, a, key.getClientPort(), b, key.getServerPort());
+		return false;
+	}
+
+	private static int toInt(byte[] b) {
+		return ((b[0] & 0xff) << 24) | ((b[1] & 0xff) << 16) | ((b[2] & 0xff) << 8) | (b[3] & 0xff);
+	}
+
+	private List<TcpSessionImpl> values() {
+		List<TcpSessionImpl> l = ipv4Sessions.values();
+		if (!ipv6Sessions.isEmpty())
+			l.addAll(ipv6Sessions.values());
+		return l;
 	}
 	
 	private boolean isCorrectConnection(TcpSessionImpl session, TcpPacket packet) {
@@ -133,4 +501,98 @@ public class TcpSessionTable {
 			p.onEstablish(segment.getSessionKey());
 		}
 	}
+
+	/**
+	 * Idle timer of a session, which is also linked in order of last activity.
+	 */
+	class IdleTimer extends TimerWheel.Timer {
+		private final TcpSessionImpl session;
+		private IdleTimer prev;
+		private IdleTimer next;
+
+		public IdleTimer(TcpSessionImpl session) {
+			this.session = session;
+		}
+
+		@Override
+		protected void onExpire() {
+			expire(session);
+		}
+	}
+
+	/**
+	 * Snapshot of session table counters.
+	 */
+	public static class Statistics {
+		private final int sessions;
+		private final long handshakeTimeouts;
+		private final long idleTimeouts;
+		private final long closingTimeouts;
+		private final long overflows;
+		private final long gapSkips;
+		private final long skippedBytes;
+
+		private Statistics(TcpSessionTable t) {
+			this.sessions = t.size();
+			this.handshakeTimeouts = t.handshakeTimeouts;
+			this.idleTimeouts = t.idleTimeouts;
+			this.closingTimeouts = t.closingTimeouts;
+			this.overflows = t.overflows;
+			this.gapSkips = t.gapSkips;
+			this.skippedBytes = t.skippedBytes;
+		}
+
+		public int getSessions() {
+			return sessions;
+		}
+
+		/**
+		 * Returns the number of sessions which timed out before established.
+		 */
+		public long getHandshakeTimeouts() {
+			return handshakeTimeouts;
+		}
+
+		/**
+		 * Returns the number of established sessions which timed out.
+		 */
+		public long getIdleTimeouts() {
+			return idleTimeouts;
+		}
+
+		/**
+		 * Returns the number of sessions which timed out while closing.
+		 */
+		public long getClosingTimeouts() {
+			return closingTimeouts;
+		}
+
+		/**
+		 * Returns the number of sessions evicted by the max session count.
+		 */
+		public long getOverflows() {
+			return overflows;
+		}
+
+		/**
+		 * Returns the number of sequence gaps skipped by the max queued bytes.
+		 */
+		public long getGapSkips() {
+			return gapSkips;
+		}
+
+		/**
+		 * Returns the number of lost bytes skipped.
+		 */
+		public long getSkippedBytes() {
+			return skippedBytes;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("sessions=%d, handshake timeouts=%d, idle timeouts=%d, closing timeouts=%d, overflows=%d, "
+					+ "gap skips=%d, skipped bytes=%d", sessions, handshakeTimeouts, idleTimeouts, closingTimeouts,
+					overflows, gapSkips, skippedBytes);
+		}
+	}
 }
\ No newline at end of file
@@ -94,10 +94,14 @@ public class UdpDecoder implements IpProcessor, Ipv6Processor {
 	private void dispatch(UdpPacket newUdp) {
 		/* manipulate udp packet from outside */
 		for (UdpProcessor callback : callbacks) {
+			UdpPacket dup = new UdpPacket(newUdp);
 			try {
-				callback.process(new UdpPacket(newUdp));
+				callback.process(dup);
 			} catch (Exception e) {
 				e.printStackTrace();
+			} finally {
+				if (dup.getData() != null)
+					dup.getData().release();
 			}
 		}
 
@@ -21,38 +21,39 @@ import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.krakenapps.pcap.Protocol;
 
 public class UdpPortProtocolMapper implements UdpProtocolMapper {
-	private ConcurrentMap<Integer, Protocol> udpMap;
+	/* indexed by port, so lookup does not box port number */
+	private AtomicReferenceArray<Protocol> udpMap;
 	private ConcurrentMap<InetSocketAddress, Protocol> temporaryUdpMap;
 	private ConcurrentMap<Protocol, Set<UdpProcessor>> udpProcessorMap;
 
 	public UdpPortProtocolMapper() {
-		udpMap = new ConcurrentHashMap<Integer, Protocol>();
+		udpMap = new AtomicReferenceArray<Protocol>(65536);
 		temporaryUdpMap = new ConcurrentHashMap<InetSocketAddress, Protocol>();
 		udpProcessorMap = new ConcurrentHashMap<Protocol, Set<UdpProcessor>>();
 
-		udpMap.put(67, Protocol.DHCP);
-		udpMap.put(68, Protocol.DHCP);
-		udpMap.put(161, Protocol.SNMP);
-		udpMap.put(162, Protocol.SNMP);
-		udpMap.put(137, Protocol.NETBIOS);
-		udpMap.put(138, Protocol.NETBIOS);
-		udpMap.put(53, Protocol.DNS);
-		udpMap.put(69, Protocol.TFTP);
-		udpMap.put(123, Protocol.NTP);
-		udpMap.put(514, Protocol.SYSLOG);
+		udpMap.set(67, Protocol.DHCP);
+		udpMap.set(68, Protocol.DHCP);
+		udpMap.set(161, Protocol.SNMP);
+		udpMap.set(162, Protocol.SNMP);
+		udpMap.set(137, Protocol.NETBIOS);
+		udpMap.set(138, Protocol.NETBIOS);
+		udpMap.set(53, Protocol.DNS);
+		udpMap.set(69, Protocol.TFTP);
+		udpMap.set(123, Protocol.NTP);
+		udpMap.set(514, Protocol.SYSLOG);
 	}
 
 	public void register(int port, Protocol protocol) {
-		udpMap.put(port, protocol);
+		udpMap.set(port, protocol);
 	}
 
 	public void unregister(int port) {
-		if (udpMap.containsKey(port))
-			udpMap.remove(port);
+		udpMap.set(port, null);
 	}
 
 	@Override
@@ -89,14 +90,15 @@ public class UdpPortProtocolMapper implements UdpProtocolMapper {
 	public Protocol map(UdpPacket packet) {
 		int port = packet.getDestinationPort();
 
-		if (temporaryUdpMap.containsKey(packet.getDestination()))
-			return temporaryUdpMap.get(packet.getDestination());
-		else if (temporaryUdpMap.containsKey(packet.getSource()))
-			return temporaryUdpMap.get(packet.getSource());
-		else if (udpMap.containsKey(port))
-			return udpMap.get(port);
+		if (!temporaryUdpMap.isEmpty()) {
+			Protocol protocol = temporaryUdpMap.get(packet.getDestination());
+			if (protocol == null)
+				protocol = temporaryUdpMap.get(packet.getSource());
+			if (protocol != null)
+				return protocol;
+		}
 
-		return null;
+		return udpMap.get(port);
 	}
 
 	@Override
@@ -28,7 +28,6 @@ import org.krakenapps.pcap.decoder.wlan.tag.UnknownParameter;
 import org.krakenapps.pcap.decoder.wlan.tag.WlanControlFrame;
 import org.krakenapps.pcap.packet.PcapPacket;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class WlanDecoder {
 	public WlanFrame decode(PcapPacket pkt) {
@@ -82,7 +81,7 @@ public class WlanDecoder {
 		f.setSource(new MacAddress(src));
 		f.setBssid(new MacAddress(bssid));
 
-		short seqfrag = ByteOrderConverter.swap(buf.getShort());
+		short seqfrag = buf.getShortLE();
 		f.setSeq((seqfrag >> 4) & 0xfff);
 		f.setFragment(seqfrag & 0xf);
 
@@ -151,7 +150,7 @@ public class WlanDecoder {
 			f.setTransmitterAddress(new MacAddress(transmitter));
 			return f;
 		} else if (frameControl.getSubtype() == 12) {
-			int duration = ByteOrderConverter.swap(buf.getShort()) & 0xffff;
+			int duration = buf.getShortLE() & 0xffff;
 			byte[] receiver = new byte[6];
 			buf.gets(receiver);
 
@@ -160,7 +159,7 @@ public class WlanDecoder {
 			f.setReceiver(new MacAddress(receiver));
 			return f;
 		} else if (frameControl.getSubtype() == 13) {
-			int duration = ByteOrderConverter.swap(buf.getShort()) & 0xffff;
+			int duration = buf.getShortLE() & 0xffff;
 			byte[] receiver = new byte[6];
 			buf.gets(receiver);
 
@@ -180,11 +179,11 @@ public class WlanDecoder {
 			byte[] bssid = new byte[6];
 			byte[] src = new byte[6];
 
-			int duration = ByteOrderConverter.swap(buf.getShort()) & 0xffff;
+			int duration = buf.getShortLE() & 0xffff;
 			buf.gets(dst);
 			buf.gets(bssid);
 			buf.gets(src);
-			short seqfrag = ByteOrderConverter.swap(buf.getShort());
+			short seqfrag = buf.getShortLE();
 			int wepParameters = buf.getInt();
 
 			WlanDataFrame f = new WlanDataFrame();
@@ -233,8 +232,8 @@ public class WlanDecoder {
 		rh.setMacTimestamp(buf.getLong());
 		rh.setFlags(buf.get());
 		rh.setDataRate(buf.get());
-		rh.setChannelFrequency(ByteOrderConverter.swap(buf.getShort()));
-		rh.setChannelType(ByteOrderConverter.swap(buf.getShort()));
+		rh.setChannelFrequency(buf.getShortLE());
+		rh.setChannelType(buf.getShortLE());
 		rh.setSsiSignal(buf.get());
 		rh.setSsiNoise(buf.get());
 		rh.setAntenna(buf.get());
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import org.krakenapps.pcap.util.Buffer;
+
+/**
+ * Encodes records into a reusable little endian direct buffer, and writes the
+ * buffer to file channel whenever it fills up.
+ * 
+ * @author mindori
+ */
+class BufferedChannelWriter {
+	private FileOutputStream fos;
+	private FileChannel channel;
+	private ByteBuffer bb;
+
+	public BufferedChannelWriter(File file, boolean append, int capacity) throws IOException {
+		if (capacity < 64)
+			throw new IllegalArgumentException("flush threshold should be greater than 64");
+
+		fos = new FileOutputStream(file, append);
+		channel = fos.getChannel();
+		bb = ByteBuffer.allocateDirect(capacity);
+		bb.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Returns the direct buffer which has at least length bytes remaining.
+	 */
+	public ByteBuffer reserve(int length) throws IOException {
+		if (bb.remaining() < length)
+			drain();
+		return bb;
+	}
+
+	/**
+	 * Copies readable bytes segment by segment. Buffer position is not changed.
+	 */
+	public void put(Buffer payload) throws IOException {
+		int index = payload.getBufIndex();
+		int offset = payload.getOffset();
+
+		for (int i = index; i < payload.getSegmentCount(); i++) {
+			int off = (i == index) ? offset : 0;
+			put(payload.getSegmentArray(i), payload.getSegmentOffset(i) + off, payload.getSegmentLength(i) - off);
+		}
+	}
+
+	public void put(byte[] b, int offset, int length) throws IOException {
+		while (length > 0) {
+			if (!bb.hasRemaining())
+				drain();
+
+			int len = Math.min(bb.remaining(), length);
+			bb.put(b, offset, len);
+			offset += len;
+			length -= len;
+		}
+	}
+
+	/**
+	 * Writes zero bytes, for example, 32bit boundary padding.
+	 */
+	public void pad(int length) throws IOException {
+		reserve(length);
+		for (int i = 0; i < length; i++)
+			bb.put((byte) 0);
+	}
+
+	private void drain() throws IOException {
+		bb.flip();
+		while (bb.hasRemaining())
+			channel.write(bb);
+		bb.clear();
+	}
+
+	public void flush() throws IOException {
+		drain();
+	}
+
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			fos.close();
+		}
+	}
+}
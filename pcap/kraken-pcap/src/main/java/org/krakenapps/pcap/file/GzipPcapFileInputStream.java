@@ -0,0 +1,110 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.krakenapps.pcap.PcapInputStream;
+import org.krakenapps.pcap.packet.PcapPacket;
+
+/**
+ * GzipPcapFileInputStream reads pcap packet stream from gzip compressed pcap
+ * file. Dedicated thread inflates the file into a ring of large reusable
+ * buffers ahead of time, and the calling thread parses records from them, so
+ * inflating and decoding run in parallel.
+ * 
+ * @author xeraph
+ */
+public class GzipPcapFileInputStream implements PcapInputStream {
+	public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+	public static final int DEFAULT_CHUNK_COUNT = 4;
+
+	private static final int INFLATER_BUFFER_SIZE = 64 * 1024;
+
+	private PcapFileInputStream is;
+
+	public GzipPcapFileInputStream(File file) throws IOException {
+		this(file, DEFAULT_CHUNK_SIZE, DEFAULT_CHUNK_COUNT);
+	}
+
+	/**
+	 * Opens gzip compressed pcap file and starts read ahead thread.
+	 * 
+	 * @param file
+	 *            the .pcap.gz file
+	 * @param chunkSize
+	 *            the size of each read ahead buffer
+	 * @param chunkCount
+	 *            the number of read ahead buffers, at least 2
+	 * @throws IOException
+	 *             if the file cannot be opened, or it is not gzip compressed
+	 *             pcap file
+	 */
+	public GzipPcapFileInputStream(File file, int chunkSize, int chunkCount) throws IOException {
+		InputStream fis = new FileInputStream(file);
+		InputStream gis = null;
+		try {
+			gis = new GZIPInputStream(fis, INFLATER_BUFFER_SIZE);
+		} catch (IOException e) {
+			fis.close();
+			throw e;
+		}
+
+		InputStream ris = new ReadAheadInputStream(gis, "Pcap Inflater [" + file.getName() + "]", chunkSize,
+				chunkCount);
+		try {
+			is = new PcapFileInputStream(ris);
+		} catch (IOException e) {
+			ris.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads a packet from compressed pcap file.
+	 * 
+	 * @exception EOFException
+	 *                if this input stream reaches the end of file, or the last
+	 *                packet is truncated.
+	 */
+	@Override
+	public PcapPacket getPacket() throws IOException {
+		return is.getPacket();
+	}
+
+	@Override
+	public PcapPacket poll(int timeout) throws IOException {
+		return is.poll(timeout);
+	}
+
+	@Override
+	public boolean isEndOfStream() {
+		return is.isEndOfStream();
+	}
+
+	public GlobalHeader getGlobalHeader() {
+		return is.getGlobalHeader();
+	}
+
+	@Override
+	public void close() throws IOException {
+		is.close();
+	}
+}
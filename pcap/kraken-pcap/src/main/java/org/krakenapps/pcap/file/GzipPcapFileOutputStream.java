@@ -0,0 +1,134 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.GZIPOutputStream;
+
+import org.krakenapps.pcap.PcapOutputStream;
+import org.krakenapps.pcap.packet.PacketHeader;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.Buffer;
+
+/**
+ * GzipPcapFileOutputStream writes pcap packet stream to gzip compressed pcap
+ * file. Records are encoded in little endian order into large reusable
+ * buffers, and dedicated thread deflates them to file, so encoding and
+ * deflating run in parallel.
+ * 
+ * @author xeraph
+ */
+public class GzipPcapFileOutputStream implements PcapOutputStream {
+	private static final int DEFLATER_BUFFER_SIZE = 64 * 1024;
+	private static final int GLOBAL_HEADER_LENGTH = 24;
+	private static final int PACKET_HEADER_LENGTH = 16;
+
+	private OutputStream os;
+	private ByteBuffer header;
+
+	public GzipPcapFileOutputStream(File file) throws IOException {
+		this(file, new GlobalHeader(0xA1B2C3D4, (short) 2, (short) 4, 0, 0, 65535, 1));
+	}
+
+	public GzipPcapFileOutputStream(File file, GlobalHeader header) throws IOException {
+		this(file, header, GzipPcapFileInputStream.DEFAULT_CHUNK_SIZE, GzipPcapFileInputStream.DEFAULT_CHUNK_COUNT);
+	}
+
+	/**
+	 * Creates new gzip compressed pcap file and starts deflater thread.
+	 * 
+	 * @param file
+	 *            the .pcap.gz file to be created
+	 * @param header
+	 *            the global header of the file
+	 * @param chunkSize
+	 *            the size of each write behind buffer
+	 * @param chunkCount
+	 *            the number of write behind buffers, at least 2
+	 * @throws IOException
+	 *             if file already exists, or cannot be opened for writing
+	 */
+	public GzipPcapFileOutputStream(File file, GlobalHeader header, int chunkSize, int chunkCount)
+			throws IOException {
+		if (file.exists())
+			throw new IOException("file exists: " + file.getName());
+
+		OutputStream fos = new FileOutputStream(file);
+		OutputStream gos = null;
+		try {
+			gos = new GZIPOutputStream(fos, DEFLATER_BUFFER_SIZE);
+		} catch (IOException e) {
+			fos.close();
+			throw e;
+		}
+
+		this.os = new WriteBehindOutputStream(gos, "Pcap Deflater [" + file.getName() + "]", chunkSize, chunkCount);
+		this.header = ByteBuffer.allocate(GLOBAL_HEADER_LENGTH);
+		this.header.order(ByteOrder.LITTLE_ENDIAN);
+		writeGlobalHeader(header);
+	}
+
+	private void writeGlobalHeader(GlobalHeader h) throws IOException {
+		header.clear();
+		header.putInt(0xA1B2C3D4);
+		header.putShort(h.getMajorVersion());
+		header.putShort(h.getMinorVersion());
+		header.putInt(h.getThiszone());
+		header.putInt(h.getSigfigs());
+		header.putInt(h.getSnaplen());
+		header.putInt(h.getNetwork());
+		os.write(header.array(), 0, GLOBAL_HEADER_LENGTH);
+	}
+
+	@Override
+	public void write(PcapPacket packet) throws IOException {
+		PacketHeader packetHeader = packet.getPacketHeader();
+
+		header.clear();
+		header.putInt(packetHeader.getTsSec());
+		header.putInt(packetHeader.getTsUsec());
+		header.putInt(packetHeader.getInclLen());
+		header.putInt(packetHeader.getOrigLen());
+		os.write(header.array(), 0, PACKET_HEADER_LENGTH);
+
+		// copy readable bytes segment by segment without moving position
+		Buffer payload = packet.getPacketData();
+		int index = payload.getBufIndex();
+		int offset = payload.getOffset();
+		for (int i = index; i < payload.getSegmentCount(); i++) {
+			int off = (i == index) ? offset : 0;
+			os.write(payload.getSegmentArray(i), payload.getSegmentOffset(i) + off, payload.getSegmentLength(i) - off);
+		}
+	}
+
+	/**
+	 * Waits until all written packets are deflated.
+	 */
+	@Override
+	public void flush() throws IOException {
+		os.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		os.close();
+	}
+}
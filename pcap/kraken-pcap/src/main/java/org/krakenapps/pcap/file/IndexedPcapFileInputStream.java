@@ -0,0 +1,143 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+
+import org.krakenapps.pcap.PcapInputStream;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.FlowKey;
+
+/**
+ * IndexedPcapFileInputStream reads only the packets of the time range and the
+ * flow from classic pcap file. Segments which cannot contain matched packets
+ * are skipped using pcap index, and packets of the remaining segments are
+ * filtered one by one.
+ * 
+ * @author xeraph
+ */
+public class IndexedPcapFileInputStream implements PcapInputStream {
+	private MappedPcapFileInputStream is;
+	private PcapIndex index;
+	private long from;
+	private long to;
+	private FlowKey flow;
+
+	private int[] segments;
+	private int next;
+	private long segmentEnd;
+	private boolean eos;
+
+	public IndexedPcapFileInputStream(File file, Date from, Date to) throws IOException {
+		this(file, PcapIndex.open(file), from, to, null);
+	}
+
+	/**
+	 * Opens indexed pcap file input stream.
+	 * 
+	 * @param file
+	 *            the classic pcap file
+	 * @param index
+	 *            the index built for the file
+	 * @param from
+	 *            the start time (inclusive), or null
+	 * @param to
+	 *            the end time (exclusive), or null
+	 * @param flow
+	 *            the flow key, or null for all flows
+	 * @throws IOException
+	 *             if the file cannot be opened, or index is not built for the
+	 *             file
+	 */
+	public IndexedPcapFileInputStream(File file, PcapIndex index, Date from, Date to, FlowKey flow)
+			throws IOException {
+		if (!index.isBuiltFor(file))
+			throw new IOException("pcap index is not built for " + file.getName());
+
+		this.index = index;
+		this.from = from != null ? from.getTime() * 1000 : Long.MIN_VALUE;
+		this.to = to != null ? to.getTime() * 1000 : Long.MAX_VALUE;
+		this.flow = flow;
+		this.segments = index.findSegments(this.from, this.to, flow);
+		this.is = new MappedPcapFileInputStream(file);
+	}
+
+	/**
+	 * Reads next matched packet.
+	 * 
+	 * @exception EOFException
+	 *                if there is no more matched packet
+	 */
+	@Override
+	public PcapPacket getPacket() throws IOException {
+		PcapPacket packet = poll(0);
+		if (packet == null)
+			throw new EOFException();
+		return packet;
+	}
+
+	/**
+	 * Reads next matched packet, or returns null if there is no more matched
+	 * packet.
+	 */
+	@Override
+	public PcapPacket poll(int timeout) throws IOException {
+		while (true) {
+			if (is.position() >= segmentEnd) {
+				if (next >= segments.length) {
+					eos = true;
+					return null;
+				}
+
+				int segment = segments[next++];
+				is.position(index.getSegmentOffset(segment));
+				segmentEnd = index.getSegmentEnd(segment);
+			}
+
+			PcapPacket packet = is.poll(0);
+			if (packet == null) {
+				eos = true;
+				return null;
+			}
+
+			long time = PcapIndex.toMicros(packet.getPacketHeader());
+			if (time < from || time >= to)
+				continue;
+
+			if (flow != null && !flow.equals(FlowKey.parse(packet.getPacketData())))
+				continue;
+
+			return packet;
+		}
+	}
+
+	@Override
+	public boolean isEndOfStream() {
+		return eos;
+	}
+
+	public GlobalHeader getGlobalHeader() {
+		return is.getGlobalHeader();
+	}
+
+	@Override
+	public void close() throws IOException {
+		is.close();
+	}
+}
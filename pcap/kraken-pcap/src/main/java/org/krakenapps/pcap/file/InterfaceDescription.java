@@ -0,0 +1,73 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+/**
+ * InterfaceDescription contains capture configurations of a pcapng interface.
+ * 
+ * @see http://www.winpcap.org/ntar/draft/PCAP-DumpFileFormat.html
+ * @author xeraph
+ */
+public class InterfaceDescription {
+	/**
+	 * data link type
+	 */
+	private int linkType;
+
+	/**
+	 * max length of captured packets, in octets. 0 means no limit.
+	 */
+	private int snaplen;
+
+	/**
+	 * timestamp units per second (if_tsresol)
+	 */
+	private long tsUnits;
+
+	/**
+	 * seconds added to every timestamp (if_tsoffset)
+	 */
+	private long tsOffset;
+
+	public InterfaceDescription(int linkType, int snaplen, long tsUnits, long tsOffset) {
+		this.linkType = linkType;
+		this.snaplen = snaplen;
+		this.tsUnits = tsUnits;
+		this.tsOffset = tsOffset;
+	}
+
+	public int getLinkType() {
+		return linkType;
+	}
+
+	public int getSnaplen() {
+		return snaplen;
+	}
+
+	public long getTimestampUnits() {
+		return tsUnits;
+	}
+
+	public long getTimestampOffset() {
+		return tsOffset;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("link type: %d, snaplen: %d, ts units: %d, ts offset: %d", linkType, snaplen, tsUnits,
+				tsOffset);
+	}
+}
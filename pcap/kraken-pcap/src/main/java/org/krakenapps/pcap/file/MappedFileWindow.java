@@ -0,0 +1,143 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Read only mapping of a file which slides window by window. Callers should
+ * require bytes before reading them, then the window is remapped at current
+ * position if remaining bytes of the window are not enough.
+ * 
+ * @author xeraph
+ */
+class MappedFileWindow {
+	private RandomAccessFile file;
+	private FileChannel channel;
+	private long length;
+	private int windowSize;
+	private ByteOrder order = ByteOrder.BIG_ENDIAN;
+
+	private MappedByteBuffer window;
+	private long windowOffset;
+
+	public MappedFileWindow(File file, int windowSize) throws IOException {
+		if (windowSize < 64)
+			throw new IllegalArgumentException("window size should be greater than 64");
+
+		this.file = new RandomAccessFile(file, "r");
+		this.channel = this.file.getChannel();
+		this.length = channel.size();
+		this.windowSize = windowSize;
+	}
+
+	public long length() {
+		return length;
+	}
+
+	public long position() {
+		if (window == null)
+			return windowOffset;
+		return windowOffset + window.position();
+	}
+
+	public void position(long offset) {
+		if (window != null && offset >= windowOffset && offset <= windowOffset + window.limit()) {
+			window.position((int) (offset - windowOffset));
+			return;
+		}
+
+		window = null;
+		windowOffset = offset;
+	}
+
+	public ByteOrder order() {
+		return order;
+	}
+
+	public void order(ByteOrder order) {
+		this.order = order;
+		if (window != null)
+			window.order(order);
+	}
+
+	/**
+	 * Makes length bytes from current position readable.
+	 * 
+	 * @throws EOFException
+	 *             if file ends before length bytes
+	 */
+	public void require(int length) throws IOException {
+		if (!available(length))
+			throw new EOFException();
+	}
+
+	/**
+	 * Makes length bytes from current position readable.
+	 * 
+	 * @return false if file ends before length bytes
+	 */
+	public boolean available(int length) throws IOException {
+		if (length < 0)
+			throw new IOException("invalid record length: " + length);
+
+		if (window != null && window.remaining() >= length)
+			return true;
+
+		long offset = position();
+		if (offset + length > this.length)
+			return false;
+
+		long size = Math.min(Math.max(windowSize, length), this.length - offset);
+
+		window = channel.map(MapMode.READ_ONLY, offset, size);
+		window.order(order);
+		windowOffset = offset;
+		return true;
+	}
+
+	public byte get() {
+		return window.get();
+	}
+
+	public short getShort() {
+		return window.getShort();
+	}
+
+	public int getInt() {
+		return window.getInt();
+	}
+
+	public long getLong() {
+		return window.getLong();
+	}
+
+	public void get(byte[] b) {
+		window.get(b);
+	}
+
+	public void close() throws IOException {
+		window = null;
+		file.close();
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import org.krakenapps.pcap.PcapInputStream;
+import org.krakenapps.pcap.packet.PacketHeader;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.ChainBuffer;
+
+/**
+ * MappedPcapFileInputStream reads pcap packet stream from memory mapped pcap
+ * dump file. The file is mapped window by window, so files larger than 2GB can
+ * be read. Byte order of the mapping is set once using the magic number of
+ * global header, and record headers are read without swapping.
+ * 
+ * @author xeraph
+ * @see http://wiki.wireshark.org/Development/LibpcapFileFormat
+ */
+public class MappedPcapFileInputStream implements PcapInputStream {
+	public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private static final int GLOBAL_HEADER_LENGTH = 24;
+	private static final int PACKET_HEADER_LENGTH = 16;
+
+	private MappedFileWindow window;
+	private GlobalHeader globalHeader;
+	private boolean eos;
+
+	public MappedPcapFileInputStream(File file) throws IOException {
+		this(file, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Opens memory mapped pcap file input stream.
+	 * 
+	 * @param file
+	 *            the file to be opened for reading
+	 * @param windowSize
+	 *            the maximum bytes mapped at once
+	 * @throws IOException
+	 *             if the file cannot be opened, or it is not a pcap file
+	 */
+	public MappedPcapFileInputStream(File file, int windowSize) throws IOException {
+		window = new MappedFileWindow(file, windowSize);
+
+		try {
+			readGlobalHeader();
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads a packet from pcap file.
+	 * 
+	 * @exception EOFException
+	 *                if this input stream reaches the end of file, or the last
+	 *                packet is truncated.
+	 */
+	@Override
+	public PcapPacket getPacket() throws IOException {
+		PcapPacket packet = poll(0);
+		if (packet == null)
+			throw new EOFException();
+		return packet;
+	}
+
+	/**
+	 * Reads a packet from pcap file, or returns null if this input stream
+	 * reaches the end of file, or the last packet is truncated.
+	 */
+	@Override
+	public PcapPacket poll(int timeout) throws IOException {
+		if (!window.available(PACKET_HEADER_LENGTH)) {
+			eos = true;
+			return null;
+		}
+
+		int tsSec = window.getInt();
+		int tsUsec = window.getInt();
+		int inclLen = window.getInt();
+		int origLen = window.getInt();
+
+		if (!window.available(inclLen)) {
+			eos = true;
+			return null;
+		}
+
+		byte[] data = new byte[inclLen];
+		window.get(data);
+
+		Buffer payload = new ChainBuffer();
+		payload.addLast(data);
+		return new PcapPacket(new PacketHeader(tsSec, tsUsec, inclLen, origLen), payload);
+	}
+
+	@Override
+	public boolean isEndOfStream() {
+		return eos;
+	}
+
+	public GlobalHeader getGlobalHeader() {
+		return globalHeader;
+	}
+
+	/**
+	 * Returns file offset of the next packet record.
+	 */
+	public long position() {
+		return window.position();
+	}
+
+	/**
+	 * Moves to the packet record at the specified file offset.
+	 * 
+	 * @param offset
+	 *            the file offset of packet record, usually returned by
+	 *            position() or pcap index.
+	 */
+	public void position(long offset) {
+		if (offset < GLOBAL_HEADER_LENGTH)
+			throw new IllegalArgumentException("offset should not point global header: " + offset);
+		window.position(offset);
+		eos = false;
+	}
+
+	private void readGlobalHeader() throws IOException {
+		window.require(GLOBAL_HEADER_LENGTH);
+
+		// magic number is always read in big endian
+		int magic = window.getInt();
+		if (magic == 0xD4C3B2A1)
+			window.order(ByteOrder.LITTLE_ENDIAN);
+		else if (magic != 0xA1B2C3D4)
+			throw new IOException("unsupported pcap magic number: " + Integer.toHexString(magic));
+
+		short major = window.getShort();
+		short minor = window.getShort();
+		int tz = window.getInt();
+		int sigfigs = window.getInt();
+		int snaplen = window.getInt();
+		int network = window.getInt();
+
+		globalHeader = new GlobalHeader(magic, major, minor, tz, sigfigs, snaplen, network);
+	}
+
+	/**
+	 * Closes pcap file handle.
+	 */
+	@Override
+	public void close() throws IOException {
+		window.close();
+	}
+}
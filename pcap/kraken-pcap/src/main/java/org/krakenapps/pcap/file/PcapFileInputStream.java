@@ -27,6 +27,7 @@ import org.krakenapps.pcap.PcapInputStream;
 import org.krakenapps.pcap.packet.PacketHeader;
 import org.krakenapps.pcap.packet.PcapPacket;
 import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.BufferPool;
 import org.krakenapps.pcap.util.ByteOrderConverter;
 import org.krakenapps.pcap.util.ChainBuffer;
 
@@ -39,8 +40,13 @@ import org.krakenapps.pcap.util.ChainBuffer;
  * @see http://wiki.wireshark.org/Development/LibpcapFileFormat
  */
 public class PcapFileInputStream implements PcapInputStream {
+	private static final int PACKET_HEADER_LENGTH = 16;
+
 	private DataInputStream is;
 	private GlobalHeader globalHeader;
+	private byte[] header = new byte[PACKET_HEADER_LENGTH];
+	private boolean eos;
+	private BufferPool pool;
 
 	/**
 	 * Opens pcap file input stream.
@@ -85,7 +91,54 @@ public class PcapFileInputStream implements PcapInputStream {
 	 */
 	@Override
 	public PcapPacket getPacket() throws IOException {
-		return readPacket(globalHeader.getMagicNumber());
+		PcapPacket packet = poll(0);
+		if (packet == null)
+			throw new EOFException();
+		return packet;
+	}
+
+	/**
+	 * Reads a packet from pcap file, or returns null if this input stream
+	 * reaches the end of file, or the last packet is truncated.
+	 */
+	@Override
+	public PcapPacket poll(int timeout) throws IOException {
+		if (eos)
+			return null;
+
+		PacketHeader packetHeader = readPacketHeader(globalHeader.getMagicNumber());
+		if (packetHeader == null) {
+			eos = true;
+			return null;
+		}
+
+		Buffer packetData = readPacketData(packetHeader.getInclLen());
+		if (packetData == null) {
+			eos = true;
+			return null;
+		}
+
+		return new PcapPacket(packetHeader, packetData);
+	}
+
+	@Override
+	public boolean isEndOfStream() {
+		return eos;
+	}
+
+	public BufferPool getBufferPool() {
+		return pool;
+	}
+
+	/**
+	 * Reads packet data into pooled blocks. Caller should release packet data
+	 * after use, or the block is left to garbage collector.
+	 * 
+	 * @param pool
+	 *            the buffer pool, or null to allocate array for each packet
+	 */
+	public void setBufferPool(BufferPool pool) {
+		this.pool = pool;
 	}
 
 	public GlobalHeader getGlobalHeader() {
@@ -107,17 +160,14 @@ public class PcapFileInputStream implements PcapInputStream {
 			globalHeader.swapByteOrder();
 	}
 
-	private PcapPacket readPacket(int magicNumber) throws IOException, EOFException {
-		PacketHeader packetHeader = readPacketHeader(magicNumber);
-		Buffer packetData = readPacketData(packetHeader.getInclLen());
-		return new PcapPacket(packetHeader, packetData);
-	}
+	private PacketHeader readPacketHeader(int magicNumber) throws IOException {
+		if (!read(header))
+			return null;
 
-	private PacketHeader readPacketHeader(int magicNumber) throws IOException, EOFException {
-		int tsSec = is.readInt();
-		int tsUsec = is.readInt();
-		int inclLen = is.readInt();
-		int origLen = is.readInt();
+		int tsSec = toInt(header, 0);
+		int tsUsec = toInt(header, 4);
+		int inclLen = toInt(header, 8);
+		int origLen = toInt(header, 12);
 
 		if (magicNumber == 0xD4C3B2A1) {
 			tsSec = ByteOrderConverter.swap(tsSec);
@@ -130,8 +180,21 @@ public class PcapFileInputStream implements PcapInputStream {
 	}
 
 	private Buffer readPacketData(int packetLength) throws IOException {
+		if (packetLength < 0)
+			throw new IOException("invalid record length: " + packetLength);
+
+		if (pool != null) {
+			BufferPool.Block block = pool.acquire(packetLength);
+			if (!read(block.array(), packetLength)) {
+				block.release();
+				return null;
+			}
+			return new ChainBuffer(block, packetLength);
+		}
+
 		byte[] packets = new byte[packetLength];
-		is.read(packets);
+		if (!read(packets))
+			return null;
 
 		Buffer payload = new ChainBuffer();
 		payload.addLast(packets);
@@ -139,6 +202,29 @@ public class PcapFileInputStream implements PcapInputStream {
 		// return new PacketPayload(packets);
 	}
 
+	private boolean read(byte[] b) throws IOException {
+		return read(b, b.length);
+	}
+
+	/**
+	 * Reads fully like readFully(), but returns false at the end of stream.
+	 */
+	private boolean read(byte[] b, int length) throws IOException {
+		int offset = 0;
+		while (offset < length) {
+			int len = is.read(b, offset, length - offset);
+			if (len < 0)
+				return false;
+			offset += len;
+		}
+		return true;
+	}
+
+	private static int toInt(byte[] b, int offset) {
+		return ((b[offset] & 0xff) << 24) | ((b[offset + 1] & 0xff) << 16) | ((b[offset + 2] & 0xff) << 8)
+				| (b[offset + 3] & 0xff);
+	}
+
 	/**
 	 * Closes pcap file handle.
 	 */
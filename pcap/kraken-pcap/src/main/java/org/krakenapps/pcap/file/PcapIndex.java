@@ -0,0 +1,447 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.krakenapps.pcap.packet.PacketHeader;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.FlowKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * PcapIndex is a sidecar index of classic pcap file. The file is divided into
+ * segments of about segment size bytes at packet boundaries. Each segment
+ * keeps its file offset, packet count, and min/max timestamp, and each flow
+ * keeps the segment numbers where its packets appear. Since timestamps of a
+ * segment are kept as range, out of order timestamps are handled correctly.
+ * 
+ * The index is bound to the length and last modified time of the pcap file.
+ * Sidecar file is replaced by rename after it is completely written, and
+ * broken or stale sidecar is rebuilt on open.
+ * 
+ * @author xeraph
+ */
+public class PcapIndex {
+	public static final int DEFAULT_SEGMENT_SIZE = 256 * 1024;
+
+	private static final int MAGIC = 0x4B504958; // KPIX
+	private static final int VERSION = 2;
+
+	private static final Logger logger = LoggerFactory.getLogger(PcapIndex.class.getName());
+
+	private long fileLength;
+	private long lastModified;
+	private int segmentCount;
+	private long[] offsets;
+	private long[] minTimes;
+	private long[] maxTimes;
+	private int[] packets;
+	private Map<FlowKey, int[]> flows;
+
+	private PcapIndex(long fileLength, long lastModified, int capacity) {
+		this.fileLength = fileLength;
+		this.lastModified = lastModified;
+		this.offsets = new long[capacity];
+		this.minTimes = new long[capacity];
+		this.maxTimes = new long[capacity];
+		this.packets = new int[capacity];
+		this.flows = new HashMap<FlowKey, int[]>();
+	}
+
+	/**
+	 * Returns sidecar index file path of the pcap file.
+	 */
+	public static File getIndexFile(File pcap) {
+		return new File(pcap.getPath() + ".idx");
+	}
+
+	/**
+	 * Loads sidecar index of the pcap file. If the index does not exist, is
+	 * broken, or is built for other version of the file, new index is built
+	 * and saved. If the index cannot be saved, e.g. in read only directory,
+	 * built index is used without sidecar.
+	 */
+	public static PcapIndex open(File pcap) throws IOException {
+		File indexFile = getIndexFile(pcap);
+		if (indexFile.exists()) {
+			try {
+				PcapIndex index = load(indexFile);
+				if (index.isBuiltFor(pcap))
+					return index;
+			} catch (IOException e) {
+				logger.warn("kraken-pcap: rebuilding broken pcap index " + indexFile.getName(), e);
+			}
+		}
+
+		PcapIndex index = build(pcap);
+		try {
+			index.save(indexFile);
+		} catch (IOException e) {
+			logger.warn("kraken-pcap: cannot save pcap index " + indexFile.getName(), e);
+		}
+		return index;
+	}
+
+	public static PcapIndex build(File pcap) throws IOException {
+		return build(pcap, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Builds index in a single pass over the pcap file.
+	 * 
+	 * @param pcap
+	 *            the classic pcap file
+	 * @param segmentSize
+	 *            the minimum bytes between segment checkpoints
+	 */
+	public static PcapIndex build(File pcap, int segmentSize) throws IOException {
+		if (segmentSize <= 0)
+			throw new IllegalArgumentException("segment size should be positive");
+
+		MappedPcapFileInputStream is = new MappedPcapFileInputStream(pcap);
+		try {
+			PcapIndex index = new PcapIndex(pcap.length(), pcap.lastModified(), 64);
+			Map<FlowKey, SegmentList> lists = new HashMap<FlowKey, SegmentList>();
+
+			while (true) {
+				long offset = is.position();
+				PcapPacket packet = is.poll(0);
+				if (packet == null)
+					break;
+
+				int segment = index.segmentCount - 1;
+				if (segment < 0 || offset - index.offsets[segment] >= segmentSize)
+					segment = index.addSegment(offset);
+
+				long time = toMicros(packet.getPacketHeader());
+				if (index.packets[segment] == 0 || time < index.minTimes[segment])
+					index.minTimes[segment] = time;
+				if (index.packets[segment] == 0 || time > index.maxTimes[segment])
+					index.maxTimes[segment] = time;
+				index.packets[segment]++;
+
+				FlowKey key = FlowKey.parse(packet.getPacketData());
+				if (key == null)
+					continue;
+
+				SegmentList list = lists.get(key);
+				if (list == null) {
+					list = new SegmentList();
+					lists.put(key, list);
+				}
+				list.add(segment);
+			}
+
+			for (Map.Entry<FlowKey, SegmentList> e : lists.entrySet())
+				index.flows.put(e.getKey(), e.getValue().toArray());
+
+			return index;
+		} finally {
+			is.close();
+		}
+	}
+
+	public static PcapIndex load(File indexFile) throws IOException {
+		DataInputStream is = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+		try {
+			if (is.readInt() != MAGIC)
+				throw new IOException("invalid pcap index file: " + indexFile.getName());
+
+			int version = is.readInt();
+			if (version != VERSION)
+				throw new IOException("unsupported pcap index version: " + version);
+
+			long fileLength = is.readLong();
+			long lastModified = is.readLong();
+			int segmentCount = is.readInt();
+			if (segmentCount < 0)
+				throw corrupted(indexFile);
+
+			PcapIndex index = new PcapIndex(fileLength, lastModified, Math.max(segmentCount, 1));
+			for (int i = 0; i < segmentCount; i++) {
+				index.offsets[i] = is.readLong();
+				index.minTimes[i] = is.readLong();
+				index.maxTimes[i] = is.readLong();
+				index.packets[i] = is.readInt();
+			}
+			index.segmentCount = segmentCount;
+
+			int flowCount = is.readInt();
+			if (flowCount < 0)
+				throw corrupted(indexFile);
+
+			for (int i = 0; i < flowCount; i++) {
+				int protocol = is.readUnsignedByte();
+				int addrLength = is.readUnsignedByte();
+				if (addrLength != 4 && addrLength != 16)
+					throw corrupted(indexFile);
+
+				byte[] addr1 = new byte[addrLength];
+				byte[] addr2 = new byte[addr1.length];
+				is.readFully(addr1);
+				is.readFully(addr2);
+				int port1 = is.readUnsignedShort();
+				int port2 = is.readUnsignedShort();
+
+				int length = is.readInt();
+				if (length < 0 || length > segmentCount)
+					throw corrupted(indexFile);
+
+				int[] segments = new int[length];
+				int last = 0;
+				for (int j = 0; j < segments.length; j++) {
+					last += readVarint(is);
+					if (last < 0 || last >= segmentCount)
+						throw corrupted(indexFile);
+					segments[j] = last;
+				}
+
+				index.flows.put(new FlowKey(protocol, addr1, port1, addr2, port2), segments);
+			}
+
+			return index;
+		} finally {
+			is.close();
+		}
+	}
+
+	private static IOException corrupted(File indexFile) {
+		return new IOException("corrupted pcap index file: " + indexFile.getName());
+	}
+
+	/**
+	 * Writes the index to temporary file, and renames it to the index file,
+	 * so the index file is never left partially written.
+	 */
+	public void save(File indexFile) throws IOException {
+		File tmp = new File(indexFile.getPath() + ".tmp");
+		boolean completed = false;
+		try {
+			write(tmp);
+
+			if (!tmp.renameTo(indexFile)) {
+				// rename does not replace existing file on some platforms
+				indexFile.delete();
+				if (!tmp.renameTo(indexFile))
+					throw new IOException("cannot rename pcap index to " + indexFile.getName());
+			}
+			completed = true;
+		} finally {
+			if (!completed)
+				tmp.delete();
+		}
+	}
+
+	private void write(File f) throws IOException {
+		FileOutputStream fos = new FileOutputStream(f);
+		DataOutputStream os = new DataOutputStream(new BufferedOutputStream(fos));
+		try {
+			os.writeInt(MAGIC);
+			os.writeInt(VERSION);
+			os.writeLong(fileLength);
+			os.writeLong(lastModified);
+			os.writeInt(segmentCount);
+			for (int i = 0; i < segmentCount; i++) {
+				os.writeLong(offsets[i]);
+				os.writeLong(minTimes[i]);
+				os.writeLong(maxTimes[i]);
+				os.writeInt(packets[i]);
+			}
+
+			os.writeInt(flows.size());
+			for (Map.Entry<FlowKey, int[]> e : flows.entrySet()) {
+				FlowKey key = e.getKey();
+				os.writeByte(key.getProtocol());
+				os.writeByte(key.getAddress1().length);
+				os.write(key.getAddress1());
+				os.write(key.getAddress2());
+				os.writeShort(key.getPort1());
+				os.writeShort(key.getPort2());
+
+				// segment numbers are ascending, write deltas
+				int[] segments = e.getValue();
+				os.writeInt(segments.length);
+				int last = 0;
+				for (int segment : segments) {
+					writeVarint(os, segment - last);
+					last = segment;
+				}
+			}
+
+			// data should reach the disk before rename
+			os.flush();
+			fos.getFD().sync();
+		} finally {
+			os.close();
+		}
+	}
+
+	/**
+	 * Returns segment numbers which may contain packets between from
+	 * (inclusive) and to (exclusive), and of the flow.
+	 * 
+	 * @param from
+	 *            the start time in microseconds, or Long.MIN_VALUE
+	 * @param to
+	 *            the end time in microseconds, or Long.MAX_VALUE
+	 * @param flow
+	 *            the flow key, or null for all flows
+	 */
+	public int[] findSegments(long from, long to, FlowKey flow) {
+		int[] candidates = null;
+		int count = segmentCount;
+		if (flow != null) {
+			candidates = flows.get(flow);
+			if (candidates == null)
+				return new int[0];
+			count = candidates.length;
+		}
+
+		int[] found = new int[count];
+		int n = 0;
+		for (int i = 0; i < count; i++) {
+			int segment = candidates != null ? candidates[i] : i;
+			if (minTimes[segment] < to && maxTimes[segment] >= from)
+				found[n++] = segment;
+		}
+
+		return Arrays.copyOf(found, n);
+	}
+
+	public long getFileLength() {
+		return fileLength;
+	}
+
+	/**
+	 * Returns the last modified time of the pcap file when index is built.
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Returns true if the index is built for current length and last modified
+	 * time of the pcap file.
+	 */
+	public boolean isBuiltFor(File pcap) {
+		return fileLength == pcap.length() && lastModified == pcap.lastModified();
+	}
+
+	public int getSegmentCount() {
+		return segmentCount;
+	}
+
+	public long getSegmentOffset(int segment) {
+		return offsets[segment];
+	}
+
+	/**
+	 * Returns file offset where the segment ends.
+	 */
+	public long getSegmentEnd(int segment) {
+		if (segment + 1 < segmentCount)
+			return offsets[segment + 1];
+		return fileLength;
+	}
+
+	public long getSegmentMinTime(int segment) {
+		return minTimes[segment];
+	}
+
+	public long getSegmentMaxTime(int segment) {
+		return maxTimes[segment];
+	}
+
+	public int getSegmentPackets(int segment) {
+		return packets[segment];
+	}
+
+	public Collection<FlowKey> getFlows() {
+		return Collections.unmodifiableCollection(flows.keySet());
+	}
+
+	public static long toMicros(PacketHeader header) {
+		return (header.getTsSec() & 0xFFFFFFFFL) * 1000000 + header.getTsUsec();
+	}
+
+	private int addSegment(long offset) {
+		if (segmentCount == offsets.length) {
+			int capacity = offsets.length * 2;
+			offsets = Arrays.copyOf(offsets, capacity);
+			minTimes = Arrays.copyOf(minTimes, capacity);
+			maxTimes = Arrays.copyOf(maxTimes, capacity);
+			packets = Arrays.copyOf(packets, capacity);
+		}
+
+		offsets[segmentCount] = offset;
+		return segmentCount++;
+	}
+
+	private static void writeVarint(DataOutputStream os, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			os.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		os.writeByte(value);
+	}
+
+	private static int readVarint(DataInputStream is) throws IOException {
+		int value = 0;
+		int shift = 0;
+		while (true) {
+			int b = is.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+			shift += 7;
+		}
+	}
+
+	/**
+	 * Growable ascending segment number list without duplicates.
+	 */
+	private static class SegmentList {
+		private int[] segments = new int[4];
+		private int size;
+
+		public void add(int segment) {
+			if (size > 0 && segments[size - 1] == segment)
+				return;
+
+			if (size == segments.length)
+				segments = Arrays.copyOf(segments, size * 2);
+			segments[size++] = segment;
+		}
+
+		public int[] toArray() {
+			return Arrays.copyOf(segments, size);
+		}
+	}
+}
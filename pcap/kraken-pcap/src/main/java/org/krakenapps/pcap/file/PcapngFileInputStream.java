@@ -0,0 +1,324 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.krakenapps.pcap.PcapInputStream;
+import org.krakenapps.pcap.packet.PacketHeader;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.ChainBuffer;
+
+/**
+ * PcapngFileInputStream reads pcap packet stream from pcapng dump file. Blocks
+ * are parsed one by one from memory mapped window, so the whole file is never
+ * buffered. Section header, interface description, enhanced packet, simple
+ * packet and obsolete packet blocks are supported, and other blocks are
+ * skipped. Timestamps are converted to microseconds using the timestamp
+ * resolution of each interface.
+ * 
+ * @author xeraph
+ * @see http://www.winpcap.org/ntar/draft/PCAP-DumpFileFormat.html
+ */
+public class PcapngFileInputStream implements PcapInputStream {
+	public static final int SECTION_HEADER_BLOCK = 0x0A0D0D0A;
+	public static final int INTERFACE_DESCRIPTION_BLOCK = 1;
+	public static final int PACKET_BLOCK = 2;
+	public static final int SIMPLE_PACKET_BLOCK = 3;
+	public static final int ENHANCED_PACKET_BLOCK = 6;
+
+	private static final int BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+	private static final int OPT_ENDOFOPT = 0;
+	private static final int OPT_IF_TSRESOL = 9;
+	private static final int OPT_IF_TSOFFSET = 14;
+
+	private MappedFileWindow window;
+	private List<InterfaceDescription> interfaces;
+	private int interfaceId;
+	private boolean eos;
+
+	public PcapngFileInputStream(File file) throws IOException {
+		this(file, MappedPcapFileInputStream.DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Opens pcapng file input stream.
+	 * 
+	 * @param file
+	 *            the file to be opened for reading
+	 * @param windowSize
+	 *            the maximum bytes mapped at once
+	 * @throws IOException
+	 *             if the file cannot be opened, or it does not start with
+	 *             section header block
+	 */
+	public PcapngFileInputStream(File file, int windowSize) throws IOException {
+		window = new MappedFileWindow(file, windowSize);
+		interfaces = new ArrayList<InterfaceDescription>();
+
+		try {
+			window.require(12);
+			int type = window.getInt();
+			int length = window.getInt();
+			if (type != SECTION_HEADER_BLOCK)
+				throw new IOException("not a pcapng file: " + file.getName());
+
+			readSectionHeader(0, length);
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads a packet from pcapng file.
+	 * 
+	 * @exception EOFException
+	 *                if this input stream reaches the end of file, or the last
+	 *                block is truncated.
+	 */
+	@Override
+	public PcapPacket getPacket() throws IOException {
+		PcapPacket packet = poll(0);
+		if (packet == null)
+			throw new EOFException();
+		return packet;
+	}
+
+	/**
+	 * Reads a packet from pcapng file, or returns null if this input stream
+	 * reaches the end of file, or the last block is truncated.
+	 */
+	@Override
+	public PcapPacket poll(int timeout) throws IOException {
+		while (true) {
+			long offset = window.position();
+			if (!window.available(12)) {
+				eos = true;
+				return null;
+			}
+
+			int type = window.getInt();
+			int length = window.getInt();
+
+			if (type == SECTION_HEADER_BLOCK) {
+				readSectionHeader(offset, length);
+				continue;
+			}
+
+			if (length < 12 || (length & 3) != 0)
+				throw new IOException("invalid pcapng block length " + length + " at " + offset);
+
+			if (!window.available(length - 8)) {
+				eos = true;
+				return null;
+			}
+
+			PcapPacket packet = null;
+			if (type == ENHANCED_PACKET_BLOCK)
+				packet = readEnhancedPacket(length);
+			else if (type == SIMPLE_PACKET_BLOCK)
+				packet = readSimplePacket(length);
+			else if (type == PACKET_BLOCK)
+				packet = readObsoletePacket(length);
+			else if (type == INTERFACE_DESCRIPTION_BLOCK)
+				readInterfaceDescription(offset + length - 4);
+
+			window.position(offset + length);
+
+			if (packet != null)
+				return packet;
+		}
+	}
+
+	@Override
+	public boolean isEndOfStream() {
+		return eos;
+	}
+
+	/**
+	 * Returns interfaces described in current section.
+	 */
+	public List<InterfaceDescription> getInterfaces() {
+		return Collections.unmodifiableList(interfaces);
+	}
+
+	/**
+	 * Returns interface id of the last packet. Simple packet block always
+	 * belongs to the first interface.
+	 */
+	public int getLastInterfaceId() {
+		return interfaceId;
+	}
+
+	/**
+	 * Returns file offset of the next block.
+	 */
+	public long position() {
+		return window.position();
+	}
+
+	private void readSectionHeader(long offset, int length) throws IOException {
+		int magic = window.getInt();
+		if (magic != BYTE_ORDER_MAGIC) {
+			if (Integer.reverseBytes(magic) != BYTE_ORDER_MAGIC)
+				throw new IOException("invalid pcapng byte order magic at " + offset);
+
+			ByteOrder current = window.order();
+			window.order(current == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+			length = Integer.reverseBytes(length);
+		}
+
+		if (length < 28 || (length & 3) != 0)
+			throw new IOException("invalid pcapng section header length " + length + " at " + offset);
+
+		window.require(length - 12);
+		short major = window.getShort();
+		if (major != 1)
+			throw new IOException("unsupported pcapng major version " + major + " at " + offset);
+
+		// interface ids are scoped by section
+		interfaces.clear();
+		window.position(offset + length);
+	}
+
+	private void readInterfaceDescription(long end) throws IOException {
+		int linkType = window.getShort() & 0xFFFF;
+		window.getShort(); // reserved
+		int snaplen = window.getInt();
+
+		long tsUnits = 1000000;
+		long tsOffset = 0;
+
+		while (window.position() + 4 <= end) {
+			int code = window.getShort() & 0xFFFF;
+			int len = window.getShort() & 0xFFFF;
+			long next = window.position() + ((len + 3) & ~3);
+			if (code == OPT_ENDOFOPT || next > end)
+				break;
+
+			if (code == OPT_IF_TSRESOL && len >= 1)
+				tsUnits = toTimestampUnits(window.get());
+			else if (code == OPT_IF_TSOFFSET && len == 8)
+				tsOffset = window.getLong();
+
+			window.position(next);
+		}
+
+		interfaces.add(new InterfaceDescription(linkType, snaplen, tsUnits, tsOffset));
+	}
+
+	private long toTimestampUnits(byte tsresol) throws IOException {
+		int exponent = tsresol & 0x7F;
+		if ((tsresol & 0x80) == 0) {
+			if (exponent > 18)
+				throw new IOException("unsupported timestamp resolution 10^-" + exponent);
+
+			long units = 1;
+			for (int i = 0; i < exponent; i++)
+				units *= 10;
+			return units;
+		}
+
+		if (exponent > 62)
+			throw new IOException("unsupported timestamp resolution 2^-" + exponent);
+		return 1L << exponent;
+	}
+
+	private PcapPacket readEnhancedPacket(int length) throws IOException {
+		int id = window.getInt();
+		int tsHigh = window.getInt();
+		int tsLow = window.getInt();
+		int capLen = window.getInt();
+		int origLen = window.getInt();
+
+		if (capLen < 0 || capLen > length - 32)
+			throw new IOException("invalid captured length " + capLen);
+
+		return readPacket(id, tsHigh, tsLow, capLen, origLen);
+	}
+
+	private PcapPacket readSimplePacket(int length) throws IOException {
+		int origLen = window.getInt();
+
+		InterfaceDescription iface = getInterface(0);
+		int capLen = Math.min(length - 16, origLen);
+		if (iface.getSnaplen() > 0)
+			capLen = Math.min(capLen, iface.getSnaplen());
+
+		return readPacket(0, 0, 0, capLen, origLen);
+	}
+
+	private PcapPacket readObsoletePacket(int length) throws IOException {
+		int id = window.getShort() & 0xFFFF;
+		window.getShort(); // drops count
+		int tsHigh = window.getInt();
+		int tsLow = window.getInt();
+		int capLen = window.getInt();
+		int origLen = window.getInt();
+
+		if (capLen < 0 || capLen > length - 32)
+			throw new IOException("invalid captured length " + capLen);
+
+		return readPacket(id, tsHigh, tsLow, capLen, origLen);
+	}
+
+	private PcapPacket readPacket(int id, int tsHigh, int tsLow, int capLen, int origLen) throws IOException {
+		InterfaceDescription iface = getInterface(id);
+
+		long ts = ((long) tsHigh << 32) | (tsLow & 0xFFFFFFFFL);
+		long units = iface.getTimestampUnits();
+		long frac = ts % units;
+		long tsSec = ts / units + iface.getTimestampOffset();
+		long tsUsec;
+		if (units == 1000000)
+			tsUsec = frac;
+		else if (units % 1000000 == 0)
+			tsUsec = frac / (units / 1000000);
+		else
+			tsUsec = (long) ((double) frac * 1000000 / units);
+
+		byte[] data = new byte[capLen];
+		window.get(data);
+
+		Buffer payload = new ChainBuffer();
+		payload.addLast(data);
+
+		interfaceId = id;
+		return new PcapPacket(new PacketHeader((int) tsSec, (int) tsUsec, capLen, origLen), payload);
+	}
+
+	private InterfaceDescription getInterface(int id) throws IOException {
+		if (id < 0 || id >= interfaces.size())
+			throw new IOException("unknown pcapng interface id " + id);
+		return interfaces.get(id);
+	}
+
+	/**
+	 * Closes pcapng file handle.
+	 */
+	@Override
+	public void close() throws IOException {
+		window.close();
+	}
+}
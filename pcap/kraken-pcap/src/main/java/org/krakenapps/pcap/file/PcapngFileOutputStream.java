@@ -0,0 +1,126 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.krakenapps.pcap.PcapOutputStream;
+import org.krakenapps.pcap.packet.PacketHeader;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.Buffer;
+
+/**
+ * PcapngFileOutputStream writes pcap packet stream to pcapng file. The file
+ * contains one little endian section with one interface of microsecond
+ * timestamp resolution, and every packet is written as enhanced packet block.
+ * 
+ * @author xeraph
+ * @see http://www.winpcap.org/ntar/draft/PCAP-DumpFileFormat.html
+ */
+public class PcapngFileOutputStream implements PcapOutputStream {
+	private static final int SECTION_HEADER_LENGTH = 28;
+	private static final int INTERFACE_DESCRIPTION_LENGTH = 20;
+	private static final int ENHANCED_PACKET_HEADER_LENGTH = 28;
+
+	private BufferedChannelWriter writer;
+
+	public PcapngFileOutputStream(File file) throws IOException {
+		this(file, new GlobalHeader(0xA1B2C3D4, (short) 2, (short) 4, 0, 0, 65535, 1));
+	}
+
+	public PcapngFileOutputStream(File file, GlobalHeader header) throws IOException {
+		this(file, header, PcapFileOutputStream.DEFAULT_FLUSH_THRESHOLD);
+	}
+
+	/**
+	 * Creates new pcapng file.
+	 * 
+	 * @param file
+	 *            the file to be created
+	 * @param header
+	 *            the global header which provides link type and snaplen of
+	 *            the interface
+	 * @param flushThreshold
+	 *            the buffered bytes which triggers write to file
+	 * @throws IOException
+	 *             if file already exists, or cannot be opened for writing
+	 */
+	public PcapngFileOutputStream(File file, GlobalHeader header, int flushThreshold) throws IOException {
+		if (file.exists())
+			throw new IOException("file exists: " + file.getName());
+
+		writer = new BufferedChannelWriter(file, false, flushThreshold);
+		writeSectionHeader();
+		writeInterfaceDescription(header.getNetwork(), header.getSnaplen());
+	}
+
+	private void writeSectionHeader() throws IOException {
+		ByteBuffer bb = writer.reserve(SECTION_HEADER_LENGTH);
+		bb.putInt(PcapngFileInputStream.SECTION_HEADER_BLOCK);
+		bb.putInt(SECTION_HEADER_LENGTH);
+		bb.putInt(0x1A2B3C4D);
+		bb.putShort((short) 1);
+		bb.putShort((short) 0);
+		bb.putLong(-1); // section length is not specified
+		bb.putInt(SECTION_HEADER_LENGTH);
+	}
+
+	private void writeInterfaceDescription(int linkType, int snaplen) throws IOException {
+		ByteBuffer bb = writer.reserve(INTERFACE_DESCRIPTION_LENGTH);
+		bb.putInt(PcapngFileInputStream.INTERFACE_DESCRIPTION_BLOCK);
+		bb.putInt(INTERFACE_DESCRIPTION_LENGTH);
+		bb.putShort((short) linkType);
+		bb.putShort((short) 0);
+		bb.putInt(snaplen);
+		bb.putInt(INTERFACE_DESCRIPTION_LENGTH);
+	}
+
+	@Override
+	public void write(PcapPacket packet) throws IOException {
+		PacketHeader packetHeader = packet.getPacketHeader();
+		Buffer data = packet.getPacketData();
+
+		int capLen = data.readableBytes();
+		int padded = (capLen + 3) & ~3;
+		int length = ENHANCED_PACKET_HEADER_LENGTH + padded + 4;
+		long ts = (packetHeader.getTsSec() & 0xFFFFFFFFL) * 1000000 + (packetHeader.getTsUsec() & 0xFFFFFFFFL);
+
+		ByteBuffer bb = writer.reserve(ENHANCED_PACKET_HEADER_LENGTH);
+		bb.putInt(PcapngFileInputStream.ENHANCED_PACKET_BLOCK);
+		bb.putInt(length);
+		bb.putInt(0);
+		bb.putInt((int) (ts >>> 32));
+		bb.putInt((int) ts);
+		bb.putInt(capLen);
+		bb.putInt(packetHeader.getOrigLen());
+
+		writer.put(data);
+		writer.pad(padded - capLen);
+		writer.reserve(4).putInt(length);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+}
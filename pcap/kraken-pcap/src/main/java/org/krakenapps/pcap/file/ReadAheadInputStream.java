@@ -0,0 +1,155 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads source stream in background thread into a ring of reusable chunks.
+ * Slow source such as inflater runs in parallel with the consumer thread.
+ * 
+ * @author xeraph
+ */
+class ReadAheadInputStream extends InputStream {
+	private InputStream source;
+	private BlockingQueue<Chunk> free;
+	private BlockingQueue<Chunk> filled;
+	private Thread reader;
+
+	private Chunk current;
+	private int offset;
+	private boolean eof;
+
+	public ReadAheadInputStream(InputStream source, String name, int chunkSize, int chunkCount) {
+		if (chunkSize <= 0 || chunkCount < 2)
+			throw new IllegalArgumentException("at least two chunks are required for read ahead");
+
+		this.source = source;
+		this.free = new ArrayBlockingQueue<Chunk>(chunkCount);
+		this.filled = new ArrayBlockingQueue<Chunk>(chunkCount);
+		for (int i = 0; i < chunkCount; i++)
+			free.add(new Chunk(chunkSize));
+
+		reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				readAhead();
+			}
+		}, name);
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	private void readAhead() {
+		try {
+			while (true) {
+				Chunk c = free.take();
+				c.length = 0;
+				try {
+					while (c.length < c.b.length) {
+						int len = source.read(c.b, c.length, c.b.length - c.length);
+						if (len < 0) {
+							c.eof = true;
+							break;
+						}
+						c.length += len;
+					}
+				} catch (IOException e) {
+					c.error = e;
+				}
+
+				// filled queue can hold all chunks, so it never blocks
+				filled.put(c);
+				if (c.eof || c.error != null)
+					break;
+			}
+		} catch (InterruptedException e) {
+			// closed
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fill())
+			return -1;
+		return current.b[offset++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		if (!fill())
+			return -1;
+
+		int n = Math.min(len, current.length - offset);
+		System.arraycopy(current.b, offset, b, off, n);
+		offset += n;
+		return n;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return current != null ? current.length - offset : 0;
+	}
+
+	private boolean fill() throws IOException {
+		while (current == null || offset >= current.length) {
+			if (eof)
+				return false;
+
+			if (current != null)
+				free.add(current);
+
+			try {
+				current = filled.take();
+				offset = 0;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting read ahead");
+			}
+
+			if (current.error != null) {
+				eof = true;
+				throw current.error;
+			}
+
+			eof = current.eof;
+		}
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.interrupt();
+		source.close();
+	}
+
+	private static class Chunk {
+		private byte[] b;
+		private int length;
+		private boolean eof;
+		private IOException error;
+
+		public Chunk(int size) {
+			b = new byte[size];
+		}
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.krakenapps.pcap.PcapOutputStream;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * RotatingPcapOutputStream writes pcap packet stream to a series of pcap files
+ * like tcpdump -C, -G and -W options. Current file is rolled over when it
+ * exceeds max file size or rotation interval, and only the newest max files
+ * are kept. Next file is created in advance by background thread, and old
+ * files are closed and deleted by the same thread, so write does not wait for
+ * file system in most cases. Files are named as prefix followed by sequence
+ * number, e.g. capture.000001.pcap
+ * 
+ * @author xeraph
+ */
+public class RotatingPcapOutputStream implements PcapOutputStream {
+	private static final int GLOBAL_HEADER_LENGTH = 24;
+	private static final int PACKET_HEADER_LENGTH = 16;
+
+	private final Logger logger = LoggerFactory.getLogger(RotatingPcapOutputStream.class.getName());
+
+	private File dir;
+	private String prefix;
+	private GlobalHeader header;
+	private long maxFileSize;
+	private long interval;
+	private int maxFiles;
+
+	private ExecutorService executor;
+	private ArrayDeque<File> files;
+	private int sequence;
+
+	private File currentFile;
+	private PcapFileOutputStream current;
+	private long written;
+	private long rotateTime;
+
+	private Future<PcapFileOutputStream> next;
+	private File nextFile;
+
+	public RotatingPcapOutputStream(File dir, String prefix, long maxFileSize, long interval, int maxFiles)
+			throws IOException {
+		this(dir, prefix, new GlobalHeader(0xA1B2C3D4, (short) 2, (short) 4, 0, 0, 65535, 1), maxFileSize, interval,
+				maxFiles);
+	}
+
+	/**
+	 * Creates the first pcap file and starts background thread.
+	 * 
+	 * @param dir
+	 *            the directory where pcap files are created
+	 * @param prefix
+	 *            the file name prefix
+	 * @param header
+	 *            the global header of each file
+	 * @param maxFileSize
+	 *            the file size in bytes which triggers rotation, or 0 for no
+	 *            size limit
+	 * @param interval
+	 *            the rotation interval in milliseconds, or 0 for no time
+	 *            limit
+	 * @param maxFiles
+	 *            the number of newest files to keep, or 0 to keep all files
+	 * @throws IOException
+	 *             if first file cannot be created
+	 */
+	public RotatingPcapOutputStream(File dir, String prefix, GlobalHeader header, long maxFileSize, long interval,
+			int maxFiles) throws IOException {
+		if (maxFileSize < 0 || interval < 0 || maxFiles < 0)
+			throw new IllegalArgumentException("rotation limits should not be negative");
+		if (maxFileSize > 0 && maxFileSize <= GLOBAL_HEADER_LENGTH)
+			throw new IllegalArgumentException("max file size should be larger than global header");
+		if (!dir.isDirectory() && !dir.mkdirs())
+			throw new IOException("cannot create directory: " + dir.getAbsolutePath());
+
+		this.dir = dir;
+		this.prefix = prefix;
+		this.header = header;
+		this.maxFileSize = maxFileSize;
+		this.interval = interval;
+		this.maxFiles = maxFiles;
+		this.files = new ArrayDeque<File>();
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "Pcap Rotation");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+
+		try {
+			currentFile = nextFileName();
+			current = create(currentFile);
+			files.add(currentFile);
+			written = GLOBAL_HEADER_LENGTH;
+			rotateTime = interval > 0 ? System.currentTimeMillis() + interval : Long.MAX_VALUE;
+			prepareNext();
+		} catch (IOException e) {
+			executor.shutdownNow();
+			throw e;
+		}
+	}
+
+	@Override
+	public void write(PcapPacket packet) throws IOException {
+		int length = PACKET_HEADER_LENGTH + packet.getPacketData().readableBytes();
+		boolean full = maxFileSize > 0 && written > GLOBAL_HEADER_LENGTH && written + length > maxFileSize;
+		if (full || (rotateTime != Long.MAX_VALUE && System.currentTimeMillis() >= rotateTime))
+			rotate();
+
+		current.write(packet);
+		written += length;
+	}
+
+	/**
+	 * Switches to the next file immediately.
+	 */
+	public void rotate() throws IOException {
+		PcapFileOutputStream stream = null;
+		try {
+			stream = awaitNext();
+		} catch (IOException e) {
+			// retry at next rotation
+			prepareNext();
+			throw e;
+		}
+
+		final PcapFileOutputStream old = current;
+		final File oldFile = currentFile;
+
+		current = stream;
+		currentFile = nextFile;
+		files.add(currentFile);
+		written = GLOBAL_HEADER_LENGTH;
+		if (interval > 0)
+			rotateTime = System.currentTimeMillis() + interval;
+
+		final List<File> expired = new ArrayList<File>();
+		while (maxFiles > 0 && files.size() > maxFiles)
+			expired.add(files.poll());
+
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					old.close();
+				} catch (IOException e) {
+					logger.warn("kraken-pcap: cannot close rotated pcap file " + oldFile.getName(), e);
+				}
+
+				for (File f : expired)
+					if (!f.delete())
+						logger.warn("kraken-pcap: cannot delete old pcap file {}", f.getName());
+			}
+		});
+
+		prepareNext();
+	}
+
+	/**
+	 * Returns current pcap file.
+	 */
+	public File getCurrentFile() {
+		return currentFile;
+	}
+
+	/**
+	 * Returns kept pcap files in creation order, including current file.
+	 */
+	public List<File> getFiles() {
+		return new ArrayList<File>(files);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		current.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			current.close();
+		} finally {
+			// discard unused next file
+			try {
+				PcapFileOutputStream stream = awaitNext();
+				stream.close();
+				nextFile.delete();
+			} catch (IOException e) {
+				logger.trace("kraken-pcap: next pcap file was not created", e);
+			}
+
+			executor.shutdown();
+			try {
+				executor.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void prepareNext() {
+		final File file = nextFileName();
+		nextFile = file;
+		next = executor.submit(new Callable<PcapFileOutputStream>() {
+			@Override
+			public PcapFileOutputStream call() throws Exception {
+				return create(file);
+			}
+		});
+	}
+
+	private PcapFileOutputStream awaitNext() throws IOException {
+		try {
+			return next.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting next pcap file");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			throw new IOException("cannot create next pcap file " + nextFile.getName() + ": " + cause);
+		}
+	}
+
+	private PcapFileOutputStream create(File file) throws IOException {
+		// stale file of previous capture is overwritten like tcpdump
+		if (file.exists() && !file.delete())
+			throw new IOException("cannot delete stale pcap file: " + file.getAbsolutePath());
+
+		PcapFileOutputStream os = new PcapFileOutputStream(file, header);
+		os.flush();
+		return os;
+	}
+
+	private File nextFileName() {
+		return new File(dir, String.format("%s.%06d.pcap", prefix, ++sequence));
+	}
+}
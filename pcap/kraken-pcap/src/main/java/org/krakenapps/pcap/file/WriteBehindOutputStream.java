@@ -0,0 +1,199 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.file;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Collects written bytes into a ring of reusable chunks, and writes full
+ * chunks to sink stream in background thread. Slow sink such as deflater runs
+ * in parallel with the producer thread.
+ * 
+ * @author xeraph
+ */
+class WriteBehindOutputStream extends OutputStream {
+	private OutputStream sink;
+	private BlockingQueue<Chunk> free;
+	private BlockingQueue<Chunk> filled;
+	private Thread writer;
+	private volatile IOException error;
+
+	private Chunk current;
+	private boolean closed;
+
+	public WriteBehindOutputStream(OutputStream sink, String name, int chunkSize, int chunkCount) {
+		if (chunkSize <= 0 || chunkCount < 2)
+			throw new IllegalArgumentException("at least two chunks are required for write behind");
+
+		this.sink = sink;
+		this.free = new ArrayBlockingQueue<Chunk>(chunkCount);
+		this.filled = new ArrayBlockingQueue<Chunk>(chunkCount);
+		for (int i = 0; i < chunkCount; i++)
+			free.add(new Chunk(chunkSize));
+
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeBehind();
+			}
+		}, name);
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	private void writeBehind() {
+		try {
+			while (true) {
+				Chunk c = filled.take();
+				try {
+					if (error == null) {
+						sink.write(c.b, 0, c.length);
+						if (c.sync != null)
+							sink.flush();
+						if (c.close)
+							sink.close();
+					}
+				} catch (IOException e) {
+					error = e;
+				}
+
+				boolean close = c.close;
+				if (c.sync != null)
+					c.sync.countDown();
+
+				c.length = 0;
+				c.sync = null;
+				c.close = false;
+				free.put(c);
+
+				if (close)
+					break;
+			}
+		} catch (InterruptedException e) {
+			// abandoned
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		reserve();
+		current.b[current.length++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			reserve();
+			int n = Math.min(len, current.b.length - current.length);
+			System.arraycopy(b, off, current.b, current.length, n);
+			current.length += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	private void reserve() throws IOException {
+		if (closed)
+			throw new IOException("stream closed");
+		if (current != null && current.length < current.b.length)
+			return;
+
+		if (current != null)
+			handoff(current);
+
+		try {
+			current = free.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting write behind");
+		}
+	}
+
+	private void handoff(Chunk c) throws IOException {
+		if (error != null)
+			throw error;
+
+		// filled queue can hold all chunks, so it never blocks
+		filled.add(c);
+		current = null;
+	}
+
+	/**
+	 * Waits until all written bytes are flushed to sink.
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (closed)
+			return;
+		sync(false);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+
+		try {
+			sync(true);
+		} catch (IOException e) {
+			// writer thread does not close sink after failure
+			writer.interrupt();
+			try {
+				sink.close();
+			} catch (IOException ex) {
+			}
+			throw e;
+		} finally {
+			closed = true;
+		}
+	}
+
+	private void sync(boolean close) throws IOException {
+		if (current == null)
+			reserve();
+
+		CountDownLatch latch = new CountDownLatch(1);
+		current.sync = latch;
+		current.close = close;
+		handoff(current);
+
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting write behind");
+		}
+
+		if (error != null)
+			throw error;
+	}
+
+	private static class Chunk {
+		private byte[] b;
+		private int length;
+		private CountDownLatch sync;
+		private boolean close;
+
+		public Chunk(int size) {
+			b = new byte[size];
+		}
+	}
+}
@@ -0,0 +1,1195 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.filter;
+
+import static org.krakenapps.pcap.filter.BpfInstruction.*;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.krakenapps.pcap.decoder.ethernet.EthernetType;
+import org.krakenapps.pcap.decoder.ip.InternetProtocol;
+
+/**
+ * Compiles tcpdump filter expression for ethernet link type into classic BPF
+ * program. Supported primitives are:
+ * 
+ * <pre>
+ * [ether|ip|ip6|arp|rarp|tcp|udp|sctp|icmp|icmp6]
+ * [src|dst|src or dst|src and dst] host|net|port|portrange ID
+ * net NET/LEN, net NET mask MASK
+ * ether proto N, ip proto N, ip6 proto N, proto N
+ * vlan [ID], less N, greater N, broadcast, multicast
+ * EXPR relop EXPR, e.g. tcp[tcpflags] &amp; tcp-syn != 0, ip[2:2] &gt; 1000, len &lt; 100
+ * </pre>
+ * 
+ * Primitives are combined with and, or, not, and parentheses, and omitted
+ * qualifiers are inherited from the previous primitive like "host a or b".
+ * Host names are not resolved. IPv6 upper layer is found at fixed offset
+ * without following extension headers, like tcpdump.
+ * 
+ * @author xeraph
+ */
+class BpfCompiler {
+	private static final int ETHER_HEADER_LENGTH = 14;
+	private static final int IP6_HEADER_LENGTH = 40;
+	private static final int SNAPLEN = 65535;
+
+	private static final int ETHERTYPE_RARP = 0x8035;
+	private static final int ETHERTYPE_VLAN = 0x8100;
+
+	private static final Map<String, Integer> protocols = new HashMap<String, Integer>();
+	private static final Map<String, Integer> ports = new HashMap<String, Integer>();
+	private static final Map<String, Integer> constants = new HashMap<String, Integer>();
+	private static final Set<String> operators = new HashSet<String>(Arrays.asList("+", "-", "*", "/", "%", "&", "|",
+			"<<", ">>", ">", "<", ">=", "<=", "=", "==", "!="));
+
+	static {
+		protocols.put("icmp", InternetProtocol.ICMP);
+		protocols.put("igmp", 2);
+		protocols.put("tcp", InternetProtocol.TCP);
+		protocols.put("udp", InternetProtocol.UDP);
+		protocols.put("gre", 47);
+		protocols.put("esp", 50);
+		protocols.put("ah", 51);
+		protocols.put("icmp6", InternetProtocol.ICMPV6);
+		protocols.put("ospf", 89);
+		protocols.put("sctp", 132);
+
+		ports.put("ftp-data", 20);
+		ports.put("ftp", 21);
+		ports.put("ssh", 22);
+		ports.put("telnet", 23);
+		ports.put("smtp", 25);
+		ports.put("domain", 53);
+		ports.put("bootps", 67);
+		ports.put("bootpc", 68);
+		ports.put("http", 80);
+		ports.put("pop3", 110);
+		ports.put("ntp", 123);
+		ports.put("netbios-ns", 137);
+		ports.put("netbios-dgm", 138);
+		ports.put("netbios-ssn", 139);
+		ports.put("imap", 143);
+		ports.put("snmp", 161);
+		ports.put("https", 443);
+		ports.put("microsoft-ds", 445);
+
+		constants.put("icmptype", 0);
+		constants.put("icmpcode", 1);
+		constants.put("icmp-echoreply", 0);
+		constants.put("icmp-unreach", 3);
+		constants.put("icmp-redirect", 5);
+		constants.put("icmp-echo", 8);
+		constants.put("icmp-timxceed", 11);
+		constants.put("tcpflags", 13);
+		constants.put("tcp-fin", 0x01);
+		constants.put("tcp-syn", 0x02);
+		constants.put("tcp-rst", 0x04);
+		constants.put("tcp-push", 0x08);
+		constants.put("tcp-ack", 0x10);
+		constants.put("tcp-urg", 0x20);
+	}
+
+	private String expression;
+	private List<String> tokens;
+	private int pos;
+
+	/**
+	 * link layer header length, increased by vlan primitive
+	 */
+	private int linkOffset = ETHER_HEADER_LENGTH;
+
+	private String lastProto;
+	private String lastDir;
+	private String lastType;
+
+	public BpfCompiler(String expression) {
+		this.expression = expression;
+	}
+
+	public List<BpfInstruction> compile() {
+		tokens = tokenize(expression);
+		pos = 0;
+
+		Node root = null;
+		if (tokens.isEmpty()) {
+			root = new Const(true);
+		} else {
+			root = parseOr();
+			if (pos < tokens.size())
+				throw error("unexpected token '" + peek() + "'");
+		}
+
+		return new Assembler().assemble(root);
+	}
+
+	//
+	// tokenizer
+	//
+
+	private static List<String> tokenize(String s) {
+		List<String> tokens = new ArrayList<String>();
+		int depth = 0;
+		int i = 0;
+		while (i < s.length()) {
+			char c = s.charAt(i);
+			if (Character.isWhitespace(c) || c == '\\') {
+				i++;
+				continue;
+			}
+
+			if (Character.isLetterOrDigit(c) || c == '_') {
+				int begin = i;
+				while (i < s.length() && isWordChar(s.charAt(i), depth > 0))
+					i++;
+				tokens.add(s.substring(begin, i));
+				continue;
+			}
+
+			if (c == '[')
+				depth++;
+			else if (c == ']')
+				depth--;
+
+			String two = i + 1 < s.length() ? s.substring(i, i + 2) : "";
+			if (two.equals("&&") || two.equals("||") || two.equals("!=") || two.equals("==") || two.equals("<=")
+					|| two.equals(">=") || two.equals("<<") || two.equals(">>")) {
+				tokens.add(two);
+				i += 2;
+				continue;
+			}
+
+			if ("()[]:!&|+-*/%<>=".indexOf(c) < 0)
+				throw new IllegalArgumentException("invalid character '" + c + "' in filter: " + s);
+
+			tokens.add(String.valueOf(c));
+			i++;
+		}
+		return tokens;
+	}
+
+	private static boolean isWordChar(char c, boolean inBracket) {
+		if (Character.isLetterOrDigit(c) || c == '_' || c == '.')
+			return true;
+
+		// addresses, port ranges and named constants outside of accessor
+		return !inBracket && (c == ':' || c == '-' || c == '/');
+	}
+
+	//
+	// boolean expression parser
+	//
+
+	private Node parseOr() {
+		Node n = parseAnd();
+		while (accept("or") || accept("||"))
+			n = new Or(n, parseAnd());
+		return n;
+	}
+
+	private Node parseAnd() {
+		Node n = parseNot();
+		while (accept("and") || accept("&&"))
+			n = new And(n, parseNot());
+		return n;
+	}
+
+	private Node parseNot() {
+		if (accept("not") || accept("!"))
+			return new Not(parseNot());
+
+		if (accept("(")) {
+			Node n = parseOr();
+			expect(")");
+			return n;
+		}
+
+		if (isRelation())
+			return parseRelation();
+
+		return parsePrimitive();
+	}
+
+	private boolean isRelation() {
+		String t = peek();
+		String next = peek(1);
+		if (t == null)
+			return false;
+		if (t.equals("len") || constants.containsKey(t))
+			return true;
+		if (isAccessorBase(t) && "[".equals(next))
+			return true;
+
+		// "port 80 or 443" reuses qualifiers, "443 > len" is relation
+		return isNumber(t) && next != null && operators.contains(next);
+	}
+
+	private Node parsePrimitive() {
+		String proto = null;
+		String dir = null;
+		String type = null;
+
+		String t = peek();
+		if (t == null)
+			throw error("unexpected end of filter");
+
+		if (isProtocolName(t)) {
+			proto = next();
+			t = peek();
+		}
+
+		if ("src".equals(t) || "dst".equals(t)) {
+			dir = next();
+			if (("or".equals(peek()) || "and".equals(peek())) && isOtherDir(dir, peek(1))) {
+				dir = "src " + next() + " dst";
+				next();
+			}
+			t = peek();
+		}
+
+		if ("host".equals(t) || "net".equals(t) || "port".equals(t) || "portrange".equals(t))
+			type = next();
+
+		if (type == null && dir == null) {
+			if (proto != null)
+				return parseProtocolPrimitive(proto);
+			return parseKeywordPrimitive();
+		}
+
+		if (type == null)
+			type = "host";
+
+		lastProto = proto;
+		lastDir = dir;
+		lastType = type;
+		return qualified(proto, dir, type, nextValue());
+	}
+
+	private Node parseProtocolPrimitive(String proto) {
+		String t = peek();
+		if ("proto".equals(t)) {
+			next();
+			int p = parseProtocolNumber(nextValue());
+			if (proto.equals("ether"))
+				return etherType(p);
+			if (proto.equals("ip"))
+				return ipProto(p);
+			if (proto.equals("ip6"))
+				return ip6Proto(p);
+			throw error(proto + " proto is not supported");
+		}
+
+		if (proto.equals("ether") && ("broadcast".equals(t) || "multicast".equals(t)))
+			return parseKeywordPrimitive();
+
+		return protocol(proto);
+	}
+
+	private Node parseKeywordPrimitive() {
+		String t = next();
+		if (t.equals("vlan")) {
+			Node n = etherType(ETHERTYPE_VLAN);
+			if (peek() != null && isNumber(peek())) {
+				int id = (int) parseNumber(next());
+				n = new And(n, new Test(JEQ, id, ld(H, linkOffset), alu(AND, 0x0fff)));
+			}
+			linkOffset += 4;
+			return n;
+		}
+
+		if (t.equals("less"))
+			return new Not(new Test(JGT, (int) parseNumber(nextValue()), new BpfInstruction(LD | W | LEN, 0)));
+
+		if (t.equals("greater"))
+			return new Test(JGE, (int) parseNumber(nextValue()), new BpfInstruction(LD | W | LEN, 0));
+
+		if (t.equals("broadcast"))
+			return etherHost("dst", new byte[] { -1, -1, -1, -1, -1, -1 });
+
+		if (t.equals("multicast"))
+			return new Test(JSET, 1, ld(B, 0));
+
+		if (t.equals("proto")) {
+			int p = parseProtocolNumber(nextValue());
+			return new Or(ipProto(p), ip6Proto(p));
+		}
+
+		// bare id inherits qualifiers of previous primitive
+		if (lastType != null) {
+			pos--;
+			return qualified(lastProto, lastDir, lastType, nextValue());
+		}
+
+		throw error("unknown primitive '" + t + "'");
+	}
+
+	private Node qualified(String proto, String dir, String type, String value) {
+		if (dir == null)
+			dir = "src or dst";
+
+		if (type.equals("host")) {
+			if (proto != null && proto.equals("ether"))
+				return etherHost(dir, parseMac(value));
+			return host(proto, dir, value);
+		}
+
+		if (type.equals("net"))
+			return net(proto, dir, value);
+
+		int low;
+		int high;
+		if (type.equals("portrange")) {
+			int dash = value.indexOf('-');
+			if (dash < 0)
+				throw error("invalid port range '" + value + "'");
+			low = parsePort(value.substring(0, dash));
+			high = parsePort(value.substring(dash + 1));
+			if (low > high)
+				throw error("invalid port range '" + value + "'");
+		} else {
+			low = high = parsePort(value);
+		}
+
+		return port(proto, dir, low, high);
+	}
+
+	//
+	// primitive builders
+	//
+
+	private Node protocol(String proto) {
+		if (proto.equals("ether"))
+			throw error("ether requires qualifier");
+		if (proto.equals("ip"))
+			return etherType(EthernetType.IPV4);
+		if (proto.equals("ip6"))
+			return etherType(EthernetType.IPV6);
+		if (proto.equals("arp"))
+			return etherType(EthernetType.ARP);
+		if (proto.equals("rarp"))
+			return etherType(ETHERTYPE_RARP);
+		if (proto.equals("icmp"))
+			return ipProto(InternetProtocol.ICMP);
+		if (proto.equals("icmp6"))
+			return ip6Proto(InternetProtocol.ICMPV6);
+
+		int p = protocols.get(proto);
+		return new Or(ipProto(p), ip6Proto(p));
+	}
+
+	private Node etherType(int type) {
+		return new Test(JEQ, type, ld(H, linkOffset - 2));
+	}
+
+	private Node ipProto(int p) {
+		return new And(etherType(EthernetType.IPV4), new Test(JEQ, p, ld(B, linkOffset + 9)));
+	}
+
+	private Node ip6Proto(int p) {
+		return new And(etherType(EthernetType.IPV6), new Test(JEQ, p, ld(B, linkOffset + 6)));
+	}
+
+	private Node direction(String dir, Node src, Node dst) {
+		if (dir.equals("src"))
+			return src;
+		if (dir.equals("dst"))
+			return dst;
+		if (dir.equals("src and dst"))
+			return new And(src, dst);
+		return new Or(src, dst);
+	}
+
+	private Node host(String proto, String dir, String value) {
+		byte[] addr = parseAddress(value);
+		return net(proto, dir, addr, addr.length * 8);
+	}
+
+	private Node net(String proto, String dir, String value) {
+		int slash = value.indexOf('/');
+		if (slash >= 0) {
+			byte[] addr = parseAddress(value.substring(0, slash));
+			int prefix = (int) parseNumber(value.substring(slash + 1));
+			if (prefix < 0 || prefix > addr.length * 8)
+				throw error("invalid prefix length in '" + value + "'");
+			return net(proto, dir, addr, prefix);
+		}
+
+		if (accept("mask")) {
+			byte[] addr = parseAddress(value);
+			byte[] mask = parseAddress(nextValue());
+			if (addr.length != 4 || mask.length != 4)
+				throw error("mask is supported for ipv4 only");
+			return ipv4Net(proto, dir, toInt(addr, 0), toInt(mask, 0));
+		}
+
+		// tcpdump allows partial ipv4 network, e.g. net 10.1
+		if (value.indexOf(':') < 0) {
+			String[] octets = value.split("\\.");
+			if (octets.length > 4)
+				throw error("invalid network '" + value + "'");
+
+			byte[] addr = new byte[4];
+			for (int i = 0; i < octets.length; i++)
+				addr[i] = (byte) parseOctet(octets[i], value);
+			return net(proto, dir, addr, octets.length * 8);
+		}
+
+		byte[] addr = parseAddress(value);
+		return net(proto, dir, addr, addr.length * 8);
+	}
+
+	private Node net(String proto, String dir, byte[] addr, int prefix) {
+		if (addr.length == 16) {
+			if (proto != null && !proto.equals("ip6"))
+				throw error("ipv6 address is not allowed for " + proto);
+			return ipv6Net(dir, addr, prefix);
+		}
+
+		int mask = prefix == 0 ? 0 : -1 << (32 - prefix);
+		return ipv4Net(proto, dir, toInt(addr, 0), mask);
+	}
+
+	private Node ipv4Net(String proto, String dir, int net, int mask) {
+		if (proto != null && !proto.equals("ip") && !proto.equals("arp") && !proto.equals("rarp"))
+			throw error("host and net are not supported for " + proto);
+
+		Node ip = new And(etherType(EthernetType.IPV4), direction(dir, addressTest(linkOffset + 12, net, mask),
+				addressTest(linkOffset + 16, net, mask)));
+		Node arp = new And(etherType(EthernetType.ARP), direction(dir, addressTest(linkOffset + 14, net, mask),
+				addressTest(linkOffset + 24, net, mask)));
+		Node rarp = new And(etherType(ETHERTYPE_RARP), direction(dir, addressTest(linkOffset + 14, net, mask),
+				addressTest(linkOffset + 24, net, mask)));
+
+		if (proto == null)
+			return new Or(ip, new Or(arp, rarp));
+		if (proto.equals("ip"))
+			return ip;
+		if (proto.equals("arp"))
+			return arp;
+		return rarp;
+	}
+
+	private Node ipv6Net(String dir, byte[] addr, int prefix) {
+		return new And(etherType(EthernetType.IPV6), direction(dir, ipv6AddressTest(linkOffset + 8, addr, prefix),
+				ipv6AddressTest(linkOffset + 24, addr, prefix)));
+	}
+
+	private Node ipv6AddressTest(int offset, byte[] addr, int prefix) {
+		Node n = null;
+		for (int word = 0; word < 4 && prefix > word * 32; word++) {
+			int bits = Math.min(32, prefix - word * 32);
+			int mask = -1 << (32 - bits);
+			Node t = addressTest(offset + word * 4, toInt(addr, word * 4), mask);
+			n = n == null ? t : new And(n, t);
+		}
+		return n != null ? n : new Const(true);
+	}
+
+	private Node addressTest(int offset, int net, int mask) {
+		if (mask == -1)
+			return new Test(JEQ, net, ld(W, offset));
+		return new Test(JEQ, net & mask, ld(W, offset), alu(AND, mask));
+	}
+
+	private Node etherHost(String dir, byte[] mac) {
+		int high = ((mac[0] & 0xff) << 8) | (mac[1] & 0xff);
+		int low = toInt(mac, 2);
+		Node dst = new And(new Test(JEQ, low, ld(W, 2)), new Test(JEQ, high, ld(H, 0)));
+		Node src = new And(new Test(JEQ, low, ld(W, 8)), new Test(JEQ, high, ld(H, 6)));
+		return direction(dir, src, dst);
+	}
+
+	private Node port(String proto, String dir, int low, int high) {
+		Node ip4 = null;
+		Node ip6 = null;
+		if (proto == null || proto.equals("ip") || proto.equals("ip6")) {
+			Node p4 = new Or(ipProto(InternetProtocol.TCP), new Or(ipProto(InternetProtocol.UDP), ipProto(132)));
+			Node p6 = new Or(ip6Proto(InternetProtocol.TCP), new Or(ip6Proto(InternetProtocol.UDP), ip6Proto(132)));
+			ip4 = proto == null || proto.equals("ip") ? p4 : null;
+			ip6 = proto == null || proto.equals("ip6") ? p6 : null;
+		} else if (proto.equals("tcp") || proto.equals("udp") || proto.equals("sctp")) {
+			int p = protocols.get(proto);
+			ip4 = ipProto(p);
+			ip6 = ip6Proto(p);
+		} else {
+			throw error("port is not supported for " + proto);
+		}
+
+		Node n = null;
+		if (ip4 != null) {
+			// port is found only at the first fragment
+			Node first = new Not(new Test(JSET, 0x1fff, ld(H, linkOffset + 6)));
+			Node src = portTest(low, high, msh(), new BpfInstruction(LD | H | IND, linkOffset));
+			Node dst = portTest(low, high, msh(), new BpfInstruction(LD | H | IND, linkOffset + 2));
+			n = new And(ip4, new And(first, direction(dir, src, dst)));
+		}
+
+		if (ip6 != null) {
+			Node src = portTest(low, high, ld(H, linkOffset + IP6_HEADER_LENGTH));
+			Node dst = portTest(low, high, ld(H, linkOffset + IP6_HEADER_LENGTH + 2));
+			Node n6 = new And(ip6, direction(dir, src, dst));
+			n = n == null ? n6 : new Or(n, n6);
+		}
+		return n;
+	}
+
+	private Node portTest(int low, int high, BpfInstruction... load) {
+		if (low == high)
+			return new Test(JEQ, low, load);
+		return new And(new Test(JGE, low, load), new Not(new Test(JGT, high, load)));
+	}
+
+	private BpfInstruction msh() {
+		return new BpfInstruction(LDX | B | MSH, linkOffset);
+	}
+
+	//
+	// relation parser
+	//
+
+	private Node parseRelation() {
+		List<Node> guards = new ArrayList<Node>();
+		Arith lhs = parseArithOr(guards);
+
+		String op = next();
+		if (op == null || !(op.equals(">") || op.equals(">=") || op.equals("<") || op.equals("<=") || op.equals("=")
+				|| op.equals("==") || op.equals("!=")))
+			throw error("relational operator expected but '" + op + "'");
+
+		Arith rhs = parseArithOr(guards);
+
+		List<BpfInstruction> insns = new ArrayList<BpfInstruction>();
+		int jmp;
+		if (rhs instanceof Num) {
+			lhs.compile(insns, 0);
+			jmp = JMP | K;
+		} else {
+			rhs.compile(insns, 0);
+			insns.add(new BpfInstruction(ST, 0));
+			lhs.compile(insns, 1);
+			insns.add(new BpfInstruction(LDX | MEM, 0));
+			jmp = JMP | X;
+		}
+
+		int k = rhs instanceof Num ? ((Num) rhs).value : 0;
+		BpfInstruction[] load = insns.toArray(new BpfInstruction[0]);
+
+		Node test;
+		if (op.equals(">"))
+			test = new Test(jmp | JGT, k, load);
+		else if (op.equals(">="))
+			test = new Test(jmp | JGE, k, load);
+		else if (op.equals("<"))
+			test = new Not(new Test(jmp | JGE, k, load));
+		else if (op.equals("<="))
+			test = new Not(new Test(jmp | JGT, k, load));
+		else if (op.equals("!="))
+			test = new Not(new Test(jmp | JEQ, k, load));
+		else
+			test = new Test(jmp | JEQ, k, load);
+
+		for (int i = guards.size() - 1; i >= 0; i--)
+			test = new And(guards.get(i), test);
+		return test;
+	}
+
+	private Arith parseArithOr(List<Node> guards) {
+		Arith a = parseArithAnd(guards);
+		while (accept("|"))
+			a = new Bin(OR, a, parseArithAnd(guards));
+		return a;
+	}
+
+	private Arith parseArithAnd(List<Node> guards) {
+		Arith a = parseShift(guards);
+		while (accept("&"))
+			a = new Bin(AND, a, parseShift(guards));
+		return a;
+	}
+
+	private Arith parseShift(List<Node> guards) {
+		Arith a = parseAdd(guards);
+		while (true) {
+			if (accept("<<"))
+				a = new Bin(LSH, a, parseAdd(guards));
+			else if (accept(">>"))
+				a = new Bin(RSH, a, parseAdd(guards));
+			else
+				return a;
+		}
+	}
+
+	private Arith parseAdd(List<Node> guards) {
+		Arith a = parseMul(guards);
+		while (true) {
+			if (accept("+"))
+				a = new Bin(ADD, a, parseMul(guards));
+			else if (accept("-"))
+				a = new Bin(SUB, a, parseMul(guards));
+			else
+				return a;
+		}
+	}
+
+	private Arith parseMul(List<Node> guards) {
+		Arith a = parseUnary(guards);
+		while (true) {
+			if (accept("*"))
+				a = new Bin(MUL, a, parseUnary(guards));
+			else if (accept("/"))
+				a = new Bin(DIV, a, parseUnary(guards));
+			else if (accept("%"))
+				a = new Bin(MOD, a, parseUnary(guards));
+			else
+				return a;
+		}
+	}
+
+	private Arith parseUnary(List<Node> guards) {
+		if (accept("-"))
+			return new Bin(SUB, new Num(0), parseUnary(guards));
+		return parseArithAtom(guards);
+	}
+
+	private Arith parseArithAtom(List<Node> guards) {
+		String t = next();
+		if (t == null)
+			throw error("unexpected end of filter");
+
+		if (t.equals("(")) {
+			Arith a = parseArithOr(guards);
+			expect(")");
+			return a;
+		}
+
+		if (t.equals("len"))
+			return new Len();
+
+		Integer c = constants.get(t);
+		if (c != null)
+			return new Num(c);
+
+		if (isNumber(t))
+			return new Num((int) parseNumber(t));
+
+		if (isAccessorBase(t)) {
+			expect("[");
+			Arith index = parseArithOr(guards);
+			int size = 1;
+			if (accept(":")) {
+				size = (int) parseNumber(next());
+				if (size != 1 && size != 2 && size != 4)
+					throw error("accessor size should be 1, 2 or 4");
+			}
+			expect("]");
+
+			Node guard = accessorGuard(t);
+			if (guard != null)
+				guards.add(guard);
+			return new Load(t, index, size == 1 ? B : size == 2 ? H : W, linkOffset);
+		}
+
+		throw error("unexpected token '" + t + "' in expression");
+	}
+
+	private Node accessorGuard(String proto) {
+		if (proto.equals("ether"))
+			return null;
+		if (proto.equals("ip"))
+			return etherType(EthernetType.IPV4);
+		if (proto.equals("ip6"))
+			return etherType(EthernetType.IPV6);
+		if (proto.equals("arp"))
+			return etherType(EthernetType.ARP);
+		if (proto.equals("icmp6"))
+			return ip6Proto(InternetProtocol.ICMPV6);
+
+		Node first = new Not(new Test(JSET, 0x1fff, ld(H, linkOffset + 6)));
+		return new And(ipProto(protocols.get(proto)), first);
+	}
+
+	private static boolean isAccessorBase(String t) {
+		return t.equals("ether") || t.equals("ip") || t.equals("ip6") || t.equals("arp") || t.equals("tcp")
+				|| t.equals("udp") || t.equals("icmp") || t.equals("icmp6") || t.equals("sctp");
+	}
+
+	//
+	// value parsers
+	//
+
+	private int parseProtocolNumber(String s) {
+		Integer p = protocols.get(s);
+		if (p != null)
+			return p;
+		if (s.equals("ip"))
+			return EthernetType.IPV4;
+		if (s.equals("ip6"))
+			return EthernetType.IPV6;
+		if (s.equals("arp"))
+			return EthernetType.ARP;
+		if (s.equals("rarp"))
+			return ETHERTYPE_RARP;
+		return (int) parseNumber(s);
+	}
+
+	private int parsePort(String s) {
+		Integer p = ports.get(s);
+		if (p != null)
+			return p;
+
+		long port = parseNumber(s);
+		if (port < 0 || port > 65535)
+			throw error("invalid port '" + s + "'");
+		return (int) port;
+	}
+
+	private long parseNumber(String s) {
+		try {
+			return Long.decode(s);
+		} catch (NumberFormatException e) {
+			throw error("invalid number '" + s + "'");
+		}
+	}
+
+	private int parseOctet(String s, String value) {
+		try {
+			int i = Integer.parseInt(s);
+			if (i >= 0 && i <= 255)
+				return i;
+		} catch (NumberFormatException e) {
+		}
+		throw error("invalid address '" + value + "'");
+	}
+
+	private byte[] parseAddress(String s) {
+		if (s.indexOf(':') >= 0) {
+			// literal ipv6 address is parsed without name lookup
+			try {
+				byte[] addr = InetAddress.getByName(s).getAddress();
+				if (addr.length == 16)
+					return addr;
+			} catch (UnknownHostException e) {
+			}
+			throw error("invalid ipv6 address '" + s + "'");
+		}
+
+		String[] octets = s.split("\\.");
+		if (octets.length != 4)
+			throw error("invalid ipv4 address '" + s + "', host names are not supported");
+
+		byte[] addr = new byte[4];
+		for (int i = 0; i < 4; i++)
+			addr[i] = (byte) parseOctet(octets[i], s);
+		return addr;
+	}
+
+	private byte[] parseMac(String s) {
+		String[] parts = s.split("[:\\-]");
+		if (parts.length != 6)
+			throw error("invalid mac address '" + s + "'");
+
+		byte[] mac = new byte[6];
+		for (int i = 0; i < 6; i++) {
+			try {
+				mac[i] = (byte) Integer.parseInt(parts[i], 16);
+			} catch (NumberFormatException e) {
+				throw error("invalid mac address '" + s + "'");
+			}
+		}
+		return mac;
+	}
+
+	private static int toInt(byte[] b, int offset) {
+		return ((b[offset] & 0xff) << 24) | ((b[offset + 1] & 0xff) << 16) | ((b[offset + 2] & 0xff) << 8)
+				| (b[offset + 3] & 0xff);
+	}
+
+	private static boolean isNumber(String t) {
+		return Character.isDigit(t.charAt(0));
+	}
+
+	private static boolean isProtocolName(String t) {
+		return t.equals("ether") || t.equals("ip") || t.equals("ip6") || t.equals("arp") || t.equals("rarp")
+				|| protocols.containsKey(t);
+	}
+
+	private static boolean isOtherDir(String dir, String t) {
+		return dir.equals("src") ? "dst".equals(t) : "src".equals(t);
+	}
+
+	private static BpfInstruction ld(int size, int offset) {
+		return new BpfInstruction(LD | size | ABS, offset);
+	}
+
+	private static BpfInstruction alu(int op, int k) {
+		return new BpfInstruction(ALU | op | K, k);
+	}
+
+	//
+	// token stream
+	//
+
+	private String peek() {
+		return peek(0);
+	}
+
+	private String peek(int ahead) {
+		return pos + ahead < tokens.size() ? tokens.get(pos + ahead) : null;
+	}
+
+	private String next() {
+		return pos < tokens.size() ? tokens.get(pos++) : null;
+	}
+
+	private String nextValue() {
+		String t = next();
+		if (t == null)
+			throw error("value expected");
+		return t;
+	}
+
+	private boolean accept(String t) {
+		if (t.equals(peek())) {
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	private void expect(String t) {
+		if (!accept(t))
+			throw error("'" + t + "' expected");
+	}
+
+	private IllegalArgumentException error(String msg) {
+		return new IllegalArgumentException(msg + " in filter: " + expression);
+	}
+
+	//
+	// boolean tree
+	//
+
+	private static abstract class Node {
+	}
+
+	private static class And extends Node {
+		private Node left;
+		private Node right;
+
+		public And(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+	}
+
+	private static class Or extends Node {
+		private Node left;
+		private Node right;
+
+		public Or(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+	}
+
+	private static class Not extends Node {
+		private Node node;
+
+		public Not(Node node) {
+			this.node = node;
+		}
+	}
+
+	private static class Const extends Node {
+		private boolean value;
+
+		public Const(boolean value) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Straight line load instructions followed by a conditional jump.
+	 */
+	private static class Test extends Node {
+		private int jmp;
+		private int k;
+		private BpfInstruction[] load;
+
+		public Test(int jmp, int k, BpfInstruction... load) {
+			this.jmp = (jmp & 0x07) == JMP ? jmp : JMP | jmp;
+			this.k = k;
+			this.load = load;
+		}
+	}
+
+	//
+	// arithmetic tree
+	//
+
+	private static abstract class Arith {
+		/**
+		 * Emits instructions which leave the value in accumulator. Scratch
+		 * memory from depth can be used.
+		 */
+		public abstract void compile(List<BpfInstruction> insns, int depth);
+	}
+
+	private static class Num extends Arith {
+		private int value;
+
+		public Num(int value) {
+			this.value = value;
+		}
+
+		@Override
+		public void compile(List<BpfInstruction> insns, int depth) {
+			insns.add(new BpfInstruction(LD | IMM, value));
+		}
+	}
+
+	private static class Len extends Arith {
+		@Override
+		public void compile(List<BpfInstruction> insns, int depth) {
+			insns.add(new BpfInstruction(LD | W | LEN, 0));
+		}
+	}
+
+	private static class Bin extends Arith {
+		private int op;
+		private Arith left;
+		private Arith right;
+
+		public Bin(int op, Arith left, Arith right) {
+			this.op = op;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public void compile(List<BpfInstruction> insns, int depth) {
+			if (right instanceof Num) {
+				left.compile(insns, depth);
+				insns.add(new BpfInstruction(ALU | op | K, ((Num) right).value));
+				return;
+			}
+
+			checkDepth(depth);
+			right.compile(insns, depth);
+			insns.add(new BpfInstruction(ST, depth));
+			left.compile(insns, depth + 1);
+			insns.add(new BpfInstruction(LDX | MEM, depth));
+			insns.add(new BpfInstruction(ALU | op | X, 0));
+		}
+	}
+
+	private static class Load extends Arith {
+		private String proto;
+		private Arith index;
+		private int size;
+		private int linkOffset;
+
+		public Load(String proto, Arith index, int size, int linkOffset) {
+			this.proto = proto;
+			this.index = index;
+			this.size = size;
+			this.linkOffset = linkOffset;
+		}
+
+		@Override
+		public void compile(List<BpfInstruction> insns, int depth) {
+			boolean transport = proto.equals("tcp") || proto.equals("udp") || proto.equals("icmp")
+					|| proto.equals("sctp");
+
+			int base = 0;
+			if (proto.equals("icmp6"))
+				base = linkOffset + IP6_HEADER_LENGTH;
+			else if (!proto.equals("ether"))
+				base = linkOffset;
+
+			if (index instanceof Num) {
+				int k = ((Num) index).value;
+				if (transport) {
+					insns.add(new BpfInstruction(LDX | B | MSH, linkOffset));
+					insns.add(new BpfInstruction(LD | size | IND, base + k));
+				} else {
+					insns.add(new BpfInstruction(LD | size | ABS, base + k));
+				}
+				return;
+			}
+
+			index.compile(insns, depth);
+			if (transport) {
+				checkDepth(depth);
+				insns.add(new BpfInstruction(ST, depth));
+				insns.add(new BpfInstruction(LDX | B | MSH, linkOffset));
+				insns.add(new BpfInstruction(LD | MEM, depth));
+				insns.add(new BpfInstruction(ALU | ADD | X, 0));
+			}
+			insns.add(new BpfInstruction(MISC | TAX, 0));
+			insns.add(new BpfInstruction(LD | size | IND, base));
+		}
+	}
+
+	private static void checkDepth(int depth) {
+		if (depth >= MEMWORDS)
+			throw new IllegalArgumentException("filter expression is too complex");
+	}
+
+	//
+	// code generation
+	//
+
+	/**
+	 * Generates straight line code with symbolic jump targets, and resolves
+	 * them. Conditional jump offsets are 8 bit, so far targets are reached
+	 * through inserted unconditional jumps.
+	 */
+	private static class Assembler {
+		private List<Object> items = new ArrayList<Object>();
+
+		public List<BpfInstruction> assemble(Node root) {
+			Label accept = new Label();
+			Label reject = new Label();
+			emit(root, accept, reject);
+
+			items.add(accept);
+			items.add(new Insn(RET | K, SNAPLEN));
+			items.add(reject);
+			items.add(new Insn(RET | K, 0));
+
+			return resolve();
+		}
+
+		private void emit(Node n, Label t, Label f) {
+			if (n instanceof And) {
+				And a = (And) n;
+				Label next = new Label();
+				emit(a.left, next, f);
+				items.add(next);
+				emit(a.right, t, f);
+			} else if (n instanceof Or) {
+				Or o = (Or) n;
+				Label next = new Label();
+				emit(o.left, t, next);
+				items.add(next);
+				emit(o.right, t, f);
+			} else if (n instanceof Not) {
+				emit(((Not) n).node, f, t);
+			} else if (n instanceof Const) {
+				Insn ja = new Insn(JMP | JA, 0);
+				ja.target = ((Const) n).value ? t : f;
+				items.add(ja);
+			} else {
+				Test test = (Test) n;
+				for (BpfInstruction i : test.load)
+					items.add(new Insn(i.getCode(), i.getK()));
+
+				Insn jmp = new Insn(test.jmp, test.k);
+				jmp.jt = t;
+				jmp.jf = f;
+				items.add(jmp);
+			}
+		}
+
+		private List<BpfInstruction> resolve() {
+			while (true) {
+				List<Insn> insns = layout();
+				boolean far = false;
+				for (int i = 0; i < insns.size(); i++) {
+					Insn insn = insns.get(i);
+					if (insn.jt == null)
+						continue;
+
+					// insert trampolines after the conditional jump
+					int index = items.indexOf(insn);
+					if (insn.jf.position - i - 1 > 255) {
+						Label l = new Label();
+						Insn ja = new Insn(JMP | JA, 0);
+						ja.target = insn.jf;
+						insn.jf = l;
+						items.add(index + 1, l);
+						items.add(index + 2, ja);
+						far = true;
+					}
+					if (insn.jt.position - i - 1 > 255) {
+						Label l = new Label();
+						Insn ja = new Insn(JMP | JA, 0);
+						ja.target = insn.jt;
+						insn.jt = l;
+						items.add(index + 1, l);
+						items.add(index + 2, ja);
+						far = true;
+					}
+					if (far)
+						break;
+				}
+
+				if (far)
+					continue;
+
+				List<BpfInstruction> program = new ArrayList<BpfInstruction>();
+				for (int i = 0; i < insns.size(); i++) {
+					Insn insn = insns.get(i);
+					if (insn.target != null)
+						program.add(new BpfInstruction(insn.code, insn.target.position - i - 1));
+					else if (insn.jt != null)
+						program.add(new BpfInstruction(insn.code, insn.jt.position - i - 1, insn.jf.position - i - 1,
+								insn.k));
+					else
+						program.add(new BpfInstruction(insn.code, insn.k));
+				}
+				return program;
+			}
+		}
+
+		private List<Insn> layout() {
+			List<Insn> insns = new ArrayList<Insn>();
+			for (Object o : items) {
+				if (o instanceof Label)
+					((Label) o).position = insns.size();
+				else
+					insns.add((Insn) o);
+			}
+			return insns;
+		}
+	}
+
+	private static class Label {
+		private int position;
+	}
+
+	private static class Insn {
+		private int code;
+		private int k;
+		private Label jt;
+		private Label jf;
+		private Label target;
+
+		public Insn(int code, int k) {
+			this.code = code;
+			this.k = k;
+		}
+	}
+}
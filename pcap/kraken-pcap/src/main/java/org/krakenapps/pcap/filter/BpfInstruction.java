@@ -0,0 +1,124 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.filter;
+
+/**
+ * Classic BPF instruction. Opcodes and encoding are same as struct bpf_insn of
+ * libpcap, so compiled program can be passed to the kernel as is.
+ * 
+ * @author xeraph
+ */
+public class BpfInstruction {
+	// instruction classes
+	public static final int LD = 0x00;
+	public static final int LDX = 0x01;
+	public static final int ST = 0x02;
+	public static final int STX = 0x03;
+	public static final int ALU = 0x04;
+	public static final int JMP = 0x05;
+	public static final int RET = 0x06;
+	public static final int MISC = 0x07;
+
+	// load sizes
+	public static final int W = 0x00;
+	public static final int H = 0x08;
+	public static final int B = 0x10;
+
+	// load modes
+	public static final int IMM = 0x00;
+	public static final int ABS = 0x20;
+	public static final int IND = 0x40;
+	public static final int MEM = 0x60;
+	public static final int LEN = 0x80;
+	public static final int MSH = 0xa0;
+
+	// alu operations
+	public static final int ADD = 0x00;
+	public static final int SUB = 0x10;
+	public static final int MUL = 0x20;
+	public static final int DIV = 0x30;
+	public static final int OR = 0x40;
+	public static final int AND = 0x50;
+	public static final int LSH = 0x60;
+	public static final int RSH = 0x70;
+	public static final int NEG = 0x80;
+	public static final int MOD = 0x90;
+	public static final int XOR = 0xa0;
+
+	// jump operations
+	public static final int JA = 0x00;
+	public static final int JEQ = 0x10;
+	public static final int JGT = 0x20;
+	public static final int JGE = 0x30;
+	public static final int JSET = 0x40;
+
+	// operand sources
+	public static final int K = 0x00;
+	public static final int X = 0x08;
+	public static final int A = 0x10;
+
+	// misc operations
+	public static final int TAX = 0x00;
+	public static final int TXA = 0x80;
+
+	/**
+	 * number of scratch memory slots
+	 */
+	public static final int MEMWORDS = 16;
+
+	private int code;
+	private int jt;
+	private int jf;
+	private int k;
+
+	public BpfInstruction(int code, int k) {
+		this(code, 0, 0, k);
+	}
+
+	public BpfInstruction(int code, int jt, int jf, int k) {
+		this.code = code;
+		this.jt = jt;
+		this.jf = jf;
+		this.k = k;
+	}
+
+	public int getCode() {
+		return code;
+	}
+
+	/**
+	 * Returns relative offset of next instruction when condition is true.
+	 */
+	public int getJt() {
+		return jt;
+	}
+
+	/**
+	 * Returns relative offset of next instruction when condition is false.
+	 */
+	public int getJf() {
+		return jf;
+	}
+
+	public int getK() {
+		return k;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("{ 0x%02x, %d, %d, 0x%08x }", code, jt, jf, k);
+	}
+}
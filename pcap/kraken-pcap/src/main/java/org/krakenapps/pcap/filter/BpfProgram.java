@@ -0,0 +1,347 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.filter;
+
+import static org.krakenapps.pcap.filter.BpfInstruction.*;
+
+import java.util.List;
+
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.Buffer;
+
+/**
+ * BpfProgram runs classic BPF program against raw packet bytes, like the
+ * bpf_filter() of libpcap. Program is validated once at construction, so the
+ * interpreter loop does not check jump targets. Out of bounds packet access
+ * and division by zero reject the packet.
+ * 
+ * @author xeraph
+ */
+public class BpfProgram {
+	private final BpfInstruction[] instructions;
+	private final int[] code;
+	private final int[] jt;
+	private final int[] jf;
+	private final int[] k;
+	private final boolean usesMemory;
+
+	/**
+	 * Compiles tcpdump filter expression for ethernet frames.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if expression is invalid or not supported
+	 */
+	public static BpfProgram compile(String expression) {
+		return new BpfProgram(new BpfCompiler(expression).compile());
+	}
+
+	public BpfProgram(List<BpfInstruction> instructions) {
+		this(instructions.toArray(new BpfInstruction[0]));
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if a jump leaves the program, a memory slot is out of range,
+	 *             or the last instruction is not return.
+	 */
+	public BpfProgram(BpfInstruction[] instructions) {
+		int n = instructions.length;
+		if (n == 0)
+			throw new IllegalArgumentException("empty bpf program");
+
+		this.instructions = instructions.clone();
+		this.code = new int[n];
+		this.jt = new int[n];
+		this.jf = new int[n];
+		this.k = new int[n];
+
+		boolean memory = false;
+		for (int pc = 0; pc < n; pc++) {
+			BpfInstruction i = instructions[pc];
+			code[pc] = i.getCode();
+			jt[pc] = i.getJt();
+			jf[pc] = i.getJf();
+			k[pc] = i.getK();
+
+			int cls = code[pc] & 0x07;
+			if (cls == JMP) {
+				long target = (code[pc] & 0xf0) == JA ? (k[pc] & 0xffffffffL) : Math.max(jt[pc], jf[pc]);
+				if (jt[pc] < 0 || jf[pc] < 0 || pc + 1 + target >= n)
+					throw new IllegalArgumentException("bpf jump out of program at " + pc);
+			} else if (cls == ST || cls == STX || ((cls == LD || cls == LDX) && (code[pc] & 0xe0) == MEM)) {
+				if (k[pc] < 0 || k[pc] >= MEMWORDS)
+					throw new IllegalArgumentException("bpf memory slot out of range at " + pc);
+				memory = true;
+			}
+		}
+
+		if ((code[n - 1] & 0x07) != RET)
+			throw new IllegalArgumentException("bpf program should end with return");
+
+		this.usesMemory = memory;
+	}
+
+	public BpfInstruction[] getInstructions() {
+		return instructions.clone();
+	}
+
+	/**
+	 * Returns true if the program accepts the packet.
+	 */
+	public boolean matches(PcapPacket packet) {
+		Buffer data = packet.getPacketData();
+		int origLen = packet.getPacketHeader().getOrigLen();
+
+		// file readers produce single segment, run on it without copy
+		if (data.getSegmentCount() == 1 && data.getBufIndex() == 0 && data.getOffset() == 0
+				&& data.getSegmentOffset(0) == 0) {
+			byte[] b = data.getSegmentArray(0);
+			int len = data.getSegmentLength(0);
+			return run(b, len, Math.max(origLen, len)) != 0;
+		}
+
+		int position = data.position();
+		byte[] b = new byte[data.readableBytes()];
+		data.gets(b);
+		data.position(position);
+		return run(b, b.length, Math.max(origLen, b.length)) != 0;
+	}
+
+	/**
+	 * Runs the program.
+	 * 
+	 * @param p
+	 *            the packet bytes
+	 * @param caplen
+	 *            the captured length
+	 * @param wirelen
+	 *            the original length on the wire, used by len
+	 * @return the bytes to accept, or 0 if packet is rejected
+	 */
+	public int run(byte[] p, int caplen, int wirelen) {
+		int a = 0;
+		int x = 0;
+		int[] mem = usesMemory ? new int[MEMWORDS] : null;
+		int off;
+
+		for (int pc = 0;; pc++) {
+			int kk = k[pc];
+			switch (code[pc]) {
+			case RET | K:
+				return kk;
+			case RET | A:
+				return a;
+
+			case LD | W | ABS:
+				if (kk < 0 || kk > caplen - 4)
+					return 0;
+				a = word(p, kk);
+				break;
+			case LD | H | ABS:
+				if (kk < 0 || kk > caplen - 2)
+					return 0;
+				a = half(p, kk);
+				break;
+			case LD | B | ABS:
+				if (kk < 0 || kk >= caplen)
+					return 0;
+				a = p[kk] & 0xff;
+				break;
+			case LD | W | IND:
+				off = x + kk;
+				if (off < 0 || off > caplen - 4)
+					return 0;
+				a = word(p, off);
+				break;
+			case LD | H | IND:
+				off = x + kk;
+				if (off < 0 || off > caplen - 2)
+					return 0;
+				a = half(p, off);
+				break;
+			case LD | B | IND:
+				off = x + kk;
+				if (off < 0 || off >= caplen)
+					return 0;
+				a = p[off] & 0xff;
+				break;
+			case LD | W | LEN:
+				a = wirelen;
+				break;
+			case LDX | W | LEN:
+				x = wirelen;
+				break;
+			case LD | IMM:
+				a = kk;
+				break;
+			case LDX | IMM:
+				x = kk;
+				break;
+			case LD | MEM:
+				a = mem[kk];
+				break;
+			case LDX | MEM:
+				x = mem[kk];
+				break;
+			case LDX | B | MSH:
+				if (kk < 0 || kk >= caplen)
+					return 0;
+				x = (p[kk] & 0x0f) << 2;
+				break;
+			case ST:
+				mem[kk] = a;
+				break;
+			case STX:
+				mem[kk] = x;
+				break;
+
+			case JMP | JA:
+				pc += kk;
+				break;
+			case JMP | JEQ | K:
+				pc += (a == kk) ? jt[pc] : jf[pc];
+				break;
+			case JMP | JGT | K:
+				pc += (unsigned(a) > unsigned(kk)) ? jt[pc] : jf[pc];
+				break;
+			case JMP | JGE | K:
+				pc += (unsigned(a) >= unsigned(kk)) ? jt[pc] : jf[pc];
+				break;
+			case JMP | JSET | K:
+				pc += ((a & kk) != 0) ? jt[pc] : jf[pc];
+				break;
+			case JMP | JEQ | X:
+				pc += (a == x) ? jt[pc] : jf[pc];
+				break;
+			case JMP | JGT | X:
+				pc += (unsigned(a) > unsigned(x)) ? jt[pc] : jf[pc];
+				break;
+			case JMP | JGE | X:
+				pc += (unsigned(a) >= unsigned(x)) ? jt[pc] : jf[pc];
+				break;
+			case JMP | JSET | X:
+				pc += ((a & x) != 0) ? jt[pc] : jf[pc];
+				break;
+
+			case ALU | ADD | X:
+				a += x;
+				break;
+			case ALU | SUB | X:
+				a -= x;
+				break;
+			case ALU | MUL | X:
+				a *= x;
+				break;
+			case ALU | DIV | X:
+				if (x == 0)
+					return 0;
+				a = (int) (unsigned(a) / unsigned(x));
+				break;
+			case ALU | MOD | X:
+				if (x == 0)
+					return 0;
+				a = (int) (unsigned(a) % unsigned(x));
+				break;
+			case ALU | AND | X:
+				a &= x;
+				break;
+			case ALU | OR | X:
+				a |= x;
+				break;
+			case ALU | XOR | X:
+				a ^= x;
+				break;
+			case ALU | LSH | X:
+				a = x >= 32 ? 0 : a << x;
+				break;
+			case ALU | RSH | X:
+				a = x >= 32 ? 0 : a >>> x;
+				break;
+			case ALU | ADD | K:
+				a += kk;
+				break;
+			case ALU | SUB | K:
+				a -= kk;
+				break;
+			case ALU | MUL | K:
+				a *= kk;
+				break;
+			case ALU | DIV | K:
+				if (kk == 0)
+					return 0;
+				a = (int) (unsigned(a) / unsigned(kk));
+				break;
+			case ALU | MOD | K:
+				if (kk == 0)
+					return 0;
+				a = (int) (unsigned(a) % unsigned(kk));
+				break;
+			case ALU | AND | K:
+				a &= kk;
+				break;
+			case ALU | OR | K:
+				a |= kk;
+				break;
+			case ALU | XOR | K:
+				a ^= kk;
+				break;
+			case ALU | LSH | K:
+				a = kk >= 32 ? 0 : a << kk;
+				break;
+			case ALU | RSH | K:
+				a = kk >= 32 ? 0 : a >>> kk;
+				break;
+			case ALU | NEG:
+				a = -a;
+				break;
+
+			case MISC | TAX:
+				x = a;
+				break;
+			case MISC | TXA:
+				a = x;
+				break;
+
+			default:
+				// unknown opcode rejects packet like the kernel validator
+				return 0;
+			}
+		}
+	}
+
+	private static int word(byte[] p, int i) {
+		return ((p[i] & 0xff) << 24) | ((p[i + 1] & 0xff) << 16) | ((p[i + 2] & 0xff) << 8) | (p[i + 3] & 0xff);
+	}
+
+	private static int half(byte[] p, int i) {
+		return ((p[i] & 0xff) << 8) | (p[i + 1] & 0xff);
+	}
+
+	private static long unsigned(int i) {
+		return i & 0xffffffffL;
+	}
+
+	/**
+	 * Returns program listing, one instruction per line.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (BpfInstruction i : instructions)
+			sb.append(i).append('\n');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.filter;
+
+import java.io.IOException;
+
+import org.krakenapps.pcap.PcapInputStream;
+import org.krakenapps.pcap.packet.PcapPacket;
+
+/**
+ * FilteredPcapInputStream skips packets rejected by the filter before they
+ * are returned to the caller, so rejected packets are never decoded.
+ * 
+ * @author xeraph
+ */
+public class FilteredPcapInputStream implements PcapInputStream {
+	private PcapInputStream is;
+	private BpfProgram filter;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if filter expression is invalid
+	 */
+	public FilteredPcapInputStream(PcapInputStream is, String filter) {
+		this(is, BpfProgram.compile(filter));
+	}
+
+	public FilteredPcapInputStream(PcapInputStream is, BpfProgram filter) {
+		this.is = is;
+		this.filter = filter;
+	}
+
+	@Override
+	public PcapPacket getPacket() throws IOException {
+		while (true) {
+			PcapPacket packet = is.getPacket();
+			if (packet == null || filter.matches(packet))
+				return packet;
+		}
+	}
+
+	@Override
+	public PcapPacket poll(int timeout) throws IOException {
+		long deadline = System.currentTimeMillis() + timeout;
+		while (true) {
+			PcapPacket packet = is.poll(timeout);
+			if (packet == null || filter.matches(packet))
+				return packet;
+
+			// rejected packets do not extend the wait
+			timeout = (int) Math.max(0, deadline - System.currentTimeMillis());
+		}
+	}
+
+	@Override
+	public boolean isEndOfStream() {
+		return is.isEndOfStream();
+	}
+
+	@Override
+	public void close() throws IOException {
+		is.close();
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.filter;
+
+import java.io.IOException;
+
+import org.krakenapps.pcap.PcapOutputStream;
+import org.krakenapps.pcap.packet.PcapPacket;
+
+/**
+ * FilteredPcapOutputStream writes only the packets accepted by the filter to
+ * the underlying pcap output stream, e.g. pcap file, pcapng file, gzip
+ * compressed or rotating writer.
+ * 
+ * @author xeraph
+ */
+public class FilteredPcapOutputStream implements PcapOutputStream {
+	private PcapOutputStream os;
+	private BpfProgram filter;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if filter expression is invalid
+	 */
+	public FilteredPcapOutputStream(PcapOutputStream os, String filter) {
+		this(os, BpfProgram.compile(filter));
+	}
+
+	public FilteredPcapOutputStream(PcapOutputStream os, BpfProgram filter) {
+		this.os = os;
+		this.filter = filter;
+	}
+
+	@Override
+	public void write(PcapPacket packet) throws IOException {
+		if (filter.matches(packet))
+			os.write(packet);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		os.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		os.close();
+	}
+}
@@ -15,15 +15,22 @@
  */
 package org.krakenapps.pcap.live;
 
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 import org.krakenapps.pcap.PcapInputStream;
 import org.krakenapps.pcap.PcapOutputStream;
+import org.krakenapps.pcap.packet.PacketHeader;
+import org.krakenapps.pcap.packet.PacketPayload;
 import org.krakenapps.pcap.packet.PcapPacket;
 import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.BufferPool;
+import org.krakenapps.pcap.util.ChainBuffer;
 
 /**
  * PcapDevice is a JNI wrapper for libpcap. It can capture live traffic from
@@ -38,11 +45,37 @@ public class PcapDevice implements PcapInputStream, PcapOutputStream {
 		System.loadLibrary("kpcap");
 	}
 
+	/**
+	 * Length of the header which precedes each packet in the batch buffer.
+	 */
+	public static final int RECORD_HEADER_LENGTH = 16;
+
+	private static final int POOLED_BATCH_BUFFER_SIZE = 256 * 1024;
+	private static final int POOLED_BATCH_COUNT = 64;
+
+	/*
+	 * prebuilt kpcap libraries may not export natives added after them. each
+	 * flag is cleared at the first UnsatisfiedLinkError of the native.
+	 */
+	private static volatile boolean offlineSupported = true;
+	private static volatile boolean batchReceiveSupported = true;
+	private static volatile boolean pollSupported = true;
+	private static volatile boolean batchWriteSupported = true;
+
 	private boolean isOpen = true;
 	private int handle;
 	private PcapDeviceMetadata metadata;
+	private File file;
+	private boolean nonblock;
+	private volatile boolean eos;
 	private Set<PcapDeviceEventListener> callbacks;
 
+	/**
+	 * records received by batch, used only if buffer pool is set
+	 */
+	private BufferPool pool;
+	private ByteBuffer records;
+
 	PcapDevice(PcapDeviceMetadata metadata, int handle, String name, int snaplen, boolean promisc, int milliseconds)
 			throws IOException {
 		this.metadata = metadata;
@@ -51,6 +84,56 @@ public class PcapDevice implements PcapInputStream, PcapOutputStream {
 		open(handle, name, snaplen, promisc, milliseconds);
 	}
 
+	PcapDevice(int handle, File file) throws IOException {
+		this.handle = handle;
+		this.file = file;
+		this.callbacks = Collections.synchronizedSet(new HashSet<PcapDeviceEventListener>());
+
+		if (!offlineSupported)
+			throw unsupported("offline capture", null);
+
+		try {
+			openOffline(handle, file.getAbsolutePath());
+		} catch (UnsatisfiedLinkError e) {
+			offlineSupported = false;
+			throw unsupported("offline capture", e);
+		}
+	}
+
+	/**
+	 * Returns false if the loaded kpcap library turned out not to support
+	 * {@link PcapDeviceManager#openOffline(File)}.
+	 */
+	public static boolean isOfflineSupported() {
+		return offlineSupported;
+	}
+
+	/**
+	 * Returns false if the loaded kpcap library turned out not to support
+	 * {@link #getPackets(ByteBuffer, int)}. Pooled poll falls back to
+	 * receiving packets one by one without the pool in that case.
+	 */
+	public static boolean isBatchReceiveSupported() {
+		return batchReceiveSupported;
+	}
+
+	/**
+	 * Returns false if the loaded kpcap library turned out not to support
+	 * batch injection. {@link #write(PcapPacket[], int, int)} falls back to
+	 * injecting packets one by one in that case.
+	 */
+	public static boolean isBatchWriteSupported() {
+		return batchWriteSupported;
+	}
+
+	private static IOException unsupported(String feature, UnsatisfiedLinkError e) {
+		IOException ex = new IOException(feature
+				+ " is not supported by the loaded kpcap library, rebuild it from src/main/c");
+		if (e != null)
+			ex.initCause(e);
+		return ex;
+	}
+
 	public int getHandle() {
 		return handle;
 	}
@@ -70,12 +153,23 @@ public class PcapDevice implements PcapInputStream, PcapOutputStream {
 	private native void open(int handle, String name, int snaplen, boolean promisc, int milliseconds)
 			throws IOException;
 
+	private native void openOffline(int handle, String path) throws IOException;
+
+	/**
+	 * Returns the pcap file of offline device, or null for live device.
+	 */
+	public File getFile() {
+		return file;
+	}
+
 	/**
 	 * Receives a packet from the device.
 	 * 
 	 * @throws IOException
 	 *             if the device is not opened, or timeout occurred in blocking
 	 *             mode.
+	 * @throws EOFException
+	 *             if offline device reached end of file
 	 */
 	@Override
 	public PcapPacket getPacket() throws IOException {
@@ -85,6 +179,221 @@ public class PcapDevice implements PcapInputStream, PcapOutputStream {
 
 	private native PcapPacket getPacket(int id) throws IOException;
 
+	/**
+	 * Receives a packet without throwing exception at timeout or end of file.
+	 * Each native wait is bounded by the read timeout of libpcap, so the
+	 * actual wait can exceed timeout by up to 100 milliseconds. In
+	 * non-blocking mode, it returns immediately. With prebuilt kpcap library
+	 * which has no single packet dispatch, it waits through getPacket, and
+	 * its timeout and end of file exceptions are returned as null.
+	 * 
+	 * @return the packet, or null if timeout elapsed or offline device
+	 *         reached end of file
+	 * @throws IOException
+	 *             if the device is not opened, or libpcap error occurred.
+	 */
+	@Override
+	public PcapPacket poll(int timeout) throws IOException {
+		if (pool != null && batchReceiveSupported)
+			return pollRecord(timeout);
+
+		if (eos)
+			return null;
+
+		verify();
+		long deadline = System.currentTimeMillis() + timeout;
+		while (true) {
+			PcapPacket packet = pollOne();
+			if (packet != null)
+				return packet;
+
+			// savefile returns nothing only at the end
+			if (file != null) {
+				eos = true;
+				return null;
+			}
+
+			if (nonblock || System.currentTimeMillis() >= deadline)
+				return null;
+		}
+	}
+
+	/* returns null at read timeout, or at the end of offline device */
+	private PcapPacket pollOne() throws IOException {
+		if (pollSupported) {
+			try {
+				return pollPacket(handle);
+			} catch (UnsatisfiedLinkError e) {
+				// prebuilt library, falls back to getPacket
+				pollSupported = false;
+			}
+		}
+
+		try {
+			return getPacket(handle);
+		} catch (EOFException e) {
+			return null;
+		} catch (IOException e) {
+			if ("Timeout".equalsIgnoreCase(e.getMessage()))
+				return null;
+			throw e;
+		}
+	}
+
+	private native PcapPacket pollPacket(int id) throws IOException;
+
+	/**
+	 * Receives records in batch, and returns them one by one in pooled
+	 * buffers.
+	 */
+	private PcapPacket pollRecord(int timeout) throws IOException {
+		if (records == null) {
+			records = ByteBuffer.allocateDirect(POOLED_BATCH_BUFFER_SIZE);
+			records.limit(0);
+		}
+
+		long deadline = System.currentTimeMillis() + timeout;
+		while (!records.hasRemaining()) {
+			if (eos)
+				return null;
+
+			records.clear();
+			int count;
+			try {
+				count = getPackets(records, POOLED_BATCH_COUNT);
+			} catch (IOException e) {
+				if (batchReceiveSupported)
+					throw e;
+
+				records.limit(0);
+				return poll(timeout);
+			}
+			records.flip();
+
+			if (count < 0) {
+				eos = true;
+				return null;
+			}
+
+			if (count == 0 && (nonblock || System.currentTimeMillis() >= deadline))
+				return null;
+		}
+
+		return readRecord(records, pool);
+	}
+
+	public BufferPool getBufferPool() {
+		return pool;
+	}
+
+	/**
+	 * Makes {@link #poll(int)} receive packets in batch and copy them to
+	 * pooled blocks instead of allocating array for each packet. Caller should
+	 * release packet data after use, or the block is left to garbage
+	 * collector. {@link #getPacket()} is not affected. If the kpcap library
+	 * has no batch receive, packets are received one by one without the pool.
+	 * 
+	 * @param pool
+	 *            the buffer pool, or null to receive packets one by one
+	 */
+	public void setBufferPool(BufferPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns true if the device is closed, or offline device reached end of
+	 * file.
+	 */
+	@Override
+	public boolean isEndOfStream() {
+		return eos || !isOpen;
+	}
+
+	/**
+	 * Receives packets in batch using pcap_dispatch, with single JNI call and
+	 * without object allocation. Each packet is copied to the buffer from
+	 * current position as a record, which consists of 16 bytes header and
+	 * captured bytes. Header has timestamp seconds, timestamp microseconds,
+	 * captured length and original length as big endian 32bit integers.
+	 * Position is advanced past the last record. Use
+	 * {@link #readRecord(ByteBuffer)} to convert record to packet.
+	 * 
+	 * @param buffer
+	 *            the direct buffer which should have room for at least one
+	 *            record of snaplen
+	 * @param max
+	 *            the max number of packets to receive
+	 * @return the number of received packets, 0 if timeout occurred or no
+	 *         packet is available in non-blocking mode, or -1 if offline
+	 *         device reached end of file
+	 * @throws IOException
+	 *             if the device is not opened, libpcap error occurred, or
+	 *             the kpcap library does not support batch receive
+	 * @throws IllegalArgumentException
+	 *             if buffer is not direct or too small for the next packet
+	 */
+	public int getPackets(ByteBuffer buffer, int max) throws IOException {
+		verify();
+		if (!buffer.isDirect())
+			throw new IllegalArgumentException("direct buffer is required");
+		if (max <= 0)
+			throw new IllegalArgumentException("max should be positive");
+		if (!batchReceiveSupported)
+			throw unsupported("batch receive", null);
+
+		int offset = buffer.position();
+		int length;
+		try {
+			length = getPackets(handle, buffer, offset, buffer.remaining(), max);
+		} catch (UnsatisfiedLinkError e) {
+			batchReceiveSupported = false;
+			throw unsupported("batch receive", e);
+		}
+		if (length < 0)
+			return -1;
+
+		int count = 0;
+		int end = offset + length;
+		for (int p = offset; p < end; p += RECORD_HEADER_LENGTH + buffer.getInt(p + 8))
+			count++;
+
+		buffer.position(end);
+		return count;
+	}
+
+	private native int getPackets(int id, ByteBuffer buffer, int offset, int length, int max) throws IOException;
+
+	/**
+	 * Reads a record written by {@link #getPackets(ByteBuffer, int)} at
+	 * current position, and advances position to the next record.
+	 */
+	public static PcapPacket readRecord(ByteBuffer buffer) {
+		int tsSec = buffer.getInt();
+		int tsUsec = buffer.getInt();
+		int inclLen = buffer.getInt();
+		int origLen = buffer.getInt();
+
+		byte[] b = new byte[inclLen];
+		buffer.get(b);
+		return new PcapPacket(new PacketHeader(tsSec, tsUsec, inclLen, origLen), new PacketPayload(b));
+	}
+
+	/**
+	 * Reads a record like {@link #readRecord(ByteBuffer)}, but copies captured
+	 * bytes to a block acquired from the pool. The packet data holds the only
+	 * reference of the block.
+	 */
+	public static PcapPacket readRecord(ByteBuffer buffer, BufferPool pool) {
+		int tsSec = buffer.getInt();
+		int tsUsec = buffer.getInt();
+		int inclLen = buffer.getInt();
+		int origLen = buffer.getInt();
+
+		BufferPool.Block block = pool.acquire(inclLen);
+		buffer.get(block.array(), 0, inclLen);
+		return new PcapPacket(new PacketHeader(tsSec, tsUsec, inclLen, origLen), new ChainBuffer(block, inclLen));
+	}
+
 	/**
 	 * Injects a packet to the device. You can even send malformed packet.
 	 * 
@@ -125,6 +434,57 @@ public class PcapDevice implements PcapInputStream, PcapOutputStream {
 
 	private native void write(int id, byte[] packet, int offset, int limit) throws IOException;
 
+	/**
+	 * Injects packets with single JNI call. Packet data are copied to one
+	 * array without moving buffer positions of the packets. If the kpcap
+	 * library has no batch injection, packets are injected one by one, and
+	 * send failures are not detected.
+	 * 
+	 * @return the number of sent packets, less than count if libpcap failed
+	 *         to send a packet
+	 * @throws IOException
+	 *             if the device is not opened.
+	 */
+	public int write(PcapPacket[] packets, int offset, int count) throws IOException {
+		verify();
+		if (offset < 0 || count < 0 || offset + count > packets.length)
+			throw new IllegalArgumentException("invalid packet range: offset " + offset + ", count " + count);
+
+		int total = 0;
+		int[] lengths = new int[count];
+		for (int i = 0; i < count; i++) {
+			lengths[i] = packets[offset + i].getPacketData().readableBytes();
+			total += lengths[i];
+		}
+
+		byte[] b = new byte[total];
+		int pos = 0;
+		for (int i = 0; i < count; i++) {
+			Buffer buffer = packets[offset + i].getPacketData();
+			int mark = buffer.position();
+			buffer.gets(b, pos, lengths[i]);
+			buffer.position(mark);
+			pos += lengths[i];
+		}
+
+		if (batchWriteSupported) {
+			try {
+				return writePackets(handle, b, lengths, count);
+			} catch (UnsatisfiedLinkError e) {
+				batchWriteSupported = false;
+			}
+		}
+
+		pos = 0;
+		for (int i = 0; i < count; i++) {
+			write(handle, b, pos, lengths[i]);
+			pos += lengths[i];
+		}
+		return count;
+	}
+
+	private native int writePackets(int id, byte[] packets, int[] lengths, int count) throws IOException;
+
 	/**
 	 * Changes blocking mode of the device.
 	 * 
@@ -136,6 +496,7 @@ public class PcapDevice implements PcapInputStream, PcapOutputStream {
 	public void setNonblock(boolean nonblock) throws IOException {
 		verify();
 		setNonblock(handle, nonblock ? 1 : 0);
+		this.nonblock = nonblock;
 	}
 
 	private native void setNonblock(int id, int nonblock) throws IOException;
@@ -173,7 +534,8 @@ public class PcapDevice implements PcapInputStream, PcapOutputStream {
 	 */
 	public void setFilter(String filter, boolean optimize) throws IOException, IllegalArgumentException {
 		verify();
-		setFilter(handle, (filter != null ? filter : ""), optimize ? 1 : 0, metadata.getNetworkPrefixLength());
+		int netmask = metadata != null ? metadata.getNetworkPrefixLength() : 0;
+		setFilter(handle, (filter != null ? filter : ""), optimize ? 1 : 0, netmask);
 	}
 
 	private native void setFilter(int id, String filter, int optimize, int netmask) throws IOException,
@@ -218,6 +580,9 @@ public class PcapDevice implements PcapInputStream, PcapOutputStream {
 
 	@Override
 	public String toString() {
+		if (metadata == null)
+			return String.format("NetworkInterface [file=%s]", file.getAbsolutePath());
+
 		return String.format("NetworkInterface [name=%s, description=%s, macAddress=%s]", metadata.getName(), metadata
 				.getDescription(), metadata.getMacAddress());
 	}
@@ -15,6 +15,7 @@
  */
 package org.krakenapps.pcap.live;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.util.Arrays;
@@ -104,30 +105,59 @@ public class PcapDeviceManager {
 		if (name == null)
 			throw new IllegalArgumentException("device name should not be null");
 
-		int handle = -1;
-		for (int i = 0; i < MAX_NUMBER_OF_INSTANCE; i++) {
-			if (!allocatedHandles[i]) {
-				handle = i;
-				allocatedHandles[handle] = true;
-				break;
-			}
-		}
-
-		if (handle == -1)
-			throw new IOException("Unable to open a device: " + MAX_NUMBER_OF_INSTANCE + " devices are already opened.");
+		int handle = allocateHandle();
 
 		PcapDeviceMetadata info = getDeviceMetadata(name);
 		if (info == null)
 			throw new IOException("device not found: " + name);
 
 		PcapDevice device = new PcapDevice(info, handle, name, snaplen, promisc == Promiscuous.On, milliseconds);
-		device.addListener(new PcapDeviceEventListener() {
-			@Override
-			public void onClosed(PcapDevice device) {
-				allocatedHandles[device.getHandle()] = false;
-			}
-		});
+		device.addListener(new HandleReleaser());
+		return device;
+	}
+
+	/**
+	 * Opens the pcap file using pcap_open_offline. Offline device reads
+	 * packets through the same native path of live capture, so it can be used
+	 * to test capture code without network interface.
+	 * 
+	 * @throws IOException
+	 *             if max number of devices already opened, the file cannot
+	 *             be opened by libpcap, or the loaded kpcap library does not
+	 *             support offline capture.
+	 */
+	public static PcapDevice openOffline(File file) throws IOException {
+		if (file == null)
+			throw new IllegalArgumentException("file should not be null");
+
+		int handle = allocateHandle();
+		PcapDevice device = null;
+		try {
+			device = new PcapDevice(handle, file);
+		} catch (IOException e) {
+			allocatedHandles[handle] = false;
+			throw e;
+		}
 
+		device.addListener(new HandleReleaser());
 		return device;
 	}
+
+	private static int allocateHandle() throws IOException {
+		for (int i = 0; i < MAX_NUMBER_OF_INSTANCE; i++) {
+			if (!allocatedHandles[i]) {
+				allocatedHandles[i] = true;
+				return i;
+			}
+		}
+
+		throw new IOException("Unable to open a device: " + MAX_NUMBER_OF_INSTANCE + " devices are already opened.");
+	}
+
+	private static class HandleReleaser implements PcapDeviceEventListener {
+		@Override
+		public void onClosed(PcapDevice device) {
+			allocatedHandles[device.getHandle()] = false;
+		}
+	}
 }
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.Collection;
 
 import org.krakenapps.pcap.util.PcapLiveRunner;
+import org.krakenapps.pcap.util.PcapMetrics;
 
 /**
  * @author delmitz
@@ -30,12 +31,29 @@ public interface PcapStreamManager {
 
 	PcapStat getStat(String key);
 
+	/**
+	 * Returns capture and decode metrics of the stream, or null if stream is
+	 * not found.
+	 */
+	PcapMetrics getMetrics(String key);
+
 	void start(String key, String deviceName, int milliseconds) throws IOException;
 
 	void start(String key, String deviceName, int milliseconds, Promiscuous promisc) throws IOException;
 
 	void start(String key, String deviceName, int milliseconds, Promiscuous promisc, String filter) throws IOException;
 
+	/**
+	 * Starts live stream with decode threads. Capture thread dispatches
+	 * packets to workers by flow, and each worker has its own decoder chain.
+	 * 
+	 * @param workerCount
+	 *            the number of decode threads, or 0 for decoding in capture
+	 *            thread
+	 */
+	void start(String key, String deviceName, int milliseconds, Promiscuous promisc, String filter, int workerCount)
+			throws IOException;
+
 	void stop(String key);
 
 	void addEventListener(PcapStreamEventListener callback);
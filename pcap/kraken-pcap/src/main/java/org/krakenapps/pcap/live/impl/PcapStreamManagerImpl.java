@@ -30,6 +30,7 @@ import org.krakenapps.pcap.live.PcapStreamManager;
 import org.krakenapps.pcap.live.PcapStat;
 import org.krakenapps.pcap.live.Promiscuous;
 import org.krakenapps.pcap.util.PcapLiveRunner;
+import org.krakenapps.pcap.util.PcapMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -89,6 +90,15 @@ public class PcapStreamManagerImpl implements PcapStreamManager {
 		}
 	}
 
+	@Override
+	public PcapMetrics getMetrics(String alias) {
+		PcapLiveRunner runner = get(alias);
+		if (runner == null)
+			return null;
+
+		return runner.getMetrics();
+	}
+
 	@Override
 	public void start(String key, String deviceName, int milliseconds) throws IOException {
 		start(key, deviceName, milliseconds, Promiscuous.Off, null);
@@ -102,6 +112,12 @@ public class PcapStreamManagerImpl implements PcapStreamManager {
 	@Override
 	public void start(String key, String deviceName, int milliseconds, Promiscuous promisc, String filter)
 			throws IOException {
+		start(key, deviceName, milliseconds, promisc, filter, 0);
+	}
+
+	@Override
+	public void start(String key, String deviceName, int milliseconds, Promiscuous promisc, String filter,
+			int workerCount) throws IOException {
 		PcapDeviceMetadata info = null;
 		for (PcapDeviceMetadata d : PcapDeviceManager.getDeviceMetadataList()) {
 			if (d.getName().equals(deviceName)) {
@@ -117,11 +133,11 @@ public class PcapStreamManagerImpl implements PcapStreamManager {
 		if (streamMap.containsKey(key))
 			throw new IllegalArgumentException("duplicated alias of pcap device: " + key);
 
-		logger.info("kraken-pcap: starting live runner [{}]", key);
+		logger.info("kraken-pcap: starting live runner [{}], {} workers", key, workerCount);
 
 		LiveStream stream = new LiveStream();
 
-		stream.runner = new PcapLiveRunner(device);
+		stream.runner = new PcapLiveRunner(device, workerCount);
 		stream.thread = new Thread(stream.runner);
 
 		streamMap.put(key, stream);
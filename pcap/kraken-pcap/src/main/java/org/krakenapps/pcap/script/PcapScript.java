@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
@@ -46,7 +47,10 @@ import org.krakenapps.pcap.live.PcapStat;
 import org.krakenapps.pcap.live.Promiscuous;
 import org.krakenapps.pcap.util.Arping;
 import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.LatencyHistogram;
 import org.krakenapps.pcap.util.PcapLiveRunner;
+import org.krakenapps.pcap.util.PcapLiveRunner.WorkerStatus;
+import org.krakenapps.pcap.util.PcapMetrics;
 import org.krakenapps.pcap.util.Ping;
 import org.krakenapps.pcap.util.Ping.PingResponse;
 import org.slf4j.Logger;
@@ -148,6 +152,80 @@ public class PcapScript implements Script {
 		context.println(stat.toString());
 	}
 
+	@ScriptUsage(description = "print decode worker queue status", arguments = { @ScriptArgument(name = "alias", type = "string", description = "the alias of the pcap device") })
+	public void workers(String[] args) {
+		PcapLiveRunner runner = streamManager.get(args[0]);
+		if (runner == null) {
+			context.println("device not found");
+			return;
+		}
+
+		List<WorkerStatus> workers = runner.getWorkerStatus();
+		if (workers.isEmpty()) {
+			context.println("packets are decoded by capture thread");
+			return;
+		}
+
+		for (WorkerStatus status : workers)
+			context.println(status.toString());
+	}
+
+	@ScriptUsage(description = "print capture and decode counters with rates since last call, and gauges", arguments = {
+			@ScriptArgument(name = "alias", type = "string", description = "the alias of the pcap device"),
+			@ScriptArgument(name = "prefix", type = "string", description = "metric name prefix, e.g. capture or tcp", optional = true) })
+	public void metrics(String[] args) {
+		PcapMetrics metrics = streamManager.getMetrics(args[0]);
+		if (metrics == null) {
+			context.println("device not found");
+			return;
+		}
+
+		String prefix = args.length > 1 ? args[1] : "";
+		PcapMetrics.Snapshot s = metrics.snapshot();
+		context.printf("interval %dms\n", s.getInterval());
+		for (Map.Entry<String, Long> e : s.getCounters().entrySet())
+			if (e.getKey().startsWith(prefix))
+				context.printf("%-32s %12d %12.1f/s\n", e.getKey(), e.getValue(), s.getRate(e.getKey()));
+
+		for (Map.Entry<String, Long> e : s.getGauges().entrySet())
+			if (e.getKey().startsWith(prefix))
+				context.printf("%-32s %12d\n", e.getKey(), e.getValue());
+	}
+
+	@ScriptUsage(description = "print decode time histogram and exception count of each decoder layer", arguments = {
+			@ScriptArgument(name = "alias", type = "string", description = "the alias of the pcap device"),
+			@ScriptArgument(name = "timing", type = "string", description = "on or off to switch layer timing", optional = true) })
+	public void latency(String[] args) {
+		PcapMetrics metrics = streamManager.getMetrics(args[0]);
+		if (metrics == null) {
+			context.println("device not found");
+			return;
+		}
+
+		if (args.length > 1) {
+			metrics.setTimingEnabled(args[1].equals("on"));
+			context.println("layer timing " + (metrics.isTimingEnabled() ? "on" : "off"));
+			return;
+		}
+
+		PcapMetrics.Snapshot s = metrics.snapshot();
+		context.printf("%-16s %10s %10s %10s %10s %10s %8s\n", "layer", "count", "mean(ns)", "p50(ns)", "p99(ns)",
+				"max(ns)", "errors");
+		for (Map.Entry<String, LatencyHistogram.Snapshot> e : s.getHistograms().entrySet()) {
+			String name = e.getKey();
+			if (!name.startsWith("decode.") || !name.endsWith(".time"))
+				continue;
+
+			String layer = name.substring("decode.".length(), name.length() - ".time".length());
+			LatencyHistogram.Snapshot h = e.getValue();
+			context.printf("%-16s %10d %10d %10d %10d %10d %8d\n", layer, h.getCount(), h.getMean(),
+					h.getPercentile(0.5), h.getPercentile(0.99), h.getMax(), s.getCounter("decode." + layer + ".errors"));
+		}
+
+		if (!metrics.isTimingEnabled())
+			context.println("layer timing is off");
+	}
+
 	@ScriptUsage(description = "print pcap device tcp sessions", arguments = {
 			@ScriptArgument(name = "alias", type = "string", description = "the alias of the pcap device"),
 			@ScriptArgument(name = "ip filter", type = "string", description = "ip filter", optional = true) })
@@ -158,7 +236,10 @@ public class PcapScript implements Script {
 			return;
 		}
 
-		List<TcpSession> sessions = new ArrayList<TcpSession>(runner.getTcpDecoder().getCurrentSessions());
+		List<TcpSession> sessions = new ArrayList<TcpSession>();
+		for (int i = 0; i < runner.getWorkerCount(); i++)
+			sessions.addAll(runner.getTcpDecoder(i).getCurrentSessions());
+
 		Collections.sort(sessions, new Comparator<TcpSession>() {
 			@Override
 			public int compare(TcpSession o1, TcpSession o2) {
@@ -195,12 +276,14 @@ public class PcapScript implements Script {
 			}
 		}
 
-		for (TcpSession session : runner.getTcpDecoder().getCurrentSessions()) {
-			try {
-				if (ids.contains(session.getId()))
-					sendTcpReset(device, session);
-			} catch (IOException e) {
-				logger.error("kraken pcap: io error", e);
+		for (int i = 0; i < runner.getWorkerCount(); i++) {
+			for (TcpSession session : runner.getTcpDecoder(i).getCurrentSessions()) {
+				try {
+					if (ids.contains(session.getId()))
+						sendTcpReset(device, session);
+				} catch (IOException e) {
+					logger.error("kraken pcap: io error", e);
+				}
 			}
 		}
 	}
@@ -235,7 +318,8 @@ public class PcapScript implements Script {
 			@ScriptArgument(name = "device index", type = "int", description = "index of the pcap device"),
 			@ScriptArgument(name = "timeout", type = "int", description = "milliseconds"),
 			@ScriptArgument(name = "promiscuous mode", type = "string", description = "promisc or nonpromisc", optional = true),
-			@ScriptArgument(name = "bpf", type = "string", description = "bpf filter expression", optional = true) })
+			@ScriptArgument(name = "bpf", type = "string", description = "bpf filter expression", optional = true),
+			@ScriptArgument(name = "workers", type = "int", description = "number of decode threads, 0 for decoding in capture thread", optional = true) })
 	public void open(String[] args) {
 		try {
 			String alias = args[0];
@@ -243,7 +327,10 @@ public class PcapScript implements Script {
 			int milliseconds = Integer.parseInt(args[2]);
 			Promiscuous promisc = null;
 			String filter = null;
+			int workers = 0;
 
+			if (args.length > 5)
+				workers = Integer.parseInt(args[5]);
 			if (args.length > 4)
 				filter = args[4];
 			if (args.length > 3)
@@ -260,7 +347,7 @@ public class PcapScript implements Script {
 				i++;
 			}
 
-			streamManager.start(alias, deviceName, milliseconds, promisc, filter);
+			streamManager.start(alias, deviceName, milliseconds, promisc, filter, workers);
 			context.println("stream opened");
 		} catch (IOException e) {
 			context.println("open failed");
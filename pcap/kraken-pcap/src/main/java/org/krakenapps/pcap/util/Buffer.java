@@ -29,6 +29,38 @@ public interface Buffer {
 	 */
 	List<byte[]> getBuffers();
 
+	/**
+	 * Returns the number of segments. Segment index is same as index of
+	 * {@link #getBuffers()} and {@link #getBufIndex()}.
+	 */
+	int getSegmentCount();
+
+	/**
+	 * Returns the backing array of the segment without copy. The array may be
+	 * shared with other buffers and larger than the segment.
+	 */
+	byte[] getSegmentArray(int index);
+
+	/**
+	 * Returns the offset of the segment in its backing array.
+	 */
+	int getSegmentOffset(int index);
+
+	int getSegmentLength(int index);
+
+	/**
+	 * Adds a reference to pooled segments, so they are not recycled until
+	 * {@link #release()} is called. Unpooled segments are not affected.
+	 */
+	void retain();
+
+	/**
+	 * Releases references to pooled segments. A segment returns to the pool
+	 * when no buffer references it, so buffer should not be read after
+	 * release.
+	 */
+	void release();
+
 	int[] getMetaData();
 
 	int getCapacity();
@@ -100,8 +132,20 @@ public interface Buffer {
 	 */
 	short getShort();
 
+	/**
+	 * Get little endian short from current position, for example, smb or
+	 * dce/rpc field. Position will be increased.
+	 * 
+	 * @return short data
+	 * @throws BufferUnderflowException
+	 *             if position met end of buffers.
+	 */
+	short getShortLE();
+
 	int getUnsignedShort();
 
+	int getUnsignedShortLE();
+
 	/**
 	 * Get integer from current position. Position will be increased.
 	 * 
@@ -111,8 +155,20 @@ public interface Buffer {
 	 */
 	int getInt();
 
+	/**
+	 * Get little endian integer from current position. Position will be
+	 * increased.
+	 * 
+	 * @return integer data
+	 * @throws BufferUnderflowException
+	 *             if position met end of buffers.
+	 */
+	int getIntLE();
+
 	long getUnsignedInt();
 
+	long getUnsignedIntLE();
+
 	/**
 	 * Get long from current position. Position will be increased.
 	 * 
@@ -122,6 +178,16 @@ public interface Buffer {
 	 */
 	long getLong();
 
+	/**
+	 * Get little endian long from current position. Position will be
+	 * increased.
+	 * 
+	 * @return long data
+	 * @throws BufferUnderflowException
+	 *             if position met end of buffers.
+	 */
+	long getLongLE();
+
 	/**
 	 * Get string from current position. Position will be increased.
 	 * 
@@ -208,6 +274,17 @@ public interface Buffer {
 	 */
 	int bytesBefore(byte[] target);
 
+	/**
+	 * Find the first occurrence offset of the compiled pattern from current
+	 * position. Buffer keeps scan state per pattern, so a repeated search
+	 * after more data is appended resumes where the last search stopped.
+	 * 
+	 * @param pattern
+	 *            the pattern constant that you want to search for.
+	 * @return the offset from current position, or 0 if not found.
+	 */
+	int bytesBefore(BytePattern pattern);
+
 	/**
 	 * Returns the number of bytes between the current position and the limit.
 	 * 
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BufferPool recycles packet byte arrays in power of two size classes, from
+ * 64 bytes to 64KB. A block is reference counted. Packet source acquires a
+ * block with one reference, {@link ChainBuffer} segments which slice the block
+ * hold their own references, and the block returns to the pool when the last
+ * reference is released. Larger requests and blocks which are never released
+ * are left to garbage collector.
+ * 
+ * With leak detection, each acquired block is tracked until it is released.
+ * A block which is collected while it is referenced is reported with the
+ * stack trace of its acquisition. It is expensive, so use it in debug only.
+ * 
+ * @author xeraph
+ */
+public class BufferPool {
+	private static final int MIN_SHIFT = 6;
+	private static final int MAX_SHIFT = 16;
+	private static final int DEFAULT_BLOCKS_PER_CLASS = 4096;
+
+	private final Logger logger = LoggerFactory.getLogger(BufferPool.class.getName());
+	private final ArrayBlockingQueue<Block>[] classes;
+
+	private volatile boolean leakDetection;
+	private final ReferenceQueue<Block> collected = new ReferenceQueue<Block>();
+	private final Set<LeakTracker> trackers = Collections
+			.newSetFromMap(new ConcurrentHashMap<LeakTracker, Boolean>());
+
+	private final StripedCounter allocated = new StripedCounter();
+	private final StripedCounter reused = new StripedCounter();
+	private final StripedCounter recycled = new StripedCounter();
+	private final StripedCounter leaked = new StripedCounter();
+
+	public BufferPool() {
+		this(DEFAULT_BLOCKS_PER_CLASS);
+	}
+
+	/**
+	 * @param blocksPerClass
+	 *            the max number of idle blocks kept for each size class
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public BufferPool(int blocksPerClass) {
+		if (blocksPerClass <= 0)
+			throw new IllegalArgumentException("blocks per class should be positive");
+
+		classes = new ArrayBlockingQueue[MAX_SHIFT - MIN_SHIFT + 1];
+		for (int i = 0; i < classes.length; i++)
+			classes[i] = new ArrayBlockingQueue<Block>(blocksPerClass);
+	}
+
+	public boolean isLeakDetection() {
+		return leakDetection;
+	}
+
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Returns a block which has at least length bytes, with one reference.
+	 * Contents of the array are not cleared.
+	 */
+	public Block acquire(int length) {
+		if (length < 0)
+			throw new IllegalArgumentException("negative length: " + length);
+
+		if (leakDetection)
+			reportLeaks();
+
+		int index = sizeClass(length);
+		if (index < 0) {
+			allocated.increment();
+			return new Block(null, new byte[length]);
+		}
+
+		Block block = classes[index].poll();
+		if (block != null) {
+			reused.increment();
+		} else {
+			allocated.increment();
+			block = new Block(this, new byte[1 << (index + MIN_SHIFT)]);
+		}
+
+		block.refs.set(1);
+		if (leakDetection) {
+			block.tracker = new LeakTracker(block, collected);
+			trackers.add(block.tracker);
+		}
+		return block;
+	}
+
+	private void recycle(Block block) {
+		if (block.tracker != null) {
+			trackers.remove(block.tracker);
+			block.tracker.clear();
+			block.tracker = null;
+		}
+
+		recycled.increment();
+		classes[sizeClass(block.array.length)].offer(block);
+	}
+
+	private void reportLeaks() {
+		LeakTracker tracker;
+		while ((tracker = (LeakTracker) collected.poll()) != null) {
+			if (!trackers.remove(tracker))
+				continue;
+
+			leaked.increment();
+			logger.warn("kraken-pcap: pooled buffer is collected without release, acquired at", tracker.origin);
+		}
+	}
+
+	private static int sizeClass(int length) {
+		if (length > 1 << MAX_SHIFT)
+			return -1;
+
+		int shift = 32 - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1);
+		return Math.max(shift, MIN_SHIFT) - MIN_SHIFT;
+	}
+
+	/**
+	 * Returns the number of idle blocks in the pool.
+	 */
+	public int getIdleCount() {
+		int count = 0;
+		for (ArrayBlockingQueue<Block> q : classes)
+			count += q.size();
+		return count;
+	}
+
+	public Statistics getStatistics() {
+		reportLeaks();
+		return new Statistics(allocated.sum(), reused.sum(), recycled.sum(), leaked.sum(), getIdleCount());
+	}
+
+	/**
+	 * Byte array with reference count. Array length is the size class, so it
+	 * can be larger than the requested length.
+	 */
+	public static class Block {
+		private final BufferPool pool;
+		private final byte[] array;
+		private final AtomicInteger refs = new AtomicInteger(1);
+		private volatile LeakTracker tracker;
+
+		private Block(BufferPool pool, byte[] array) {
+			this.pool = pool;
+			this.array = array;
+		}
+
+		public byte[] array() {
+			return array;
+		}
+
+		public int refCount() {
+			return refs.get();
+		}
+
+		public void retain() {
+			while (true) {
+				int n = refs.get();
+				if (n <= 0)
+					throw new IllegalStateException("block is already released");
+				if (refs.compareAndSet(n, n + 1))
+					return;
+			}
+		}
+
+		/**
+		 * Decrements reference count, and returns the block to the pool at
+		 * zero.
+		 * 
+		 * @return true if it was the last reference
+		 */
+		public boolean release() {
+			int n = refs.decrementAndGet();
+			if (n < 0) {
+				refs.incrementAndGet();
+				throw new IllegalStateException("block is already released");
+			}
+
+			if (n > 0)
+				return false;
+
+			if (pool != null)
+				pool.recycle(this);
+			return true;
+		}
+	}
+
+	private static class LeakTracker extends WeakReference<Block> {
+		private final Throwable origin = new Throwable();
+
+		public LeakTracker(Block block, ReferenceQueue<Block> queue) {
+			super(block, queue);
+		}
+	}
+
+	public static class Statistics {
+		private final long allocated;
+		private final long reused;
+		private final long recycled;
+		private final long leaked;
+		private final int idle;
+
+		private Statistics(long allocated, long reused, long recycled, long leaked, int idle) {
+			this.allocated = allocated;
+			this.reused = reused;
+			this.recycled = recycled;
+			this.leaked = leaked;
+			this.idle = idle;
+		}
+
+		/**
+		 * Returns the number of blocks allocated because pool was empty.
+		 */
+		public long getAllocated() {
+			return allocated;
+		}
+
+		/**
+		 * Returns the number of blocks taken from the pool.
+		 */
+		public long getReused() {
+			return reused;
+		}
+
+		/**
+		 * Returns the number of blocks returned to the pool.
+		 */
+		public long getRecycled() {
+			return recycled;
+		}
+
+		/**
+		 * Returns the number of blocks collected without release, counted
+		 * only while leak detection is enabled.
+		 */
+		public long getLeaked() {
+			return leaked;
+		}
+
+		public int getIdle() {
+			return idle;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("allocated=%d, reused=%d, recycled=%d, leaked=%d, idle=%d", allocated, reused,
+					recycled, leaked, idle);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+import java.util.Arrays;
+
+/**
+ * BytePattern is a delimiter compiled for {@link Buffer#bytesBefore(BytePattern)}.
+ * Multi-byte patterns are searched with Horspool skip table, so most bytes
+ * are not compared at all. Decoders should keep patterns in constants, since
+ * buffer remembers how far each pattern is scanned and resumes from there.
+ * 
+ * @author mindori
+ */
+public class BytePattern {
+	private final byte[] pattern;
+
+	/* shift of the window, indexed by the byte under the last position */
+	private final int[] shifts;
+
+	public BytePattern(byte[] pattern) {
+		if (pattern == null || pattern.length == 0)
+			throw new IllegalArgumentException("empty pattern");
+
+		this.pattern = pattern.clone();
+
+		int m = pattern.length;
+		if (m == 1) {
+			shifts = null;
+			return;
+		}
+
+		shifts = new int[256];
+		Arrays.fill(shifts, m);
+		for (int i = 0; i < m - 1; i++)
+			shifts[pattern[i] & 0xff] = m - 1 - i;
+	}
+
+	public int length() {
+		return pattern.length;
+	}
+
+	public byte[] getBytes() {
+		return pattern.clone();
+	}
+
+	boolean matches(byte[] target) {
+		return Arrays.equals(pattern, target);
+	}
+
+	byte at(int index) {
+		return pattern[index];
+	}
+
+	byte last() {
+		return pattern[pattern.length - 1];
+	}
+
+	int shift(byte b) {
+		return shifts[b & 0xff];
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(pattern);
+	}
+}
@@ -19,16 +19,33 @@ import java.io.UnsupportedEncodingException;
 import java.nio.BufferUnderflowException;
 import java.nio.InvalidMarkException;
 import java.nio.charset.Charset;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 /**
+ * ChainBuffer reads a list of segments as one buffer. A segment is a slice of
+ * a byte array, so appending other buffer, flip and discarding read bytes only
+ * adjust indices and never copy payload. Start offset of each segment is kept
+ * in a cumulative index, so position, capacity and readable bytes do not walk
+ * the segment list. The index is extended when segments are appended, and
+ * rebuilt lazily after segments are inserted or removed.
+ * 
+ * A segment can be a slice of pooled block. Buffer which slices other buffer
+ * holds its own reference of the block, and releases it by
+ * {@link #release()}.
+ * 
  * @author mindori
  */
 public class ChainBuffer implements Buffer {
+	private List<Segment> segments;
 	private List<byte[]> buffers;
 
+	/* offsets[i] = absolute position of segments[i], offsets[indexed] = capacity */
+	private int[] offsets = new int[16];
+	private int indexed;
+
 	/* start[0] = bufIndex of start point. baseOffset = offset of start point. */
 	private int baseIndex;
 	private int baseOffset;
@@ -39,8 +56,14 @@ public class ChainBuffer implements Buffer {
 	private int bufIndex = 0;
 	private int bufOffset = 0;
 
+	/* scan state of recently searched patterns */
+	private static final int MAX_SEARCHES = 4;
+	private Search[] searches;
+	private int searchCount;
+
 	public ChainBuffer() {
-		buffers = new ArrayList<byte[]>();
+		segments = new ArrayList<Segment>();
+		buffers = new SegmentList();
 
 		baseIndex = 0;
 		baseOffset = 0;
@@ -51,10 +74,19 @@ public class ChainBuffer implements Buffer {
 		addLast(b);
 	}
 
-	/* copy constructor */
+	/**
+	 * Wraps first length bytes of the pooled block. The buffer takes over the
+	 * reference of the caller.
+	 */
+	public ChainBuffer(BufferPool.Block block, int length) {
+		this();
+		segments.add(new Segment(block.array(), 0, length, block));
+	}
+
+	/* copy constructor, shares segments of other buffer */
 	public ChainBuffer(Buffer other) {
-		buffers = new ArrayList<byte[]>();
-		buffers.addAll(other.getBuffers());
+		this();
+		append(other, 0, 0, Integer.MAX_VALUE);
 
 		int[] metaData = other.getMetaData();
 
@@ -74,17 +106,40 @@ public class ChainBuffer implements Buffer {
 		return new int[] { baseIndex, baseOffset, markIndex, markOffset, bufIndex, bufOffset };
 	}
 
+	/**
+	 * Returns segments as byte arrays. A segment which is a slice of larger
+	 * array is copied to its own array when it is fetched first time. Use
+	 * segment accessors to read without copy.
+	 */
 	@Override
 	public List<byte[]> getBuffers() {
 		return buffers;
 	}
 
+	@Override
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	@Override
+	public byte[] getSegmentArray(int index) {
+		return segments.get(index).array;
+	}
+
+	@Override
+	public int getSegmentOffset(int index) {
+		return segments.get(index).offset;
+	}
+
+	@Override
+	public int getSegmentLength(int index) {
+		return segments.get(index).length;
+	}
+
 	@Override
 	public int getCapacity() {
-		int capacity = 0;
-		for (byte[] b : buffers)
-			capacity += b.length;
-		return capacity;
+		sync();
+		return offsets[indexed];
 	}
 
 	@Override
@@ -109,38 +164,57 @@ public class ChainBuffer implements Buffer {
 
 	@Override
 	public int position() {
-		int absPos = 0;
-		if (bufIndex > 0) {
-			int loopCount = 0;
-			for (byte[] buffer : buffers) {
-				absPos += buffer.length;
-				if (loopCount >= (bufIndex - 1))
-					break;
-				loopCount++;
-			}
-		}
-		absPos += bufOffset;
-		return absPos;
+		sync();
+		return offsets[Math.min(bufIndex, indexed)] + bufOffset;
 	}
 
 	@Override
 	public Buffer position(int newPosition) {
-		int absPos = 0;
-		int i = 0;
-
 		if (newPosition < 0)
 			throw new IllegalArgumentException();
 
-		for (byte[] buffer : buffers) {
-			if (absPos + buffer.length >= newPosition) {
-				bufIndex = i;
-				bufOffset = newPosition - absPos;
-				return this;
-			}
-			absPos += buffer.length;
-			i++;
+		sync();
+		if (indexed == 0 || offsets[indexed] < newPosition)
+			throw new IllegalArgumentException();
+
+		/* binary search first segment which ends at or after new position */
+		int lo = 0;
+		int hi = indexed - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (offsets[mid + 1] >= newPosition)
+				hi = mid;
+			else
+				lo = mid + 1;
 		}
-		throw new IllegalArgumentException();
+
+		bufIndex = lo;
+		bufOffset = newPosition - offsets[lo];
+		return this;
+	}
+
+	/* extends offset index to appended segments, or rebuilds it */
+	private void sync() {
+		int n = segments.size();
+		if (n < indexed)
+			indexed = 0;
+
+		if (indexed == n)
+			return;
+
+		if (offsets.length < n + 1)
+			offsets = Arrays.copyOf(offsets, Math.max(n + 1, offsets.length * 2));
+
+		for (int i = indexed; i < n; i++)
+			offsets[i + 1] = offsets[i] + segments.get(i).length;
+
+		indexed = n;
+	}
+
+	/* segments from the index are replaced or shifted */
+	private void invalidate(int index) {
+		indexed = Math.min(indexed, index);
+		searchCount = 0;
 	}
 
 	@Override
@@ -148,7 +222,8 @@ public class ChainBuffer implements Buffer {
 		if (buffer == null)
 			return;
 
-		buffers.add(0, buffer);
+		segments.add(0, new Segment(buffer));
+		invalidate(0);
 	}
 
 	@Override
@@ -156,7 +231,7 @@ public class ChainBuffer implements Buffer {
 		if (buffer == null)
 			return;
 
-		buffers.add(buffer);
+		segments.add(new Segment(buffer));
 	}
 
 	@Override
@@ -164,8 +239,11 @@ public class ChainBuffer implements Buffer {
 		if (buffer == null)
 			return;
 
-		List<byte[]> newBufList = buffer.getBuffers();
-		buffers.addAll(0, newBufList);
+		List<Segment> head = segments;
+		segments = new ArrayList<Segment>(head.size() + buffer.getSegmentCount());
+		append(buffer, 0, 0, Integer.MAX_VALUE);
+		segments.addAll(head);
+		invalidate(0);
 	}
 
 	@Override
@@ -173,27 +251,8 @@ public class ChainBuffer implements Buffer {
 		if (buffer == null)
 			return;
 
-		/* copy to current offset ~ EOB */
-		List<byte[]> l = buffer.getBuffers();
-		int i = buffer.getBaseIndex();
-		int j = buffer.getBaseOffset();
-
-		if (i >= l.size())
-			return;
-
-		byte[] b = l.get(i);
-		if (j > 0) {
-			byte[] t = new byte[b.length - j];
-			for (int k = 0; k < t.length; k++) {
-				t[k] = b[k + j];
-			}
-			buffers.add(t);
-			if (i + 1 < l.size())
-				buffers.addAll(l.subList(i + 1, l.size()));
-		} else {
-			if (i < l.size())
-				buffers.addAll(l.subList(i, l.size()));
-		}
+		/* reference base position ~ EOB */
+		append(buffer, buffer.getBaseIndex(), buffer.getBaseOffset(), Integer.MAX_VALUE);
 	}
 
 	@Override
@@ -201,103 +260,49 @@ public class ChainBuffer implements Buffer {
 		if (buffer == null)
 			return;
 
-		List<byte[]> l = buffer.getBuffers();
-		int i = buffer.getBufIndex();
-		int j = buffer.getOffset();
-		if (i >= l.size() || length <= 0)
+		if (buffer.getBufIndex() >= buffer.getSegmentCount() || length <= 0)
 			return;
-		/* calculate bufIndex */
-		buffer.mark();
-		if (buffer.skip(length) == null)
+
+		if (buffer.readableBytes() < length)
 			return;
-		int m = buffer.getBufIndex();
-		int n = buffer.getOffset();
-		buffer.reset();
-
-		byte[] b = l.get(i);
-		if (j > 0) {
-			if (m == i) {
-				byte[] t = new byte[n - j];
-				for (int k = 0; k < t.length; k++) {
-					t[k] = b[k + j];
-				}
-				buffers.add(t);
-			}
 
-			else {
-				if (m == i + 1) {
-					byte[] t = new byte[b.length - j];
-					for (int k = 0; k < t.length; k++) {
-						t[k] = b[k + j];
-					}
-					buffers.add(t);
-
-					if (n > 0) {
-						byte[] b1 = l.get(m);
-						byte[] t1 = new byte[n];
-						for (int k = 0; k < t1.length; k++) {
-							t1[k] = b1[k];
-						}
-						buffers.add(t1);
-					}
-				} else {
-					byte[] t = new byte[b.length - j];
-					for (int k = 0; k < t.length; k++) {
-						t[k] = b[k + j];
-					}
-					buffers.add(t);
-
-					if (i + 1 == m - 1)
-						buffers.add(l.get(i + 1));
-					else
-						buffers.addAll(l.subList(i + 1, m));
-
-					if (n > 0) {
-						byte[] b1 = l.get(m);
-						byte[] t1 = new byte[n];
-						for (int k = 0; k < t1.length; k++) {
-							t1[k] = b1[k];
-						}
-						buffers.add(t1);
-					}
-				}
-			}
-		} else {
-			/* j == 0 */
-			if (m == i) {
-				byte[] t1 = new byte[n];
-				for (int k = 0; k < t1.length; k++) {
-					t1[k] = b[k];
-				}
-				buffers.add(t1);
-			}
+		/* reference current position ~ current position + length */
+		append(buffer, buffer.getBufIndex(), buffer.getOffset(), length);
+	}
 
-			else {
-				if (i == m - 1) {
-					buffers.add(b);
-					if (n > 0) {
-						byte[] b1 = l.get(m);
-						byte[] t1 = new byte[n];
-						for (int k = 0; k < t1.length; k++) {
-							t1[k] = b1[k];
-						}
-						buffers.add(t1);
-					}
-				} else {
-					buffers.addAll(l.subList(i, m));
-					if (n > 0) {
-						byte[] b1 = l.get(m);
-						byte[] t1 = new byte[n];
-						for (int k = 0; k < t1.length; k++) {
-							t1[k] = b1[k];
-						}
-						buffers.add(t1);
-					}
-				}
+	/* appends slices of other buffer from [index, offset], at most length bytes */
+	private void append(Buffer buffer, int index, int offset, int length) {
+		List<Segment> source = (buffer instanceof ChainBuffer) ? ((ChainBuffer) buffer).segments : null;
+		int count = buffer.getSegmentCount();
+		for (int i = index; i < count && length > 0; i++) {
+			int segmentLength = buffer.getSegmentLength(i);
+			int n = Math.min(segmentLength - offset, length);
+			if (n > 0 || offset == 0) {
+				BufferPool.Block block = source != null ? source.get(i).block : null;
+				if (block != null)
+					block.retain();
+
+				segments.add(new Segment(buffer.getSegmentArray(i), buffer.getSegmentOffset(i) + offset, n, block));
 			}
+
+			length -= n;
+			offset = 0;
 		}
 	}
 
+	@Override
+	public void retain() {
+		for (Segment s : segments)
+			if (s.block != null)
+				s.block.retain();
+	}
+
+	@Override
+	public void release() {
+		for (Segment s : segments)
+			s.release();
+	}
+
 	@Override
 	public Buffer skip(int pos) {
 		/* move failed => don't moved. */
@@ -307,7 +312,7 @@ public class ChainBuffer implements Buffer {
 		int skipped = 0;
 
 		int i = bufIndex;
-		byte[] buf = buffers.get(i);
+		Segment buf = segments.get(i);
 		int next = buf.length - bufOffset;
 
 		skipped += next;
@@ -322,8 +327,8 @@ public class ChainBuffer implements Buffer {
 		}
 		i++;
 
-		while (i < buffers.size()) {
-			next = buffers.get(i).length;
+		while (i < segments.size()) {
+			next = segments.get(i).length;
 			skipped += next;
 			if (skipped >= pos) {
 				int remain = skipped - pos;
@@ -345,19 +350,20 @@ public class ChainBuffer implements Buffer {
 	@Override
 	public byte get() throws BufferUnderflowException {
 		/* fetch address: [bufIndex, offset] */
-		if (bufIndex >= buffers.size())
+		if (bufIndex >= segments.size())
 			throw new BufferUnderflowException();
-		byte[] buf = buffers.get(bufIndex);
+		Segment buf = segments.get(bufIndex);
 
-		if (bufOffset >= buf.length) {
+		/* skip exhausted and empty segments */
+		while (bufOffset >= buf.length) {
 			bufOffset = 0;
 			bufIndex += 1;
-			if (bufIndex >= buffers.size())
+			if (bufIndex >= segments.size())
 				throw new BufferUnderflowException();
-			buf = buffers.get(bufIndex);
+			buf = segments.get(bufIndex);
 		}
 
-		byte retVal = buf[bufOffset];
+		byte retVal = buf.array[buf.offset + bufOffset];
 
 		/* modify offset */
 		if ((bufOffset + 1) >= buf.length) {
@@ -370,20 +376,19 @@ public class ChainBuffer implements Buffer {
 
 	@Override
 	public short getShort() throws BufferUnderflowException {
-		try {
-			byte[] b = new byte[2];
-			gets(b, 0, 2);
+		Segment s = current(2);
+		if (s == null)
+			return (short) getSlow(2);
 
-			short s = 0;
-			for (int i = 0; i < 2; i++) {
-				s <<= 8;
-				s ^= (long) b[i] & 0xFF;
-			}
+		byte[] b = s.array;
+		int i = s.offset + bufOffset;
+		advance(s, 2);
+		return (short) ((b[i] << 8) | (b[i + 1] & 0xff));
+	}
 
-			return s;
-		} catch (BufferUnderflowException e) {
-			throw e;
-		}
+	@Override
+	public short getShortLE() throws BufferUnderflowException {
+		return Short.reverseBytes(getShort());
 	}
 
 	@Override
@@ -391,22 +396,26 @@ public class ChainBuffer implements Buffer {
 		return getShort() & 0xFFFF;
 	}
 
+	@Override
+	public int getUnsignedShortLE() {
+		return getShortLE() & 0xFFFF;
+	}
+
 	@Override
 	public int getInt() throws BufferUnderflowException {
-		try {
-			byte[] b = new byte[4];
-			gets(b, 0, 4);
+		Segment s = current(4);
+		if (s == null)
+			return (int) getSlow(4);
 
-			int s = 0;
-			for (int i = 0; i < 4; i++) {
-				s <<= 8;
-				s ^= (long) b[i] & 0xFF;
-			}
+		byte[] b = s.array;
+		int i = s.offset + bufOffset;
+		advance(s, 4);
+		return (b[i] << 24) | ((b[i + 1] & 0xff) << 16) | ((b[i + 2] & 0xff) << 8) | (b[i + 3] & 0xff);
+	}
 
-			return s;
-		} catch (BufferUnderflowException e) {
-			throw e;
-		}
+	@Override
+	public int getIntLE() throws BufferUnderflowException {
+		return Integer.reverseBytes(getInt());
 	}
 
 	@Override
@@ -414,24 +423,59 @@ public class ChainBuffer implements Buffer {
 		return getInt() & 0xFFFFFFFFl;
 	}
 
+	@Override
+	public long getUnsignedIntLE() {
+		return getIntLE() & 0xFFFFFFFFl;
+	}
+
 	@Override
 	public long getLong() throws BufferUnderflowException {
-		try {
-			byte[] b = new byte[8];
-			gets(b, 0, 8);
+		Segment s = current(8);
+		if (s == null)
+			return getSlow(8);
 
-			long s = 0;
-			for (int i = 0; i < 8; i++) {
-				s <<= 8;
-				s ^= (long) b[i] & 0xFFl;
-			}
+		byte[] b = s.array;
+		int i = s.offset + bufOffset;
+		advance(s, 8);
+		int high = (b[i] << 24) | ((b[i + 1] & 0xff) << 16) | ((b[i + 2] & 0xff) << 8) | (b[i + 3] & 0xff);
+		int low = (b[i + 4] << 24) | ((b[i + 5] & 0xff) << 16) | ((b[i + 6] & 0xff) << 8) | (b[i + 7] & 0xff);
+		return ((long) high << 32) | (low & 0xFFFFFFFFl);
+	}
 
-			return s;
-		} catch (BufferUnderflowException e) {
-			throw e;
+	@Override
+	public long getLongLE() throws BufferUnderflowException {
+		return Long.reverseBytes(getLong());
+	}
+
+	/* returns current segment if it contains next size bytes */
+	private Segment current(int size) {
+		if (bufIndex >= segments.size())
+			return null;
+
+		Segment s = segments.get(bufIndex);
+		return bufOffset + size <= s.length ? s : null;
+	}
+
+	/* moves position in current segment, to next segment at the end */
+	private void advance(Segment s, int size) {
+		bufOffset += size;
+		if (bufOffset >= s.length) {
+			bufIndex++;
+			bufOffset = 0;
 		}
 	}
 
+	/* reads big endian value which straddles segments */
+	private long getSlow(int size) {
+		if (readableBytes() < size)
+			throw new BufferUnderflowException();
+
+		long v = 0;
+		for (int i = 0; i < size; i++)
+			v = (v << 8) | (get() & 0xFF);
+		return v;
+	}
+
 	@Override
 	public String getString(int length) throws BufferUnderflowException {
 		byte[] str = new byte[length];
@@ -477,7 +521,7 @@ public class ChainBuffer implements Buffer {
 		if (length == 0)
 			return;
 
-		if (bufIndex >= buffers.size())
+		if (bufIndex >= segments.size())
 			throw new BufferUnderflowException();
 
 		/* calculate length */
@@ -487,40 +531,19 @@ public class ChainBuffer implements Buffer {
 			throw new BufferUnderflowException();
 
 		int index = offset;
-
-		int i = 0;
-		int j = bufIndex;
 		int bufI = bufIndex;
 		int off = bufOffset;
 
-		int bufCount = 0;
-		int count = 0;
-
-		for (byte[] b : buffers) {
-			if (bufCount < j) {
-				/* skip buffer until count == bufIndex */
-				bufCount++;
-				continue;
-			}
-
-			for (i = off; i < b.length; i++) {
-				if (count == length) {
-					off = i;
-					break;
-				}
-				buffer[index] = b[i];
-				index++;
-				count++;
-			}
+		while (length > 0) {
+			Segment b = segments.get(bufI);
+			int n = Math.min(b.length - off, length);
+			System.arraycopy(b.array, b.offset + off, buffer, index, n);
+			index += n;
+			length -= n;
+			off += n;
 
-			if (count == length) {
-				if (i == b.length) {
-					bufI++;
-					off = 0;
-				}
-				break;
-			} else {
-				/* go to next buffer */
+			/* move to next buffer at the end of segment */
+			if (off >= b.length) {
 				bufI++;
 				off = 0;
 			}
@@ -531,58 +554,128 @@ public class ChainBuffer implements Buffer {
 
 	@Override
 	public int bytesBefore(byte[] target) {
-		/* if, stateNum equals to target.length => pattern matching to target. */
-		mark();
+		for (int i = 0; i < searchCount; i++)
+			if (searches[i].pattern.matches(target))
+				return bytesBefore(searches[i].pattern);
+
+		return bytesBefore(new BytePattern(target));
+	}
+
+	@Override
+	public int bytesBefore(BytePattern pattern) {
+		if (bufIndex >= segments.size())
+			return 0;
+
+		int position = position();
+		Search search = search(pattern);
 
-		int stateNum = 0;
-		int length = 0;
+		/* skip range which is already scanned from the same or earlier start */
+		int from = position;
+		if (search.start <= position && position <= search.scanned)
+			from = search.scanned;
+		else
+			search.start = position;
 
-		if (bufIndex >= buffers.size()) {
-			reset();
+		int found = indexOf(pattern, from);
+		if (found < 0) {
+			search.scanned = Math.max(from, getCapacity() - pattern.length() + 1);
 			return 0;
 		}
 
-		/* retrieve first byte array */
-		byte[] bs = buffers.get(bufIndex);
+		search.scanned = found;
+		return found - position;
+	}
+
+	/* returns scan state of the pattern, replacing the oldest one if full */
+	private Search search(BytePattern pattern) {
+		for (int i = 0; i < searchCount; i++)
+			if (searches[i].pattern == pattern)
+				return searches[i];
 
-		for (int i = bufOffset; i < bs.length; i++) {
-			if (bs[i] == target[stateNum])
-				stateNum++;
-			else if (bs[i] == target[0]) {
-				stateNum = 1;
-			} else
-				stateNum = 0;
-			length++;
+		if (searches == null)
+			searches = new Search[MAX_SEARCHES];
 
-			if (stateNum == target.length) {
-				/* return length */
-				reset();
-				return (length - target.length);
+		Search search = new Search(pattern);
+		if (searchCount < MAX_SEARCHES) {
+			searches[searchCount++] = search;
+		} else {
+			System.arraycopy(searches, 1, searches, 0, MAX_SEARCHES - 1);
+			searches[MAX_SEARCHES - 1] = search;
+		}
+		return search;
+	}
+
+	/* returns absolute position of the first occurrence at or after from, or -1 */
+	private int indexOf(BytePattern pattern, int from) {
+		sync();
+		int capacity = offsets[indexed];
+		int m = pattern.length();
+		if (from + m > capacity)
+			return -1;
+
+		int seg = segmentOf(from);
+		if (m == 1) {
+			byte b = pattern.last();
+			int off = from - offsets[seg];
+			for (; seg < indexed; seg++, off = 0) {
+				Segment s = segments.get(seg);
+				int end = s.offset + s.length;
+				for (int i = s.offset + off; i < end; i++)
+					if (s.array[i] == b)
+						return offsets[seg] + i - s.offset;
 			}
+			return -1;
 		}
 
-		/* get sublist from bufList */
-		int index = bufIndex + 1;
-		List<byte[]> subList = buffers.subList(index, buffers.size());
-		for (byte[] bs2 : subList) {
-			for (byte b : bs2) {
-				if (b == target[stateNum])
-					stateNum++;
-				else if (b == target[0])
-					stateNum = 1;
-				else
-					stateNum = 0;
-				length++;
-
-				if (stateNum == target.length) {
-					/* return length */
-					reset();
-					return (length - target.length);
-				}
+		/* horspool, i is absolute position of the window end */
+		byte last = pattern.last();
+		int i = from + m - 1;
+		while (i < capacity) {
+			while (offsets[seg + 1] <= i)
+				seg++;
+
+			Segment s = segments.get(seg);
+			byte b = s.array[s.offset + i - offsets[seg]];
+			if (b == last && matches(pattern, i - m + 1, seg))
+				return i - m + 1;
+
+			i += pattern.shift(b);
+		}
+		return -1;
+	}
+
+	/* compares pattern except the last byte, seg is the segment of the window end */
+	private boolean matches(BytePattern pattern, int start, int seg) {
+		while (offsets[seg] > start)
+			seg--;
+
+		int off = start - offsets[seg];
+		for (int k = 0; k < pattern.length() - 1; k++) {
+			Segment s = segments.get(seg);
+			while (off >= s.length) {
+				s = segments.get(++seg);
+				off = 0;
 			}
+
+			if (s.array[s.offset + off] != pattern.at(k))
+				return false;
+			off++;
 		}
-		reset();
-		return 0;
+		return true;
+	}
+
+	/* returns index of the segment which contains the absolute position */
+	private int segmentOf(int position) {
+		int lo = 0;
+		int hi = indexed - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (offsets[mid] <= position)
+				lo = mid;
+			else
+				hi = mid - 1;
+		}
+		return lo;
 	}
 
 	@Override
@@ -608,20 +701,20 @@ public class ChainBuffer implements Buffer {
 		if (bufIndex > markIndex) {
 			int rewindOffset = bufOffset;
 			for (int i = bufIndex - 1; i > markIndex; i--) {
-				byte[] buf = buffers.get(i);
+				Segment buf = segments.get(i);
 				rewindOffset += buf.length;
 			}
-			byte[] markBuf = buffers.get(markIndex);
+			Segment markBuf = segments.get(markIndex);
 			rewindOffset += (markBuf.length - markOffset);
 			return reset(rewindOffset);
 		} else if (bufIndex < markIndex) {
 			int absPos = 0;
 			int i = bufIndex + 1;
 			while (i < markIndex) {
-				absPos += buffers.get(i).length;
+				absPos += segments.get(i).length;
 				i++;
 			}
-			absPos += buffers.get(bufIndex).length - bufOffset;
+			absPos += segments.get(bufIndex).length - bufOffset;
 			absPos += markOffset;
 
 			return skip(absPos);
@@ -642,11 +735,11 @@ public class ChainBuffer implements Buffer {
 			} else {
 				int i = bufIndex;
 				int sumOffset = bufOffset;
-				byte[] b;
+				Segment b;
 
 				do {
 					i--;
-					b = buffers.get(i);
+					b = segments.get(i);
 					sumOffset += b.length;
 				} while (sumOffset < rewindOffset && i > 0);
 
@@ -671,9 +764,9 @@ public class ChainBuffer implements Buffer {
 
 	public void discardReadBytes() {
 		/* Truncated start ~ current */
-		if (bufIndex >= buffers.size())
+		if (bufIndex >= segments.size())
 			return;
-		byte[] buf = buffers.get(bufIndex);
+		Segment buf = segments.get(bufIndex);
 		if (bufOffset >= buf.length) {
 			bufIndex += 1;
 			bufOffset = 0;
@@ -685,18 +778,11 @@ public class ChainBuffer implements Buffer {
 
 	@Override
 	public int readableBytes() {
-		if (buffers.size() <= 0 || isEOB())
+		if (segments.size() <= 0 || isEOB())
 			return 0;
 
-		byte[] buf = buffers.get(bufIndex);
-		int remain = buf.length - bufOffset;
-
-		for (int i = bufIndex + 1; i < buffers.size(); i++) {
-			buf = buffers.get(i);
-			remain += buf.length;
-		}
-
-		return remain;
+		sync();
+		return offsets[indexed] - offsets[bufIndex] - bufOffset;
 	}
 
 	@Override
@@ -715,7 +801,7 @@ public class ChainBuffer implements Buffer {
 
 	@Override
 	public boolean isEOB() {
-		if (bufIndex >= buffers.size()) {
+		if (bufIndex >= segments.size()) {
 			return true;
 		}
 		return false;
@@ -729,12 +815,15 @@ public class ChainBuffer implements Buffer {
 
 	@Override
 	public Buffer flip() {
-		int i = bufIndex + 1;
-		while(i < buffers.size()) {
-			buffers.remove(i);
-		} 
+		if (bufIndex + 1 < segments.size()) {
+			List<Segment> truncated = segments.subList(bufIndex + 1, segments.size());
+			for (Segment s : truncated)
+				s.release();
+			truncated.clear();
+		}
+		invalidate(bufIndex + 1);
 
-		if(bufIndex >= buffers.size()) {
+		if(bufIndex >= segments.size()) {
 			bufIndex = baseIndex;
 			bufOffset = baseOffset;
 
@@ -743,10 +832,10 @@ public class ChainBuffer implements Buffer {
 			return this;
 		}
 		
-		byte[] b = buffers.get(bufIndex);
-		byte[] newb = Arrays.copyOf(b, bufOffset);
-		buffers.remove(bufIndex);
-		buffers.add(bufIndex, newb);
+		/* limit current segment to current offset */
+		Segment b = segments.get(bufIndex);
+		segments.set(bufIndex, new Segment(b.array, b.offset, bufOffset, b.block));
+		invalidate(bufIndex);
 
 		bufIndex = baseIndex;
 		bufOffset = baseOffset;
@@ -755,4 +844,96 @@ public class ChainBuffer implements Buffer {
 		markOffset = -1;
 		return this;
 	}
+
+	/**
+	 * Slice of a byte array. Array is shared with other buffers, so it should
+	 * not be modified. Block is null if the array is not pooled.
+	 */
+	private static class Segment {
+		private final byte[] array;
+		private final int offset;
+		private final int length;
+		private final BufferPool.Block block;
+
+		public Segment(byte[] array) {
+			this(array, 0, array.length, null);
+		}
+
+		public Segment(byte[] array, int offset, int length, BufferPool.Block block) {
+			this.array = array;
+			this.offset = offset;
+			this.length = length;
+			this.block = block;
+		}
+
+		public void release() {
+			if (block != null)
+				block.release();
+		}
+
+		/* pooled array is never exposed, since it is recycled at release */
+		public boolean isWhole() {
+			return block == null && offset == 0 && length == array.length;
+		}
+	}
+
+	/**
+	 * No occurrence starts in [start, scanned) of the pattern. Segments are
+	 * only appended, so a search from the same range resumes at scanned.
+	 */
+	private static class Search {
+		private final BytePattern pattern;
+		private int start = -1;
+		private int scanned = -1;
+
+		public Search(BytePattern pattern) {
+			this.pattern = pattern;
+		}
+	}
+
+	/**
+	 * Byte array view of segments. Slices and pooled segments are copied to
+	 * their own arrays at first fetch, so callers see segment lengths as array
+	 * lengths.
+	 */
+	private class SegmentList extends AbstractList<byte[]> {
+		@Override
+		public byte[] get(int index) {
+			Segment s = segments.get(index);
+			if (s.isWhole())
+				return s.array;
+
+			byte[] b = Arrays.copyOfRange(s.array, s.offset, s.offset + s.length);
+			segments.set(index, new Segment(b));
+			s.release();
+			return b;
+		}
+
+		@Override
+		public int size() {
+			return segments.size();
+		}
+
+		@Override
+		public byte[] set(int index, byte[] element) {
+			byte[] old = get(index);
+			segments.set(index, new Segment(element));
+			invalidate(index);
+			return old;
+		}
+
+		@Override
+		public void add(int index, byte[] element) {
+			segments.add(index, new Segment(element));
+			invalidate(index);
+		}
+
+		@Override
+		public byte[] remove(int index) {
+			byte[] old = get(index);
+			segments.remove(index);
+			invalidate(index);
+			return old;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+import org.krakenapps.pcap.Protocol;
+import org.krakenapps.pcap.decoder.ethernet.EthernetDecoder;
+import org.krakenapps.pcap.decoder.ethernet.EthernetFrame;
+import org.krakenapps.pcap.decoder.ethernet.EthernetProcessor;
+import org.krakenapps.pcap.decoder.ip.IpProcessor;
+import org.krakenapps.pcap.decoder.ip.Ipv4Packet;
+import org.krakenapps.pcap.decoder.ipv6.Ipv6Packet;
+import org.krakenapps.pcap.decoder.ipv6.Ipv6Processor;
+import org.krakenapps.pcap.decoder.tcp.TcpProcessor;
+import org.krakenapps.pcap.decoder.tcp.TcpSessionKey;
+import org.krakenapps.pcap.decoder.udp.UdpPacket;
+import org.krakenapps.pcap.decoder.udp.UdpProcessor;
+import org.krakenapps.pcap.packet.PcapPacket;
+
+/**
+ * DecoderMeters wraps processors registered between decoder layers, and
+ * reports time spent in each layer to "decode.[layer].time" and exceptions to
+ * "decode.[layer].errors". Layer time includes the layers above it. An
+ * exception is counted once, by the innermost layer which threw it. One
+ * instance belongs to one decoder chain, which is used by a single thread.
+ * 
+ * @author xeraph
+ */
+class DecoderMeters {
+	private final PcapMetrics metrics;
+	private final Meter ethernet;
+	private Throwable lastError;
+
+	public DecoderMeters(PcapMetrics metrics) {
+		this.metrics = metrics;
+		this.ethernet = new Meter("ethernet");
+	}
+
+	public void decode(EthernetDecoder eth, PcapPacket packet) {
+		long begin = ethernet.begin();
+		try {
+			eth.decode(packet);
+		} catch (RuntimeException e) {
+			ethernet.fail(e);
+			throw e;
+		} finally {
+			ethernet.end(begin);
+		}
+	}
+
+	public EthernetProcessor wrap(String layer, EthernetProcessor processor) {
+		return new EthernetStage(new Meter(layer), processor);
+	}
+
+	public IpStage wrap(String layer, IpProcessor ipv4, Ipv6Processor ipv6) {
+		return new IpStage(new Meter(layer), ipv4, ipv6);
+	}
+
+	public TcpProcessor wrap(Protocol protocol, TcpProcessor processor) {
+		return new TcpStage(new Meter("tcp." + protocol.name().toLowerCase()), processor);
+	}
+
+	public UdpProcessor wrap(Protocol protocol, UdpProcessor processor) {
+		return new UdpStage(new Meter("udp." + protocol.name().toLowerCase()), processor);
+	}
+
+	private class Meter {
+		private final LatencyHistogram time;
+		private final StripedCounter errors;
+
+		public Meter(String layer) {
+			this.time = metrics.histogram("decode." + layer + ".time");
+			this.errors = metrics.counter("decode." + layer + ".errors");
+		}
+
+		public long begin() {
+			return metrics.isTimingEnabled() ? System.nanoTime() : 0;
+		}
+
+		public void end(long begin) {
+			if (begin != 0)
+				time.record(System.nanoTime() - begin);
+		}
+
+		public void fail(RuntimeException e) {
+			// outer layers see the same exception while it propagates
+			if (lastError == e)
+				return;
+
+			lastError = e;
+			errors.increment();
+		}
+	}
+
+	private static class EthernetStage implements EthernetProcessor {
+		private final Meter meter;
+		private final EthernetProcessor target;
+
+		public EthernetStage(Meter meter, EthernetProcessor target) {
+			this.meter = meter;
+			this.target = target;
+		}
+
+		@Override
+		public void process(EthernetFrame frame) {
+			long begin = meter.begin();
+			try {
+				target.process(frame);
+			} catch (RuntimeException e) {
+				meter.fail(e);
+				throw e;
+			} finally {
+				meter.end(begin);
+			}
+		}
+	}
+
+	static class IpStage implements IpProcessor, Ipv6Processor {
+		private final Meter meter;
+		private final IpProcessor ipv4;
+		private final Ipv6Processor ipv6;
+
+		public IpStage(Meter meter, IpProcessor ipv4, Ipv6Processor ipv6) {
+			this.meter = meter;
+			this.ipv4 = ipv4;
+			this.ipv6 = ipv6;
+		}
+
+		@Override
+		public void process(Ipv4Packet packet) {
+			long begin = meter.begin();
+			try {
+				ipv4.process(packet);
+			} catch (RuntimeException e) {
+				meter.fail(e);
+				throw e;
+			} finally {
+				meter.end(begin);
+			}
+		}
+
+		@Override
+		public void process(Ipv6Packet packet) {
+			long begin = meter.begin();
+			try {
+				ipv6.process(packet);
+			} catch (RuntimeException e) {
+				meter.fail(e);
+				throw e;
+			} finally {
+				meter.end(begin);
+			}
+		}
+	}
+
+	/**
+	 * Equal to other stage of the same processor, so unregister can find the
+	 * registered wrapper.
+	 */
+	private static class TcpStage implements TcpProcessor {
+		private final Meter meter;
+		private final TcpProcessor target;
+
+		public TcpStage(Meter meter, TcpProcessor target) {
+			this.meter = meter;
+			this.target = target;
+		}
+
+		@Override
+		public void onReset(TcpSessionKey key) {
+			try {
+				target.onReset(key);
+			} catch (RuntimeException e) {
+				meter.fail(e);
+				throw e;
+			}
+		}
+
+		@Override
+		public void onEstablish(TcpSessionKey key) {
+			try {
+				target.onEstablish(key);
+			} catch (RuntimeException e) {
+				meter.fail(e);
+				throw e;
+			}
+		}
+
+		@Override
+		public void onFinish(TcpSessionKey key) {
+			try {
+				target.onFinish(key);
+			} catch (RuntimeException e) {
+				meter.fail(e);
+				throw e;
+			}
+		}
+
+		@Override
+		public void handleTx(TcpSessionKey session, Buffer data) {
+			long begin = meter.begin();
+			try {
+				target.handleTx(session, data);
+			} catch (RuntimeException e) {
+				meter.fail(e);
+				throw e;
+			} finally {
+				meter.end(begin);
+			}
+		}
+
+		@Override
+		public void handleRx(TcpSessionKey session, Buffer data) {
+			long begin = meter.begin();
+			try {
+				target.handleRx(session, data);
+			} catch (RuntimeException e) {
+				meter.fail(e);
+				throw e;
+			} finally {
+				meter.end(begin);
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return target.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof TcpStage && ((TcpStage) obj).target.equals(target);
+		}
+	}
+
+	private static class UdpStage implements UdpProcessor {
+		private final Meter meter;
+		private final UdpProcessor target;
+
+		public UdpStage(Meter meter, UdpProcessor target) {
+			this.meter = meter;
+			this.target = target;
+		}
+
+		@Override
+		public void process(UdpPacket p) {
+			long begin = meter.begin();
+			try {
+				target.process(p);
+			} catch (RuntimeException e) {
+				meter.fail(e);
+				throw e;
+			} finally {
+				meter.end(begin);
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return target.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof UdpStage && ((UdpStage) obj).target.equals(target);
+		}
+	}
+}
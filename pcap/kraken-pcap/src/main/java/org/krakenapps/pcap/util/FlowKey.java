@@ -0,0 +1,260 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+
+import org.krakenapps.pcap.decoder.ethernet.EthernetType;
+import org.krakenapps.pcap.decoder.ip.InternetProtocol;
+import org.krakenapps.pcap.decoder.tcp.TcpSessionKey;
+
+/**
+ * Direction independent 5-tuple of IP flow. Like TcpSessionKeyImpl, both
+ * directions of a flow have same key, but FlowKey can be parsed from raw
+ * ethernet frame without decoding. IP fragments and protocols other than TCP
+ * and UDP have zero ports.
+ * 
+ * @author xeraph
+ */
+public class FlowKey {
+	private final int protocol;
+	private final byte[] addr1;
+	private final byte[] addr2;
+	private final int port1;
+	private final int port2;
+	private final int hash;
+
+	public FlowKey(int protocol, InetAddress a, int portA, InetAddress b, int portB) {
+		this(protocol, a.getAddress(), portA, b.getAddress(), portB);
+	}
+
+	public FlowKey(int protocol, byte[] a, int portA, byte[] b, int portB) {
+		this.protocol = protocol;
+		if (compare(a, portA, b, portB) <= 0) {
+			addr1 = a;
+			port1 = portA;
+			addr2 = b;
+			port2 = portB;
+		} else {
+			addr1 = b;
+			port1 = portB;
+			addr2 = a;
+			port2 = portA;
+		}
+
+		int h = protocol;
+		h = 31 * h + Arrays.hashCode(addr1);
+		h = 31 * h + Arrays.hashCode(addr2);
+		h = 31 * h + ((port1 << 16) | port2);
+		hash = h ^ (h >>> 16);
+	}
+
+	public static FlowKey from(TcpSessionKey key) {
+		return new FlowKey(InternetProtocol.TCP, key.getClientIp(), key.getClientPort(), key.getServerIp(),
+				key.getServerPort());
+	}
+
+	/**
+	 * Parses flow key of ethernet frame from current position. Position of the
+	 * buffer is not changed.
+	 * 
+	 * @param frame
+	 *            the ethernet frame
+	 * @return the flow key, or null if it is not an IPv4 or IPv6 packet
+	 */
+	public static FlowKey parse(Buffer frame) {
+		if (frame.isEOB())
+			return null;
+
+		int position = frame.position();
+		try {
+			skip(frame, 12);
+			int type = frame.getUnsignedShort();
+			while (type == 0x8100 || type == 0x88A8) {
+				skip(frame, 2);
+				type = frame.getUnsignedShort();
+			}
+
+			if (type == EthernetType.IPV4)
+				return parseIpv4(frame);
+			else if (type == EthernetType.IPV6)
+				return parseIpv6(frame);
+			return null;
+		} catch (BufferUnderflowException e) {
+			return null;
+		} finally {
+			frame.position(position);
+		}
+	}
+
+	private static FlowKey parseIpv4(Buffer b) {
+		int headerLength = (b.get() & 0x0F) * 4;
+		skip(b, 5);
+		int fragment = b.getUnsignedShort();
+		skip(b, 1);
+		int protocol = b.get() & 0xFF;
+		skip(b, 2);
+
+		byte[] src = new byte[4];
+		byte[] dst = new byte[4];
+		b.gets(src);
+		b.gets(dst);
+		skip(b, headerLength - 20);
+
+		// more fragments flag or fragment offset
+		boolean fragmented = (fragment & 0x3FFF) != 0;
+		return parsePorts(b, protocol, src, dst, fragmented);
+	}
+
+	private static FlowKey parseIpv6(Buffer b) {
+		skip(b, 6);
+		int next = b.get() & 0xFF;
+		skip(b, 1);
+
+		byte[] src = new byte[16];
+		byte[] dst = new byte[16];
+		b.gets(src);
+		b.gets(dst);
+
+		boolean fragmented = false;
+		while (true) {
+			if (next == 0 || next == 43 || next == 60) {
+				// hop-by-hop, routing, destination options
+				next = b.get() & 0xFF;
+				int len = b.get() & 0xFF;
+				skip(b, len * 8 + 6);
+			} else if (next == 44) {
+				next = b.get() & 0xFF;
+				skip(b, 1);
+				fragmented = (b.getUnsignedShort() & 0xFFF9) != 0;
+				skip(b, 4);
+			} else if (next == 51) {
+				// authentication header length is in 4 octets unit
+				next = b.get() & 0xFF;
+				int len = b.get() & 0xFF;
+				skip(b, (len + 2) * 4 - 2);
+			} else
+				break;
+		}
+
+		return parsePorts(b, next, src, dst, fragmented);
+	}
+
+	private static FlowKey parsePorts(Buffer b, int protocol, byte[] src, byte[] dst, boolean fragmented) {
+		if (fragmented || (protocol != InternetProtocol.TCP && protocol != InternetProtocol.UDP))
+			return new FlowKey(protocol, src, 0, dst, 0);
+
+		int srcPort = b.getUnsignedShort();
+		int dstPort = b.getUnsignedShort();
+		return new FlowKey(protocol, src, srcPort, dst, dstPort);
+	}
+
+	private static void skip(Buffer b, int length) {
+		if (length > 0 && b.skip(length) == null)
+			throw new BufferUnderflowException();
+	}
+
+	private static int compare(byte[] a, int portA, byte[] b, int portB) {
+		for (int i = 0; i < a.length && i < b.length; i++) {
+			int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+			if (diff != 0)
+				return diff;
+		}
+
+		if (a.length != b.length)
+			return a.length - b.length;
+		return portA - portB;
+	}
+
+	public int getProtocol() {
+		return protocol;
+	}
+
+	public byte[] getAddress1() {
+		return addr1;
+	}
+
+	public byte[] getAddress2() {
+		return addr2;
+	}
+
+	public int getPort1() {
+		return port1;
+	}
+
+	public int getPort2() {
+		return port2;
+	}
+
+	/**
+	 * Returns symmetric hash of the address pair. Ports are excluded, since
+	 * fragments do not carry them, so every packet of a flow including
+	 * fragments has same value. Used to assign flows to decode threads.
+	 */
+	public int addressHash() {
+		int h = 31 * Arrays.hashCode(addr1) + Arrays.hashCode(addr2);
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		return h & 0x7FFFFFFF;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+
+		FlowKey o = (FlowKey) obj;
+		if (hash != o.hash)
+			return false;
+		if (protocol != o.protocol)
+			return false;
+		if (port1 != o.port1)
+			return false;
+		if (port2 != o.port2)
+			return false;
+		if (!Arrays.equals(addr1, o.addr1))
+			return false;
+		if (!Arrays.equals(addr2, o.addr2))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("proto %d, %s:%d <-> %s:%d", protocol, toString(addr1), port1, toString(addr2), port2);
+	}
+
+	private static String toString(byte[] addr) {
+		try {
+			return InetAddress.getByAddress(addr).getHostAddress();
+		} catch (UnknownHostException e) {
+			return Arrays.toString(addr);
+		}
+	}
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FlowTable maps packed flow keys to values with open addressing and linear
+ * probing. A key is a fixed number of longs, packed by
+ * {@link #packIpv4(long[], int, int, int, int, int)} or
+ * {@link #packIpv6(long[], int, byte[], int, byte[], int)} in canonical
+ * order, so both directions of a flow find the same entry. Caller reuses its
+ * key array, and lookup does not allocate or hash address objects.
+ * 
+ * Keys can be stored in direct memory, so millions of flows do not add
+ * millions of objects to the heap. Values are always referenced from heap.
+ * 
+ * Not thread safe. size() and values() can be called by other threads for
+ * monitoring, and the result may be inconsistent while table is modified.
+ * 
+ * @author xeraph
+ */
+public class FlowTable<V> {
+	public static final int IPV4_KEY_LENGTH = 2;
+	public static final int IPV6_KEY_LENGTH = 5;
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	private final int keyLength;
+	private final boolean direct;
+
+	private LongBuffer keys;
+
+	/* null means empty slot */
+	private Object[] values;
+	private int mask;
+	private volatile int size;
+
+	public FlowTable(int keyLength) {
+		this(keyLength, DEFAULT_CAPACITY, false);
+	}
+
+	/**
+	 * @param keyLength
+	 *            the number of longs of a key
+	 * @param capacity
+	 *            the expected number of flows
+	 * @param direct
+	 *            true if keys are stored in direct memory
+	 */
+	public FlowTable(int keyLength, int capacity, boolean direct) {
+		if (keyLength <= 0)
+			throw new IllegalArgumentException("key length should be positive");
+		if (capacity <= 0)
+			throw new IllegalArgumentException("capacity should be positive");
+
+		this.keyLength = keyLength;
+		this.direct = direct;
+
+		// load factor is at most 0.5
+		int slots = Integer.highestOneBit(Math.max(capacity, 8) - 1) << 2;
+		allocate(slots);
+	}
+
+	private void allocate(int slots) {
+		if (slots <= 0 || (long) slots * keyLength * 8 > Integer.MAX_VALUE)
+			throw new IllegalStateException("flow table is too large");
+
+		if (direct)
+			keys = ByteBuffer.allocateDirect(slots * keyLength * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+		else
+			keys = LongBuffer.wrap(new long[slots * keyLength]);
+
+		values = new Object[slots];
+		mask = slots - 1;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(long[] key) {
+		int i = find(key);
+		return i < 0 ? null : (V) values[i];
+	}
+
+	/**
+	 * Maps the key to the value. Key array is copied into the table.
+	 * 
+	 * @return the previous value, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long[] key, V value) {
+		if (value == null)
+			throw new IllegalArgumentException("value should not be null");
+
+		int i = hash(key) & mask;
+		while (values[i] != null) {
+			if (matches(i, key)) {
+				V old = (V) values[i];
+				values[i] = value;
+				return old;
+			}
+			i = (i + 1) & mask;
+		}
+
+		int base = i * keyLength;
+		for (int j = 0; j < keyLength; j++)
+			keys.put(base + j, key[j]);
+		values[i] = value;
+		size++;
+
+		if (size > values.length / 2)
+			rehash(values.length * 2);
+		return null;
+	}
+
+	/**
+	 * Removes the mapping, and shifts following entries of the probe sequence
+	 * back, so no tombstone is left.
+	 * 
+	 * @return the removed value, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long[] key) {
+		int hole = find(key);
+		if (hole < 0)
+			return null;
+
+		V old = (V) values[hole];
+		int i = hole;
+		while (true) {
+			i = (i + 1) & mask;
+			if (values[i] == null)
+				break;
+
+			// move the entry if the hole is on its probe sequence
+			int home = hashAt(i) & mask;
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				move(i, hole);
+				hole = i;
+			}
+		}
+
+		values[hole] = null;
+		size--;
+		return old;
+	}
+
+	public void clear() {
+		for (int i = 0; i < values.length; i++)
+			values[i] = null;
+		size = 0;
+	}
+
+	/**
+	 * Returns snapshot of values.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<V> values() {
+		Object[] values = this.values;
+		List<V> l = new ArrayList<V>(size);
+		for (Object v : values)
+			if (v != null)
+				l.add((V) v);
+		return l;
+	}
+
+	private int find(long[] key) {
+		int i = hash(key) & mask;
+		while (values[i] != null) {
+			if (matches(i, key))
+				return i;
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	private boolean matches(int slot, long[] key) {
+		int base = slot * keyLength;
+		for (int j = 0; j < keyLength; j++)
+			if (keys.get(base + j) != key[j])
+				return false;
+		return true;
+	}
+
+	private void move(int from, int to) {
+		int src = from * keyLength;
+		int dst = to * keyLength;
+		for (int j = 0; j < keyLength; j++)
+			keys.put(dst + j, keys.get(src + j));
+		values[to] = values[from];
+	}
+
+	private void rehash(int slots) {
+		LongBuffer oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(slots);
+
+		for (int s = 0; s < oldValues.length; s++) {
+			if (oldValues[s] == null)
+				continue;
+
+			int base = s * keyLength;
+			int i = hash(oldKeys, base) & mask;
+			while (values[i] != null)
+				i = (i + 1) & mask;
+
+			int dst = i * keyLength;
+			for (int j = 0; j < keyLength; j++)
+				keys.put(dst + j, oldKeys.get(base + j));
+			values[i] = oldValues[s];
+		}
+	}
+
+	private int hash(long[] key) {
+		long h = 0;
+		for (int j = 0; j < keyLength; j++)
+			h = (h + key[j]) * 0x9e3779b97f4a7c15L;
+		return mix(h);
+	}
+
+	private int hashAt(int slot) {
+		return hash(keys, slot * keyLength);
+	}
+
+	private int hash(LongBuffer keys, int base) {
+		long h = 0;
+		for (int j = 0; j < keyLength; j++)
+			h = (h + keys.get(base + j)) * 0x9e3779b97f4a7c15L;
+		return mix(h);
+	}
+
+	private static int mix(long h) {
+		h ^= h >>> 32;
+		h *= 0xd6e8feb86659fd93L;
+		h ^= h >>> 32;
+		return (int) h;
+	}
+
+	/**
+	 * Packs IPv4 flow into 2 longs. Addresses are in network byte order as
+	 * int.
+	 */
+	public static void packIpv4(long[] key, int protocol, int addrA, int portA, int addrB, int portB) {
+		long a = addrA & 0xffffffffL;
+		long b = addrB & 0xffffffffL;
+		if (a > b || (a == b && portA > portB)) {
+			long t = a;
+			a = b;
+			b = t;
+			int p = portA;
+			portA = portB;
+			portB = p;
+		}
+
+		key[0] = (a << 32) | b;
+		key[1] = ((long) (portA & 0xffff) << 32) | ((long) (portB & 0xffff) << 16) | (protocol & 0xff);
+	}
+
+	/**
+	 * Packs IPv6 flow into 5 longs.
+	 */
+	public static void packIpv6(long[] key, int protocol, byte[] addrA, int portA, byte[] addrB, int portB) {
+		long ah = toLong(addrA, 0);
+		long al = toLong(addrA, 8);
+		long bh = toLong(addrB, 0);
+		long bl = toLong(addrB, 8);
+
+		int c = compare(ah, bh);
+		if (c == 0)
+			c = compare(al, bl);
+		if (c > 0 || (c == 0 && portA > portB)) {
+			long t = ah;
+			ah = bh;
+			bh = t;
+			t = al;
+			al = bl;
+			bl = t;
+			int p = portA;
+			portA = portB;
+			portB = p;
+		}
+
+		key[0] = ah;
+		key[1] = al;
+		key[2] = bh;
+		key[3] = bl;
+		key[4] = ((long) (portA & 0xffff) << 32) | ((long) (portB & 0xffff) << 16) | (protocol & 0xff);
+	}
+
+	private static long toLong(byte[] b, int offset) {
+		long l = 0;
+		for (int i = 0; i < 8; i++)
+			l = (l << 8) | (b[offset + i] & 0xff);
+		return l;
+	}
+
+	private static int compare(long a, long b) {
+		// unsigned
+		a += Long.MIN_VALUE;
+		b += Long.MIN_VALUE;
+		return a < b ? -1 : (a == b ? 0 : 1);
+	}
+}
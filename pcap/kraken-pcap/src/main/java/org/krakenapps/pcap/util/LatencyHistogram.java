@@ -0,0 +1,146 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram counts nanosecond durations into power of two buckets, so
+ * recording is a bit scan and two adds. Buckets are striped by thread like
+ * {@link StripedCounter}. Percentiles are reported as bucket upper bounds,
+ * which is at most twice the actual value.
+ * 
+ * @author xeraph
+ */
+public class LatencyHistogram {
+	// bucket i holds durations in [2^(i-1), 2^i), last bucket is open ended
+	private static final int BUCKETS = 40;
+	private static final int SUM = BUCKETS;
+	private static final int STRIDE = (BUCKETS + 1 + StripedCounter.PADDING - 1) / StripedCounter.PADDING
+			* StripedCounter.PADDING;
+
+	private final AtomicLongArray cells = new AtomicLongArray(StripedCounter.STRIPES * STRIDE);
+
+	public void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+
+		int base = StripedCounter.stripe() * STRIDE;
+		int bucket = Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKETS - 1);
+		cells.addAndGet(base + bucket, 1);
+		cells.addAndGet(base + SUM, nanos);
+	}
+
+	public Snapshot snapshot() {
+		long[] buckets = new long[BUCKETS];
+		long sum = 0;
+		for (int s = 0; s < StripedCounter.STRIPES; s++) {
+			int base = s * STRIDE;
+			for (int i = 0; i < BUCKETS; i++)
+				buckets[i] += cells.get(base + i);
+			sum += cells.get(base + SUM);
+		}
+		return new Snapshot(buckets, sum);
+	}
+
+	public void reset() {
+		for (int i = 0; i < cells.length(); i++)
+			cells.set(i, 0);
+	}
+
+	@Override
+	public String toString() {
+		return snapshot().toString();
+	}
+
+	public static class Snapshot {
+		private final long[] buckets;
+		private final long count;
+		private final long sum;
+
+		private Snapshot(long[] buckets, long sum) {
+			long count = 0;
+			for (long n : buckets)
+				count += n;
+
+			this.buckets = buckets;
+			this.count = count;
+			this.sum = sum;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns total recorded nanoseconds.
+		 */
+		public long getSum() {
+			return sum;
+		}
+
+		/**
+		 * Returns mean in nanoseconds, or 0 if nothing is recorded.
+		 */
+		public long getMean() {
+			return count == 0 ? 0 : sum / count;
+		}
+
+		/**
+		 * Returns upper bound of the bucket which contains the quantile.
+		 * 
+		 * @param quantile
+		 *            between 0 and 1, e.g. 0.99
+		 * @return nanoseconds, or 0 if nothing is recorded
+		 */
+		public long getPercentile(double quantile) {
+			if (quantile < 0 || quantile > 1)
+				throw new IllegalArgumentException("quantile should be between 0 and 1: " + quantile);
+
+			if (count == 0)
+				return 0;
+
+			long rank = (long) Math.ceil(quantile * count);
+			long seen = 0;
+			for (int i = 0; i < buckets.length; i++) {
+				seen += buckets[i];
+				if (seen >= rank && seen > 0)
+					return upperBound(i);
+			}
+			return upperBound(buckets.length - 1);
+		}
+
+		/**
+		 * Returns upper bound of the highest non-empty bucket.
+		 */
+		public long getMax() {
+			for (int i = buckets.length - 1; i >= 0; i--)
+				if (buckets[i] > 0)
+					return upperBound(i);
+			return 0;
+		}
+
+		private static long upperBound(int bucket) {
+			return (1L << bucket) - 1;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("count=%d, mean=%dns, p50=%dns, p99=%dns, max=%dns", count, getMean(),
+					getPercentile(0.5), getPercentile(0.99), getMax());
+		}
+	}
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.krakenapps.pcap.PcapInputStream;
+import org.krakenapps.pcap.Protocol;
+import org.krakenapps.pcap.decoder.icmpv6.Icmpv6Processor;
+import org.krakenapps.pcap.decoder.tcp.TcpProcessorFactory;
+import org.krakenapps.pcap.decoder.tcp.TcpSegmentCallback;
+import org.krakenapps.pcap.decoder.udp.UdpProcessorFactory;
+import org.krakenapps.pcap.filter.BpfProgram;
+import org.krakenapps.pcap.filter.FilteredPcapInputStream;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ParallelPcapFileRunner decodes a pcap file using multiple threads. The
+ * calling thread reads packet records and dispatches them to worker threads
+ * by symmetric hash of ip addresses, so both directions and all fragments of a
+ * flow are decoded by the same worker in file order. Each worker owns its own
+ * decoder chain, and tcp/udp processors are created per worker using
+ * factories.
+ * 
+ * @author xeraph
+ */
+public class ParallelPcapFileRunner {
+	private static final int BATCH_SIZE = 256;
+	private static final int QUEUE_CAPACITY = 64;
+	private static final PcapPacket[] END = new PcapPacket[0];
+
+	private final Logger logger = LoggerFactory.getLogger(ParallelPcapFileRunner.class.getName());
+	private File dumpFile;
+	private Worker[] workers;
+	private Statistics stats;
+	private BpfProgram filter;
+
+	public ParallelPcapFileRunner(File dumpFile) {
+		this(dumpFile, Runtime.getRuntime().availableProcessors());
+	}
+
+	public ParallelPcapFileRunner(File dumpFile, int workerCount) {
+		if (workerCount <= 0)
+			throw new IllegalArgumentException("worker count should be positive");
+
+		this.dumpFile = dumpFile;
+		this.workers = new Worker[workerCount];
+		for (int i = 0; i < workerCount; i++)
+			workers[i] = new Worker(i, new PcapFileRunner(dumpFile));
+	}
+
+	/**
+	 * Decodes all packets of the file, and waits until all workers complete.
+	 * Workers are threads, so runner can be run only once.
+	 * 
+	 * @return the merged statistics of workers
+	 */
+	public Statistics run() throws IOException {
+		long begin = System.currentTimeMillis();
+		PcapInputStream is = PcapFileRunner.open(dumpFile);
+		if (filter != null)
+			is = new FilteredPcapInputStream(is, filter);
+
+		for (Worker worker : workers)
+			worker.start();
+
+		PcapPacket[][] batches = new PcapPacket[workers.length][BATCH_SIZE];
+		int[] counts = new int[workers.length];
+
+		try {
+			while (true) {
+				PcapPacket packet = is.poll(0);
+				if (packet == null)
+					break;
+
+				int i = select(packet);
+				batches[i][counts[i]++] = packet;
+				if (counts[i] == BATCH_SIZE) {
+					dispatch(workers[i], batches[i]);
+					batches[i] = new PcapPacket[BATCH_SIZE];
+					counts[i] = 0;
+				}
+			}
+
+			for (int i = 0; i < workers.length; i++) {
+				if (counts[i] > 0)
+					dispatch(workers[i], Arrays.copyOf(batches[i], counts[i]));
+				dispatch(workers[i], END);
+			}
+
+			for (Worker worker : workers)
+				worker.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("parallel pcap file runner interrupted");
+		} finally {
+			is.close();
+			for (Worker worker : workers)
+				worker.interrupt();
+		}
+
+		stats = new Statistics(workers, System.currentTimeMillis() - begin);
+		logger.trace("kraken-pcap: parallel runner completed, {}", stats);
+		return stats;
+	}
+
+	/**
+	 * Returns the statistics of the last run, or null if not completed yet.
+	 */
+	public Statistics getStatistics() {
+		return stats;
+	}
+
+	private int select(PcapPacket packet) {
+		FlowKey key = FlowKey.parse(packet.getPacketData());
+		if (key == null)
+			return 0;
+
+		return key.addressHash() % workers.length;
+	}
+
+	private void dispatch(Worker worker, PcapPacket[] batch) throws IOException, InterruptedException {
+		while (!worker.queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+			if (!worker.isAlive())
+				throw new IOException("pcap decode worker " + worker.id + " stopped unexpectedly");
+		}
+	}
+
+	/**
+	 * Sets tcpdump filter expression. Rejected packets are dropped by reader
+	 * thread before dispatch.
+	 * 
+	 * @param filter
+	 *            the filter expression, or null to decode all packets
+	 */
+	public void setFilter(String filter) {
+		this.filter = filter != null ? BpfProgram.compile(filter) : null;
+	}
+
+	public void setTcpProcessor(Protocol protocol, TcpProcessorFactory factory) {
+		for (Worker worker : workers)
+			worker.runner.setTcpProcessor(protocol, factory.newProcessor());
+	}
+
+	public void setUdpProcessor(Protocol protocol, UdpProcessorFactory factory) {
+		for (Worker worker : workers)
+			worker.runner.setUdpProcessor(protocol, factory.newProcessor());
+	}
+
+	/**
+	 * Registers the callback to all workers. The callback should be thread
+	 * safe.
+	 */
+	public void addTcpCallback(TcpSegmentCallback callback) {
+		for (Worker worker : workers)
+			worker.runner.addTcpCallback(callback);
+	}
+
+	/**
+	 * Registers the processor to all workers. The processor should be thread
+	 * safe.
+	 */
+	public void addIcmpv6Processor(Icmpv6Processor processor) {
+		for (Worker worker : workers)
+			worker.runner.addIcmpv6Processor(processor);
+	}
+
+	public int getWorkerCount() {
+		return workers.length;
+	}
+
+	/**
+	 * Returns decoder chain of the worker for additional registration.
+	 */
+	public PcapFileRunner getWorkerRunner(int id) {
+		return workers[id].runner;
+	}
+
+	private class Worker extends Thread {
+		private final int id;
+		private final PcapFileRunner runner;
+		private final BlockingQueue<PcapPacket[]> queue;
+
+		private long packets;
+		private long bytes;
+		private long errors;
+
+		public Worker(int id, PcapFileRunner runner) {
+			super("Pcap Decoder " + id);
+			this.id = id;
+			this.runner = runner;
+			this.queue = new ArrayBlockingQueue<PcapPacket[]>(QUEUE_CAPACITY);
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					PcapPacket[] batch = queue.take();
+					if (batch == END)
+						break;
+
+					for (PcapPacket packet : batch) {
+						packets++;
+						bytes += packet.getPacketHeader().getInclLen();
+						try {
+							runner.getEthernetDecoder().decode(packet);
+						} catch (Exception e) {
+							errors++;
+							logger.warn("kraken-pcap: decode error", e);
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				logger.trace("kraken-pcap: decode worker {} interrupted", id);
+			}
+		}
+	}
+
+	/**
+	 * Merged decode statistics of all workers.
+	 */
+	public static class Statistics {
+		private long packets;
+		private long bytes;
+		private long errors;
+		private long[] workerPackets;
+		private long elapsed;
+
+		private Statistics(Worker[] workers, long elapsed) {
+			this.workerPackets = new long[workers.length];
+			this.elapsed = elapsed;
+			for (int i = 0; i < workers.length; i++) {
+				packets += workers[i].packets;
+				bytes += workers[i].bytes;
+				errors += workers[i].errors;
+				workerPackets[i] = workers[i].packets;
+			}
+		}
+
+		public long getPackets() {
+			return packets;
+		}
+
+		public long getBytes() {
+			return bytes;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		/**
+		 * Returns decoded packet count of each worker.
+		 */
+		public long[] getWorkerPackets() {
+			return workerPackets;
+		}
+
+		/**
+		 * Returns elapsed time in milliseconds.
+		 */
+		public long getElapsed() {
+			return elapsed;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("packets=%d, bytes=%d, errors=%d, elapsed=%dms, workers=%s", packets, bytes, errors,
+					elapsed, Arrays.toString(workerPackets));
+		}
+	}
+}
@@ -15,30 +15,383 @@
  */
 package org.krakenapps.pcap.util;
 
-import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import org.krakenapps.pcap.PcapInputStream;
+import org.krakenapps.pcap.PcapOutputStream;
 import org.krakenapps.pcap.file.PcapFileInputStream;
 import org.krakenapps.pcap.live.PcapDevice;
+import org.krakenapps.pcap.packet.PacketHeader;
 import org.krakenapps.pcap.packet.PcapPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
+ * PcapDumpReplay writes packets of input stream to output stream with the
+ * pacing of original capture, a multiple of it, a fixed packet or bit rate,
+ * or at top speed. Each packet has a due time on monotonic clock. Long gaps
+ * are slept, and the last part of a gap is busy-spun since sleep granularity
+ * is too coarse for sub-millisecond gaps. Packets which are already due are
+ * written in batch, and pcap device injects a batch with single JNI call if
+ * the kpcap library supports it, or packet by packet otherwise.
+ * 
  * @author xeraph
  */
 public class PcapDumpReplay {
-	private PcapDumpReplay() {
+	private static final int DEFAULT_BATCH_SIZE = 64;
+	private static final long SPIN_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(2);
+
+	public enum Pacing {
+		/**
+		 * original inter-packet gaps divided by speed
+		 */
+		Original,
+		/**
+		 * fixed packets per second
+		 */
+		PacketRate,
+		/**
+		 * fixed bits per second, using captured length
+		 */
+		BitRate,
+		/**
+		 * no wait between packets
+		 */
+		TopSpeed
+	}
+
+	private final Logger logger = LoggerFactory.getLogger(PcapDumpReplay.class.getName());
+	private PcapInputStream is;
+	private PcapOutputStream os;
+	private Pacing pacing = Pacing.Original;
+	private double speed = 1.0;
+	private double rate;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private volatile boolean stop;
+
+	// schedule state
+	private long firstTimestamp;
+	private long lastOffset;
+	private long scheduledPackets;
+	private long scheduledBytes;
+
+	public PcapDumpReplay(PcapInputStream is, PcapOutputStream os) {
+		this.is = is;
+		this.os = os;
 	}
 
-	public static void replay(PcapDevice device, File file) throws IOException {
+	/**
+	 * Replays the file to the device at top speed.
+	 */
+	public static Statistics replay(PcapDevice device, File file) throws IOException {
+		return replay(device, file, 0);
+	}
+
+	/**
+	 * Replays the file to the device.
+	 * 
+	 * @param speed
+	 *            the multiplier of original pace, e.g. 0.5 or 10, or 0 for top
+	 *            speed
+	 */
+	public static Statistics replay(PcapDevice device, File file, double speed) throws IOException {
 		PcapInputStream is = new PcapFileInputStream(file);
 		try {
-			while (true) {
-				PcapPacket packet = is.getPacket();
-				device.write(packet);
+			PcapDumpReplay replay = new PcapDumpReplay(is, device);
+			if (speed == 0)
+				replay.setTopSpeed();
+			else
+				replay.setSpeed(speed);
+			return replay.run();
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Keeps original inter-packet gaps, divided by the multiplier.
+	 */
+	public void setSpeed(double multiplier) {
+		if (!(multiplier > 0))
+			throw new IllegalArgumentException("speed should be positive: " + multiplier);
+
+		this.pacing = Pacing.Original;
+		this.speed = multiplier;
+	}
+
+	public void setPacketRate(double pps) {
+		if (!(pps > 0))
+			throw new IllegalArgumentException("packet rate should be positive: " + pps);
+
+		this.pacing = Pacing.PacketRate;
+		this.rate = pps;
+	}
+
+	public void setBitRate(double bps) {
+		if (!(bps > 0))
+			throw new IllegalArgumentException("bit rate should be positive: " + bps);
+
+		this.pacing = Pacing.BitRate;
+		this.rate = bps;
+	}
+
+	public void setTopSpeed() {
+		this.pacing = Pacing.TopSpeed;
+	}
+
+	public Pacing getPacing() {
+		return pacing;
+	}
+
+	/**
+	 * Sets max number of due packets written at once.
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("batch size should be positive: " + batchSize);
+
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Stops the running replay after current batch.
+	 */
+	public void stop() {
+		stop = true;
+	}
+
+	/**
+	 * Replays until the end of input stream or stop. Streams are not closed.
+	 * 
+	 * @return the achieved and requested rates
+	 * @throws InterruptedIOException
+	 *             if interrupted while waiting a due time
+	 */
+	public Statistics run() throws IOException {
+		Statistics stats = new Statistics();
+		PcapPacket[] batch = new PcapPacket[batchSize];
+		int count = 0;
+		long batchDue = 0;
+
+		stop = false;
+		scheduledPackets = 0;
+		scheduledBytes = 0;
+		lastOffset = 0;
+
+		long begin = System.nanoTime();
+		while (!stop) {
+			PcapPacket packet = is.poll(0);
+			if (packet == null) {
+				if (is.isEndOfStream())
+					break;
+				continue;
 			}
-		} catch (EOFException e) {
+
+			int length = packet.getPacketHeader().getInclLen();
+			long due = schedule(packet.getPacketHeader(), begin);
+			if (due - System.nanoTime() > 0) {
+				// send due packets before waiting next gap
+				if (count > 0) {
+					write(batch, count, batchDue, stats);
+					count = 0;
+				}
+				waitUntil(due);
+			}
+
+			if (count == 0)
+				batchDue = due;
+
+			batch[count++] = packet;
+			if (stats.packets == 0)
+				stats.firstDue = due;
+			stats.lastDue = due;
+			stats.packets++;
+			stats.bytes += length;
+			stats.lastLength = length;
+
+			if (count == batch.length) {
+				write(batch, count, batchDue, stats);
+				count = 0;
+			}
+		}
+
+		if (count > 0)
+			write(batch, count, batchDue, stats);
+
+		os.flush();
+		stats.elapsed = System.nanoTime() - begin;
+		stats.pacing = pacing;
+		stats.rate = rate;
+		logger.trace("kraken-pcap: replay completed, {}", stats);
+		return stats;
+	}
+
+	private long schedule(PacketHeader header, long begin) {
+		long due;
+		switch (pacing) {
+		case Original:
+			long timestamp = header.getTsSec() * 1000000L + header.getTsUsec();
+			if (scheduledPackets == 0)
+				firstTimestamp = timestamp;
+
+			// never go back in time for unordered timestamps
+			lastOffset = Math.max(lastOffset, timestamp - firstTimestamp);
+			due = begin + (long) (lastOffset * 1000 / speed);
+			break;
+		case PacketRate:
+			due = begin + (long) (scheduledPackets * 1e9 / rate);
+			break;
+		case BitRate:
+			due = begin + (long) (scheduledBytes * 8e9 / rate);
+			break;
+		default:
+			due = begin;
+		}
+
+		scheduledPackets++;
+		scheduledBytes += header.getInclLen();
+		return due;
+	}
+
+	private void write(PcapPacket[] batch, int count, long batchDue, Statistics stats) throws IOException {
+		long now = System.nanoTime();
+		if (stats.batches == 0)
+			stats.firstSent = now;
+		stats.maxLag = Math.max(stats.maxLag, now - batchDue);
+		stats.batches++;
+
+		if (os instanceof PcapDevice) {
+			int sent = ((PcapDevice) os).write(batch, 0, count);
+			stats.failures += count - sent;
+		} else {
+			for (int i = 0; i < count; i++)
+				os.write(batch[i]);
+		}
+		stats.lastSent = System.nanoTime();
+
+		for (int i = 0; i < count; i++)
+			batch[i] = null;
+	}
+
+	private static void waitUntil(long due) throws InterruptedIOException {
+		while (true) {
+			long remaining = due - System.nanoTime();
+			if (remaining <= 0)
+				return;
+
+			if (Thread.interrupted())
+				throw new InterruptedIOException("pcap replay interrupted");
+
+			if (remaining > SPIN_THRESHOLD)
+				LockSupport.parkNanos(remaining - SPIN_THRESHOLD);
+		}
+	}
+
+	/**
+	 * Achieved and requested rates of a replay. Rates are measured from the
+	 * first write to the completion of the last write, excluding the last
+	 * packet, so requested rate of fixed pacing is exactly the configured rate.
+	 */
+	public static class Statistics {
+		private Pacing pacing;
+		private double rate;
+		private long packets;
+		private long bytes;
+		private long lastLength;
+		private long batches;
+		private long failures;
+		private long firstDue;
+		private long lastDue;
+		private long firstSent;
+		private long lastSent;
+		private long maxLag;
+		private long elapsed;
+
+		private Statistics() {
+		}
+
+		public Pacing getPacing() {
+			return pacing;
+		}
+
+		public long getPackets() {
+			return packets;
+		}
+
+		public long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * Returns the number of write calls to output stream or device.
+		 */
+		public long getBatches() {
+			return batches;
+		}
+
+		/**
+		 * Returns the number of packets which device failed to inject.
+		 */
+		public long getFailures() {
+			return failures;
+		}
+
+		/**
+		 * Returns the max delay of a batch from its due time in nanoseconds.
+		 */
+		public long getMaxLag() {
+			return maxLag;
+		}
+
+		/**
+		 * Returns elapsed time in milliseconds.
+		 */
+		public long getElapsed() {
+			return TimeUnit.NANOSECONDS.toMillis(elapsed);
+		}
+
+		public double getPacketRate() {
+			return perSecond(packets - 1, lastSent - firstSent);
+		}
+
+		public double getBitRate() {
+			return perSecond((bytes - lastLength) * 8, lastSent - firstSent);
+		}
+
+		/**
+		 * Returns the scheduled packet rate, or 0 for top speed.
+		 */
+		public double getRequestedPacketRate() {
+			if (pacing == Pacing.PacketRate)
+				return rate;
+			return perSecond(packets - 1, lastDue - firstDue);
+		}
+
+		/**
+		 * Returns the scheduled bit rate, or 0 for top speed.
+		 */
+		public double getRequestedBitRate() {
+			if (pacing == Pacing.BitRate)
+				return rate;
+			return perSecond((bytes - lastLength) * 8, lastDue - firstDue);
+		}
+
+		private static double perSecond(long count, long nanos) {
+			if (count <= 0 || nanos <= 0)
+				return 0;
+			return count * 1e9 / nanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("pacing=%s, packets=%d, bytes=%d, batches=%d, failures=%d, elapsed=%dms, "
+					+ "pps=%.1f/%.1f, bps=%.1f/%.1f, max lag=%dus", pacing, packets, bytes, batches, failures,
+					getElapsed(), getPacketRate(), getRequestedPacketRate(), getBitRate(), getRequestedBitRate(),
+					TimeUnit.NANOSECONDS.toMicros(maxLag));
 		}
 	}
 }
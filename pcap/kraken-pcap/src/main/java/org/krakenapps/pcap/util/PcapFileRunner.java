@@ -15,10 +15,14 @@
  */
 package org.krakenapps.pcap.util;
 
+import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Date;
 
+import org.krakenapps.pcap.PcapInputStream;
 import org.krakenapps.pcap.Protocol;
 import org.krakenapps.pcap.decoder.arp.ArpDecoder;
 import org.krakenapps.pcap.decoder.ethernet.EthernetDecoder;
@@ -36,13 +40,20 @@ import org.krakenapps.pcap.decoder.tcp.TcpSegmentCallback;
 import org.krakenapps.pcap.decoder.udp.UdpDecoder;
 import org.krakenapps.pcap.decoder.udp.UdpPortProtocolMapper;
 import org.krakenapps.pcap.decoder.udp.UdpProcessor;
-import org.krakenapps.pcap.file.PcapFileInputStream;
+import org.krakenapps.pcap.file.GzipPcapFileInputStream;
+import org.krakenapps.pcap.file.IndexedPcapFileInputStream;
+import org.krakenapps.pcap.file.MappedPcapFileInputStream;
+import org.krakenapps.pcap.file.PcapngFileInputStream;
+import org.krakenapps.pcap.filter.BpfProgram;
+import org.krakenapps.pcap.filter.FilteredPcapInputStream;
 import org.krakenapps.pcap.packet.PcapPacket;
 
 /**
  * @author mindori
  */
 public class PcapFileRunner {
+	private static final int GZIP_MAGIC = 0x1F8B;
+
 	private File dumpFile;
 
 	private EthernetDecoder eth;
@@ -53,6 +64,7 @@ public class PcapFileRunner {
 	private Icmpv6Decoder icmpv6;
 	private TcpDecoder tcp;
 	private UdpDecoder udp;
+	private BpfProgram filter;
 
 	public PcapFileRunner(File dumpFile) {
 		this.dumpFile = dumpFile;
@@ -80,21 +92,71 @@ public class PcapFileRunner {
 	}
 
 	public void run() throws IOException {
-		PcapFileInputStream is = null;
+		decode(open(dumpFile));
+	}
+
+	/**
+	 * Decodes only the packets between from (inclusive) and to (exclusive).
+	 * Sidecar index is built at first run, and irrelevant parts of the file
+	 * are skipped using it.
+	 * 
+	 * @param from
+	 *            the start time, or null
+	 * @param to
+	 *            the end time, or null
+	 */
+	public void run(Date from, Date to) throws IOException {
+		decode(new IndexedPcapFileInputStream(dumpFile, from, to));
+	}
+
+	private void decode(PcapInputStream is) throws IOException {
+		if (filter != null)
+			is = new FilteredPcapInputStream(is, filter);
+
 		try {
-			is = new PcapFileInputStream(dumpFile);
 			while (true) {
-				PcapPacket packet = is.getPacket();
+				PcapPacket packet = is.poll(0);
 				if (packet == null)
 					break;
 				eth.decode(packet);
 			}
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Opens pcapng, gzip compressed or classic pcap stream according to the
+	 * first 4 bytes.
+	 */
+	static PcapInputStream open(File file) throws IOException {
+		DataInputStream dis = new DataInputStream(new FileInputStream(file));
+		int magic = 0;
+		try {
+			magic = dis.readInt();
 		} catch (EOFException e) {
-			// do nothing
 		} finally {
-			if (is != null)
-				is.close();
+			dis.close();
 		}
+
+		if (magic == PcapngFileInputStream.SECTION_HEADER_BLOCK)
+			return new PcapngFileInputStream(file);
+		if ((magic >>> 16) == GZIP_MAGIC)
+			return new GzipPcapFileInputStream(file);
+		return new MappedPcapFileInputStream(file);
+	}
+
+	/**
+	 * Sets tcpdump filter expression. Rejected packets are skipped before
+	 * ethernet decoding.
+	 * 
+	 * @param filter
+	 *            the filter expression, or null to decode all packets
+	 * @throws IllegalArgumentException
+	 *             if filter expression is invalid
+	 */
+	public void setFilter(String filter) {
+		this.filter = filter != null ? BpfProgram.compile(filter) : null;
 	}
 
 	public void setTcpProcessor(Protocol protocol, TcpProcessor processor) {
@@ -16,6 +16,9 @@
 package org.krakenapps.pcap.util;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.krakenapps.pcap.Protocol;
 import org.krakenapps.pcap.decoder.arp.ArpDecoder;
@@ -27,29 +30,62 @@ import org.krakenapps.pcap.decoder.icmpv6.Icmpv6Decoder;
 import org.krakenapps.pcap.decoder.icmpv6.Icmpv6Processor;
 import org.krakenapps.pcap.decoder.ip.InternetProtocol;
 import org.krakenapps.pcap.decoder.ip.IpDecoder;
+import org.krakenapps.pcap.decoder.ip.IpReassembler;
 import org.krakenapps.pcap.decoder.ipv6.Ipv6Decoder;
 import org.krakenapps.pcap.decoder.tcp.TcpDecoder;
 import org.krakenapps.pcap.decoder.tcp.TcpPortProtocolMapper;
 import org.krakenapps.pcap.decoder.tcp.TcpProcessor;
+import org.krakenapps.pcap.decoder.tcp.TcpProcessorFactory;
 import org.krakenapps.pcap.decoder.tcp.TcpSegmentCallback;
 import org.krakenapps.pcap.decoder.udp.UdpDecoder;
 import org.krakenapps.pcap.decoder.udp.UdpPortProtocolMapper;
 import org.krakenapps.pcap.decoder.udp.UdpProcessor;
+import org.krakenapps.pcap.decoder.udp.UdpProcessorFactory;
 import org.krakenapps.pcap.live.PcapDevice;
 import org.krakenapps.pcap.live.PcapDeviceMetadata;
+import org.krakenapps.pcap.live.PcapStat;
+import org.krakenapps.pcap.packet.PacketHeader;
 import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.SpscRingBuffer.OverflowPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * PcapLiveRunner captures packets from the device and decodes them. By
+ * default, packets are decoded by the capture thread. If worker count is
+ * given, capture thread only puts packets into preallocated single producer
+ * single consumer ring of each worker thread, so short decode stalls are
+ * absorbed by the ring instead of turning into kernel drops. With multiple
+ * workers, packets are dispatched by symmetric hash of ip addresses, and each
+ * worker decodes its flows with its own decoder chain. When a ring is full,
+ * packet is handled by the overflow policy and counted.
+ * 
+ * Capture and decode counters, layer decode time, decoder exceptions, ip
+ * fragment reassembly, tcp sessions and queue status are reported to the metrics registry of the
+ * runner.
+ * 
+ * Each decoder chain has a timer wheel shared by ip reassembler and tcp
+ * session table. It is advanced with packet time, and with wall clock while
+ * live device is idle, so timeouts are not delayed by a quiet link.
+ * 
+ * With a buffer pool, packets are received into pooled blocks, and the block
+ * is released after the packet is decoded or dropped by the ring.
+ * 
  * @author delmitz
  */
 public class PcapLiveRunner implements Runnable {
+	private static final int DEFAULT_QUEUE_CAPACITY = 16384;
+	private static final int BATCH_SIZE = 256;
+	private static final int POLL_TIMEOUT = 100;
+
 	private final Logger logger = LoggerFactory.getLogger(PcapLiveRunner.class
 			.getName());
 	private volatile boolean stop = false;
 	private PcapDevice device;
 
+	/* offline device has no metadata */
+	private final boolean live;
+
 	private EthernetDecoder eth;
 	private ArpDecoder arp;
 	private IpDecoder ip;
@@ -59,45 +95,206 @@ public class PcapLiveRunner implements Runnable {
 	private TcpDecoder tcp;
 	private UdpDecoder udp;
 
+	/**
+	 * decoder chains of workers, first one is also referenced by fields above
+	 */
+	private DecoderChain[] chains;
+
+	private final PcapMetrics metrics = new PcapMetrics();
+	private final StripedCounter capturedPackets = metrics.counter("capture.packets");
+	private final StripedCounter capturedBytes = metrics.counter("capture.bytes");
+
+	/**
+	 * null if packets are decoded by capture thread
+	 */
+	private Worker[] workers;
+
+	/**
+	 * null if packet data is not pooled
+	 */
+	private volatile BufferPool pool;
+
 	public PcapLiveRunner(PcapDevice device) {
+		this(device, 0);
+	}
+
+	public PcapLiveRunner(PcapDevice device, int workerCount) {
+		this(device, workerCount, DEFAULT_QUEUE_CAPACITY, OverflowPolicy.DropNewest);
+	}
+
+	/**
+	 * @param workerCount
+	 *            the number of decode threads, or 0 for decoding in capture
+	 *            thread
+	 * @param queueCapacity
+	 *            the ring size of each decode thread, rounded up to power of
+	 *            two
+	 * @param policy
+	 *            the behavior of capture thread when ring is full
+	 */
+	public PcapLiveRunner(PcapDevice device, int workerCount, int queueCapacity, OverflowPolicy policy) {
+		if (workerCount < 0)
+			throw new IllegalArgumentException("worker count should not be negative");
+		if (queueCapacity <= 0)
+			throw new IllegalArgumentException("queue capacity should be positive");
+
 		this.device = device;
-		eth = new EthernetDecoder();
-		arp = new ArpDecoder();
-		ip = new IpDecoder();
-		ipv6 = new Ipv6Decoder();
-		icmp = new IcmpDecoder();
-		icmpv6 = new Icmpv6Decoder();
-		tcp = new TcpDecoder(new TcpPortProtocolMapper());
-		udp = new UdpDecoder(new UdpPortProtocolMapper());
+		this.live = device.getMetadata() != null;
+		this.chains = new DecoderChain[Math.max(workerCount, 1)];
+		for (int i = 0; i < chains.length; i++)
+			chains[i] = new DecoderChain(metrics);
+
+		eth = chains[0].eth;
+		arp = chains[0].arp;
+		ip = chains[0].ip;
+		ipv6 = chains[0].ipv6;
+		icmp = chains[0].icmp;
+		icmpv6 = chains[0].icmpv6;
+		tcp = chains[0].tcp;
+		udp = chains[0].udp;
+
+		if (workerCount > 0) {
+			// pooled packets discarded by overflow policy are released
+			SpscRingBuffer.DropCallback<PcapPacket> callback = new SpscRingBuffer.DropCallback<PcapPacket>() {
+				@Override
+				public void onDrop(PcapPacket packet) {
+					release(packet);
+				}
+			};
+
+			workers = new Worker[workerCount];
+			for (int i = 0; i < workerCount; i++) {
+				SpscRingBuffer<PcapPacket> ring = new SpscRingBuffer<PcapPacket>(queueCapacity, policy);
+				ring.setDropCallback(callback);
+				workers[i] = new Worker(i, chains[i], ring);
+			}
+		}
+
+		registerGauges();
+	}
+
+	private void registerGauges() {
+		metrics.registerGauge("tcp.sessions", new PcapMetrics.Gauge() {
+			@Override
+			public long getValue() {
+				long count = 0;
+				for (DecoderChain chain : chains)
+					count += chain.tcp.getSessionCount();
+				return count;
+			}
+		});
+
+		metrics.registerGauge("tcp.reassembly.bytes", new PcapMetrics.Gauge() {
+			@Override
+			public long getValue() {
+				long bytes = 0;
+				for (DecoderChain chain : chains)
+					bytes += chain.tcp.getReassemblyBytes();
+				return bytes;
+			}
+		});
+
+		metrics.registerGauge("tcp.timeouts", new PcapMetrics.Gauge() {
+			@Override
+			public long getValue() {
+				long count = 0;
+				for (DecoderChain chain : chains)
+					count += chain.tcp.getTimeouts();
+				return count;
+			}
+		});
+
+		metrics.registerGauge("tcp.overflows", new PcapMetrics.Gauge() {
+			@Override
+			public long getValue() {
+				long count = 0;
+				for (DecoderChain chain : chains)
+					count += chain.tcp.getOverflows();
+				return count;
+			}
+		});
+
+		metrics.registerGauge("tcp.gap.skips", new PcapMetrics.Gauge() {
+			@Override
+			public long getValue() {
+				long count = 0;
+				for (DecoderChain chain : chains)
+					count += chain.tcp.getGapSkips();
+				return count;
+			}
+		});
+
+		metrics.registerGauge("ip.reassembly.bytes", new ReassemblyGauge(0));
+		metrics.registerGauge("ip.reassembly.timeouts", new ReassemblyGauge(1));
+		metrics.registerGauge("ip.reassembly.overlaps", new ReassemblyGauge(2));
+		metrics.registerGauge("ip.reassembly.drops", new ReassemblyGauge(3));
+
+		metrics.registerGauge("pcap.recv", new StatGauge(0));
+		metrics.registerGauge("pcap.drop", new StatGauge(1));
+		metrics.registerGauge("pcap.ifdrop", new StatGauge(2));
 
-		eth.register(EthernetType.IPV4, ip);
-		eth.register(EthernetType.IPV6, ipv6);
-		eth.register(EthernetType.ARP, arp);
+		if (workers == null)
+			return;
 
-		ip.register(InternetProtocol.ICMP, icmp);
-		ip.register(InternetProtocol.UDP, udp);
-		ip.register(InternetProtocol.TCP, tcp);
+		metrics.registerGauge("queue.depth", new PcapMetrics.Gauge() {
+			@Override
+			public long getValue() {
+				long depth = 0;
+				for (Worker worker : workers)
+					depth += worker.ring.size();
+				return depth;
+			}
+		});
 
-		ipv6.register(InternetProtocol.ICMPV6, icmpv6);
-		ipv6.register(InternetProtocol.TCP, tcp);
-		ipv6.register(InternetProtocol.UDP, udp);
+		metrics.registerGauge("queue.drops", new PcapMetrics.Gauge() {
+			@Override
+			public long getValue() {
+				long drops = 0;
+				for (Worker worker : workers)
+					drops += worker.ring.getDropped();
+				return drops;
+			}
+		});
 	}
 
 	public void run() {
+		if (workers != null)
+			for (Worker worker : workers)
+				worker.start();
+
 		try {
 			while (true) {
 				try {
 					if (stop)
 						break;
 
-					PcapPacket packet = device.getPacket();
-					if (packet != null)
-						eth.decode(packet);
-				} catch (IOException e) {
-					if (e.getMessage().equalsIgnoreCase("Timeout"))
+					PcapPacket packet = device.poll(POLL_TIMEOUT);
+					if (packet == null) {
+						if (device.isEndOfStream())
+							break;
+						if (live && workers == null)
+							chains[0].advance(System.currentTimeMillis());
 						continue;
+					}
+
+					capturedPackets.increment();
+					capturedBytes.add(packet.getPacketHeader().getInclLen());
 
+					if (workers == null) {
+						try {
+							chains[0].decode(packet);
+						} finally {
+							release(packet);
+						}
+					} else {
+						dispatch(packet);
+					}
+				} catch (IOException e) {
 					throw e;
+				} catch (InterruptedException e) {
+					// interrupted while waiting room of ring by block policy
+					Thread.currentThread().interrupt();
+					break;
 				} catch (Exception e) {
 					logger.warn("kraken-pcap: decode error", e);
 				}
@@ -106,52 +303,181 @@ public class PcapLiveRunner implements Runnable {
 			logger.trace("pcap live runner failed", e);
 		} finally {
 			closeDevice();
+			stopWorkers();
 		}
 
+		// offline device has no metadata
 		PcapDeviceMetadata metadata = device.getMetadata();
-		MacAddress macAddress = metadata.getMacAddress();
-		String desc = metadata.getDescription();
-		logger.trace("kraken-pcap: live runner mac={}, desc={} stopped",
-				macAddress, desc);
+		if (metadata != null) {
+			MacAddress macAddress = metadata.getMacAddress();
+			String desc = metadata.getDescription();
+			logger.trace("kraken-pcap: live runner mac={}, desc={} stopped",
+					macAddress, desc);
+		}
+	}
+
+	private void dispatch(PcapPacket packet) throws InterruptedException {
+		Worker worker = workers[0];
+		if (workers.length > 1) {
+			FlowKey key = FlowKey.parse(packet.getPacketData());
+			if (key != null)
+				worker = workers[key.addressHash() % workers.length];
+		}
+
+		// dropped packet is released by drop callback of the ring
+		worker.ring.offer(packet);
+	}
+
+	private void release(PcapPacket packet) {
+		if (pool != null)
+			packet.getPacketData().release();
+	}
+
+	private void stopWorkers() {
+		if (workers == null)
+			return;
+
+		// workers drain queued packets and exit
+		for (Worker worker : workers)
+			worker.done = true;
 	}
 
 	public void runOnce() throws IOException {
 		PcapPacket packet = device.getPacket();
-		eth.decode(packet);
+		chains[0].decode(packet);
 	}
 
 	public PcapDevice getDevice() {
 		return device;
 	}
 
+	/**
+	 * Returns the buffer pool which receives packet data, or null if pooling
+	 * is off.
+	 */
+	public BufferPool getBufferPool() {
+		return pool;
+	}
+
+	/**
+	 * Receives packets into blocks of the pool. Should be set before run, and
+	 * pool status is reported to "pool.*" gauges.
+	 * 
+	 * @param pool
+	 *            the buffer pool, or null to allocate array for each packet
+	 */
+	public void setBufferPool(BufferPool pool) {
+		this.pool = pool;
+		device.setBufferPool(pool);
+
+		String[] names = { "pool.allocated", "pool.reused", "pool.recycled", "pool.leaked", "pool.idle" };
+		for (int i = 0; i < names.length; i++) {
+			if (pool != null)
+				metrics.registerGauge(names[i], new PoolGauge(pool, i));
+			else
+				metrics.unregisterGauge(names[i]);
+		}
+	}
+
+	public PcapMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Registers the processor to all workers. The processor should be thread
+	 * safe if worker count is larger than 1.
+	 */
 	public void setTcpProcessor(Protocol protocol, TcpProcessor processor) {
-		tcp.getProtocolMapper().register(protocol, processor);
+		for (DecoderChain chain : chains)
+			chain.tcp.getProtocolMapper().register(protocol, chain.meters.wrap(protocol, processor));
+	}
+
+	/**
+	 * Registers new processor instance to each worker.
+	 */
+	public void setTcpProcessor(Protocol protocol, TcpProcessorFactory factory) {
+		for (DecoderChain chain : chains)
+			chain.tcp.getProtocolMapper().register(protocol, chain.meters.wrap(protocol, factory.newProcessor()));
 	}
 
 	public void unsetTcpProcessor(Protocol protocol, TcpProcessor processor) {
-		tcp.getProtocolMapper().unregister(protocol, processor);
+		for (DecoderChain chain : chains)
+			chain.tcp.getProtocolMapper().unregister(protocol, chain.meters.wrap(protocol, processor));
 	}
 
+	/**
+	 * Registers the processor to all workers. The processor should be thread
+	 * safe if worker count is larger than 1.
+	 */
 	public void setUdpProcessor(Protocol protocol, UdpProcessor processor) {
-		udp.getProtocolMapper().register(protocol, processor);
+		for (DecoderChain chain : chains)
+			chain.udp.getProtocolMapper().register(protocol, chain.meters.wrap(protocol, processor));
+	}
+
+	/**
+	 * Registers new processor instance to each worker.
+	 */
+	public void setUdpProcessor(Protocol protocol, UdpProcessorFactory factory) {
+		for (DecoderChain chain : chains)
+			chain.udp.getProtocolMapper().register(protocol, chain.meters.wrap(protocol, factory.newProcessor()));
 	}
 
 	public void unsetUdpProcessor(Protocol protocol, UdpProcessor processor) {
-		udp.getProtocolMapper().unregister(protocol, processor);
+		for (DecoderChain chain : chains)
+			chain.udp.getProtocolMapper().unregister(protocol, chain.meters.wrap(protocol, processor));
 	}
 
 	public void addTcpCallback(TcpSegmentCallback callback) {
-		tcp.registerSegmentCallback(callback);
+		for (DecoderChain chain : chains)
+			chain.tcp.registerSegmentCallback(callback);
 	}
 
 	public void removeTcpCallback(TcpSegmentCallback callback) {
-		tcp.unregisterSegmentCallback(callback);
+		for (DecoderChain chain : chains)
+			chain.tcp.unregisterSegmentCallback(callback);
 	}
 
 	public void addIcmpv6Processor(Icmpv6Processor processor) {
-		icmpv6.register(processor);
+		for (DecoderChain chain : chains)
+			chain.icmpv6.register(processor);
+	}
+
+	public int getWorkerCount() {
+		return chains.length;
+	}
+
+	/**
+	 * Returns tcp decoder of the worker, which tracks sessions of its flows.
+	 */
+	public TcpDecoder getTcpDecoder(int worker) {
+		return chains[worker].tcp;
+	}
+
+	/**
+	 * Returns ethernet decoder of the worker for additional registration.
+	 */
+	public EthernetDecoder getEthernetDecoder(int worker) {
+		return chains[worker].eth;
+	}
+
+	/**
+	 * Returns ring status of decode threads, or empty list if packets are
+	 * decoded by capture thread.
+	 */
+	public List<WorkerStatus> getWorkerStatus() {
+		List<WorkerStatus> l = new ArrayList<WorkerStatus>();
+		if (workers == null)
+			return l;
+
+		for (Worker worker : workers)
+			l.add(new WorkerStatus(worker));
+		return l;
 	}
 
+	/**
+	 * Returns decoders of the first worker. Use worker index overloads to
+	 * access other workers.
+	 */
 	public EthernetDecoder getEthernetDecoder() {
 		return eth;
 	}
@@ -196,4 +522,264 @@ public class PcapLiveRunner implements Runnable {
 		} catch (IOException e) {
 		}
 	}
+
+	private static class DecoderChain {
+		private EthernetDecoder eth;
+		private ArpDecoder arp;
+		private IpDecoder ip;
+		private Ipv6Decoder ipv6;
+		private IcmpDecoder icmp;
+		private Icmpv6Decoder icmpv6;
+		private TcpDecoder tcp;
+		private UdpDecoder udp;
+		private DecoderMeters meters;
+		private StripedCounter packets;
+		private TimerWheel timers;
+
+		public DecoderChain(PcapMetrics metrics) {
+			eth = new EthernetDecoder();
+			arp = new ArpDecoder();
+			ip = new IpDecoder();
+			ipv6 = new Ipv6Decoder();
+			icmp = new IcmpDecoder();
+			icmpv6 = new Icmpv6Decoder();
+			tcp = new TcpDecoder(new TcpPortProtocolMapper());
+			udp = new UdpDecoder(new UdpPortProtocolMapper());
+
+			// fragments of both versions share the byte budget
+			ipv6.setReassembler(ip.getReassembler());
+
+			timers = new TimerWheel();
+			ip.getReassembler().setTimerWheel(timers);
+			tcp.setTimerWheel(timers);
+
+			meters = new DecoderMeters(metrics);
+			packets = metrics.counter("decode.packets");
+
+			eth.register(EthernetType.IPV4, meters.wrap("ipv4", ip));
+			eth.register(EthernetType.IPV6, meters.wrap("ipv6", ipv6));
+			eth.register(EthernetType.ARP, meters.wrap("arp", arp));
+
+			DecoderMeters.IpStage tcpStage = meters.wrap("tcp", tcp, tcp);
+			DecoderMeters.IpStage udpStage = meters.wrap("udp", udp, udp);
+
+			ip.register(InternetProtocol.ICMP, meters.wrap("icmp", icmp, null));
+			ip.register(InternetProtocol.UDP, udpStage);
+			ip.register(InternetProtocol.TCP, tcpStage);
+
+			ipv6.register(InternetProtocol.ICMPV6, meters.wrap("icmpv6", null, icmpv6));
+			ipv6.register(InternetProtocol.TCP, tcpStage);
+			ipv6.register(InternetProtocol.UDP, udpStage);
+		}
+
+		public void decode(PcapPacket packet) {
+			packets.increment();
+			PacketHeader h = packet.getPacketHeader();
+			timers.advance(h.getTsSec() * 1000L + h.getTsUsec() / 1000);
+			meters.decode(eth, packet);
+		}
+
+		public void advance(long now) {
+			timers.advance(now);
+		}
+	}
+
+	private class Worker extends Thread {
+		private final int id;
+		private final DecoderChain chain;
+		private final SpscRingBuffer<PcapPacket> ring;
+		private volatile boolean done;
+
+		// written by worker thread only, read by status queries
+		private volatile long packets;
+		private volatile long errors;
+
+		public Worker(int id, DecoderChain chain, SpscRingBuffer<PcapPacket> ring) {
+			super("Pcap Live Decoder " + id);
+			this.id = id;
+			this.chain = chain;
+			this.ring = ring;
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			PcapPacket[] batch = new PcapPacket[BATCH_SIZE];
+			try {
+				while (true) {
+					// read flag first, so packets offered before stop are not missed
+					boolean last = done;
+					int n = ring.drain(batch, 100, TimeUnit.MILLISECONDS);
+					if (n == 0 && last)
+						break;
+					if (n == 0 && live)
+						chain.advance(System.currentTimeMillis());
+
+					for (int i = 0; i < n; i++) {
+						packets++;
+						try {
+							chain.decode(batch[i]);
+						} catch (Exception e) {
+							errors++;
+							logger.warn("kraken-pcap: decode error", e);
+						} finally {
+							release(batch[i]);
+						}
+						batch[i] = null;
+					}
+				}
+			} catch (InterruptedException e) {
+				logger.trace("kraken-pcap: live decode worker {} interrupted", id);
+			}
+		}
+	}
+
+	private class StatGauge implements PcapMetrics.Gauge {
+		private final int field;
+
+		public StatGauge(int field) {
+			this.field = field;
+		}
+
+		@Override
+		public long getValue() {
+			try {
+				PcapStat stat = device.getStat();
+				if (field == 0)
+					return stat.getCapturedPackets();
+				else if (field == 1)
+					return stat.getDroppedPackets();
+				return stat.getInterfaceDroppedPackets();
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private class ReassemblyGauge implements PcapMetrics.Gauge {
+		private final int field;
+
+		public ReassemblyGauge(int field) {
+			this.field = field;
+		}
+
+		@Override
+		public long getValue() {
+			long value = 0;
+			for (DecoderChain chain : chains) {
+				IpReassembler.Statistics stats = chain.ip.getReassembler().getStatistics();
+				if (field == 0)
+					value += stats.getBytes();
+				else if (field == 1)
+					value += stats.getTimeouts();
+				else if (field == 2)
+					value += stats.getOverlaps();
+				else
+					value += stats.getBudgetDrops() + stats.getSourceDrops();
+			}
+			return value;
+		}
+	}
+
+	private static class PoolGauge implements PcapMetrics.Gauge {
+		private final BufferPool pool;
+		private final int field;
+
+		public PoolGauge(BufferPool pool, int field) {
+			this.pool = pool;
+			this.field = field;
+		}
+
+		@Override
+		public long getValue() {
+			BufferPool.Statistics stats = pool.getStatistics();
+			if (field == 0)
+				return stats.getAllocated();
+			else if (field == 1)
+				return stats.getReused();
+			else if (field == 2)
+				return stats.getRecycled();
+			else if (field == 3)
+				return stats.getLeaked();
+			return stats.getIdle();
+		}
+	}
+
+	/**
+	 * Snapshot of decode thread counters.
+	 */
+	public static class WorkerStatus {
+		private int id;
+		private int queueDepth;
+		private int queueCapacity;
+		private int highWatermark;
+		private long enqueued;
+		private long packets;
+		private long drops;
+		private long errors;
+
+		private WorkerStatus(Worker worker) {
+			this.id = worker.id;
+			this.queueDepth = worker.ring.size();
+			this.queueCapacity = worker.ring.getCapacity();
+			this.highWatermark = worker.ring.getHighWatermark();
+			this.enqueued = worker.ring.getEnqueued();
+			this.packets = worker.packets;
+			this.drops = worker.ring.getDropped();
+			this.errors = worker.errors;
+		}
+
+		public int getId() {
+			return id;
+		}
+
+		/**
+		 * Returns the number of packets waiting in the queue.
+		 */
+		public int getQueueDepth() {
+			return queueDepth;
+		}
+
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		/**
+		 * Returns the largest queue depth observed.
+		 */
+		public int getHighWatermark() {
+			return highWatermark;
+		}
+
+		/**
+		 * Returns the number of packets put into the queue.
+		 */
+		public long getEnqueued() {
+			return enqueued;
+		}
+
+		/**
+		 * Returns the number of decoded packets.
+		 */
+		public long getPackets() {
+			return packets;
+		}
+
+		/**
+		 * Returns the number of packets dropped by overflow policy.
+		 */
+		public long getDrops() {
+			return drops;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("worker=%d, queue=%d/%d, high watermark=%d, enqueued=%d, packets=%d, drops=%d, errors=%d",
+					id, queueDepth, queueCapacity, highWatermark, enqueued, packets, drops, errors);
+		}
+	}
 }
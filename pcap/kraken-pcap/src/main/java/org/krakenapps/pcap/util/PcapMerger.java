@@ -15,12 +15,24 @@
  */
 package org.krakenapps.pcap.util;
 
-import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 
+import org.krakenapps.pcap.PcapInputStream;
+import org.krakenapps.pcap.PcapOutputStream;
+import org.krakenapps.pcap.file.GlobalHeader;
+import org.krakenapps.pcap.file.MappedPcapFileInputStream;
 import org.krakenapps.pcap.file.PcapFileInputStream;
 import org.krakenapps.pcap.file.PcapFileOutputStream;
+import org.krakenapps.pcap.file.PcapIndex;
+import org.krakenapps.pcap.filter.BpfProgram;
 import org.krakenapps.pcap.packet.PcapPacket;
 
 /**
@@ -29,6 +41,11 @@ import org.krakenapps.pcap.packet.PcapPacket;
  * @author mindori
  */
 public class PcapMerger {
+	public static final int DEFAULT_MAX_OPEN_FILES = 64;
+
+	private static final int GLOBAL_HEADER_LENGTH = 24;
+	private static final int PACKET_HEADER_LENGTH = 16;
+
 	private PcapMerger() {
 	}
 
@@ -44,10 +61,10 @@ public class PcapMerger {
 	 *             related problems.
 	 */
 	public static void merge(File to, File from) throws IOException {
-		PcapFileInputStream is = null;
+		MappedPcapFileInputStream is = null;
 		PcapFileOutputStream os = null;
 		try {
-			is = new PcapFileInputStream(from);
+			is = new MappedPcapFileInputStream(from);
 			os = new PcapFileOutputStream(to, is.getGlobalHeader());
 
 			writePacket(is, os);
@@ -58,53 +75,147 @@ public class PcapMerger {
 	}
 
 	/**
-	 * Merge file1 with file2, and write to output file. It doesn't hurt
-	 * original pcap dump files.
+	 * Merge file1 with file2 in timestamp order, and write to output file. It
+	 * doesn't hurt original pcap dump files.
 	 * 
 	 * @param output
 	 *            the new pcap file. it will contain both file1 and file2.
 	 * @param file1
-	 *            the first pcap file. it will be written first.
+	 *            the first pcap file.
 	 * @param file2
-	 *            the second pcap file. it will be written to output after first
-	 *            pcap file.
+	 *            the second pcap file.
 	 * 
 	 * @throws IOException
 	 *             if there are no source files, have no read and/or write
 	 *             permissions, or anything else.
 	 */
 	public static void merge(File output, File file1, File file2) throws IOException {
-		PcapFileInputStream is1 = null;
-		PcapFileInputStream is2 = null;
+		merge(output, Arrays.asList(file1, file2));
+	}
+
+	public static void merge(File output, List<File> inputs) throws IOException {
+		merge(output, inputs, DEFAULT_MAX_OPEN_FILES, 0);
+	}
+
+	/**
+	 * Merge pcap files in timestamp order, and write to output file. Only the
+	 * next packet of each input is kept in memory. The first packet of each
+	 * input is read by plain file read, and the input is mapped when the
+	 * packet after it is due, so inputs of consecutive time ranges are mapped
+	 * once, one after another. If more than maxOpenFiles inputs are in
+	 * progress at once, the input whose next packet is the latest is closed
+	 * and reopened at the same offset later. Packets of equal timestamp are
+	 * written in input order.
+	 * 
+	 * @param output
+	 *            the new pcap file
+	 * @param inputs
+	 *            the classic pcap files of same link type
+	 * @param maxOpenFiles
+	 *            the maximum input file handles opened at once
+	 * @param dedupWindow
+	 *            the microseconds in which identical packet is dropped as
+	 *            duplicate, or 0 to keep all packets
+	 * @throws IOException
+	 *             if there are no source files, link types are different, or
+	 *             other io related problems.
+	 */
+	public static void merge(File output, List<File> inputs, int maxOpenFiles, long dedupWindow) throws IOException {
+		merge(output, inputs, maxOpenFiles, dedupWindow, null);
+	}
+
+	/**
+	 * Merge only the packets accepted by tcpdump filter expression.
+	 * 
+	 * @param filter
+	 *            the filter expression, or null to merge all packets
+	 * @see #merge(File, List, int, long)
+	 */
+	public static void merge(File output, List<File> inputs, int maxOpenFiles, long dedupWindow, String filter)
+			throws IOException {
+		BpfProgram program = filter != null ? BpfProgram.compile(filter) : null;
+		if (inputs.isEmpty())
+			throw new IllegalArgumentException("no input file");
+		if (maxOpenFiles <= 0)
+			throw new IllegalArgumentException("max open files should be positive");
+
+		PriorityQueue<Input> queue = new PriorityQueue<Input>(inputs.size());
+		List<Input> opened = new ArrayList<Input>();
 		PcapFileOutputStream os = null;
 		try {
+			GlobalHeader header = null;
+			int snaplen = 0;
+			for (int i = 0; i < inputs.size(); i++) {
+				Input input = new Input(i, inputs.get(i));
+				GlobalHeader h = input.peek();
+				if (header == null)
+					header = h;
+				else if (h.getNetwork() != header.getNetwork())
+					throw new IOException("link type mismatch: " + input.file.getName());
+				snaplen = Math.max(snaplen, h.getSnaplen());
 
-			is1 = new PcapFileInputStream(file1);
-			is2 = new PcapFileInputStream(file2);
-			os = new PcapFileOutputStream(output, is1.getGlobalHeader());
+				if (input.head != null)
+					queue.add(input);
+			}
+
+			os = new PcapFileOutputStream(output, new GlobalHeader(header.getMagicNumber(), header.getMajorVersion(),
+					header.getMinorVersion(), header.getThiszone(), header.getSigfigs(), snaplen, header.getNetwork()));
+
+			DuplicateFilter dedup = dedupWindow > 0 ? new DuplicateFilter(dedupWindow) : null;
+			while (!queue.isEmpty()) {
+				Input input = queue.poll();
+				boolean accepted = program == null || program.matches(input.head);
+				if (accepted && (dedup == null || !dedup.isDuplicate(input.head, input.headTime)))
+					os.write(input.head);
+
+				if (input.is == null)
+					open(input, opened, maxOpenFiles);
 
-			writePacket(is1, os);
-			writePacket(is2, os);
+				input.next();
+				if (input.head != null)
+					queue.add(input);
+				else
+					close(input, opened);
+			}
 		} finally {
-			closeInput(is1);
-			closeInput(is2);
+			for (Input input : opened)
+				closeInput(input.is);
 			closeOutput(os);
 		}
 	}
 
-	private static void writePacket(PcapFileInputStream is, PcapFileOutputStream os) throws IOException {
-		try {
-			while (true) {
-				PcapPacket packet = is.getPacket();
-				if (packet == null)
-					break;
-				os.write(packet);
-			}
-		} catch (EOFException e) {
+	private static void open(Input input, List<Input> opened, int maxOpenFiles) throws IOException {
+		if (opened.size() >= maxOpenFiles) {
+			// park the input which will be needed last
+			Input latest = null;
+			for (Input i : opened)
+				if (latest == null || latest.compareTo(i) < 0)
+					latest = i;
+			close(latest, opened);
+		}
+
+		input.is = new MappedPcapFileInputStream(input.file);
+		if (input.offset > 0)
+			input.is.position(input.offset);
+		opened.add(input);
+	}
+
+	private static void close(Input input, List<Input> opened) throws IOException {
+		opened.remove(input);
+		input.is.close();
+		input.is = null;
+	}
+
+	private static void writePacket(PcapInputStream is, PcapOutputStream os) throws IOException {
+		while (true) {
+			PcapPacket packet = is.poll(0);
+			if (packet == null)
+				break;
+			os.write(packet);
 		}
 	}
 
-	private static void closeInput(PcapFileInputStream is) {
+	private static void closeInput(PcapInputStream is) {
 		if (is == null)
 			return;
 		try {
@@ -113,7 +224,7 @@ public class PcapMerger {
 		}
 	}
 
-	private static void closeOutput(PcapFileOutputStream os) {
+	private static void closeOutput(PcapOutputStream os) {
 		if (os == null)
 			return;
 		try {
@@ -122,4 +233,117 @@ public class PcapMerger {
 		}
 	}
 
+	/**
+	 * Merge input which keeps next packet and file offset after it.
+	 */
+	private static class Input implements Comparable<Input> {
+		private int index;
+		private File file;
+		private MappedPcapFileInputStream is;
+		private long offset;
+		private PcapPacket head;
+		private long headTime;
+
+		public Input(int index, File file) {
+			this.index = index;
+			this.file = file;
+		}
+
+		/**
+		 * Reads global header and the first packet without mapping the file,
+		 * and keeps the offset after the packet for later open.
+		 */
+		public GlobalHeader peek() throws IOException {
+			PcapFileInputStream is = new PcapFileInputStream(file);
+			try {
+				head = is.poll(0);
+				if (head != null) {
+					headTime = PcapIndex.toMicros(head.getPacketHeader());
+					offset = GLOBAL_HEADER_LENGTH + PACKET_HEADER_LENGTH + head.getPacketHeader().getInclLen();
+				}
+				return is.getGlobalHeader();
+			} finally {
+				is.close();
+			}
+		}
+
+		public void next() throws IOException {
+			head = is.poll(0);
+			if (head == null)
+				return;
+
+			headTime = PcapIndex.toMicros(head.getPacketHeader());
+			offset = is.position();
+		}
+
+		@Override
+		public int compareTo(Input o) {
+			if (headTime != o.headTime)
+				return headTime < o.headTime ? -1 : 1;
+			return index - o.index;
+		}
+	}
+
+	/**
+	 * Drops packet if identical packet data is written in the time window.
+	 */
+	private static class DuplicateFilter {
+		private long window;
+		private Map<PacketData, Long> seen = new HashMap<PacketData, Long>();
+		private ArrayDeque<PacketData> history = new ArrayDeque<PacketData>();
+
+		public DuplicateFilter(long window) {
+			this.window = window;
+		}
+
+		public boolean isDuplicate(PcapPacket packet, long time) {
+			while (!history.isEmpty()) {
+				PacketData oldest = history.peekFirst();
+				if (time - oldest.time <= window)
+					break;
+
+				history.pollFirst();
+				Long last = seen.get(oldest);
+				if (last != null && last == oldest.time)
+					seen.remove(oldest);
+			}
+
+			PacketData data = new PacketData(packet.getPacketData(), time);
+			if (seen.containsKey(data))
+				return true;
+
+			seen.put(data, time);
+			history.addLast(data);
+			return false;
+		}
+	}
+
+	private static class PacketData {
+		private byte[] b;
+		private int hash;
+		private long time;
+
+		public PacketData(Buffer data, long time) {
+			int position = data.position();
+			b = new byte[data.readableBytes()];
+			data.gets(b);
+			data.position(position);
+
+			this.hash = Arrays.hashCode(b);
+			this.time = time;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PacketData))
+				return false;
+			PacketData o = (PacketData) obj;
+			return hash == o.hash && Arrays.equals(b, o.b);
+		}
+	}
 }
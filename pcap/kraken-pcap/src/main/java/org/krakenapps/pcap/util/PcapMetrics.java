@@ -0,0 +1,214 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * PcapMetrics is a registry of named counters, latency histograms and gauges
+ * of a capture stream. Counters and histograms are striped, so they are cheap
+ * enough to stay enabled on hot paths. Gauges are evaluated only when a
+ * snapshot is taken. Layer decode timing can be turned off separately since
+ * it reads the clock twice per layer.
+ * 
+ * @author xeraph
+ */
+public class PcapMetrics {
+	private final ConcurrentMap<String, StripedCounter> counters;
+	private final ConcurrentMap<String, LatencyHistogram> histograms;
+	private final ConcurrentMap<String, Gauge> gauges;
+	private volatile boolean timing = true;
+	private Snapshot last;
+
+	/**
+	 * Value evaluated at snapshot time, e.g. active session count.
+	 */
+	public interface Gauge {
+		long getValue();
+	}
+
+	public PcapMetrics() {
+		counters = new ConcurrentHashMap<String, StripedCounter>();
+		histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+		gauges = new ConcurrentHashMap<String, Gauge>();
+		last = new Snapshot(System.currentTimeMillis());
+	}
+
+	/**
+	 * Returns the counter, creating it at first use.
+	 */
+	public StripedCounter counter(String name) {
+		StripedCounter c = counters.get(name);
+		if (c != null)
+			return c;
+
+		c = new StripedCounter();
+		StripedCounter old = counters.putIfAbsent(name, c);
+		return old != null ? old : c;
+	}
+
+	/**
+	 * Returns the histogram, creating it at first use.
+	 */
+	public LatencyHistogram histogram(String name) {
+		LatencyHistogram h = histograms.get(name);
+		if (h != null)
+			return h;
+
+		h = new LatencyHistogram();
+		LatencyHistogram old = histograms.putIfAbsent(name, h);
+		return old != null ? old : h;
+	}
+
+	public void registerGauge(String name, Gauge gauge) {
+		gauges.put(name, gauge);
+	}
+
+	public void unregisterGauge(String name) {
+		gauges.remove(name);
+	}
+
+	public boolean isTimingEnabled() {
+		return timing;
+	}
+
+	public void setTimingEnabled(boolean timing) {
+		this.timing = timing;
+	}
+
+	/**
+	 * Resets all counters and histograms.
+	 */
+	public synchronized void reset() {
+		for (StripedCounter c : counters.values())
+			c.reset();
+		for (LatencyHistogram h : histograms.values())
+			h.reset();
+		last = new Snapshot(System.currentTimeMillis());
+	}
+
+	/**
+	 * Takes a snapshot of all metrics. Counter rates are calculated against
+	 * the previous snapshot, so rates are averages over the interval between
+	 * snapshot calls.
+	 */
+	public synchronized Snapshot snapshot() {
+		Snapshot s = new Snapshot(System.currentTimeMillis());
+		for (Map.Entry<String, StripedCounter> e : counters.entrySet())
+			s.counters.put(e.getKey(), e.getValue().sum());
+
+		for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet())
+			s.histograms.put(e.getKey(), e.getValue().snapshot());
+
+		for (Map.Entry<String, Gauge> e : gauges.entrySet()) {
+			try {
+				s.gauges.put(e.getKey(), e.getValue().getValue());
+			} catch (RuntimeException ex) {
+				// source is gone, e.g. closed device
+			}
+		}
+
+		long interval = s.time - last.time;
+		for (Map.Entry<String, Long> e : s.counters.entrySet()) {
+			Long prev = last.counters.get(e.getKey());
+			long delta = e.getValue() - (prev != null ? prev : 0);
+			s.rates.put(e.getKey(), interval > 0 ? delta * 1000.0 / interval : 0);
+		}
+
+		s.interval = interval;
+		last = s;
+		return s;
+	}
+
+	public static class Snapshot {
+		private final long time;
+		private long interval;
+		private final Map<String, Long> counters = new TreeMap<String, Long>();
+		private final Map<String, Double> rates = new TreeMap<String, Double>();
+		private final Map<String, Long> gauges = new TreeMap<String, Long>();
+		private final Map<String, LatencyHistogram.Snapshot> histograms = new TreeMap<String, LatencyHistogram.Snapshot>();
+
+		private Snapshot(long time) {
+			this.time = time;
+		}
+
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * Returns milliseconds since the previous snapshot.
+		 */
+		public long getInterval() {
+			return interval;
+		}
+
+		/**
+		 * Returns counter value, or 0 if not registered.
+		 */
+		public long getCounter(String name) {
+			Long value = counters.get(name);
+			return value != null ? value : 0;
+		}
+
+		/**
+		 * Returns counter increase per second since the previous snapshot.
+		 */
+		public double getRate(String name) {
+			Double rate = rates.get(name);
+			return rate != null ? rate : 0;
+		}
+
+		/**
+		 * Returns gauge value, or null if not registered or not available.
+		 */
+		public Long getGauge(String name) {
+			return gauges.get(name);
+		}
+
+		public LatencyHistogram.Snapshot getHistogram(String name) {
+			return histograms.get(name);
+		}
+
+		public Map<String, Long> getCounters() {
+			return Collections.unmodifiableMap(counters);
+		}
+
+		public Map<String, Long> getGauges() {
+			return Collections.unmodifiableMap(gauges);
+		}
+
+		public Map<String, LatencyHistogram.Snapshot> getHistograms() {
+			return Collections.unmodifiableMap(histograms);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for (String name : counters.keySet())
+				sb.append(String.format("%s=%d (%.1f/s)\n", name, counters.get(name), rates.get(name)));
+			for (String name : gauges.keySet())
+				sb.append(String.format("%s=%d\n", name, gauges.get(name)));
+			for (String name : histograms.keySet())
+				sb.append(String.format("%s: %s\n", name, histograms.get(name)));
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SpscRingBuffer is a preallocated lock-free ring for exactly one producer
+ * thread and one consumer thread, e.g. capture thread and decode thread. Slots
+ * are allocated once and indexes are free running counters, so offer and drain
+ * do not allocate or lock. Waiting sides park for a short time instead of
+ * being signalled, which keeps producer path free of wakeup calls.
+ * 
+ * @author xeraph
+ */
+public class SpscRingBuffer<T> {
+	private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * What offer does when the ring is full.
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * discard the offered element
+		 */
+		DropNewest,
+		/**
+		 * discard the oldest element in the ring to make room
+		 */
+		DropOldest,
+		/**
+		 * wait until consumer makes room
+		 */
+		Block
+	}
+
+	/**
+	 * Receives elements discarded by overflow policy, so the producer can
+	 * release resources held by them. Called by producer thread.
+	 */
+	public interface DropCallback<T> {
+		void onDrop(T e);
+	}
+
+	private final AtomicReferenceArray<T> slots;
+	private final int capacity;
+	private final int mask;
+	private final OverflowPolicy policy;
+	private volatile DropCallback<? super T> dropCallback;
+
+	// head is also moved by producer to drop oldest, so consumer commits by cas
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	// written by producer only
+	private volatile long enqueued;
+	private volatile long dropped;
+	private volatile int highWatermark;
+
+	/**
+	 * @param capacity
+	 *            the number of slots, rounded up to power of two
+	 * @param policy
+	 *            the overflow policy
+	 */
+	public SpscRingBuffer(int capacity, OverflowPolicy policy) {
+		if (capacity <= 0 || capacity > (1 << 30))
+			throw new IllegalArgumentException("invalid ring capacity: " + capacity);
+		if (policy == null)
+			throw new IllegalArgumentException("overflow policy should not be null");
+
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+
+		this.slots = new AtomicReferenceArray<T>(size);
+		this.capacity = size;
+		this.mask = size - 1;
+		this.policy = policy;
+	}
+
+	public DropCallback<? super T> getDropCallback() {
+		return dropCallback;
+	}
+
+	/**
+	 * Sets the callback for discarded elements of both drop policies, or null
+	 * to ignore them.
+	 */
+	public void setDropCallback(DropCallback<? super T> dropCallback) {
+		this.dropCallback = dropCallback;
+	}
+
+	/**
+	 * Adds the element. Called by producer thread only.
+	 * 
+	 * @return false if the element is dropped by drop newest policy
+	 * @throws InterruptedException
+	 *             if interrupted while waiting by block policy
+	 */
+	public boolean offer(T e) throws InterruptedException {
+		if (e == null)
+			throw new IllegalArgumentException("element should not be null");
+
+		long t = tail.get();
+		long park = MIN_PARK_NANOS;
+		while (t - head.get() >= capacity) {
+			if (policy == OverflowPolicy.DropNewest) {
+				dropped++;
+				drop(e);
+				return false;
+			} else if (policy == OverflowPolicy.DropOldest) {
+				long h = head.get();
+				if (t - h >= capacity && head.compareAndSet(h, h + 1)) {
+					// consumer failed to commit the slot, and producer
+					// overwrites it next, so it is read before that
+					T oldest = slots.get((int) h & mask);
+					dropped++;
+					drop(oldest);
+				}
+			} else {
+				if (Thread.interrupted())
+					throw new InterruptedException();
+				LockSupport.parkNanos(park);
+				park = Math.min(park << 1, MAX_PARK_NANOS);
+			}
+		}
+
+		slots.lazySet((int) t & mask, e);
+		tail.lazySet(t + 1);
+		enqueued++;
+
+		int size = (int) (t + 1 - head.get());
+		if (size > highWatermark)
+			highWatermark = size;
+		return true;
+	}
+
+	private void drop(T e) {
+		DropCallback<? super T> callback = dropCallback;
+		if (callback != null && e != null)
+			callback.onDrop(e);
+	}
+
+	/**
+	 * Moves available elements to the batch without waiting. Called by
+	 * consumer thread only.
+	 * 
+	 * @return the number of elements moved
+	 */
+	public int drain(T[] batch) {
+		while (true) {
+			long h = head.get();
+			int n = (int) Math.min(tail.get() - h, batch.length);
+			if (n <= 0)
+				return 0;
+
+			for (int i = 0; i < n; i++)
+				batch[i] = slots.get((int) (h + i) & mask);
+
+			// producer dropped oldest while reading, slots may be reused
+			if (!head.compareAndSet(h, h + n))
+				continue;
+
+			// release references unless producer already reused the slot
+			for (int i = 0; i < n; i++)
+				slots.compareAndSet((int) (h + i) & mask, batch[i], null);
+
+			return n;
+		}
+	}
+
+	/**
+	 * Moves available elements to the batch, waiting up to timeout if ring is
+	 * empty. Called by consumer thread only.
+	 * 
+	 * @return the number of elements moved, or 0 if timeout elapsed
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public int drain(T[] batch, long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		long park = MIN_PARK_NANOS;
+		while (true) {
+			int n = drain(batch);
+			if (n > 0)
+				return n;
+
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0)
+				return 0;
+			if (Thread.interrupted())
+				throw new InterruptedException();
+
+			LockSupport.parkNanos(Math.min(park, remaining));
+			park = Math.min(park << 1, MAX_PARK_NANOS);
+		}
+	}
+
+	/**
+	 * Returns the number of elements in the ring.
+	 */
+	public int size() {
+		long h = head.get();
+		long t = tail.get();
+		return (int) Math.max(0, Math.min(t - h, capacity));
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public OverflowPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Returns the number of elements added to the ring.
+	 */
+	public long getEnqueued() {
+		return enqueued;
+	}
+
+	/**
+	 * Returns the number of discarded elements, either offered or oldest.
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Returns the largest number of elements observed in the ring.
+	 */
+	public int getHighWatermark() {
+		return highWatermark;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("size=%d/%d, enqueued=%d, dropped=%d, high watermark=%d", size(), capacity, enqueued,
+				dropped, highWatermark);
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * StripedCounter is a counter for hot paths updated by several threads, e.g.
+ * capture thread and decode workers. Each thread adds to the cell selected by
+ * its thread id, and cells are a cache line apart, so writers do not contend
+ * on the same line. Reading sums all cells and is meant for monitoring.
+ * 
+ * @author xeraph
+ */
+public class StripedCounter {
+	// 8 longs per cache line
+	static final int PADDING = 8;
+	static final int STRIPES = stripes();
+
+	private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+	public void increment() {
+		add(1);
+	}
+
+	public void add(long n) {
+		cells.addAndGet(stripe() * PADDING, n);
+	}
+
+	public long sum() {
+		long sum = 0;
+		for (int i = 0; i < STRIPES; i++)
+			sum += cells.get(i * PADDING);
+		return sum;
+	}
+
+	public void reset() {
+		for (int i = 0; i < STRIPES; i++)
+			cells.set(i * PADDING, 0);
+	}
+
+	static int stripe() {
+		return (int) Thread.currentThread().getId() & (STRIPES - 1);
+	}
+
+	private static int stripes() {
+		int n = Runtime.getRuntime().availableProcessors() * 2;
+		int size = Integer.highestOneBit(n);
+		return Math.min(size < n ? size << 1 : size, 64);
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(sum());
+	}
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap.util;
+
+/**
+ * TimerWheel is a hierarchical timing wheel for decoder timeouts. Time does
+ * not flow by itself, it is advanced by the owner, usually with timestamp of
+ * each packet, so offline files expire entries in their own time. In live
+ * capture, owner can also advance it with wall clock while no packet arrives.
+ * 
+ * Timers are linked into slots of 4 levels of 64 slots. Schedule, reschedule
+ * and cancel are O(1), and a timer is moved to lower level at most once per
+ * level until it expires. Timeout longer than the wheel span is cascaded
+ * again at the top level. Not thread safe, a wheel belongs to a decoder
+ * chain.
+ * 
+ * @author xeraph
+ */
+public class TimerWheel {
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+	private static final int DEFAULT_TICK = 100;
+
+	private final long tick;
+
+	/* sentinel of each slot list */
+	private final Timer[][] wheels;
+
+	/* the number of timers in each level */
+	private final int[] counts;
+
+	/* timers of the slot being expired */
+	private final Timer expiring;
+
+	/* next tick to process */
+	private long current;
+
+	/* latest time advanced, in milliseconds */
+	private long time;
+
+	private int size;
+
+	public TimerWheel() {
+		this(DEFAULT_TICK);
+	}
+
+	/**
+	 * @param tick
+	 *            the resolution in milliseconds
+	 */
+	public TimerWheel(int tick) {
+		if (tick <= 0)
+			throw new IllegalArgumentException("tick should be positive");
+
+		this.tick = tick;
+		this.wheels = new Timer[LEVELS][SLOTS];
+		this.counts = new int[LEVELS];
+		this.expiring = newSentinel();
+		for (Timer[] wheel : wheels)
+			for (int i = 0; i < SLOTS; i++)
+				wheel[i] = newSentinel();
+	}
+
+	private static Timer newSentinel() {
+		Timer sentinel = new Timer() {
+			@Override
+			protected void onExpire() {
+			}
+		};
+		sentinel.prev = sentinel;
+		sentinel.next = sentinel;
+		return sentinel;
+	}
+
+	/**
+	 * Returns the latest time advanced, in milliseconds.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the number of scheduled timers.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Schedules the timer to expire after delay from current time. Scheduled
+	 * timer is moved to the new deadline.
+	 */
+	public void schedule(Timer timer, long delay) {
+		if (timer.wheel != null && timer.wheel != this)
+			throw new IllegalStateException("timer is scheduled on other wheel");
+
+		if (timer.wheel != null)
+			unlink(timer);
+		else
+			size++;
+
+		// round up, so timer never expires before deadline
+		timer.deadline = (time + Math.max(delay, 0) + tick - 1) / tick;
+		timer.wheel = this;
+		link(timer);
+	}
+
+	/**
+	 * Returns milliseconds left until the timer expires, or -1 if the timer is
+	 * not scheduled on this wheel. Owner can move the timer to other wheel
+	 * without extending its deadline.
+	 */
+	public long getDelay(Timer timer) {
+		if (timer.wheel != this)
+			return -1;
+
+		return Math.max(timer.deadline * tick - time, 0);
+	}
+
+	/**
+	 * Cancels the timer. It does nothing if the timer is not scheduled.
+	 */
+	public void cancel(Timer timer) {
+		if (timer.wheel != this)
+			return;
+
+		unlink(timer);
+		timer.wheel = null;
+		size--;
+	}
+
+	/**
+	 * Advances time, and expires timers of which deadline has passed. Time
+	 * never goes back, so earlier time is ignored.
+	 * 
+	 * @param now
+	 *            the current time in milliseconds
+	 */
+	public void advance(long now) {
+		if (now <= time)
+			return;
+
+		time = now;
+		long target = now / tick;
+
+		// nothing to cascade or expire on the way
+		if (size == 0) {
+			current = Math.max(current, target + 1);
+			return;
+		}
+
+		while (current <= target) {
+			// skip ticks until the lowest occupied level cascades
+			int level = 0;
+			while (counts[level] == 0)
+				level++;
+
+			long span = 1L << (SLOT_BITS * level);
+			if ((current & (span - 1)) != 0) {
+				current = Math.min((current | (span - 1)) + 1, target + 1);
+				continue;
+			}
+
+			int index = (int) (current & SLOT_MASK);
+			if (index == 0)
+				cascade(1);
+
+			Timer sentinel = wheels[0][index];
+			if (sentinel.next == sentinel) {
+				current++;
+				continue;
+			}
+
+			// move the slot aside, expired callback can schedule or cancel
+			// other timers
+			expiring.next = sentinel.next;
+			expiring.prev = sentinel.prev;
+			expiring.next.prev = expiring;
+			expiring.prev.next = expiring;
+			sentinel.next = sentinel;
+			sentinel.prev = sentinel;
+			current++;
+
+			while (expiring.next != expiring) {
+				Timer t = expiring.next;
+				unlink(t);
+				t.wheel = null;
+				size--;
+				t.onExpire();
+			}
+
+			if (size == 0) {
+				current = Math.max(current, target + 1);
+				return;
+			}
+		}
+	}
+
+	/* moves timers of the current slot of the level to lower levels */
+	private void cascade(int level) {
+		if (level >= LEVELS)
+			return;
+
+		int index = (int) ((current >> (SLOT_BITS * level)) & SLOT_MASK);
+		if (index == 0)
+			cascade(level + 1);
+
+		Timer sentinel = wheels[level][index];
+		Timer t = sentinel.next;
+		sentinel.next = sentinel;
+		sentinel.prev = sentinel;
+
+		while (t != sentinel) {
+			Timer next = t.next;
+			counts[level]--;
+			link(t);
+			t = next;
+		}
+	}
+
+	private void link(Timer timer) {
+		long deadline = timer.deadline;
+		long delta = deadline - current;
+
+		Timer sentinel;
+		int level = 0;
+		if (delta < 0) {
+			// already passed, expires at the next tick
+			sentinel = wheels[0][(int) (current & SLOT_MASK)];
+		} else {
+			while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1)))
+				level++;
+
+			// longer than the wheel span, cascaded again at the top level
+			if (delta >= 1L << (SLOT_BITS * LEVELS))
+				deadline = current + (1L << (SLOT_BITS * LEVELS)) - 1;
+
+			sentinel = wheels[level][(int) ((deadline >> (SLOT_BITS * level)) & SLOT_MASK)];
+		}
+
+		timer.level = level;
+		timer.prev = sentinel.prev;
+		timer.next = sentinel;
+		sentinel.prev.next = timer;
+		sentinel.prev = timer;
+		counts[level]++;
+	}
+
+	private void unlink(Timer timer) {
+		counts[timer.level]--;
+		timer.prev.next = timer.next;
+		timer.next.prev = timer.prev;
+		timer.prev = null;
+		timer.next = null;
+	}
+
+	/**
+	 * Entry of the wheel. Owner object extends or holds a timer, so scheduling
+	 * does not allocate.
+	 */
+	public static abstract class Timer {
+		private TimerWheel wheel;
+		private Timer prev;
+		private Timer next;
+
+		/* in ticks */
+		private long deadline;
+		private int level;
+
+		public boolean isScheduled() {
+			return wheel != null;
+		}
+
+		/**
+		 * Called by the thread which advances the wheel.
+		 */
+		protected abstract void onExpire();
+	}
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+import static org.krakenapps.pcap.filter.BpfInstruction.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import org.krakenapps.pcap.filter.BpfInstruction;
+import org.krakenapps.pcap.filter.BpfProgram;
+import org.krakenapps.pcap.packet.PacketHeader;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.ChainBuffer;
+
+public class BpfProgramTest {
+	private static final int TCP = 6;
+	private static final int UDP = 17;
+	private static final int SYN = 0x02;
+	private static final int ACK = 0x10;
+
+	/* ethernet frame, tagged if vlan is not negative */
+	private byte[] ether(int vlan, int type, byte[] payload) {
+		ByteBuffer bb = ByteBuffer.allocate(18 + payload.length);
+		bb.put(new byte[] { 0, 1, 2, 3, 4, 5 });
+		bb.put(new byte[] { 0, 6, 7, 8, 9, 10 });
+		if (vlan >= 0) {
+			bb.putShort((short) 0x8100);
+			bb.putShort((short) vlan);
+		}
+		bb.putShort((short) type);
+		bb.put(payload);
+		byte[] b = new byte[bb.position()];
+		System.arraycopy(bb.array(), 0, b, 0, b.length);
+		return b;
+	}
+
+	private byte[] ipv4(int proto, int src, int dst, byte[] payload) {
+		ByteBuffer bb = ByteBuffer.allocate(20 + payload.length);
+		bb.put((byte) 0x45);
+		bb.put((byte) 0);
+		bb.putShort((short) (20 + payload.length));
+		bb.putShort((short) 1);
+		bb.putShort((short) 0x4000);
+		bb.put((byte) 64);
+		bb.put((byte) proto);
+		bb.putShort((short) 0);
+		bb.putInt(src);
+		bb.putInt(dst);
+		bb.put(payload);
+		return bb.array();
+	}
+
+	private byte[] ipv6(int next, byte[] src, byte[] dst, byte[] payload) {
+		ByteBuffer bb = ByteBuffer.allocate(40 + payload.length);
+		bb.putInt(0x60000000);
+		bb.putShort((short) payload.length);
+		bb.put((byte) next);
+		bb.put((byte) 64);
+		bb.put(src);
+		bb.put(dst);
+		bb.put(payload);
+		return bb.array();
+	}
+
+	private byte[] tcp(int srcPort, int dstPort, int flags) {
+		ByteBuffer bb = ByteBuffer.allocate(20);
+		bb.putShort((short) srcPort);
+		bb.putShort((short) dstPort);
+		bb.putInt(1);
+		bb.putInt(0);
+		bb.put((byte) 0x50);
+		bb.put((byte) flags);
+		bb.putShort((short) 8192);
+		bb.putInt(0);
+		return bb.array();
+	}
+
+	private byte[] udp(int srcPort, int dstPort) {
+		ByteBuffer bb = ByteBuffer.allocate(8);
+		bb.putShort((short) srcPort);
+		bb.putShort((short) dstPort);
+		bb.putShort((short) 8);
+		bb.putShort((short) 0);
+		return bb.array();
+	}
+
+	/* 10.0.0.1:1234 -> 192.168.1.2:80 */
+	private byte[] tcpFrame(int flags) {
+		return ether(-1, 0x0800, ipv4(TCP, 0x0a000001, 0xc0a80102, tcp(1234, 80, flags)));
+	}
+
+	/* 10.0.0.1:5353 -> 192.168.1.2:53 */
+	private byte[] udpFrame() {
+		return ether(-1, 0x0800, ipv4(UDP, 0x0a000001, 0xc0a80102, udp(5353, 53)));
+	}
+
+	private byte[] v6(int last) {
+		byte[] b = new byte[16];
+		b[0] = (byte) 0xfe;
+		b[1] = (byte) 0x80;
+		b[15] = (byte) last;
+		return b;
+	}
+
+	private boolean matches(String filter, byte[] frame) {
+		return BpfProgram.compile(filter).run(frame, frame.length, frame.length) != 0;
+	}
+
+	@Test
+	public void hostTest() {
+		byte[] f = tcpFrame(SYN);
+		assertTrue(matches("host 10.0.0.1", f));
+		assertTrue(matches("host 192.168.1.2", f));
+		assertTrue(matches("src host 10.0.0.1", f));
+		assertFalse(matches("dst host 10.0.0.1", f));
+		assertTrue(matches("dst 192.168.1.2", f));
+		assertTrue(matches("src and dst host 10.0.0.1 or host 192.168.1.2", f));
+		assertFalse(matches("src and dst host 10.0.0.1", f));
+		assertTrue(matches("ip host 10.0.0.1", f));
+		assertFalse(matches("host 10.0.0.3", f));
+		assertTrue(matches("host 10.0.0.3 or 10.0.0.1", f));
+	}
+
+	@Test
+	public void netTest() {
+		byte[] f = tcpFrame(SYN);
+		assertTrue(matches("net 10.0.0.0/8", f));
+		assertTrue(matches("dst net 192.168.0.0/16", f));
+		assertFalse(matches("src net 192.168.0.0/16", f));
+		assertTrue(matches("src net 10.0.0.0 mask 255.255.255.0", f));
+		assertFalse(matches("net 10.1.0.0 mask 255.255.0.0", f));
+		assertTrue(matches("net 192.168", f));
+		assertTrue(matches("net 0.0.0.0/0", f));
+	}
+
+	@Test
+	public void portTest() {
+		byte[] t = tcpFrame(SYN);
+		byte[] u = udpFrame();
+		assertTrue(matches("port 80", t));
+		assertTrue(matches("tcp port http", t));
+		assertTrue(matches("tcp dst port 80", t));
+		assertFalse(matches("tcp src port 80", t));
+		assertTrue(matches("src port 1234", t));
+		assertFalse(matches("udp port 80", t));
+		assertTrue(matches("udp dst port domain", u));
+		assertFalse(matches("tcp port 53", u));
+		assertTrue(matches("port 22 or 53", u));
+
+		assertTrue(matches("portrange 1000-2000", t));
+		assertTrue(matches("dst portrange 80-80", t));
+		assertFalse(matches("tcp dst portrange 81-90", t));
+		assertTrue(matches("udp src portrange 5000-6000", u));
+		assertFalse(matches("udp dst portrange 5000-6000", u));
+
+		// port is not found in non-first fragment
+		byte[] frag = tcpFrame(SYN);
+		frag[14 + 6] = 0x00;
+		frag[14 + 7] = 0x10;
+		assertFalse(matches("port 80", frag));
+		assertTrue(matches("host 10.0.0.1", frag));
+	}
+
+	@Test
+	public void ipv6Test() {
+		byte[] f = ether(-1, 0x86dd, ipv6(TCP, v6(1), v6(2), tcp(1234, 443, ACK)));
+		assertTrue(matches("ip6", f));
+		assertFalse(matches("ip", f));
+		assertTrue(matches("ether proto 0x86dd", f));
+		assertTrue(matches("ip6 proto tcp", f));
+		assertTrue(matches("src host fe80::1", f));
+		assertFalse(matches("src host fe80::2", f));
+		assertTrue(matches("net fe80::/64", f));
+		assertTrue(matches("tcp dst port 443", f));
+		assertFalse(matches("ip proto tcp", f));
+		assertTrue(matches("ip6 portrange 400-500", f));
+		assertFalse(matches("host 10.0.0.1", f));
+	}
+
+	@Test
+	public void vlanTest() {
+		byte[] tagged = ether(100, 0x0800, ipv4(TCP, 0x0a000001, 0xc0a80102, tcp(1234, 80, SYN)));
+		byte[] untagged = tcpFrame(SYN);
+
+		assertTrue(matches("vlan", tagged));
+		assertFalse(matches("vlan", untagged));
+		assertTrue(matches("vlan 100", tagged));
+		assertFalse(matches("vlan 200", tagged));
+
+		// primitives after vlan see the inner header
+		assertTrue(matches("vlan 100 and tcp port 80", tagged));
+		assertTrue(matches("vlan and src host 10.0.0.1", tagged));
+		assertFalse(matches("vlan and udp", tagged));
+		assertTrue(matches("vlan and tcp[tcpflags] & tcp-syn != 0", tagged));
+		assertFalse(matches("tcp port 80", tagged));
+	}
+
+	@Test
+	public void relationTest() {
+		byte[] syn = tcpFrame(SYN);
+		byte[] ack = tcpFrame(ACK);
+
+		assertTrue(matches("tcp[tcpflags] & tcp-syn != 0", syn));
+		assertFalse(matches("tcp[tcpflags] & tcp-syn != 0", ack));
+		assertTrue(matches("tcp[tcpflags] & (tcp-syn|tcp-ack) = tcp-syn", syn));
+		assertTrue(matches("tcp[13] = 16", ack));
+		assertTrue(matches("tcp[0:2] = 1234", syn));
+		assertTrue(matches("tcp[2:2] < 1024", syn));
+		assertFalse(matches("udp[0:2] = 1234", syn));
+
+		assertTrue(matches("ip[9] = 6", syn));
+		assertTrue(matches("ip[2:2] = 40", syn));
+		assertTrue(matches("ip[2:2] > 39 and ip[2:2] <= 40", syn));
+		assertTrue(matches("ip[12:4] = 0x0a000001", syn));
+		assertTrue(matches("ip[0] & 0xf = 5", syn));
+		assertTrue(matches("ip[0] >> 4 = 4", syn));
+		assertTrue(matches("ether[12:2] = 0x0800", syn));
+
+		// variable index and variable right hand side
+		assertTrue(matches("tcp[(ip[0] & 0xf) - 5 + 13] = 2", syn));
+		assertTrue(matches("ip[2:2] - 20 = (tcp[12] >> 4) * 4", syn));
+
+		assertTrue(matches("len = 54", syn));
+		assertTrue(matches("len < 100", syn));
+		assertFalse(matches("len >= 100", syn));
+		assertTrue(matches("less 54", syn));
+		assertFalse(matches("greater 55", syn));
+		assertTrue(matches("len * 2 - 8 = 100", syn));
+	}
+
+	@Test
+	public void precedenceTest() {
+		byte[] t = tcpFrame(SYN);
+		byte[] u = udpFrame();
+
+		// not binds to the nearest primitive
+		assertTrue(matches("not tcp and udp", u));
+		assertFalse(matches("not tcp and udp", t));
+		assertTrue(matches("not (tcp and port 53)", u));
+		assertFalse(matches("not not udp", t));
+		assertTrue(matches("! udp && ip", t));
+
+		// and binds tighter than or
+		assertTrue(matches("tcp or udp and port 81", t));
+		assertFalse(matches("(tcp or udp) and port 81", t));
+		assertTrue(matches("udp and port 81 or tcp", t));
+		assertFalse(matches("udp and (port 81 or tcp)", t));
+		assertTrue(matches("udp || tcp && port 80", t));
+
+		// empty filter accepts all
+		assertTrue(matches("", t));
+	}
+
+	@Test
+	public void packetTest() {
+		byte[] f = tcpFrame(SYN);
+		PcapPacket packet = new PcapPacket(new PacketHeader(0, 0, f.length, f.length), new ChainBuffer(f));
+		assertTrue(BpfProgram.compile("tcp dst port 80").matches(packet));
+		assertFalse(BpfProgram.compile("udp").matches(packet));
+
+		// len is the original length, not the captured one
+		packet = new PcapPacket(new PacketHeader(0, 0, f.length, 1500), new ChainBuffer(f));
+		assertTrue(BpfProgram.compile("len = 1500").matches(packet));
+
+		// multiple segments are copied before run
+		ChainBuffer chain = new ChainBuffer();
+		byte[] head = new byte[20];
+		byte[] tail = new byte[f.length - 20];
+		System.arraycopy(f, 0, head, 0, head.length);
+		System.arraycopy(f, 20, tail, 0, tail.length);
+		chain.addLast(head);
+		chain.addLast(tail);
+		packet = new PcapPacket(new PacketHeader(0, 0, f.length, f.length), chain);
+		assertTrue(BpfProgram.compile("src host 10.0.0.1 and tcp port 80").matches(packet));
+		assertEquals(0, chain.position());
+	}
+
+	@Test
+	public void truncatedTest() {
+		// load beyond captured length rejects the packet
+		byte[] f = tcpFrame(SYN);
+		BpfProgram p = BpfProgram.compile("tcp port 80");
+		assertEquals(0, p.run(f, 30, f.length));
+		assertTrue(p.run(f, f.length, f.length) != 0);
+	}
+
+	@Test
+	public void invalidExpressionTest() {
+		String[] filters = new String[] { "foo", "host", "tcp port", "port 70000", "portrange 90-80", "portrange 80",
+				"net 10.0.0.0/33", "host 10.0.0", "host 10.0.0.256", "tcp[0:3] = 1", "tcp[0] =", "tcp[0] 1",
+				"(tcp", "tcp)", "tcp and", "host 10.0.0.1 $", "ether", "icmp port 80", "tcp host 10.0.0.1",
+				"ip host fe80::1", "net fe80::1 mask ffff::" };
+
+		for (String filter : filters) {
+			try {
+				BpfProgram.compile(filter);
+				fail(filter);
+			} catch (IllegalArgumentException e) {
+			}
+		}
+	}
+
+	@Test
+	public void programTest() {
+		// accepts ip packet with snaplen
+		BpfProgram p = new BpfProgram(new BpfInstruction[] { new BpfInstruction(LD | H | ABS, 12),
+				new BpfInstruction(JMP | JEQ | K, 0, 1, 0x0800), new BpfInstruction(RET | K, 96),
+				new BpfInstruction(RET | K, 0) });
+		byte[] f = tcpFrame(SYN);
+		assertEquals(96, p.run(f, f.length, f.length));
+		assertEquals(0, p.run(udpFrame(), 0, 0));
+
+		// scratch memory and index register
+		p = new BpfProgram(new BpfInstruction[] { new BpfInstruction(LD | W | LEN, 0), new BpfInstruction(ST, 15),
+				new BpfInstruction(LDX | MEM, 15), new BpfInstruction(MISC | TXA, 0), new BpfInstruction(RET | A, 0) });
+		assertEquals(f.length, p.run(f, f.length, f.length));
+	}
+
+	@Test
+	public void invalidProgramTest() {
+		assertInvalid("empty bpf program", new BpfInstruction[0]);
+
+		assertInvalid("bpf jump out of program at 1", new BpfInstruction[] { new BpfInstruction(LD | W | LEN, 0),
+				new BpfInstruction(JMP | JEQ | K, 0, 1, 0), new BpfInstruction(RET | K, 0) });
+
+		assertInvalid("bpf jump out of program at 0", new BpfInstruction[] { new BpfInstruction(JMP | JA, 1),
+				new BpfInstruction(RET | K, 0) });
+
+		assertInvalid("bpf jump out of program at 0", new BpfInstruction[] {
+				new BpfInstruction(JMP | JEQ | K, -1, 0, 0), new BpfInstruction(RET | K, 0) });
+
+		assertInvalid("bpf memory slot out of range at 0", new BpfInstruction[] { new BpfInstruction(ST, 16),
+				new BpfInstruction(RET | K, 0) });
+
+		assertInvalid("bpf memory slot out of range at 0", new BpfInstruction[] { new BpfInstruction(LD | MEM, -1),
+				new BpfInstruction(RET | K, 0) });
+
+		assertInvalid("bpf memory slot out of range at 0", new BpfInstruction[] { new BpfInstruction(LDX | MEM, 16),
+				new BpfInstruction(RET | K, 0) });
+
+		assertInvalid("bpf program should end with return", new BpfInstruction[] { new BpfInstruction(RET | K, 0),
+				new BpfInstruction(LD | W | LEN, 0) });
+	}
+
+	private void assertInvalid(String message, BpfInstruction[] instructions) {
+		try {
+			new BpfProgram(instructions);
+			fail(message);
+		} catch (IllegalArgumentException e) {
+			assertEquals(message, e.getMessage());
+		}
+	}
+}
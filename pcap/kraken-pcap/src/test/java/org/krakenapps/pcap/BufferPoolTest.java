@@ -0,0 +1,128 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.BufferPool;
+import org.krakenapps.pcap.util.ChainBuffer;
+
+public class BufferPoolTest {
+	private Buffer packet(BufferPool pool, int length) {
+		BufferPool.Block block = pool.acquire(length);
+		for (int i = 0; i < length; i++)
+			block.array()[i] = (byte) i;
+		return new ChainBuffer(block, length);
+	}
+
+	@Test
+	public void reuseTest() {
+		BufferPool pool = new BufferPool();
+		BufferPool.Block block = pool.acquire(1000);
+		assertEquals(1024, block.array().length);
+		assertEquals(1, block.refCount());
+
+		assertTrue(block.release());
+		assertEquals(1, pool.getIdleCount());
+
+		// same size class
+		assertSame(block, pool.acquire(600));
+		assertEquals(0, pool.getIdleCount());
+
+		BufferPool.Statistics stats = pool.getStatistics();
+		assertEquals(1, stats.getAllocated());
+		assertEquals(1, stats.getReused());
+		assertEquals(1, stats.getRecycled());
+	}
+
+	@Test
+	public void largeBlockTest() {
+		BufferPool pool = new BufferPool();
+		BufferPool.Block block = pool.acquire(100000);
+		assertEquals(100000, block.array().length);
+		assertTrue(block.release());
+		assertEquals(0, pool.getIdleCount());
+	}
+
+	@Test
+	public void sliceTest() {
+		BufferPool pool = new BufferPool();
+		Buffer frame = packet(pool, 100);
+		frame.skip(54);
+		frame.discardReadBytes();
+
+		// stream buffer keeps the block after frame is released
+		Buffer stream = new ChainBuffer();
+		stream.addLast(frame);
+		frame.release();
+		assertEquals(0, pool.getIdleCount());
+
+		assertEquals(46, stream.readableBytes());
+		assertEquals(54, stream.get());
+
+		stream.release();
+		assertEquals(1, pool.getIdleCount());
+	}
+
+	@Test
+	public void retainTest() {
+		BufferPool pool = new BufferPool();
+		Buffer frame = packet(pool, 100);
+		frame.retain();
+
+		frame.release();
+		assertEquals(0, pool.getIdleCount());
+		frame.release();
+		assertEquals(1, pool.getIdleCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void overReleaseTest() {
+		BufferPool.Block block = new BufferPool().acquire(10);
+		block.release();
+		block.release();
+	}
+
+	@Test
+	public void getBuffersTest() {
+		BufferPool pool = new BufferPool();
+		Buffer frame = packet(pool, 100);
+
+		// pooled array is recycled, so it should not leak out
+		byte[] b = frame.getBuffers().get(0);
+		assertEquals(100, b.length);
+		assertEquals(99, b[99]);
+		assertEquals(1, pool.getIdleCount());
+
+		frame.release();
+		assertEquals(1, pool.getIdleCount());
+	}
+
+	@Test
+	public void flipTest() {
+		BufferPool pool = new BufferPool();
+		Buffer frame = packet(pool, 100);
+		frame.skip(60);
+		frame.flip();
+
+		assertEquals(60, frame.readableBytes());
+		assertEquals(0, pool.getIdleCount());
+		frame.release();
+		assertEquals(1, pool.getIdleCount());
+	}
+}
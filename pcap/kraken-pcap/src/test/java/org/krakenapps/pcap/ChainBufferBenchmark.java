@@ -0,0 +1,118 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import java.util.List;
+import java.util.Random;
+
+import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.ChainBuffer;
+
+/**
+ * Measures positional calls of ChainBuffer on buffers with many segments, like
+ * reassembled http or smtp streams. Indexed calls should stay flat while the
+ * segment count grows, and the linear columns show the cost of walking the
+ * segment list for the same answer. Run with main(), it is not a unit test.
+ * 
+ * @author mindori
+ */
+public class ChainBufferBenchmark {
+	private static final int SEGMENT_SIZE = 1460;
+	private static final int OPS = 200000;
+
+	public static void main(String[] args) {
+		int[] counts = { 100, 1000, 10000 };
+
+		// warm up
+		for (int n : counts)
+			run(n, false);
+
+		System.out.printf("%8s %14s %14s %14s %14s %14s %14s\n", "segments", "position", "position(int)",
+				"readable", "capacity", "linear pos", "parse(ms)");
+		for (int n : counts)
+			run(n, true);
+	}
+
+	private static void run(int segments, boolean print) {
+		Buffer buffer = new ChainBuffer();
+		for (int i = 0; i < segments; i++)
+			buffer.addLast(new byte[SEGMENT_SIZE]);
+
+		int capacity = buffer.getCapacity();
+		Random r = new Random(segments);
+		int[] positions = new int[1024];
+		for (int i = 0; i < positions.length; i++)
+			positions[i] = r.nextInt(capacity);
+
+		long sink = 0;
+
+		long begin = System.nanoTime();
+		for (int i = 0; i < OPS; i++) {
+			buffer.position(positions[i & 1023]);
+			sink += buffer.position();
+		}
+		long positionNanos = System.nanoTime() - begin;
+
+		begin = System.nanoTime();
+		for (int i = 0; i < OPS; i++)
+			buffer.position(positions[i & 1023]);
+		long seekNanos = System.nanoTime() - begin;
+
+		begin = System.nanoTime();
+		for (int i = 0; i < OPS; i++) {
+			buffer.position(positions[i & 1023]);
+			sink += buffer.readableBytes();
+		}
+		long readableNanos = System.nanoTime() - begin;
+
+		begin = System.nanoTime();
+		for (int i = 0; i < OPS; i++)
+			sink += buffer.getCapacity();
+		long capacityNanos = System.nanoTime() - begin;
+
+		// walking segment list like the unindexed implementation
+		List<byte[]> l = buffer.getBuffers();
+		int linearOps = OPS / 100;
+		begin = System.nanoTime();
+		for (int i = 0; i < linearOps; i++) {
+			buffer.position(positions[i & 1023]);
+			sink += linearPosition(l, buffer.getBufIndex(), buffer.getOffset());
+		}
+		long linearNanos = (System.nanoTime() - begin) * 100;
+
+		// typical parser loop, checks readable bytes before each read
+		buffer.position(0);
+		begin = System.nanoTime();
+		while (buffer.readableBytes() >= 4)
+			sink += buffer.getInt();
+		long parseNanos = System.nanoTime() - begin;
+
+		if (print)
+			System.out.printf("%8d %11.1fns %11.1fns %11.1fns %11.1fns %11.1fns %14.1f\n", segments,
+					(double) positionNanos / OPS, (double) seekNanos / OPS, (double) readableNanos / OPS,
+					(double) capacityNanos / OPS, (double) linearNanos / OPS, parseNanos / 1e6);
+
+		if (sink == 42)
+			System.out.println();
+	}
+
+	private static int linearPosition(List<byte[]> buffers, int bufIndex, int bufOffset) {
+		int pos = 0;
+		for (int i = 0; i < bufIndex; i++)
+			pos += buffers.get(i).length;
+		return pos + bufOffset;
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.ChainBuffer;
+
+public class ChainBufferIndexTest {
+	private Buffer initBuffer(int segments, long seed) {
+		Random r = new Random(seed);
+		Buffer buffer = new ChainBuffer();
+		int value = 0;
+		for (int i = 0; i < segments; i++) {
+			// includes empty segments
+			byte[] b = new byte[r.nextInt(8)];
+			for (int j = 0; j < b.length; j++)
+				b[j] = (byte) value++;
+			buffer.addLast(b);
+		}
+		return buffer;
+	}
+
+	private int sum(List<byte[]> buffers, int to) {
+		int sum = 0;
+		for (int i = 0; i < to; i++)
+			sum += buffers.get(i).length;
+		return sum;
+	}
+
+	@Test
+	public void positionTest() {
+		Buffer buffer = initBuffer(10000, 1);
+		int capacity = sum(buffer.getBuffers(), buffer.getBuffers().size());
+		assertEquals(capacity, buffer.getCapacity());
+
+		for (int pos = 0; pos <= capacity; pos += 7) {
+			buffer.position(pos);
+			assertEquals(pos, buffer.position());
+			assertEquals(capacity - pos, buffer.readableBytes());
+			assertEquals(pos, sum(buffer.getBuffers(), buffer.getBufIndex()) + buffer.getOffset());
+			if (pos < capacity)
+				assertEquals((byte) pos, buffer.get());
+		}
+	}
+
+	@Test
+	public void boundaryTest() {
+		Buffer buffer = new ChainBuffer();
+		buffer.addLast(new byte[] { 1, 2 });
+		buffer.addLast(new byte[0]);
+		buffer.addLast(new byte[] { 3, 4, 5 });
+
+		// first segment which ends at the position
+		buffer.position(2);
+		assertEquals(0, buffer.getBufIndex());
+		assertEquals(2, buffer.getOffset());
+		assertEquals(3, buffer.get());
+
+		buffer.position(5);
+		assertEquals(2, buffer.getBufIndex());
+		assertEquals(0, buffer.readableBytes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void positionOverflowTest() {
+		Buffer buffer = initBuffer(100, 2);
+		buffer.position(buffer.getCapacity() + 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyPositionTest() {
+		new ChainBuffer().position(0);
+	}
+
+	@Test
+	public void sequentialReadTest() {
+		Buffer buffer = initBuffer(10000, 3);
+		int capacity = buffer.getCapacity();
+		int pos = 0;
+		byte[] b = new byte[5];
+		while (buffer.readableBytes() >= b.length) {
+			buffer.gets(b);
+			for (int i = 0; i < b.length; i++)
+				assertEquals((byte) (pos + i), b[i]);
+			pos += b.length;
+			assertEquals(pos, buffer.position());
+		}
+		assertEquals(capacity - pos, buffer.readableBytes());
+	}
+
+	@Test
+	public void addFirstTest() {
+		Buffer buffer = initBuffer(100, 4);
+		int capacity = buffer.getCapacity();
+		buffer.position(10);
+
+		buffer.addFirst(new byte[] { 1, 2, 3 });
+		assertEquals(capacity + 3, buffer.getCapacity());
+		buffer.position(0);
+		assertEquals(1, buffer.get());
+		buffer.position(3);
+		assertEquals(0, buffer.get());
+	}
+
+	@Test
+	public void appendAfterReadTest() {
+		Buffer buffer = initBuffer(100, 5);
+		int capacity = buffer.getCapacity();
+		buffer.position(capacity);
+		assertEquals(0, buffer.readableBytes());
+
+		buffer.addLast(new byte[] { 9, 8 });
+		assertEquals(capacity + 2, buffer.getCapacity());
+		assertEquals(2, buffer.readableBytes());
+		assertEquals(9, buffer.get());
+	}
+
+	@Test
+	public void externalAppendTest() {
+		Buffer buffer = initBuffer(100, 6);
+		int capacity = buffer.getCapacity();
+
+		// segment list is exposed, index should follow it
+		buffer.getBuffers().add(new byte[] { 1, 2, 3, 4 });
+		assertEquals(capacity + 4, buffer.getCapacity());
+
+		buffer.getBuffers().remove(buffer.getBuffers().size() - 1);
+		assertEquals(capacity, buffer.getCapacity());
+	}
+
+	@Test
+	public void flipTest() {
+		Buffer buffer = new ChainBuffer();
+		buffer.addLast(new byte[] { 1, 2, 3 });
+		buffer.addLast(new byte[] { 4, 5, 6 });
+		assertEquals(6, buffer.getCapacity());
+
+		buffer.get();
+		buffer.get();
+		buffer.get();
+		buffer.get();
+		buffer.flip();
+
+		assertEquals(4, buffer.getCapacity());
+		assertEquals(4, buffer.readableBytes());
+		buffer.position(4);
+		assertEquals(4, buffer.position());
+	}
+
+	@Test
+	public void copyTest() {
+		Buffer buffer = initBuffer(1000, 7);
+		buffer.position(100);
+
+		Buffer copy = new ChainBuffer(buffer);
+		assertEquals(buffer.getCapacity(), copy.getCapacity());
+		assertEquals(100, copy.position());
+		assertEquals(buffer.readableBytes(), copy.readableBytes());
+	}
+}
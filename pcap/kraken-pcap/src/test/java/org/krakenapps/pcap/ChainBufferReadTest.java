@@ -0,0 +1,94 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.ChainBuffer;
+
+public class ChainBufferReadTest {
+	private static final byte[] DATA = { (byte) 0x81, 0x02, (byte) 0xf3, 0x04, 0x05, (byte) 0x96, 0x07, 0x08,
+			(byte) 0xe9, 0x0a, 0x0b, 0x0c, (byte) 0xfd, 0x0e, 0x0f, 0x10 };
+
+	/* splits data at every possible point, so values are read in segment and across segments */
+	private Buffer split(int at) {
+		Buffer buffer = new ChainBuffer();
+		byte[] head = new byte[at];
+		byte[] tail = new byte[DATA.length - at];
+		System.arraycopy(DATA, 0, head, 0, at);
+		System.arraycopy(DATA, at, tail, 0, tail.length);
+		buffer.addLast(head);
+		buffer.addLast(tail);
+		return buffer;
+	}
+
+	@Test
+	public void bigEndianTest() {
+		ByteBuffer bb = ByteBuffer.wrap(DATA);
+		for (int at = 0; at <= DATA.length; at++) {
+			Buffer buffer = split(at);
+			assertEquals(bb.getShort(0), buffer.getShort());
+			assertEquals(bb.getShort(2) & 0xffff, buffer.getUnsignedShort());
+			assertEquals(bb.getInt(4), buffer.getInt());
+			assertEquals(bb.getLong(8), buffer.getLong());
+			assertEquals(DATA.length, buffer.position());
+		}
+	}
+
+	@Test
+	public void littleEndianTest() {
+		ByteBuffer bb = ByteBuffer.wrap(DATA).order(ByteOrder.LITTLE_ENDIAN);
+		for (int at = 0; at <= DATA.length; at++) {
+			Buffer buffer = split(at);
+			assertEquals(bb.getShort(0), buffer.getShortLE());
+			assertEquals(bb.getShort(2) & 0xffff, buffer.getUnsignedShortLE());
+			assertEquals(bb.getInt(4) & 0xffffffffL, buffer.getUnsignedIntLE());
+			assertEquals(bb.getLong(8), buffer.getLongLE());
+		}
+	}
+
+	@Test
+	public void segmentEndTest() {
+		Buffer buffer = split(4);
+		buffer.getInt();
+
+		// position moves to next segment at the end of segment
+		assertEquals(1, buffer.getBufIndex());
+		assertEquals(0, buffer.getOffset());
+		assertEquals(0x0596, buffer.getShort());
+	}
+
+	@Test
+	public void underflowTest() {
+		Buffer buffer = split(3);
+		buffer.skip(13);
+		try {
+			buffer.getInt();
+			fail();
+		} catch (BufferUnderflowException e) {
+		}
+
+		// failed read does not move position
+		assertEquals(13, buffer.position());
+		assertEquals(0x0e0f, buffer.getShort());
+	}
+}
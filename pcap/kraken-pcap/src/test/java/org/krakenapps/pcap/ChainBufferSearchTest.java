@@ -0,0 +1,145 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.BytePattern;
+import org.krakenapps.pcap.util.ChainBuffer;
+
+public class ChainBufferSearchTest {
+	private static final BytePattern CRLF = new BytePattern(new byte[] { 0x0d, 0x0a });
+	private static final BytePattern END_OF_DATA = new BytePattern(new byte[] { 0x0d, 0x0a, 0x2e, 0x0d, 0x0a });
+
+	private int naive(byte[] data, int from, int to, byte[] pattern) {
+		for (int i = from; i + pattern.length <= to; i++) {
+			int k = 0;
+			while (k < pattern.length && data[i + k] == pattern[k])
+				k++;
+			if (k == pattern.length)
+				return i - from;
+		}
+		return 0;
+	}
+
+	private byte[] random(Random r, int length) {
+		// small alphabet, so partial matches are frequent
+		byte[] alphabet = { 0x0d, 0x0a, 0x2e, 'a' };
+		byte[] b = new byte[length];
+		for (int i = 0; i < length; i++)
+			b[i] = alphabet[r.nextInt(alphabet.length)];
+		return b;
+	}
+
+	@Test
+	public void randomTest() {
+		Random r = new Random(1);
+		byte[][] patterns = { { 0x0d, 0x0a }, { 0x0d, 0x0a, 0x2e, 0x0d, 0x0a }, { 0x2e }, { 0x0d, 0x0d, 0x0a } };
+
+		for (int round = 0; round < 200; round++) {
+			byte[] data = random(r, 200);
+			Buffer buffer = new ChainBuffer();
+			int appended = 0;
+			while (appended < data.length) {
+				int n = Math.min(r.nextInt(7), data.length - appended);
+				byte[] segment = new byte[n];
+				System.arraycopy(data, appended, segment, 0, n);
+				buffer.addLast(segment);
+				appended += n;
+
+				// search, consume some bytes sometimes, and search again on next append
+				for (byte[] p : patterns) {
+					int expected = naive(data, buffer.position(), appended, p);
+					assertEquals(expected, buffer.bytesBefore(p));
+				}
+
+				if (buffer.readableBytes() > 0 && r.nextInt(3) == 0)
+					buffer.skip(r.nextInt(buffer.readableBytes()) + 1);
+			}
+		}
+	}
+
+	@Test
+	public void resumeTest() {
+		Buffer buffer = new ChainBuffer();
+		buffer.addLast("MAIL FROM".getBytes());
+		assertEquals(0, buffer.bytesBefore(CRLF));
+		buffer.addLast(":<a@b>\r".getBytes());
+		assertEquals(0, buffer.bytesBefore(CRLF));
+
+		// delimiter straddles segments
+		buffer.addLast("\nRCPT".getBytes());
+		assertEquals(15, buffer.bytesBefore(CRLF));
+		assertEquals(15, buffer.bytesBefore(CRLF));
+
+		buffer.skip(17);
+		buffer.addLast(" TO:<c@d>\r\n".getBytes());
+		assertEquals(13, buffer.bytesBefore(CRLF));
+	}
+
+	@Test
+	public void rewindTest() {
+		Buffer buffer = new ChainBuffer("abc\r\ndef\r\n".getBytes());
+		buffer.skip(5);
+		assertEquals(3, buffer.bytesBefore(CRLF));
+
+		// position moved before scanned range, scan again
+		buffer.rewind();
+		assertEquals(3, buffer.bytesBefore(CRLF));
+	}
+
+	@Test
+	public void flipTest() {
+		Buffer buffer = new ChainBuffer("abc\r".getBytes());
+		assertEquals(0, buffer.bytesBefore(CRLF));
+		buffer.skip(2);
+		buffer.flip();
+
+		// truncated and appended bytes are not covered by previous scan
+		buffer.addLast("\r\n".getBytes());
+		assertEquals(2, buffer.bytesBefore(CRLF));
+	}
+
+	@Test
+	public void largeBodyTest() {
+		Buffer buffer = new ChainBuffer();
+		byte[] line = "0123456789012345678901234567890123456789012345678901234567890123456789\r\n".getBytes();
+		for (int i = 0; i < 20000; i++) {
+			buffer.addLast(line);
+			assertEquals(0, buffer.bytesBefore(END_OF_DATA));
+		}
+
+		buffer.addLast(".\r\n".getBytes());
+		assertEquals(line.length * 20000 - 2, buffer.bytesBefore(END_OF_DATA));
+	}
+
+	@Test
+	public void sameContentTest() {
+		Buffer buffer = new ChainBuffer("GET / HTTP/1.1\r\n".getBytes());
+		assertEquals(3, buffer.bytesBefore(new byte[] { 0x20 }));
+		assertEquals(14, buffer.bytesBefore(new byte[] { 0x0d, 0x0a }));
+		assertEquals(3, buffer.bytesBefore(new byte[] { 0x20 }));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyPatternTest() {
+		new BytePattern(new byte[0]);
+	}
+}
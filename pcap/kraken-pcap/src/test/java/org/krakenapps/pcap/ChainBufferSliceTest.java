@@ -0,0 +1,165 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.ChainBuffer;
+
+public class ChainBufferSliceTest {
+	private byte[] sequence(int from, int length) {
+		byte[] b = new byte[length];
+		for (int i = 0; i < length; i++)
+			b[i] = (byte) (from + i);
+		return b;
+	}
+
+	private void assertReads(Buffer buffer, int from, int length) {
+		assertEquals(length, buffer.readableBytes());
+		for (int i = 0; i < length; i++)
+			assertEquals((byte) (from + i), buffer.get());
+	}
+
+	@Test
+	public void addLastTest() {
+		byte[] frame = sequence(0, 100);
+		Buffer packet = new ChainBuffer(frame);
+
+		// skip headers like ip decoder
+		packet.skip(54);
+		packet.discardReadBytes();
+
+		Buffer payload = new ChainBuffer();
+		payload.addLast(packet);
+
+		assertEquals(1, payload.getSegmentCount());
+		assertSame(frame, payload.getSegmentArray(0));
+		assertEquals(54, payload.getSegmentOffset(0));
+		assertEquals(46, payload.getSegmentLength(0));
+		assertEquals(46, payload.getCapacity());
+		assertReads(payload, 54, 46);
+	}
+
+	@Test
+	public void addLastLengthTest() {
+		Buffer source = new ChainBuffer();
+		byte[] b1 = sequence(0, 10);
+		byte[] b2 = sequence(10, 10);
+		byte[] b3 = sequence(20, 10);
+		source.addLast(b1);
+		source.addLast(b2);
+		source.addLast(b3);
+		source.skip(5);
+
+		Buffer slice = new ChainBuffer();
+		slice.addLast(source, 20);
+
+		// source position is not moved
+		assertEquals(5, source.position());
+
+		assertEquals(3, slice.getSegmentCount());
+		assertSame(b1, slice.getSegmentArray(0));
+		assertSame(b2, slice.getSegmentArray(1));
+		assertSame(b3, slice.getSegmentArray(2));
+		assertEquals(5, slice.getSegmentLength(0));
+		assertEquals(10, slice.getSegmentLength(1));
+		assertEquals(5, slice.getSegmentLength(2));
+		assertReads(slice, 5, 20);
+	}
+
+	@Test
+	public void addLastUnderflowTest() {
+		Buffer source = new ChainBuffer(sequence(0, 10));
+		Buffer slice = new ChainBuffer();
+		slice.addLast(source, 11);
+		assertEquals(0, slice.getSegmentCount());
+	}
+
+	@Test
+	public void sliceOfSliceTest() {
+		byte[] frame = sequence(0, 50);
+		Buffer packet = new ChainBuffer(frame);
+		packet.skip(10);
+		packet.discardReadBytes();
+
+		Buffer first = new ChainBuffer();
+		first.addLast(packet);
+		first.skip(5);
+
+		Buffer second = new ChainBuffer();
+		second.addLast(first, 10);
+
+		assertSame(frame, second.getSegmentArray(0));
+		assertEquals(15, second.getSegmentOffset(0));
+		assertReads(second, 15, 10);
+	}
+
+	@Test
+	public void flipTest() {
+		byte[] b = sequence(0, 10);
+		Buffer buffer = new ChainBuffer(b);
+		buffer.addLast(sequence(10, 10));
+		buffer.skip(4);
+		buffer.flip();
+
+		assertEquals(1, buffer.getSegmentCount());
+		assertSame(b, buffer.getSegmentArray(0));
+		assertEquals(4, buffer.getCapacity());
+		assertReads(buffer, 0, 4);
+	}
+
+	@Test
+	public void getBuffersTest() {
+		Buffer packet = new ChainBuffer(sequence(0, 20));
+		packet.skip(8);
+		packet.discardReadBytes();
+
+		Buffer payload = new ChainBuffer();
+		payload.addLast(packet);
+		payload.addLast(sequence(20, 4));
+
+		// slices are seen as arrays of their own
+		List<byte[]> l = payload.getBuffers();
+		assertEquals(2, l.size());
+		assertEquals(12, l.get(0).length);
+		assertEquals(8, l.get(0)[0]);
+		assertEquals(4, l.get(1).length);
+		assertEquals(16, payload.getCapacity());
+		assertReads(payload, 8, 16);
+	}
+
+	@Test
+	public void copyTest() {
+		Buffer packet = new ChainBuffer(sequence(0, 30));
+		packet.skip(10);
+		packet.discardReadBytes();
+
+		Buffer payload = new ChainBuffer();
+		payload.addLast(packet);
+		payload.addLast(sequence(30, 10));
+		payload.skip(3);
+
+		Buffer copy = new ChainBuffer(payload);
+		assertEquals(payload.getSegmentCount(), copy.getSegmentCount());
+		assertSame(payload.getSegmentArray(0), copy.getSegmentArray(0));
+		assertEquals(3, copy.position());
+		assertReads(copy, 13, 27);
+	}
+}
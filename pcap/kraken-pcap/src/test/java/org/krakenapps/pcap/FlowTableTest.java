@@ -0,0 +1,148 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.krakenapps.pcap.util.FlowTable;
+
+public class FlowTableTest {
+	@Test
+	public void directionTest() {
+		FlowTable<String> t = new FlowTable<String>(FlowTable.IPV4_KEY_LENGTH);
+		long[] key = new long[FlowTable.IPV4_KEY_LENGTH];
+
+		FlowTable.packIpv4(key, 6, 0x0a000001, 1234, 0x0a000002, 80);
+		assertNull(t.put(key, "a"));
+
+		// reverse direction finds the same flow
+		FlowTable.packIpv4(key, 6, 0x0a000002, 80, 0x0a000001, 1234);
+		assertEquals("a", t.get(key));
+
+		// same address, different port order
+		FlowTable.packIpv4(key, 6, 0x0a000001, 80, 0x0a000001, 1234);
+		t.put(key, "b");
+		FlowTable.packIpv4(key, 6, 0x0a000001, 1234, 0x0a000001, 80);
+		assertEquals("b", t.get(key));
+
+		// protocol is part of the key
+		FlowTable.packIpv4(key, 17, 0x0a000001, 1234, 0x0a000002, 80);
+		assertNull(t.get(key));
+		assertEquals(2, t.size());
+	}
+
+	@Test
+	public void highPortTest() {
+		FlowTable<String> t = new FlowTable<String>(FlowTable.IPV4_KEY_LENGTH);
+		long[] key = new long[FlowTable.IPV4_KEY_LENGTH];
+
+		// ports above 32767 on either side
+		FlowTable.packIpv4(key, 6, 0x0a000001, 40001, 0x0a000002, 50000);
+		t.put(key, "a");
+		FlowTable.packIpv4(key, 6, 0x0a000001, 40002, 0x0a000002, 50000);
+		assertNull(t.get(key));
+		t.put(key, "b");
+		FlowTable.packIpv4(key, 6, 0x0a000001, 1234, 0x0a000002, 65535);
+		t.put(key, "c");
+		FlowTable.packIpv4(key, 6, 0x0a000001, 65535, 0x0a000002, 1234);
+		t.put(key, "d");
+		assertEquals(4, t.size());
+
+		FlowTable.packIpv4(key, 6, 0x0a000002, 50000, 0x0a000001, 40001);
+		assertEquals("a", t.get(key));
+		FlowTable.packIpv4(key, 6, 0x0a000002, 50000, 0x0a000001, 40002);
+		assertEquals("b", t.get(key));
+		FlowTable.packIpv4(key, 6, 0x0a000002, 65535, 0x0a000001, 1234);
+		assertEquals("c", t.get(key));
+		FlowTable.packIpv4(key, 6, 0x0a000002, 1234, 0x0a000001, 65535);
+		assertEquals("d", t.get(key));
+
+		byte[] a6 = new byte[16];
+		byte[] b6 = new byte[16];
+		a6[15] = 1;
+		b6[15] = 2;
+		FlowTable<String> t6 = new FlowTable<String>(FlowTable.IPV6_KEY_LENGTH);
+		long[] key6 = new long[FlowTable.IPV6_KEY_LENGTH];
+		FlowTable.packIpv6(key6, 6, a6, 40001, b6, 50000);
+		t6.put(key6, "a");
+		FlowTable.packIpv6(key6, 6, a6, 40002, b6, 50000);
+		assertNull(t6.get(key6));
+		t6.put(key6, "b");
+		FlowTable.packIpv6(key6, 6, b6, 50000, a6, 40001);
+		assertEquals("a", t6.get(key6));
+		assertEquals(2, t6.size());
+	}
+
+	@Test
+	public void ipv6Test() {
+		byte[] a = new byte[16];
+		byte[] b = new byte[16];
+		a[0] = (byte) 0xfe;
+		a[15] = 1;
+		b[0] = (byte) 0xfe;
+		b[15] = 2;
+
+		FlowTable<String> t = new FlowTable<String>(FlowTable.IPV6_KEY_LENGTH, 16, true);
+		long[] key = new long[FlowTable.IPV6_KEY_LENGTH];
+		FlowTable.packIpv6(key, 6, b, 80, a, 1234);
+		t.put(key, "a");
+
+		FlowTable.packIpv6(key, 6, a, 1234, b, 80);
+		assertEquals("a", t.get(key));
+		assertEquals("a", t.remove(key));
+		assertTrue(t.isEmpty());
+	}
+
+	@Test
+	public void randomTest() {
+		randomTest(false);
+		randomTest(true);
+	}
+
+	private void randomTest(boolean direct) {
+		// small capacity, so the table grows and probes collide
+		FlowTable<Integer> t = new FlowTable<Integer>(FlowTable.IPV4_KEY_LENGTH, 8, direct);
+		Map<Long, Integer> expected = new HashMap<Long, Integer>();
+		long[] key = new long[FlowTable.IPV4_KEY_LENGTH];
+		Random r = new Random(1);
+
+		for (int i = 0; i < 100000; i++) {
+			int addr = r.nextInt(64);
+			int port = r.nextInt(64);
+			FlowTable.packIpv4(key, 6, addr, port, 0x0a000001, 80);
+			long k = ((long) addr << 16) | port;
+
+			switch (r.nextInt(3)) {
+			case 0:
+				assertEquals(expected.put(k, i), t.put(key, i));
+				break;
+			case 1:
+				assertEquals(expected.remove(k), t.remove(key));
+				break;
+			default:
+				assertEquals(expected.get(k), t.get(key));
+			}
+			assertEquals(expected.size(), t.size());
+		}
+
+		assertEquals(expected.size(), t.values().size());
+	}
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import org.krakenapps.pcap.decoder.ethernet.EthernetFrame;
+import org.krakenapps.pcap.decoder.ethernet.MacAddress;
+import org.krakenapps.pcap.decoder.ip.IpReassembler;
+import org.krakenapps.pcap.decoder.ip.IpReassembler.OverlapPolicy;
+import org.krakenapps.pcap.decoder.ip.Ipv4Packet;
+import org.krakenapps.pcap.decoder.ipv6.Ipv6Packet;
+import org.krakenapps.pcap.packet.PacketHeader;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.ChainBuffer;
+import org.krakenapps.pcap.util.TimerWheel;
+
+public class IpReassemblerTest {
+	private byte[] payload(int length) {
+		byte[] b = new byte[length];
+		for (int i = 0; i < length; i++)
+			b[i] = (byte) i;
+		return b;
+	}
+
+	private Ipv4Packet fragment(int src, int id, byte[] payload, int offset, int length, boolean more) {
+		return fragment(src, id, payload, offset, length, more, 0);
+	}
+
+	private Ipv4Packet fragment(int src, int id, byte[] payload, int offset, int length, boolean more, int time) {
+		ByteBuffer bb = ByteBuffer.allocate(20 + length);
+		bb.put((byte) 0x45);
+		bb.put((byte) 0);
+		bb.putShort((short) (20 + length));
+		bb.putShort((short) id);
+		bb.putShort((short) ((more ? 0x2000 : 0) | (offset / 8)));
+		bb.put((byte) 64);
+		bb.put((byte) 17);
+		bb.putShort((short) 0);
+		bb.putInt(src);
+		bb.putInt(0x0a000001);
+		bb.put(payload, offset, length);
+
+		Ipv4Packet p = Ipv4Packet.parse(new ChainBuffer(bb.array()));
+		EthernetFrame frame = new EthernetFrame(new MacAddress(new byte[6]), new MacAddress(new byte[6]), 0x0800,
+				p.getData());
+		frame.setPcapPacket(new PcapPacket(new PacketHeader(time, 0, 20 + length, 20 + length), p.getData()));
+		p.setL2Frame(frame);
+		return p;
+	}
+
+	private void assertPayload(byte[] expected, Buffer data) {
+		assertEquals(expected.length, data.readableBytes());
+		byte[] b = new byte[expected.length];
+		data.gets(b);
+		assertArrayEquals(expected, b);
+	}
+
+	@Test
+	public void outOfOrderTest() {
+		IpReassembler r = new IpReassembler();
+		byte[] payload = payload(100);
+
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 80, 20, false)));
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 0, 40, true)));
+		assertEquals(60, r.getBytes());
+
+		Ipv4Packet p = r.tryReassemble(fragment(1, 7, payload, 40, 40, true));
+		assertNotNull(p);
+		assertEquals(120, p.getTotalLength());
+		assertPayload(payload, p.getData());
+
+		assertEquals(0, r.getBytes());
+		assertEquals(0, r.getDatagramCount());
+		assertEquals(1, r.getStatistics().getReassembled());
+	}
+
+	@Test
+	public void keyTest() {
+		IpReassembler r = new IpReassembler();
+		byte[] payload = payload(32);
+
+		// same id from different sources
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 0, 16, true)));
+		assertNull(r.tryReassemble(fragment(2, 7, payload, 16, 16, false)));
+		assertEquals(2, r.getDatagramCount());
+
+		assertNotNull(r.tryReassemble(fragment(1, 7, payload, 16, 16, false)));
+		assertNotNull(r.tryReassemble(fragment(2, 7, payload, 0, 16, true)));
+		assertEquals(0, r.getDatagramCount());
+	}
+
+	@Test
+	public void overlapFirstTest() {
+		byte[] a = new byte[24];
+		byte[] b = new byte[24];
+		for (int i = 0; i < 24; i++) {
+			a[i] = 'a';
+			b[i] = 'b';
+		}
+
+		IpReassembler r = new IpReassembler();
+		assertNull(r.tryReassemble(fragment(1, 7, a, 0, 16, true)));
+		Ipv4Packet p = r.tryReassemble(fragment(1, 7, b, 8, 16, false));
+
+		byte[] expected = "aaaaaaaaaaaaaaaabbbbbbbb".getBytes();
+		assertPayload(expected, p.getData());
+		assertEquals(1, r.getStatistics().getOverlaps());
+	}
+
+	@Test
+	public void overlapLastTest() {
+		byte[] a = new byte[24];
+		byte[] b = new byte[24];
+		for (int i = 0; i < 24; i++) {
+			a[i] = 'a';
+			b[i] = 'b';
+		}
+
+		IpReassembler r = new IpReassembler();
+		r.setOverlapPolicy(OverlapPolicy.Last);
+		assertNull(r.tryReassemble(fragment(1, 7, a, 0, 16, true)));
+		Ipv4Packet p = r.tryReassemble(fragment(1, 7, b, 8, 16, false));
+
+		byte[] expected = "aaaaaaaabbbbbbbbbbbbbbbb".getBytes();
+		assertPayload(expected, p.getData());
+	}
+
+	@Test
+	public void overlapDropTest() {
+		byte[] payload = payload(24);
+
+		IpReassembler r = new IpReassembler();
+		r.setOverlapPolicy(OverlapPolicy.Drop);
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 0, 16, true)));
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 8, 16, false)));
+
+		assertEquals(0, r.getDatagramCount());
+		assertEquals(0, r.getBytes());
+		assertEquals(1, r.getStatistics().getOverlaps());
+	}
+
+	@Test
+	public void invalidTest() {
+		byte[] payload = payload(64);
+
+		IpReassembler r = new IpReassembler();
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 16, 16, false)));
+
+		// beyond the last fragment
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 32, 16, true)));
+		assertEquals(0, r.getDatagramCount());
+		assertEquals(1, r.getStatistics().getInvalid());
+	}
+
+	@Test
+	public void budgetTest() {
+		byte[] payload = payload(64);
+
+		IpReassembler r = new IpReassembler();
+		r.setMaxBytes(64);
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 0, 48, true)));
+
+		// evicts the oldest datagram
+		assertNull(r.tryReassemble(fragment(2, 8, payload, 0, 32, true)));
+		assertEquals(1, r.getDatagramCount());
+		assertEquals(32, r.getBytes());
+		assertEquals(1, r.getStatistics().getBudgetDrops());
+
+		// single datagram cannot exceed the budget
+		assertNull(r.tryReassemble(fragment(2, 8, payload, 32, 32, true)));
+		assertNull(r.tryReassemble(fragment(2, 8, new byte[72], 64, 8, false)));
+		assertEquals(0, r.getDatagramCount());
+		assertEquals(0, r.getBytes());
+	}
+
+	@Test
+	public void sourceLimitTest() {
+		byte[] payload = payload(64);
+
+		IpReassembler r = new IpReassembler();
+		r.setMaxSourceBytes(48);
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 0, 32, true)));
+		assertNull(r.tryReassemble(fragment(1, 8, payload, 0, 32, true)));
+		assertNull(r.tryReassemble(fragment(2, 9, payload, 0, 32, true)));
+
+		assertEquals(2, r.getDatagramCount());
+		assertEquals(1, r.getStatistics().getSourceDrops());
+	}
+
+	@Test
+	public void timeoutTest() {
+		byte[] payload = payload(32);
+
+		IpReassembler r = new IpReassembler();
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 0, 16, true, 100)));
+		assertNull(r.tryReassemble(fragment(2, 8, payload, 0, 16, true, 120)));
+
+		// packet time, not wall clock
+		assertNull(r.tryReassemble(fragment(3, 9, payload, 0, 16, true, 131)));
+		assertEquals(2, r.getDatagramCount());
+		assertEquals(1, r.getStatistics().getTimeouts());
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 16, 16, false, 131)));
+	}
+
+	@Test
+	public void sharedWheelTest() {
+		byte[] payload = payload(32);
+
+		IpReassembler r = new IpReassembler();
+		TimerWheel timers = new TimerWheel();
+		r.setTimerWheel(timers);
+		timers.advance(100000);
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 0, 16, true, 100)));
+
+		// owner of the wheel advances time, not the fragment
+		timers.advance(110000);
+		assertNull(r.tryReassemble(fragment(2, 8, payload, 0, 16, true, 200)));
+		assertEquals(2, r.getDatagramCount());
+		timers.advance(130000);
+		assertEquals(1, r.getDatagramCount());
+		assertEquals(16, r.getBytes());
+		assertEquals(1, r.getStatistics().getTimeouts());
+	}
+
+	@Test
+	public void moveWheelTest() {
+		byte[] payload = payload(32);
+
+		IpReassembler r = new IpReassembler();
+		assertNull(r.tryReassemble(fragment(1, 7, payload, 0, 16, true, 100)));
+		assertNull(r.tryReassemble(fragment(2, 8, payload, 0, 16, true, 120)));
+
+		// remaining time is kept, not restarted on the new wheel
+		TimerWheel timers = new TimerWheel();
+		timers.advance(500000);
+		r.setTimerWheel(timers);
+		timers.advance(509999);
+		assertEquals(2, r.getDatagramCount());
+		timers.advance(510000);
+		assertEquals(1, r.getDatagramCount());
+		timers.advance(530000);
+		assertEquals(0, r.getDatagramCount());
+	}
+
+	@Test
+	public void ipv6Test() throws Exception {
+		byte[] payload = payload(40);
+		IpReassembler r = new IpReassembler();
+
+		assertNull(r.tryReassemble(ipv6(payload, 24, 16), 17, 0x12345678, 24, 16, false));
+		Ipv6Packet p = r.tryReassemble(ipv6(payload, 0, 24), 17, 0x12345678, 0, 24, true);
+		assertNotNull(p);
+		assertEquals(17, p.getNextHeader());
+		assertEquals(40, p.getPayloadLength());
+		assertPayload(payload, p.getData());
+	}
+
+	private Ipv6Packet ipv6(byte[] payload, int offset, int length) throws Exception {
+		Ipv6Packet p = new Ipv6Packet();
+		p.setSource(InetAddress.getByName("fe80::1"));
+		p.setDestination(InetAddress.getByName("fe80::2"));
+		p.setPayloadLength(length + 8);
+		p.setNextHeader((byte) 44);
+
+		byte[] b = new byte[length];
+		System.arraycopy(payload, offset, b, 0, length);
+		p.setData(new ChainBuffer(b));
+		return p;
+	}
+}
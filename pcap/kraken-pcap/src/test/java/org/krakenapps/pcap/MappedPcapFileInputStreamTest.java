@@ -0,0 +1,87 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import org.krakenapps.pcap.file.MappedPcapFileInputStream;
+import org.krakenapps.pcap.packet.PcapPacket;
+
+public class MappedPcapFileInputStreamTest {
+	private File write(int... inclLens) throws IOException {
+		ByteBuffer bb = ByteBuffer.allocate(24 + inclLens.length * (16 + 4));
+		bb.putInt(0xA1B2C3D4);
+		bb.putShort((short) 2);
+		bb.putShort((short) 4);
+		bb.putInt(0);
+		bb.putInt(0);
+		bb.putInt(65535);
+		bb.putInt(1);
+
+		for (int inclLen : inclLens) {
+			bb.putInt(1);
+			bb.putInt(0);
+			bb.putInt(inclLen);
+			bb.putInt(4);
+			bb.putInt(0x01020304);
+		}
+
+		File f = File.createTempFile("kraken-pcap", ".pcap");
+		f.deleteOnExit();
+		FileOutputStream os = new FileOutputStream(f);
+		try {
+			os.write(bb.array(), 0, bb.position());
+		} finally {
+			os.close();
+		}
+		return f;
+	}
+
+	@Test
+	public void readTest() throws IOException {
+		MappedPcapFileInputStream is = new MappedPcapFileInputStream(write(4, 4));
+		try {
+			PcapPacket p = is.poll(0);
+			assertNotNull(p);
+			assertEquals(4, p.getPacketHeader().getInclLen());
+			assertNotNull(is.poll(0));
+			assertNull(is.poll(0));
+			assertTrue(is.isEndOfStream());
+		} finally {
+			is.close();
+		}
+	}
+
+	@Test
+	public void negativeLengthTest() throws IOException {
+		MappedPcapFileInputStream is = new MappedPcapFileInputStream(write(4, -1));
+		try {
+			assertNotNull(is.poll(0));
+			is.poll(0);
+			fail();
+		} catch (IOException e) {
+			assertEquals("invalid record length: -1", e.getMessage());
+		} finally {
+			is.close();
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.krakenapps.pcap.packet.PacketHeader;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.ChainBuffer;
+import org.krakenapps.pcap.util.PcapDumpReplay;
+import org.krakenapps.pcap.util.PcapDumpReplay.Pacing;
+
+public class PcapDumpReplayTest {
+	private static class ListInputStream implements PcapInputStream {
+		private List<PcapPacket> packets;
+		private int next;
+
+		public ListInputStream(List<PcapPacket> packets) {
+			this.packets = packets;
+		}
+
+		@Override
+		public PcapPacket getPacket() throws IOException {
+			PcapPacket packet = poll(0);
+			if (packet == null)
+				throw new EOFException();
+			return packet;
+		}
+
+		@Override
+		public PcapPacket poll(int timeout) {
+			if (next == packets.size())
+				return null;
+			return packets.get(next++);
+		}
+
+		@Override
+		public boolean isEndOfStream() {
+			return next == packets.size();
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static class Sink implements PcapOutputStream {
+		private List<Long> times = new ArrayList<Long>();
+		private long bytes;
+		private int flushes;
+
+		@Override
+		public void write(PcapPacket packet) {
+			times.add(System.nanoTime());
+			bytes += packet.getPacketData().readableBytes();
+		}
+
+		@Override
+		public void flush() {
+			flushes++;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/* packets of 100 bytes, gap in microseconds */
+	private List<PcapPacket> packets(int count, int gap) {
+		List<PcapPacket> l = new ArrayList<PcapPacket>();
+		for (int i = 0; i < count; i++) {
+			long ts = 1000000000L + (long) i * gap;
+			PacketHeader header = new PacketHeader((int) (ts / 1000000), (int) (ts % 1000000), 100, 100);
+			l.add(new PcapPacket(header, new ChainBuffer(new byte[100])));
+		}
+		return l;
+	}
+
+	/* no packet is written before its due time */
+	private void assertPaced(Sink sink, long begin, long gap) {
+		for (int i = 0; i < sink.times.size(); i++)
+			assertTrue(sink.times.get(i) - begin >= i * gap);
+	}
+
+	@Test
+	public void topSpeedTest() throws IOException {
+		Sink sink = new Sink();
+		PcapDumpReplay replay = new PcapDumpReplay(new ListInputStream(packets(100, 1000000)), sink);
+		replay.setTopSpeed();
+		replay.setBatchSize(16);
+
+		PcapDumpReplay.Statistics stats = replay.run();
+		assertEquals(Pacing.TopSpeed, stats.getPacing());
+		assertEquals(100, stats.getPackets());
+		assertEquals(10000, stats.getBytes());
+		assertEquals(7, stats.getBatches());
+		assertEquals(0, stats.getFailures());
+		assertEquals(0, stats.getRequestedPacketRate(), 0);
+		assertEquals(0, stats.getRequestedBitRate(), 0);
+
+		assertEquals(100, sink.times.size());
+		assertEquals(10000, sink.bytes);
+		assertEquals(1, sink.flushes);
+	}
+
+	@Test
+	public void originalPacingTest() throws IOException {
+		Sink sink = new Sink();
+		PcapDumpReplay replay = new PcapDumpReplay(new ListInputStream(packets(6, 20000)), sink);
+		replay.setSpeed(2);
+
+		long begin = System.nanoTime();
+		PcapDumpReplay.Statistics stats = replay.run();
+		assertPaced(sink, begin, TimeUnit.MILLISECONDS.toNanos(10));
+		assertTrue(stats.getElapsed() >= 50);
+
+		// requested rate is derived from schedule, 10ms gap at double speed
+		assertEquals(100, stats.getRequestedPacketRate(), 0.001);
+		assertEquals(80000, stats.getRequestedBitRate(), 0.001);
+		assertTrue(stats.getPacketRate() > 0);
+		assertTrue(stats.getPacketRate() < 200);
+	}
+
+	@Test
+	public void packetRateTest() throws IOException {
+		Sink sink = new Sink();
+		PcapDumpReplay replay = new PcapDumpReplay(new ListInputStream(packets(6, 1)), sink);
+		replay.setPacketRate(100);
+
+		long begin = System.nanoTime();
+		PcapDumpReplay.Statistics stats = replay.run();
+		assertPaced(sink, begin, TimeUnit.MILLISECONDS.toNanos(10));
+
+		// packets wait their due time, and only late ones share a batch
+		assertTrue(stats.getBatches() >= 2);
+		assertTrue(stats.getBatches() <= 6);
+		assertEquals(100, stats.getRequestedPacketRate(), 0);
+		assertTrue(stats.getPacketRate() > 0);
+		assertTrue(stats.getPacketRate() < 200);
+		assertTrue(stats.getMaxLag() >= 0);
+	}
+
+	@Test
+	public void bitRateTest() throws IOException {
+		Sink sink = new Sink();
+		PcapDumpReplay replay = new PcapDumpReplay(new ListInputStream(packets(6, 1)), sink);
+
+		// 100 bytes per 10ms
+		replay.setBitRate(80000);
+
+		long begin = System.nanoTime();
+		PcapDumpReplay.Statistics stats = replay.run();
+		assertPaced(sink, begin, TimeUnit.MILLISECONDS.toNanos(10));
+		assertEquals(80000, stats.getRequestedBitRate(), 0);
+		assertTrue(stats.getBitRate() > 0);
+		assertTrue(stats.getBitRate() < 160000);
+	}
+
+	@Test
+	public void invalidTest() {
+		PcapDumpReplay replay = new PcapDumpReplay(new ListInputStream(packets(1, 1)), new Sink());
+		try {
+			replay.setPacketRate(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+
+		try {
+			replay.setBatchSize(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import org.krakenapps.pcap.file.PcapIndex;
+
+public class PcapIndexTest {
+	/* pcap file of 4 byte packets, one per second */
+	private File write(int count) throws IOException {
+		ByteBuffer bb = ByteBuffer.allocate(24 + count * (16 + 4));
+		bb.putInt(0xA1B2C3D4);
+		bb.putShort((short) 2);
+		bb.putShort((short) 4);
+		bb.putInt(0);
+		bb.putInt(0);
+		bb.putInt(65535);
+		bb.putInt(1);
+
+		for (int i = 0; i < count; i++) {
+			bb.putInt(i + 1);
+			bb.putInt(0);
+			bb.putInt(4);
+			bb.putInt(4);
+			bb.putInt(0x01020304);
+		}
+
+		File f = File.createTempFile("kraken-pcap", ".pcap");
+		f.deleteOnExit();
+		PcapIndex.getIndexFile(f).deleteOnExit();
+		FileOutputStream os = new FileOutputStream(f);
+		try {
+			os.write(bb.array(), 0, bb.position());
+		} finally {
+			os.close();
+		}
+		return f;
+	}
+
+	@Test
+	public void openTest() throws IOException {
+		File pcap = write(10);
+		File indexFile = PcapIndex.getIndexFile(pcap);
+
+		PcapIndex index = PcapIndex.open(pcap);
+		assertTrue(indexFile.exists());
+		assertFalse(new File(indexFile.getPath() + ".tmp").exists());
+		assertTrue(index.isBuiltFor(pcap));
+		assertEquals(pcap.lastModified(), index.getLastModified());
+
+		PcapIndex loaded = PcapIndex.load(indexFile);
+		assertEquals(index.getFileLength(), loaded.getFileLength());
+		assertEquals(index.getLastModified(), loaded.getLastModified());
+		assertEquals(index.getSegmentCount(), loaded.getSegmentCount());
+		assertEquals(10, loaded.getSegmentPackets(0));
+		assertEquals(1000000, loaded.getSegmentMinTime(0));
+		assertEquals(10000000, loaded.getSegmentMaxTime(0));
+	}
+
+	@Test
+	public void brokenTest() throws IOException {
+		File pcap = write(10);
+		File indexFile = PcapIndex.getIndexFile(pcap);
+		PcapIndex.open(pcap);
+		long length = indexFile.length();
+
+		// truncated sidecar is rebuilt and replaced
+		RandomAccessFile raf = new RandomAccessFile(indexFile, "rw");
+		try {
+			raf.setLength(10);
+		} finally {
+			raf.close();
+		}
+
+		try {
+			PcapIndex.load(indexFile);
+			fail();
+		} catch (IOException e) {
+		}
+
+		PcapIndex index = PcapIndex.open(pcap);
+		assertEquals(10, index.getSegmentPackets(0));
+		assertEquals(length, indexFile.length());
+	}
+
+	@Test
+	public void staleTest() throws IOException {
+		File pcap = write(10);
+		PcapIndex old = PcapIndex.open(pcap);
+
+		// rewritten capture of same length
+		assertTrue(pcap.setLastModified(pcap.lastModified() - 60000));
+		assertFalse(old.isBuiltFor(pcap));
+
+		PcapIndex index = PcapIndex.open(pcap);
+		assertTrue(index.isBuiltFor(pcap));
+		assertTrue(PcapIndex.load(PcapIndex.getIndexFile(pcap)).isBuiltFor(pcap));
+	}
+
+	@Test
+	public void unsavedTest() throws IOException {
+		File pcap = write(10);
+
+		// sidecar path cannot be read nor replaced
+		File indexFile = PcapIndex.getIndexFile(pcap);
+		assertTrue(indexFile.mkdir());
+		File child = new File(indexFile, "child");
+		assertTrue(child.createNewFile());
+
+		try {
+			PcapIndex index = PcapIndex.open(pcap);
+			assertEquals(10, index.getSegmentPackets(0));
+			assertTrue(indexFile.isDirectory());
+			assertFalse(new File(indexFile.getPath() + ".tmp").exists());
+		} finally {
+			child.delete();
+			indexFile.delete();
+		}
+	}
+}
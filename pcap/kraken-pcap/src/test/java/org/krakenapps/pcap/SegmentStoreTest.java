@@ -0,0 +1,184 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.krakenapps.pcap.decoder.ip.Ipv4Packet;
+import org.krakenapps.pcap.decoder.tcp.SegmentStore;
+import org.krakenapps.pcap.decoder.tcp.TcpPacket;
+import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.ChainBuffer;
+
+public class SegmentStoreTest {
+	private TcpPacket segment(int seq, String payload) {
+		byte[] data = payload.getBytes();
+		ByteBuffer bb = ByteBuffer.allocate(40 + data.length);
+		bb.put((byte) 0x45);
+		bb.put((byte) 0);
+		bb.putShort((short) (40 + data.length));
+		bb.putShort((short) 1);
+		bb.putShort((short) 0x4000);
+		bb.put((byte) 64);
+		bb.put((byte) 6);
+		bb.putShort((short) 0);
+		bb.putInt(0x0a000001);
+		bb.putInt(0x0a000002);
+
+		bb.putShort((short) 1024);
+		bb.putShort((short) 80);
+		bb.putInt(seq);
+		bb.putInt(0);
+		bb.put((byte) 0x50);
+		bb.put((byte) 0x10);
+		bb.putShort((short) 8192);
+		bb.putShort((short) 0);
+		bb.putShort((short) 0);
+		bb.put(data);
+
+		TcpPacket p = TcpPacket.parse(Ipv4Packet.parse(new ChainBuffer(bb.array())));
+		p.setRelativeSeq(seq);
+		return p;
+	}
+
+	private String poll(SegmentStore store, int next) {
+		TcpPacket p = store.poll(next);
+		if (p == null)
+			return null;
+
+		Buffer data = p.getData();
+		if (data == null)
+			return "";
+
+		byte[] b = new byte[data.readableBytes()];
+		data.gets(b);
+		return new String(b);
+	}
+
+	@Test
+	public void orderTest() {
+		SegmentStore store = new SegmentStore();
+		assertTrue(store.insert(segment(9, "ghi"), 1));
+		assertTrue(store.insert(segment(5, "efgh"), 1));
+		assertTrue(store.insert(segment(1, "abcd"), 1));
+		assertEquals(3, store.size());
+		assertEquals(1, store.getFirstSeq());
+
+		assertEquals("abcd", poll(store, 1));
+		assertNull(store.poll(4));
+		assertEquals("efgh", poll(store, 5));
+		assertEquals("ghi", poll(store, 9));
+		assertEquals(0, store.size());
+		assertEquals(0, store.getBytes());
+	}
+
+	@Test
+	public void overlapTest() {
+		SegmentStore store = new SegmentStore();
+
+		// retransmission of delivered bytes
+		assertFalse(store.insert(segment(1, "abcd"), 5));
+
+		assertTrue(store.insert(segment(5, "efgh"), 1));
+		assertFalse(store.insert(segment(5, "EFGH"), 1));
+
+		// trimmed by both neighbors, first bytes win
+		assertTrue(store.insert(segment(13, "mnop"), 1));
+		assertTrue(store.insert(segment(7, "GHIJKLMN"), 1));
+		assertEquals(12, store.getBytes());
+
+		// replaces covered segment
+		assertTrue(store.insert(segment(17, "qr"), 1));
+		assertTrue(store.insert(segment(16, "PQRS"), 1));
+		assertEquals(15, store.getBytes());
+
+		// front is cut by the next byte
+		assertTrue(store.insert(segment(1, "abcdef"), 3));
+		assertEquals("cd", poll(store, 3));
+		assertEquals("efgh", poll(store, 5));
+		assertEquals("IJKL", poll(store, 9));
+		assertEquals("mnop", poll(store, 13));
+		assertEquals("QRS", poll(store, 17));
+		assertEquals(0, store.getBytes());
+
+		// partially delivered segment
+		assertTrue(store.insert(segment(20, "tuvw"), 20));
+		assertEquals("vw", poll(store, 22));
+	}
+
+	@Test
+	public void limitTest() {
+		SegmentStore store = new SegmentStore();
+		store.insert(segment(5, "efgh"), 1);
+		store.insert(segment(13, "mnop"), 1);
+		store.insert(segment(21, "uvwx"), 1);
+
+		store.limit(15);
+		assertEquals(2, store.size());
+		assertEquals(6, store.getBytes());
+		assertEquals("efgh", poll(store, 5));
+		assertEquals("mn", poll(store, 13));
+	}
+
+	@Test
+	public void gapSkipTest() {
+		SegmentStore store = new SegmentStore();
+		store.setMaxBytes(8);
+		store.insert(segment(5, "efgh"), 1);
+		assertEquals(0, store.getSkip(1));
+
+		store.insert(segment(9, "ijklm"), 1);
+		assertNull(store.poll(1));
+		assertEquals(4, store.getSkip(1));
+		assertEquals("efgh", poll(store, 5));
+		assertEquals(0, store.getSkip(9));
+
+		store.clear();
+		assertEquals(0, store.size());
+		assertEquals(0, store.getBytes());
+	}
+
+	@Test
+	public void totalBytesTest() {
+		AtomicLong total = new AtomicLong();
+		SegmentStore client = new SegmentStore();
+		SegmentStore server = new SegmentStore();
+		client.insert(segment(5, "efgh"), 1);
+		client.setTotalBytes(total);
+		server.setTotalBytes(total);
+		assertEquals(4, total.get());
+
+		// insert, replace, trim and poll keep the shared counter
+		server.insert(segment(9, "ijk"), 1);
+		client.insert(segment(13, "mn"), 1);
+		client.insert(segment(12, "LMNO"), 1);
+		assertEquals(11, total.get());
+		client.limit(14);
+		assertEquals(9, total.get());
+		assertEquals("efgh", poll(client, 5));
+		assertEquals(5, total.get());
+
+		server.clear();
+		assertEquals(2, total.get());
+		client.setTotalBytes(null);
+		assertEquals(0, total.get());
+		assertEquals(2, client.getBytes());
+	}
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.krakenapps.pcap.util.SpscRingBuffer;
+import org.krakenapps.pcap.util.SpscRingBuffer.DropCallback;
+import org.krakenapps.pcap.util.SpscRingBuffer.OverflowPolicy;
+
+public class SpscRingBufferTest {
+	private static class DropList implements DropCallback<Integer> {
+		private List<Integer> dropped = new ArrayList<Integer>();
+
+		@Override
+		public void onDrop(Integer e) {
+			dropped.add(e);
+		}
+	}
+
+	private SpscRingBuffer<Integer> fill(OverflowPolicy policy, DropList drops, int count)
+			throws InterruptedException {
+		SpscRingBuffer<Integer> ring = new SpscRingBuffer<Integer>(4, policy);
+		ring.setDropCallback(drops);
+		for (int i = 0; i < count; i++)
+			ring.offer(i);
+		return ring;
+	}
+
+	private List<Integer> drainAll(SpscRingBuffer<Integer> ring) {
+		List<Integer> l = new ArrayList<Integer>();
+		Integer[] batch = new Integer[3];
+		int n;
+		while ((n = ring.drain(batch)) > 0)
+			for (int i = 0; i < n; i++)
+				l.add(batch[i]);
+		return l;
+	}
+
+	@Test
+	public void capacityTest() {
+		assertEquals(4, new SpscRingBuffer<Integer>(3, OverflowPolicy.Block).getCapacity());
+		assertEquals(8, new SpscRingBuffer<Integer>(8, OverflowPolicy.Block).getCapacity());
+		assertEquals(1, new SpscRingBuffer<Integer>(1, OverflowPolicy.Block).getCapacity());
+
+		try {
+			new SpscRingBuffer<Integer>(0, OverflowPolicy.Block);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+
+		try {
+			new SpscRingBuffer<Integer>(4, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+
+		try {
+			new SpscRingBuffer<Integer>(4, OverflowPolicy.Block).offer(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+		} catch (InterruptedException e) {
+			fail();
+		}
+	}
+
+	@Test
+	public void dropNewestTest() throws InterruptedException {
+		DropList drops = new DropList();
+		SpscRingBuffer<Integer> ring = fill(OverflowPolicy.DropNewest, drops, 4);
+		assertEquals(4, ring.size());
+
+		assertFalse(ring.offer(4));
+		assertFalse(ring.offer(5));
+		assertEquals(4, ring.getEnqueued());
+		assertEquals(2, ring.getDropped());
+		assertEquals(4, ring.getHighWatermark());
+		assertEquals(4, ring.size());
+
+		// offered elements are discarded, and ring keeps the first ones
+		assertEquals(toList(4, 5), drops.dropped);
+		assertEquals(toList(0, 1, 2, 3), drainAll(ring));
+		assertTrue(ring.isEmpty());
+
+		assertTrue(ring.offer(6));
+		assertEquals(toList(6), drainAll(ring));
+		assertEquals(5, ring.getEnqueued());
+		assertEquals(4, ring.getHighWatermark());
+	}
+
+	@Test
+	public void dropOldestTest() throws InterruptedException {
+		DropList drops = new DropList();
+		SpscRingBuffer<Integer> ring = fill(OverflowPolicy.DropOldest, drops, 4);
+
+		assertTrue(ring.offer(4));
+		assertTrue(ring.offer(5));
+		assertEquals(6, ring.getEnqueued());
+		assertEquals(2, ring.getDropped());
+		assertEquals(4, ring.getHighWatermark());
+		assertEquals(4, ring.size());
+
+		// oldest elements are discarded to make room
+		assertEquals(toList(0, 1), drops.dropped);
+		assertEquals(toList(2, 3, 4, 5), drainAll(ring));
+		assertTrue(ring.isEmpty());
+
+		// partially drained ring drops from the new head
+		for (int i = 6; i < 12; i++)
+			ring.offer(i);
+		Integer[] batch = new Integer[1];
+		assertEquals(1, ring.drain(batch));
+		assertEquals(8, batch[0].intValue());
+		ring.offer(12);
+		ring.offer(13);
+		assertEquals(toList(0, 1, 6, 7, 9), drops.dropped);
+		assertEquals(toList(10, 11, 12, 13), drainAll(ring));
+		assertEquals(5, ring.getDropped());
+	}
+
+	@Test
+	public void blockTest() throws InterruptedException {
+		final SpscRingBuffer<Integer> ring = fill(OverflowPolicy.Block, new DropList(), 4);
+		assertEquals(4, ring.getHighWatermark());
+
+		// producer waits until consumer makes room
+		final AtomicReference<Boolean> offered = new AtomicReference<Boolean>();
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				try {
+					offered.set(ring.offer(4));
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+		producer.start();
+
+		producer.join(50);
+		assertTrue(producer.isAlive());
+		assertNull(offered.get());
+
+		Integer[] batch = new Integer[2];
+		assertEquals(2, ring.drain(batch, 1, TimeUnit.SECONDS));
+		producer.join(5000);
+		assertFalse(producer.isAlive());
+		assertTrue(offered.get());
+
+		assertEquals(toList(2, 3, 4), drainAll(ring));
+		assertEquals(5, ring.getEnqueued());
+		assertEquals(0, ring.getDropped());
+		assertEquals(4, ring.getHighWatermark());
+	}
+
+	@Test
+	public void blockInterruptTest() throws InterruptedException {
+		final SpscRingBuffer<Integer> ring = fill(OverflowPolicy.Block, new DropList(), 4);
+		final AtomicReference<Boolean> interrupted = new AtomicReference<Boolean>(false);
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				try {
+					ring.offer(4);
+				} catch (InterruptedException e) {
+					interrupted.set(true);
+				}
+			}
+		};
+		producer.start();
+		producer.join(50);
+		producer.interrupt();
+		producer.join(5000);
+
+		assertTrue(interrupted.get());
+		assertEquals(4, ring.getEnqueued());
+		assertEquals(toList(0, 1, 2, 3), drainAll(ring));
+	}
+
+	@Test
+	public void drainTimeoutTest() throws InterruptedException {
+		final SpscRingBuffer<Integer> ring = new SpscRingBuffer<Integer>(4, OverflowPolicy.Block);
+		Integer[] batch = new Integer[4];
+
+		long begin = System.nanoTime();
+		assertEquals(0, ring.drain(batch, 50, TimeUnit.MILLISECONDS));
+		assertTrue(System.nanoTime() - begin >= TimeUnit.MILLISECONDS.toNanos(50));
+
+		// consumer wakes up when element arrives
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(20);
+					ring.offer(1);
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+		producer.start();
+		assertEquals(1, ring.drain(batch, 5, TimeUnit.SECONDS));
+		assertEquals(1, batch[0].intValue());
+		producer.join();
+
+		Thread.currentThread().interrupt();
+		try {
+			ring.drain(batch, 1, TimeUnit.SECONDS);
+			fail();
+		} catch (InterruptedException e) {
+		}
+	}
+
+	@Test
+	public void batchDrainTest() throws InterruptedException {
+		SpscRingBuffer<Integer> ring = new SpscRingBuffer<Integer>(8, OverflowPolicy.DropNewest);
+		Integer[] batch = new Integer[3];
+		assertEquals(0, ring.drain(batch));
+
+		for (int i = 0; i < 7; i++)
+			ring.offer(i);
+		assertEquals(7, ring.getHighWatermark());
+
+		assertEquals(3, ring.drain(batch));
+		assertArrayEquals(new Integer[] { 0, 1, 2 }, batch);
+		assertEquals(4, ring.size());
+
+		assertEquals(3, ring.drain(batch));
+		assertArrayEquals(new Integer[] { 3, 4, 5 }, batch);
+
+		// wraps around the end of slots
+		for (int i = 7; i < 12; i++)
+			ring.offer(i);
+		assertEquals(6, ring.size());
+
+		Integer[] large = new Integer[16];
+		assertEquals(6, ring.drain(large));
+		for (int i = 0; i < 6; i++)
+			assertEquals(6 + i, large[i].intValue());
+		assertNull(large[6]);
+		assertTrue(ring.isEmpty());
+		assertEquals(0, ring.getDropped());
+		assertEquals(12, ring.getEnqueued());
+	}
+
+	@Test
+	public void blockStressTest() throws InterruptedException {
+		final int count = 1000000;
+		final SpscRingBuffer<Integer> ring = new SpscRingBuffer<Integer>(64, OverflowPolicy.Block);
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				try {
+					for (int i = 0; i < count; i++)
+						ring.offer(i);
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+		producer.start();
+
+		// every element is drained once, in offered order
+		Integer[] batch = new Integer[16];
+		int next = 0;
+		while (next < count) {
+			int n = ring.drain(batch, 5, TimeUnit.SECONDS);
+			assertTrue(n > 0);
+			for (int i = 0; i < n; i++)
+				assertEquals(next++, batch[i].intValue());
+		}
+		producer.join();
+
+		assertTrue(ring.isEmpty());
+		assertEquals(count, ring.getEnqueued());
+		assertEquals(0, ring.getDropped());
+		assertTrue(ring.getHighWatermark() <= 64);
+	}
+
+	@Test
+	public void dropOldestStressTest() throws InterruptedException {
+		final int count = 1000000;
+		final SpscRingBuffer<Integer> ring = new SpscRingBuffer<Integer>(16, OverflowPolicy.DropOldest);
+		final boolean[] seen = new boolean[count];
+		final int[] duplicates = new int[1];
+		ring.setDropCallback(new DropCallback<Integer>() {
+			@Override
+			public void onDrop(Integer e) {
+				if (seen[e])
+					duplicates[0]++;
+				seen[e] = true;
+			}
+		});
+
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				try {
+					for (int i = 0; i < count; i++)
+						ring.offer(i);
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+		producer.start();
+
+		// drained elements keep the order, and dropped ones are skipped
+		List<Integer> drained = new ArrayList<Integer>();
+		Integer[] batch = new Integer[4];
+		int last = -1;
+		while (producer.isAlive() || !ring.isEmpty()) {
+			int n = ring.drain(batch);
+			for (int i = 0; i < n; i++) {
+				assertTrue(batch[i] > last);
+				last = batch[i];
+				drained.add(last);
+			}
+		}
+		producer.join();
+		drained.addAll(drainAll(ring));
+
+		// every element is either drained or dropped, exactly once
+		assertEquals(0, duplicates[0]);
+		for (int e : drained) {
+			assertFalse(seen[e]);
+			seen[e] = true;
+		}
+		for (int i = 0; i < count; i++)
+			assertTrue(seen[i]);
+
+		assertEquals(count, ring.getEnqueued());
+		assertEquals(count, drained.size() + ring.getDropped());
+	}
+
+	private static List<Integer> toList(Integer... values) {
+		List<Integer> l = new ArrayList<Integer>();
+		for (Integer v : values)
+			l.add(v);
+		return l;
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.krakenapps.pcap.decoder.ethernet.EthernetFrame;
+import org.krakenapps.pcap.decoder.ethernet.MacAddress;
+import org.krakenapps.pcap.decoder.ip.Ipv4Packet;
+import org.krakenapps.pcap.decoder.tcp.DefaultTcpProcessor;
+import org.krakenapps.pcap.decoder.tcp.TcpDecoder;
+import org.krakenapps.pcap.decoder.tcp.TcpPortProtocolMapper;
+import org.krakenapps.pcap.decoder.tcp.TcpSession;
+import org.krakenapps.pcap.decoder.tcp.TcpSessionKey;
+import org.krakenapps.pcap.decoder.tcp.TcpSessionTable;
+import org.krakenapps.pcap.decoder.tcp.TcpState;
+import org.krakenapps.pcap.packet.PacketHeader;
+import org.krakenapps.pcap.packet.PcapPacket;
+import org.krakenapps.pcap.util.ChainBuffer;
+import org.krakenapps.pcap.util.TimerWheel;
+
+public class TcpSessionTableTest {
+	private static final int CLIENT = 0x0a000001;
+	private static final int SERVER = 0x0a000002;
+	private static final int SYN = 0x02;
+	private static final int ACK = 0x10;
+
+	private List<TcpSessionKey> resets = new ArrayList<TcpSessionKey>();
+
+	private TcpDecoder newDecoder() {
+		TcpPortProtocolMapper mapper = new TcpPortProtocolMapper();
+		mapper.register(Protocol.HTTP, new DefaultTcpProcessor() {
+			@Override
+			public void onReset(TcpSessionKey key) {
+				resets.add(key);
+			}
+		});
+		return new TcpDecoder(mapper);
+	}
+
+	private Ipv4Packet segment(boolean toServer, int port, int seq, int ack, int flags, int time) {
+		ByteBuffer bb = ByteBuffer.allocate(40);
+		bb.put((byte) 0x45);
+		bb.put((byte) 0);
+		bb.putShort((short) 40);
+		bb.putShort((short) 1);
+		bb.putShort((short) 0x4000);
+		bb.put((byte) 64);
+		bb.put((byte) 6);
+		bb.putShort((short) 0);
+		bb.putInt(toServer ? CLIENT : SERVER);
+		bb.putInt(toServer ? SERVER : CLIENT);
+
+		bb.putShort((short) (toServer ? port : 80));
+		bb.putShort((short) (toServer ? 80 : port));
+		bb.putInt(seq);
+		bb.putInt(ack);
+		bb.put((byte) 0x50);
+		bb.put((byte) flags);
+		bb.putShort((short) 8192);
+		bb.putShort((short) 0);
+		bb.putShort((short) 0);
+
+		Ipv4Packet p = Ipv4Packet.parse(new ChainBuffer(bb.array()));
+		EthernetFrame frame = new EthernetFrame(new MacAddress(new byte[6]), new MacAddress(new byte[6]), 0x0800,
+				p.getData());
+		frame.setPcapPacket(new PcapPacket(new PacketHeader(time, 0, 54, 54), p.getData()));
+		p.setL2Frame(frame);
+		return p;
+	}
+
+	private void handshake(TcpDecoder tcp, int port, int time) {
+		tcp.process(segment(true, port, 1000, 0, SYN, time));
+		tcp.process(segment(false, port, 5000, 1001, SYN | ACK, time));
+		tcp.process(segment(true, port, 1001, 5001, ACK, time));
+	}
+
+	@Test
+	public void handshakeTimeoutTest() {
+		TcpDecoder tcp = newDecoder();
+		tcp.process(segment(true, 1001, 1000, 0, SYN, 100));
+		assertEquals(1, tcp.getSessionCount());
+
+		tcp.getTimerWheel().advance(159000);
+		assertEquals(1, tcp.getSessionCount());
+
+		tcp.getTimerWheel().advance(160000);
+		assertEquals(0, tcp.getSessionCount());
+
+		TcpSessionTable.Statistics stats = tcp.getSessionStatistics();
+		assertEquals(1, stats.getHandshakeTimeouts());
+		assertEquals(0, stats.getIdleTimeouts());
+		assertEquals(1, resets.size());
+	}
+
+	@Test
+	public void idleTimeoutTest() {
+		TcpDecoder tcp = newDecoder();
+		handshake(tcp, 1001, 100);
+		assertEquals(1, tcp.getSessionCount());
+
+		// established session lives longer
+		tcp.getTimerWheel().advance(100000 + 29 * 60 * 1000);
+		assertEquals(1, tcp.getSessionCount());
+
+		tcp.getTimerWheel().advance(100000 + 30 * 60 * 1000);
+		assertEquals(0, tcp.getSessionCount());
+		assertEquals(1, tcp.getSessionStatistics().getIdleTimeouts());
+
+		// processor releases its state by reset
+		assertEquals(1, resets.size());
+		assertEquals(1001, resets.get(0).getClientPort());
+	}
+
+	@Test
+	public void moveWheelTest() {
+		TcpDecoder tcp = newDecoder();
+		tcp.process(segment(true, 1001, 1000, 0, SYN, 100));
+		tcp.process(segment(true, 1002, 1000, 0, SYN, 130));
+
+		// remaining time is kept, not restarted on the new wheel
+		TimerWheel timers = new TimerWheel();
+		timers.advance(1000000);
+		tcp.setTimerWheel(timers);
+		timers.advance(1029999);
+		assertEquals(2, tcp.getSessionCount());
+		timers.advance(1030000);
+		assertEquals(1, tcp.getSessionCount());
+		timers.advance(1060000);
+		assertEquals(0, tcp.getSessionCount());
+	}
+
+	@Test
+	public void stateTimeoutTest() {
+		TcpDecoder tcp = newDecoder();
+		tcp.setIdleTimeout(TcpState.ESTABLISHED, 10000);
+		handshake(tcp, 1001, 100);
+
+		tcp.getTimerWheel().advance(110000);
+		assertEquals(0, tcp.getSessionCount());
+		assertEquals(1, tcp.getTimeouts());
+	}
+
+	@Test
+	public void overflowTest() {
+		TcpDecoder tcp = newDecoder();
+		tcp.setMaxSessions(2);
+		handshake(tcp, 1001, 100);
+		handshake(tcp, 1002, 101);
+
+		// recent activity keeps the first session
+		tcp.process(segment(true, 1001, 1001, 5001, ACK, 102));
+		handshake(tcp, 1003, 103);
+
+		assertEquals(2, tcp.getSessionCount());
+		assertEquals(1, tcp.getOverflows());
+		assertEquals(1, resets.size());
+		assertEquals(1002, resets.get(0).getClientPort());
+
+		for (TcpSession session : tcp.getCurrentSessions())
+			assertTrue(session.getKey().getClientPort() != 1002);
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2010 NCHOVY
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krakenapps.pcap;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.krakenapps.pcap.util.TimerWheel;
+
+public class TimerWheelTest {
+	private List<String> expired = new ArrayList<String>();
+
+	private class Entry extends TimerWheel.Timer {
+		private final String name;
+
+		public Entry(String name) {
+			this.name = name;
+		}
+
+		@Override
+		protected void onExpire() {
+			expired.add(name);
+		}
+	}
+
+	@Test
+	public void expireTest() {
+		TimerWheel w = new TimerWheel(100);
+		w.advance(1000);
+
+		Entry a = new Entry("a");
+		w.schedule(a, 250);
+		assertTrue(a.isScheduled());
+
+		// never expires before deadline
+		w.advance(1299);
+		assertTrue(expired.isEmpty());
+
+		w.advance(1300);
+		assertEquals(1, expired.size());
+		assertFalse(a.isScheduled());
+		assertEquals(0, w.size());
+	}
+
+	@Test
+	public void delayTest() {
+		TimerWheel w = new TimerWheel(100);
+		w.advance(1000);
+
+		Entry a = new Entry("a");
+		assertEquals(-1, w.getDelay(a));
+		w.schedule(a, 250);
+		assertEquals(300, w.getDelay(a));
+		assertEquals(-1, new TimerWheel().getDelay(a));
+
+		w.advance(1200);
+		assertEquals(100, w.getDelay(a));
+		w.advance(1300);
+		assertEquals(-1, w.getDelay(a));
+	}
+
+	@Test
+	public void rescheduleTest() {
+		TimerWheel w = new TimerWheel(100);
+		Entry a = new Entry("a");
+		w.schedule(a, 1000);
+		w.advance(900);
+		w.schedule(a, 1000);
+		assertEquals(1, w.size());
+
+		w.advance(1500);
+		assertTrue(expired.isEmpty());
+		w.advance(1900);
+		assertEquals(1, expired.size());
+	}
+
+	@Test
+	public void cancelTest() {
+		TimerWheel w = new TimerWheel(100);
+		Entry a = new Entry("a");
+		Entry b = new Entry("b");
+		w.schedule(a, 500);
+		w.schedule(b, 500);
+		w.cancel(a);
+		w.cancel(a);
+		assertEquals(1, w.size());
+
+		w.advance(500);
+		assertEquals(1, expired.size());
+		assertEquals("b", expired.get(0));
+	}
+
+	@Test
+	public void cancelInCallbackTest() {
+		final TimerWheel w = new TimerWheel(100);
+		final Entry b = new Entry("b");
+		Entry a = new Entry("a") {
+			@Override
+			protected void onExpire() {
+				super.onExpire();
+				w.cancel(b);
+			}
+		};
+
+		// same slot, a comes first
+		w.schedule(a, 100);
+		w.schedule(b, 100);
+		w.advance(100);
+		assertEquals(1, expired.size());
+		assertEquals(0, w.size());
+	}
+
+	@Test
+	public void cascadeTest() {
+		TimerWheel w = new TimerWheel(1);
+		long[] delays = { 63, 64, 4095, 4096, 262143, 262144, 16777215 };
+		for (long delay : delays)
+			w.schedule(new Entry(Long.toString(delay)), delay);
+
+		for (long delay : delays) {
+			w.advance(delay - 1);
+			assertEquals(delays.length - w.size(), expired.size());
+			w.advance(delay);
+			assertEquals(Long.toString(delay), expired.get(expired.size() - 1));
+		}
+		assertEquals(0, w.size());
+	}
+
+	@Test
+	public void longDelayTest() {
+		TimerWheel w = new TimerWheel(1);
+
+		// longer than the wheel span
+		Entry a = new Entry("a");
+		w.schedule(a, 100000000L);
+
+		w.advance(99999999L);
+		assertTrue(expired.isEmpty());
+		w.advance(100000000L);
+		assertEquals(1, expired.size());
+	}
+
+	@Test
+	public void gapTest() {
+		TimerWheel w = new TimerWheel(100);
+		for (int i = 0; i < 100; i++)
+			w.schedule(new Entry(Integer.toString(i)), i * 1000L);
+
+		// a year at once
+		w.advance(365L * 86400 * 1000);
+		assertEquals(100, expired.size());
+		assertEquals("0", expired.get(0));
+		assertEquals("99", expired.get(99));
+
+		// time never goes back
+		Entry a = new Entry("a");
+		w.schedule(a, 1000);
+		w.advance(0);
+		assertTrue(a.isScheduled());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void otherWheelTest() {
+		Entry a = new Entry("a");
+		new TimerWheel().schedule(a, 100);
+		new TimerWheel().schedule(a, 100);
+	}
+}
@@ -36,6 +36,7 @@ import org.krakenapps.pcap.decoder.pop3.impl.Pop3State;
 import org.krakenapps.pcap.decoder.tcp.TcpProcessor;
 import org.krakenapps.pcap.decoder.tcp.TcpSessionKey;
 import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.BytePattern;
 import org.krakenapps.mime.MimeHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +45,8 @@ import org.slf4j.LoggerFactory;
  * @author mindori
  */
 public class Pop3Decoder implements TcpProcessor {
+	private static final BytePattern CRLF = new BytePattern(new byte[] { 0x0d, 0x0a });
+	private static final BytePattern END_OF_DATA = new BytePattern(new byte[] { 0x0d, 0x0a, 0x2e, 0x0d, 0x0a });
 	private Logger logger = LoggerFactory.getLogger(Pop3Decoder.class.getName());
 
 	private Set<Pop3Processor> callbacks;
@@ -107,7 +110,7 @@ public class Pop3Decoder implements TcpProcessor {
 
 	private void parseTx(Pop3Session session, Buffer txBuffer) {
 		try {
-			int len = txBuffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+			int len = txBuffer.bytesBefore(CRLF);
 			if (len == 0) {
 				return;
 			}
@@ -132,7 +135,7 @@ public class Pop3Decoder implements TcpProcessor {
 		switch (session.getState()) {
 		case NONE:
 			try {
-				int len = rxBuffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+				int len = rxBuffer.bytesBefore(CRLF);
 				if (len == 0) {
 					return;
 				}
@@ -154,7 +157,7 @@ public class Pop3Decoder implements TcpProcessor {
 		case FIND_UIDL:
 		case FIND_LIST:
 			try {
-				int len = rxBuffer.bytesBefore(new byte[] { 0x0d, 0x0a, 0x2e, 0x0d, 0x0a });
+				int len = rxBuffer.bytesBefore(END_OF_DATA);
 				if (len == 0) {
 					return;
 				}
@@ -180,7 +183,7 @@ public class Pop3Decoder implements TcpProcessor {
 			if (!session.isSkipRETRMessage()) {
 				/* skip response message */
 				try {
-					int len = rxBuffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+					int len = rxBuffer.bytesBefore(CRLF);
 					if (len == 0) {
 						return;
 					}
@@ -199,7 +202,7 @@ public class Pop3Decoder implements TcpProcessor {
 					/* record start point of e-mail */
 					session.setRemarkStart(true);
 				}
-				int length = rxBuffer.bytesBefore(new byte[] { 0x0d, 0x0a, 0x2e, 0x0d, 0x0a });
+				int length = rxBuffer.bytesBefore(END_OF_DATA);
 				if (length == 0) {
 					return;
 				}
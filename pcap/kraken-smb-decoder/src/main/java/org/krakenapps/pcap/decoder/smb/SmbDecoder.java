@@ -21,7 +21,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.decoder.smb.udp.UdpTransaction;
 import org.krakenapps.pcap.decoder.tcp.TcpSessionKey;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 import org.krakenapps.pcap.util.ChainBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,7 +72,7 @@ public class SmbDecoder implements NetBiosSessionProcessor, NetBiosDatagramProce
 			transSetup.addLast(((UdpTransaction)smbP.data).getSetup());
 			Buffer tmp = new ChainBuffer();
 			tmp.addLast(((UdpTransaction) smbP.data).getTransData());
-			op = ByteOrderConverter.swap(transSetup.getShort());
+			op = transSetup.getShortLE();
 			if(op == 0x0001){
 				for (SmbProcessor call : rpcCallbacks) {
 					call.processMailslot(tmp);
@@ -18,7 +18,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbDialect;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.decoder.tcp.TcpSessionKey;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 import org.krakenapps.pcap.util.ChainBuffer;
 
 public class SmbSession {
@@ -122,7 +121,7 @@ public class SmbSession {
 		if (b.readableBytes() == 0) {
 			return null;
 		}
-		return Transaction2Command.parse(ByteOrderConverter.swap(b.getShort()));
+		return Transaction2Command.parse(b.getShortLE());
 	}
 
 	public TransactionCommand getSessionTransCommand() {
@@ -131,7 +130,7 @@ public class SmbSession {
 		if (b.readableBytes() == 0) {
 			return null;
 		}
-		return TransactionCommand.parse(ByteOrderConverter.swap(b.getShort()));
+		return TransactionCommand.parse(b.getShortLE());
 	}
 
 	public NtTransactCommand getSessionNtTransCommand() {
@@ -141,7 +140,7 @@ public class SmbSession {
 		if (b.readableBytes() == 0) {
 			return null;
 		}
-		return NtTransactCommand.parse(ByteOrderConverter.swap(b.getShort()));
+		return NtTransactCommand.parse(b.getShortLE());
 	}
 
 	public boolean isExt() {
@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.response.CheckDirectoryResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class CheckDirectoryParser implements SmbDataParser{
 
@@ -14,7 +13,7 @@ public class CheckDirectoryParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		CheckDirectoryRequest data = new CheckDirectoryRequest();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		data.setBufferFormat(b.get());
 		if(h.isFlag2Unicode()){
 			data.setReqDirectoryname(NetBiosNameCodec.readSmbUnicodeName(b));
@@ -28,7 +27,7 @@ public class CheckDirectoryParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h ,Buffer b ,SmbSession session) {
 		CheckDirectoryResponse data = new CheckDirectoryResponse();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 		}
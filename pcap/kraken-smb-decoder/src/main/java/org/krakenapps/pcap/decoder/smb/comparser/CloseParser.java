@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.CloseResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class CloseParser implements SmbDataParser{
 
@@ -17,16 +16,16 @@ public class CloseParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		CloseRequest data = new CloseRequest();
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setLastTimeModified(ByteOrderConverter.swap(b.getInt()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFid(b.getShortLE());
+		data.setLastTimeModified(b.getIntLE());
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
 	public SmbData parseResponse(SmbHeader h , Buffer b,SmbSession session) {
 		CloseResponse data = new CloseResponse();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	} 
 }
@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.ClosePrintFileResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0xC2
 public class ClosePrintFileParser implements SmbDataParser{
 
@@ -13,15 +12,15 @@ public class ClosePrintFileParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		ClosePrintFileRequest data = new ClosePrintFileRequest();
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFid(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		ClosePrintFileResponse data = new ClosePrintFileResponse();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
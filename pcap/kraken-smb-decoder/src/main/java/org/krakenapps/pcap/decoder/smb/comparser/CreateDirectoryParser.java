@@ -7,7 +7,6 @@ import org.krakenapps.pcap.decoder.smb.response.CreateDirectoryResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 // command Code 0x00
 public class CreateDirectoryParser implements SmbDataParser{
 	byte resWordCount;
@@ -16,7 +15,7 @@ public class CreateDirectoryParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h,Buffer b , SmbSession session) {
 		CreateDirectoryRequest data = new CreateDirectoryRequest();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		data.setBuffferFormat(b.get());
 		if(h.isFlag2Unicode()){
 			data.setDirectoryName(NetBiosNameCodec.readSmbUnicodeName(b));
@@ -31,7 +30,7 @@ public class CreateDirectoryParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		CreateDirectoryResponse data = new CreateDirectoryResponse();
 		data.setWordCount(b.get()); // it must 0x00
-		data.setByteCount(ByteOrderConverter.swap(b.getShort())); // it must 0x0000
+		data.setByteCount(b.getShortLE()); // it must 0x0000
 		return data;
 	}
 }
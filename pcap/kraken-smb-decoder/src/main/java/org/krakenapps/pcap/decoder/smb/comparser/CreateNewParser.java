@@ -15,9 +15,9 @@ public class CreateNewParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h,Buffer b , SmbSession session) {
 		CreateNewRequest data = new  CreateNewRequest();
 		data.setWordCount(b.get());
-		data.setFileAttributes(FileAttributes.parse(ByteOrderConverter.swap(b.getShort()) &0xffff));
-		data.setCreateionTime(ByteOrderConverter.swap(ByteOrderConverter.swap(b.getInt())));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFileAttributes(FileAttributes.parse(b.getShortLE() &0xffff));
+		data.setCreateionTime(ByteOrderConverter.swap(b.getIntLE()));
+		data.setByteCount(b.getShortLE());
 		data.setBufferFormat(b.get());
 		if(h.isFlag2Unicode()){
 			data.setFileName(NetBiosNameCodec.readSmbUnicodeName(b));
@@ -32,9 +32,9 @@ public class CreateNewParser implements SmbDataParser{
 		CreateNewResponse data = new  CreateNewResponse();
 		data.setWordCount(b.get());
 		if(data.getWordCount() !=0){
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
+			data.setFid(b.getShortLE());
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
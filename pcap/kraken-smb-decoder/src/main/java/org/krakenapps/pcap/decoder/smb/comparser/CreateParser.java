@@ -16,9 +16,9 @@ public class CreateParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h,Buffer b , SmbSession session) {
 		CreateRequest data = new CreateRequest();
 		data.setWordCount(b.get());
-		data.setFileattr(FileAttributes.parse(ByteOrderConverter.swap(ByteOrderConverter.swap(b.getShort())) & 0xffff));
-		data.setCreateTime(ByteOrderConverter.swap(b.getInt()));
-		data.setByteCount(ByteOrderConverter.swap(ByteOrderConverter.swap(b.getShort())));
+		data.setFileattr(FileAttributes.parse(ByteOrderConverter.swap(b.getShortLE()) & 0xffff));
+		data.setCreateTime(b.getIntLE());
+		data.setByteCount(ByteOrderConverter.swap(b.getShortLE()));
 		data.setBufferFormat(b.get());
 		if(h.isFlag2Unicode()){
 			data.setFileName(NetBiosNameCodec.readSmbUnicodeName(b));
@@ -33,8 +33,8 @@ public class CreateParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		CreateResponse data = new CreateResponse();
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(ByteOrderConverter.swap(ByteOrderConverter.swap(b.getShort()))));
-		data.setByteCount(ByteOrderConverter.swap(ByteOrderConverter.swap(ByteOrderConverter.swap(b.getShort()))));
+		data.setFid(ByteOrderConverter.swap(ByteOrderConverter.swap(b.getShortLE())));
+		data.setByteCount(ByteOrderConverter.swap(ByteOrderConverter.swap(b.getShortLE())));
 		return data;
 	}
 	
@@ -7,7 +7,6 @@ import org.krakenapps.pcap.decoder.smb.rr.FileAttributes;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class CreateTemporaryParser implements SmbDataParser{
 
@@ -15,9 +14,9 @@ public class CreateTemporaryParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h,Buffer b , SmbSession session) {
 		CreateTemporaryRequest data = new CreateTemporaryRequest();
 		data.setWordCount(b.get());
-		data.setFileAttributes(FileAttributes.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
-		data.setCreationTime(ByteOrderConverter.swap(b.getInt()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFileAttributes(FileAttributes.parse(b.getShortLE()&0xffff));
+		data.setCreationTime(b.getIntLE());
+		data.setByteCount(b.getShortLE());
 		data.setBufferFormat(b.get());
 		if(h.isFlag2Unicode()){
 			data.setDirectoryName(NetBiosNameCodec.readSmbUnicodeName(b));
@@ -31,8 +30,8 @@ public class CreateTemporaryParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 			CreateTemporaryResponse data = new CreateTemporaryResponse();
 			data.setWordCount(b.get());
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
-			data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+			data.setFid(b.getShortLE());
+			data.setByteCount(b.getShortLE());
 			if(b.readableBytes() == data.getByteCount()){
 				data.setMalformed(true);
 				return data;
@@ -7,7 +7,6 @@ import org.krakenapps.pcap.decoder.smb.response.DeleteDirectoryResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 // command code 0x01
 public class DeleteDirectoryParser implements SmbDataParser{
 
@@ -15,7 +14,7 @@ public class DeleteDirectoryParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		DeleteDirectoryRequest data = new DeleteDirectoryRequest(); 
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		data.setBufferFormat(b.get());
 		if(h.isFlag2Unicode()){
 			data.setDirectoryName(NetBiosNameCodec.readSmbUnicodeName(b));
@@ -29,7 +28,7 @@ public class DeleteDirectoryParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		DeleteDirectoryResponse data = new DeleteDirectoryResponse();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
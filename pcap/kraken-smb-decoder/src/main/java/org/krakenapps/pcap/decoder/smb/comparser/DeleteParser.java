@@ -8,7 +8,6 @@ import org.krakenapps.pcap.decoder.smb.rr.FileAttributes;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class DeleteParser implements SmbDataParser{
 
@@ -18,7 +17,7 @@ public class DeleteParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h,Buffer b , SmbSession session) {
 		DeleteRequest data = new DeleteRequest();
 		data.setWordCount(b.get());
-		data.setSearchAttributes(FileAttributes.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
+		data.setSearchAttributes(FileAttributes.parse(b.getShortLE()&0xffff));
 		data.setByteCount(b.get());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
@@ -37,7 +36,7 @@ public class DeleteParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		DeleteResponse data = new DeleteResponse();
 		 data.setWordCount(b.get());
-		 data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		 data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
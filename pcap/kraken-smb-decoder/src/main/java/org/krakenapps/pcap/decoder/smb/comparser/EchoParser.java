@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.EchoResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x2B
 public class EchoParser implements SmbDataParser{
 
@@ -15,8 +14,8 @@ public class EchoParser implements SmbDataParser{
 		EchoRequest data = new EchoRequest();
 		byte []buff;
 		data.setWordCount(b.get());
-		data.setEchoCount(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setEchoCount(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		buff = new byte[data.getByteCount()];
 		b.gets(buff);
 		data.setData(buff);
@@ -27,8 +26,8 @@ public class EchoParser implements SmbDataParser{
 		EchoResponse data = new EchoResponse();
 		byte []buff;
 		data.setWordCount(b.get());
-		data.setSequenceNumber(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setSequenceNumber(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
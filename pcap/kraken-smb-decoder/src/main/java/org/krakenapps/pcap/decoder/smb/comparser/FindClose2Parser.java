@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.FindClose2Response;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x34
 public class FindClose2Parser implements SmbDataParser{
 
@@ -13,15 +12,15 @@ public class FindClose2Parser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		FindClose2Request data = new FindClose2Request();
 		data.setWordCount(b.get());
-		data.setSearchHandle(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setSearchHandle(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		FindClose2Response data = new FindClose2Response();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
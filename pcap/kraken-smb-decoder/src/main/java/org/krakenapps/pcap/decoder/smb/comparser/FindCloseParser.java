@@ -9,7 +9,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.decoder.smb.structure.SmbResumeKey;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x84
 public class FindCloseParser implements SmbDataParser{
 
@@ -20,9 +19,9 @@ public class FindCloseParser implements SmbDataParser{
 		byte []serverState = new byte[16];
 		byte []clientState = new byte[4];
 		data.setWordCount(b.get());
-		data.setMaxCount(ByteOrderConverter.swap(b.getShort()));
-		data.setSearchAttribytes(FileAttributes.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setMaxCount(b.getShortLE());
+		data.setSearchAttribytes(FileAttributes.parse(b.getShortLE()&0xffff));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -30,7 +29,7 @@ public class FindCloseParser implements SmbDataParser{
 		data.setBufferFormat1(b.get());
 		data.setFileName(NetBiosNameCodec.readSmbUnicodeName(b));
 		data.setBufferFormat2(b.get());
-		data.setResumeKeyLength(ByteOrderConverter.swap(b.getShort()));
+		data.setResumeKeyLength(b.getShortLE());
 		key = new SmbResumeKey[data.getResumeKeyLength()/21];
 		for(int i =0; i<data.getResumeKeyLength()/21;i++){
 			key[i] = new SmbResumeKey();
@@ -47,14 +46,14 @@ public class FindCloseParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		FindCloseResponse data = new FindCloseResponse();
 		data.setWordCount(b.get());
-		data.setCount(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setCount(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
 		}
 		data.setBufferFormat(b.get());
-		data.setDataLength(ByteOrderConverter.swap(b.getShort()));
+		data.setDataLength(b.getShortLE());
 		return data;
 	}
 }
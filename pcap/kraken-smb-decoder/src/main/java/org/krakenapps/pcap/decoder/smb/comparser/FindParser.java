@@ -9,7 +9,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbDirectoryInfo;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.decoder.smb.structure.SmbResumeKey;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x82
 public class FindParser implements SmbDataParser{
 
@@ -20,9 +19,9 @@ public class FindParser implements SmbDataParser{
 		byte []serverState = new byte[16];
 		byte []clientState = new byte[4];
 		data.setWordCount(b.get());
-		data.setMaxCount(ByteOrderConverter.swap(b.getShort()));
-		data.setSearchAttributes(FileAttributes.parse(ByteOrderConverter.swap(b.getShort()) & 0xffff));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setMaxCount(b.getShortLE());
+		data.setSearchAttributes(FileAttributes.parse(b.getShortLE() & 0xffff));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -35,7 +34,7 @@ public class FindParser implements SmbDataParser{
 			data.setFileName(NetBiosNameCodec.readOemName(b));
 		}
 		data.setBufferFormat2(b.get());
-		data.setResumeKeyLength(ByteOrderConverter.swap(b.getShort()));
+		data.setResumeKeyLength(b.getShortLE());
 		key = new SmbResumeKey[(data.getResumeKeyLength())/21];
 		for(int i =0; i< (data.getResumeKeyLength())/21;i++){
 			key[i] = new SmbResumeKey();
@@ -61,9 +60,9 @@ public class FindParser implements SmbDataParser{
 		data.setWordCount(b.get());
 		// this section is temporary routine because wordcount(0x00)
 		if(data.getWordCount() != 0){
-			data.setCount(ByteOrderConverter.swap(b.getShort()));
+			data.setCount(b.getShortLE());
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(data.getByteCount() == 0 ){
 			return data;
 		}
@@ -72,7 +71,7 @@ public class FindParser implements SmbDataParser{
 			return data;
 		}
 		data.setBufferFormat(b.get());
-		data.setDataLength(ByteOrderConverter.swap(b.getShort()));
+		data.setDataLength(b.getShortLE());
 		key = new SmbResumeKey[(data.getDataLength())/43];
 		info = new SmbDirectoryInfo[(data.getDataLength())/43];
 		for(int i=0; i<(data.getDataLength())/43;i++){
@@ -87,9 +86,9 @@ public class FindParser implements SmbDataParser{
 			//set directory info
 			info[i].setResumeKey(key[i]);
 			info[i].setFileAttributes(FileAttributes.parse(b.get() & 0xff));
-			info[i].setLastWriteTime(ByteOrderConverter.swap(b.getShort()));
-			info[i].setLastWriteDate(ByteOrderConverter.swap(b.getShort()));
-			info[i].setFileSize(ByteOrderConverter.swap(b.getInt()));
+			info[i].setLastWriteTime(b.getShortLE());
+			info[i].setLastWriteDate(b.getShortLE());
+			info[i].setFileSize(b.getIntLE());
 			if(h.isFlag2Unicode()){
 				info[i].setFilename(NetBiosNameCodec.readSmbUnicodeName(b));
 			}
@@ -9,7 +9,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbDirectoryInfo;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.decoder.smb.structure.SmbResumeKey;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x83
 public class FindUniqueParser implements SmbDataParser{
 
@@ -18,9 +17,9 @@ public class FindUniqueParser implements SmbDataParser{
 		FindUniqueRequest data = new FindUniqueRequest();
 	//	SmbResumeKey []key;
 		data.setWordCount(b.get());
-		data.setMaxCount(ByteOrderConverter.swap(b.getShort()));
-		data.setSearchAttribytes(FileAttributes.parse(ByteOrderConverter.swap(b.getShort()) & 0xffff));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setMaxCount(b.getShortLE());
+		data.setSearchAttribytes(FileAttributes.parse(b.getShortLE() & 0xffff));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -33,7 +32,7 @@ public class FindUniqueParser implements SmbDataParser{
 			data.setFileName(NetBiosNameCodec.readOemName(b));
 		}
 		data.setBufferFormat2(b.get());
-		data.setResumeKeyLength(ByteOrderConverter.swap(b.getShort()));
+		data.setResumeKeyLength(b.getShortLE());
 		data.setResumeKey(null);
 		//there is no resumekeys
 		//key = new SmbResumeKey[data.getResumeKeyLength()/21];
@@ -53,9 +52,9 @@ public class FindUniqueParser implements SmbDataParser{
 		data.setWordCount(b.get());
 		// this section is temporary routine because wordcount(0x00)
 		if(data.getWordCount() !=0){
-			data.setCount(ByteOrderConverter.swap(b.getShort()));
+			data.setCount(b.getShortLE());
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(data.getByteCount() ==0)
 		{
 			return data;
@@ -65,7 +64,7 @@ public class FindUniqueParser implements SmbDataParser{
 			return data;
 		}
 		data.setBufferFormat(b.get());
-		data.setDataLength(ByteOrderConverter.swap(b.getShort()));
+		data.setDataLength(b.getShortLE());
 		info = new SmbDirectoryInfo[data.getDataLength()/43];
 		key = new SmbResumeKey[data.getDataLength()/43];
 		for(int i=0; i<data.getDataLength()/43;i++){
@@ -78,9 +77,9 @@ public class FindUniqueParser implements SmbDataParser{
 			key[i].setClientState(clientState);
 			info[i].setResumeKey(key[i]);
 			info[i].setFileAttributes(FileAttributes.parse(b.get() & 0xff));
-			info[i].setLastWriteTime(ByteOrderConverter.swap(b.getShort()));
-			info[i].setLastWriteDate(ByteOrderConverter.swap(b.getShort()));
-			info[i].setFileSize(ByteOrderConverter.swap(b.getInt()));
+			info[i].setLastWriteTime(b.getShortLE());
+			info[i].setLastWriteDate(b.getShortLE());
+			info[i].setFileSize(b.getIntLE());
 			info[i].setFilename(NetBiosNameCodec.readSmbUnicodeName(b));
 		}
 		data.setDirectoryInformationData(info);
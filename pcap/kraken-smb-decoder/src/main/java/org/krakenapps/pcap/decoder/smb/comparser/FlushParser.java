@@ -5,22 +5,21 @@ import org.krakenapps.pcap.decoder.smb.response.FlushResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class FlushParser implements SmbDataParser{
 	@Override
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		FlushRequest data = new FlushRequest();
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFid(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		FlushResponse data = new FlushResponse();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 
@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.IOCTLResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x27
 public class IOCTLParser implements SmbDataParser{
 	@Override
@@ -18,25 +17,25 @@ public class IOCTLParser implements SmbDataParser{
 		int offset;
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x0e){
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
-			data.setCategory(ByteOrderConverter.swap(b.getShort()));
-			data.setFunction(ByteOrderConverter.swap(b.getShort()));
-			data.setTotalParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setTotalDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setMaxDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setMaxParameterCount(ByteOrderConverter.swap(b.getShort()));
+			data.setFid(b.getShortLE());
+			data.setCategory(b.getShortLE());
+			data.setFunction(b.getShortLE());
+			data.setTotalParameterCount(b.getShortLE());
+			data.setTotalDataCount(b.getShortLE());
+			data.setMaxDataCount(b.getShortLE());
+			data.setMaxParameterCount(b.getShortLE());
 			data.setTimeout(b.getInt());
-			data.setReserved(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
+			data.setReserved(b.getShortLE());
+			data.setParameterCount(b.getShortLE());
+			data.setParameterOffset(b.getShortLE());
+			data.setDataCount(b.getShortLE());
+			data.setDataOffset(b.getShortLE());
 		}
 		else
 		{
 			data.setMalformed(true);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -81,19 +80,19 @@ public class IOCTLParser implements SmbDataParser{
 		int offset;
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x08){
-			data.setTotalParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setTotalDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterDisplacement(ByteOrderConverter.swap(b.getShort()));
-			data.setDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setDataDisplacement(ByteOrderConverter.swap(b.getShort()));
+			data.setTotalParameterCount(b.getShortLE());
+			data.setTotalDataCount(b.getShortLE());
+			data.setParameterCount(b.getShortLE());
+			data.setParameterOffset(b.getShortLE());
+			data.setParameterDisplacement(b.getShortLE());
+			data.setDataCount(b.getShortLE());
+			data.setDataOffset(b.getShortLE());
+			data.setDataDisplacement(b.getShortLE());
 		}
 		else{
 			data.setMalformed(true);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
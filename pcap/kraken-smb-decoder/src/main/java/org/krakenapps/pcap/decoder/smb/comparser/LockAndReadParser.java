@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.LockAndReadResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class LockAndReadParser implements SmbDataParser{
 
@@ -14,15 +13,15 @@ public class LockAndReadParser implements SmbDataParser{
 		LockAndReadRequest data = new LockAndReadRequest();
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x05){
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
-			data.setCountOfBytesToRead(ByteOrderConverter.swap(b.getShort()));
-			data.setReadOffsetInBytes(ByteOrderConverter.swap(b.getInt()));
-			data.setEstimateOfRemainingBytesToBeRead(ByteOrderConverter.swap(b.getShort()));
+			data.setFid(b.getShortLE());
+			data.setCountOfBytesToRead(b.getShortLE());
+			data.setReadOffsetInBytes(b.getIntLE());
+			data.setEstimateOfRemainingBytesToBeRead(b.getShortLE());
 		}
 		else{
 			data.setMalformed(true);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
@@ -32,14 +31,14 @@ public class LockAndReadParser implements SmbDataParser{
 		byte []bytes;
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x05){
-			data.setCountofBytesReturned(ByteOrderConverter.swap(b.getShort()));
+			data.setCountofBytesReturned(b.getShortLE());
 			b.gets(reserved);
 			data.setReserved(reserved);
 		}
 		else{
 			data.setMalformed(true);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -49,7 +48,7 @@ public class LockAndReadParser implements SmbDataParser{
 			return data;
 		}
 		data.setBufferType(b.get());
-		data.setCountOfBytesRead(ByteOrderConverter.swap(b.getShort()));
+		data.setCountOfBytesRead(b.getShortLE());
 		bytes = new byte[data.getCountOfBytesRead()];
 		b.gets(bytes);
 		data.setBytes(bytes);
@@ -7,7 +7,6 @@ import org.krakenapps.pcap.decoder.smb.structure.LockingANDXRange64;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x24
 public class LockingANDXParser implements SmbDataParser{
 
@@ -18,19 +17,19 @@ public class LockingANDXParser implements SmbDataParser{
 		if(data.getWordCount() == 0x08){
 			data.setAndxCommand(b.get());
 			data.setAndxReserved(b.get());
-			data.setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
+			data.setAndxOffset(b.getShortLE());
+			data.setFid(b.getShortLE());
 			data.setTypeOfLock(b.get());
 			data.setNewOpLockLevel(b.get());
 			data.setTimeout(b.getInt());
-			data.setNumberOfreqedUnlocks(ByteOrderConverter.swap(b.getShort()));
-			data.setNumberOfreqedLocks(ByteOrderConverter.swap(b.getShort()));
+			data.setNumberOfreqedUnlocks(b.getShortLE());
+			data.setNumberOfreqedLocks(b.getShortLE());
 		}
 		else
 		{
 			data.setMalformed(true);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -89,7 +88,7 @@ public class LockingANDXParser implements SmbDataParser{
 		{
 			data.setMalformed(true);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
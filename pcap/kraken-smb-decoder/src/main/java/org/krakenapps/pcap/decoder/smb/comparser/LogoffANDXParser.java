@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.LogoffANDXResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class LogoffANDXParser implements SmbDataParser{
 
@@ -16,13 +15,13 @@ public class LogoffANDXParser implements SmbDataParser{
 		if(data.getWordCount() == 0x02){
 			data.setAndxCommand(b.get());
 			data.setAndxResrved(b.get());
-			data.setAndxOffset(ByteOrderConverter.swap(b.getShort()));
+			data.setAndxOffset(b.getShortLE());
 		}
 		else{
 			data.setMalformed(true);
 			b.skip(data.getWordCount()*2);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
@@ -32,13 +31,13 @@ public class LogoffANDXParser implements SmbDataParser{
 		if(data.getWordCount() == 0x02){
 			data.setAndXCommand(b.get());
 			data.setAndXReserved(b.get());
-			data.setAndXOffset(ByteOrderConverter.swap(b.getShort()));
+			data.setAndXOffset(b.getShortLE());
 		}
 		else{
 			data.setMalformed(true);
 			b.skip(data.getWordCount()*2);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
@@ -8,7 +8,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbDialect;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class NegotiateParser implements SmbDataParser{
 
@@ -18,7 +17,7 @@ public class NegotiateParser implements SmbDataParser{
 		SmbDialect []dialects;
 		int count=0;
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -57,19 +56,19 @@ public class NegotiateParser implements SmbDataParser{
 			byte []serverGUID = new byte[16];
 			byte []securityBlob;
 			((NegotiateSecurityExtendResponse)data).setWordCount(b.get());
-			((NegotiateSecurityExtendResponse)data).setDialectIndex(ByteOrderConverter.swap(b.getShort()));
+			((NegotiateSecurityExtendResponse)data).setDialectIndex(b.getShortLE());
 			((NegotiateSecurityExtendResponse)data).setSercurityMode(b.get());
-			((NegotiateSecurityExtendResponse)data).setMaxMpxCount(ByteOrderConverter.swap(b.getShort()));
-			((NegotiateSecurityExtendResponse)data).setMaxNumberVcs(ByteOrderConverter.swap(b.getShort()));
-			((NegotiateSecurityExtendResponse)data).setMaxBufferSize(ByteOrderConverter.swap(b.getInt()));
-			((NegotiateSecurityExtendResponse)data).setMaxRawSize(ByteOrderConverter.swap(b.getInt()));
-			((NegotiateSecurityExtendResponse)data).setSessionKey(ByteOrderConverter.swap(b.getInt()));
-			((NegotiateSecurityExtendResponse)data).setCapabilities(ByteOrderConverter.swap(b.getInt()));
-			((NegotiateSecurityExtendResponse)data).setSystemTime(ByteOrderConverter.swap(b.getLong()));
-			((NegotiateSecurityExtendResponse)data).setServerTimeZone(ByteOrderConverter.swap(b.getShort()));
+			((NegotiateSecurityExtendResponse)data).setMaxMpxCount(b.getShortLE());
+			((NegotiateSecurityExtendResponse)data).setMaxNumberVcs(b.getShortLE());
+			((NegotiateSecurityExtendResponse)data).setMaxBufferSize(b.getIntLE());
+			((NegotiateSecurityExtendResponse)data).setMaxRawSize(b.getIntLE());
+			((NegotiateSecurityExtendResponse)data).setSessionKey(b.getIntLE());
+			((NegotiateSecurityExtendResponse)data).setCapabilities(b.getIntLE());
+			((NegotiateSecurityExtendResponse)data).setSystemTime(b.getLongLE());
+			((NegotiateSecurityExtendResponse)data).setServerTimeZone(b.getShortLE());
 			((NegotiateSecurityExtendResponse)data).setChallengeLength(b.get());
 			//TODO : extended
-			((NegotiateSecurityExtendResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((NegotiateSecurityExtendResponse)data).setByteCount(b.getShortLE());
 			b.gets(serverGUID);
 			((NegotiateSecurityExtendResponse)data).setServerGUID(serverGUID);
 	//		System.out.println(((NegotiateSecurityExtendResponse)data).getByteCount());
@@ -83,26 +82,26 @@ public class NegotiateParser implements SmbDataParser{
 			byte []challenge;
 			((NegotiateResponse)data).setWordCount(b.get());
 			if(((NegotiateResponse)data).getWordCount() == 0x00){
-				((NegotiateResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+				((NegotiateResponse)data).setByteCount(b.getShortLE());
 			}
 			else if(((NegotiateResponse)data).getWordCount() == 0x01){ // core Protocol
-				((NegotiateResponse)data).setDialectIndex(ByteOrderConverter.swap(b.getShort()));
-				((NegotiateResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+				((NegotiateResponse)data).setDialectIndex(b.getShortLE());
+				((NegotiateResponse)data).setByteCount(b.getShortLE());
 			//data.set
 			}
 			else if(((NegotiateResponse)data).getWordCount() == 0x11){ // NT LAN Manger 
-				((NegotiateResponse)data).setDialectIndex(ByteOrderConverter.swap(b.getShort()));
+				((NegotiateResponse)data).setDialectIndex(b.getShortLE());
 				((NegotiateResponse)data).setSercurityMode(b.get());
-				((NegotiateResponse)data).setMaxMpxCount(ByteOrderConverter.swap(b.getShort()));
-				((NegotiateResponse)data).setMaxNumberVcs(ByteOrderConverter.swap(b.getShort()));
-				((NegotiateResponse)data).setMaxBufferSize(ByteOrderConverter.swap(b.getInt()));
-				((NegotiateResponse)data).setMaxRawSize(ByteOrderConverter.swap(b.getInt()));
-				((NegotiateResponse)data).setSessionKey(ByteOrderConverter.swap(b.getInt()));
-				((NegotiateResponse)data).setCapabilities(ByteOrderConverter.swap(b.getInt()));
+				((NegotiateResponse)data).setMaxMpxCount(b.getShortLE());
+				((NegotiateResponse)data).setMaxNumberVcs(b.getShortLE());
+				((NegotiateResponse)data).setMaxBufferSize(b.getIntLE());
+				((NegotiateResponse)data).setMaxRawSize(b.getIntLE());
+				((NegotiateResponse)data).setSessionKey(b.getIntLE());
+				((NegotiateResponse)data).setCapabilities(b.getIntLE());
 				((NegotiateResponse)data).setSystemTime(b.getLong());
-				((NegotiateResponse)data).setServerTimeZone(ByteOrderConverter.swap(b.getShort()));
+				((NegotiateResponse)data).setServerTimeZone(b.getShortLE());
 				((NegotiateResponse)data).setChallengeLenghth(b.get());
-				((NegotiateResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+				((NegotiateResponse)data).setByteCount(b.getShortLE());
 				if(b.readableBytes() != ((NegotiateResponse)data).getByteCount()){
 					data.setMalformed(true);
 					return data;
@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.NtCancelResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0xA4
 public class NtCancelParser implements SmbDataParser{
 
@@ -13,7 +12,7 @@ public class NtCancelParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		NtCancelRequest data=  new NtCancelRequest();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
@@ -9,7 +9,6 @@ import org.krakenapps.pcap.decoder.smb.rr.NamedPipeStatus;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 
 //0xA2
@@ -21,20 +20,20 @@ public class NtCreateANDXParser implements SmbDataParser{
 		data.setWordCount(b.get());
 		data.setAndxCommand(b.get());
 		data.setAndxReserved(b.get());
-		data.setAndxOffset(ByteOrderConverter.swap(b.getShort()));
+		data.setAndxOffset(b.getShortLE());
 		data.setReserved(b.get());
-		data.setNameLength(ByteOrderConverter.swap(b.getShort()));
-		data.setFlags(ByteOrderConverter.swap(b.getInt()));
-		data.setRootDirectoryFID(ByteOrderConverter.swap(b.getInt()));
-		data.setDesiredAccess(ByteOrderConverter.swap(b.getInt()));
-		data.setAllocationSize(ByteOrderConverter.swap(b.getLong()));
-		data.setExtFileAttributes(ExtFileAttributes.parse(ByteOrderConverter.swap(b.getInt())));
-		data.setShareAccess(ByteOrderConverter.swap(b.getInt()));
-		data.setCreateDisposition(ByteOrderConverter.swap(b.getInt()));
-		data.setCreateOptions(ByteOrderConverter.swap(b.getInt()));
-		data.setImpersonationLevel(ByteOrderConverter.swap(b.getInt()));
+		data.setNameLength(b.getShortLE());
+		data.setFlags(b.getIntLE());
+		data.setRootDirectoryFID(b.getIntLE());
+		data.setDesiredAccess(b.getIntLE());
+		data.setAllocationSize(b.getLongLE());
+		data.setExtFileAttributes(ExtFileAttributes.parse(b.getIntLE()));
+		data.setShareAccess(b.getIntLE());
+		data.setCreateDisposition(b.getIntLE());
+		data.setCreateOptions(b.getIntLE());
+		data.setImpersonationLevel(b.getIntLE());
 		data.setSecurityFlags(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -60,26 +59,26 @@ public class NtCreateANDXParser implements SmbDataParser{
 			if(((NtCreateANDXExtentionResponse)data).getWordCount() !=0){
 				((NtCreateANDXExtentionResponse)data).setAndxCommand(b.get());
 				((NtCreateANDXExtentionResponse)data).setAndxReserved(b.get());
-				((NtCreateANDXExtentionResponse)data).setAndxOffset(ByteOrderConverter.swap(b.getShort()));
+				((NtCreateANDXExtentionResponse)data).setAndxOffset(b.getShortLE());
 				((NtCreateANDXExtentionResponse)data).setOpLockLevel(b.get());
-				((NtCreateANDXExtentionResponse)data).setFid(ByteOrderConverter.swap(b.getShort()));
-				((NtCreateANDXExtentionResponse)data).setCreationAction(ByteOrderConverter.swap(b.getInt()));
-				((NtCreateANDXExtentionResponse)data).setCreateTime(ByteOrderConverter.swap(b.getInt()));
-				((NtCreateANDXExtentionResponse)data).setLastAccessTime(ByteOrderConverter.swap(b.getInt()));
-				((NtCreateANDXExtentionResponse)data).setLastChangeTime(ByteOrderConverter.swap(b.getInt()));
-				((NtCreateANDXExtentionResponse)data).setExtFileAttributes(ExtFileAttributes.parse(ByteOrderConverter.swap(b.getInt())));
-				((NtCreateANDXExtentionResponse)data).setAllocationSize(ByteOrderConverter.swap(b.getLong()));
-				((NtCreateANDXExtentionResponse)data).setEndOfFile(ByteOrderConverter.swap(b.getLong()));
-				((NtCreateANDXExtentionResponse)data).setResourceType(ByteOrderConverter.swap(b.getShort()));
-				((NtCreateANDXExtentionResponse)data).setNmPipeStatus_or_FileStatusFlag(ByteOrderConverter.swap(b.getShort()));
+				((NtCreateANDXExtentionResponse)data).setFid(b.getShortLE());
+				((NtCreateANDXExtentionResponse)data).setCreationAction(b.getIntLE());
+				((NtCreateANDXExtentionResponse)data).setCreateTime(b.getIntLE());
+				((NtCreateANDXExtentionResponse)data).setLastAccessTime(b.getIntLE());
+				((NtCreateANDXExtentionResponse)data).setLastChangeTime(b.getIntLE());
+				((NtCreateANDXExtentionResponse)data).setExtFileAttributes(ExtFileAttributes.parse(b.getIntLE()));
+				((NtCreateANDXExtentionResponse)data).setAllocationSize(b.getLongLE());
+				((NtCreateANDXExtentionResponse)data).setEndOfFile(b.getLongLE());
+				((NtCreateANDXExtentionResponse)data).setResourceType(b.getShortLE());
+				((NtCreateANDXExtentionResponse)data).setNmPipeStatus_or_FileStatusFlag(b.getShortLE());
 				((NtCreateANDXExtentionResponse)data).setDirectory(b.get());
 				b.gets(volumeGUID);
 				((NtCreateANDXExtentionResponse)data).setVolumeGUID(volumeGUID);
-				((NtCreateANDXExtentionResponse)data).setFileID(ByteOrderConverter.swap(b.getLong()));
-				((NtCreateANDXExtentionResponse)data).setMaximalAccessRight(ByteOrderConverter.swap(b.getInt()));
-				((NtCreateANDXExtentionResponse)data).setGuestMaximalAccessRight(ByteOrderConverter.swap(b.getInt()));
+				((NtCreateANDXExtentionResponse)data).setFileID(b.getLongLE());
+				((NtCreateANDXExtentionResponse)data).setMaximalAccessRight(b.getIntLE());
+				((NtCreateANDXExtentionResponse)data).setGuestMaximalAccessRight(b.getIntLE());
 			}
-			((NtCreateANDXExtentionResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((NtCreateANDXExtentionResponse)data).setByteCount(b.getShortLE());
 		}
 		else
 		{
@@ -88,22 +87,22 @@ public class NtCreateANDXParser implements SmbDataParser{
 			if(((NtCreateANDXResponse)data).getWordCount() !=0){
 				((NtCreateANDXResponse)data).setAndxCommand(b.get());
 				((NtCreateANDXResponse)data).setAndxReserved(b.get());
-				((NtCreateANDXResponse)data).setAndxOffset(ByteOrderConverter.swap(b.getShort()));
+				((NtCreateANDXResponse)data).setAndxOffset(b.getShortLE());
 				((NtCreateANDXResponse)data).setOpLockLevel(b.get());
-				((NtCreateANDXResponse)data).setFid(ByteOrderConverter.swap(b.getShort()));
+				((NtCreateANDXResponse)data).setFid(b.getShortLE());
 				((NtCreateANDXResponse)data).setCreateDisposition(b.getInt());
-				((NtCreateANDXResponse)data).setCreateTime(ByteOrderConverter.swap(b.getInt()));
-				((NtCreateANDXResponse)data).setLastAccessTime(ByteOrderConverter.swap(b.getInt()));
-				((NtCreateANDXResponse)data).setLastWriteTime(ByteOrderConverter.swap(b.getInt()));
-				((NtCreateANDXResponse)data).setLastChangeTime(ByteOrderConverter.swap(b.getInt()));
-				((NtCreateANDXResponse)data).setExtFileAttributes(ExtFileAttributes.parse(ByteOrderConverter.swap(b.getInt())));
-				((NtCreateANDXResponse)data).setAllocationSize(ByteOrderConverter.swap(b.getInt()));
-				((NtCreateANDXResponse)data).setEndOfFile(ByteOrderConverter.swap(b.getInt()));
+				((NtCreateANDXResponse)data).setCreateTime(b.getIntLE());
+				((NtCreateANDXResponse)data).setLastAccessTime(b.getIntLE());
+				((NtCreateANDXResponse)data).setLastWriteTime(b.getIntLE());
+				((NtCreateANDXResponse)data).setLastChangeTime(b.getIntLE());
+				((NtCreateANDXResponse)data).setExtFileAttributes(ExtFileAttributes.parse(b.getIntLE()));
+				((NtCreateANDXResponse)data).setAllocationSize(b.getIntLE());
+				((NtCreateANDXResponse)data).setEndOfFile(b.getIntLE());
 				((NtCreateANDXResponse)data).setResourceType(b.getShort());
-				((NtCreateANDXResponse)data).setNmPipestatus(NamedPipeStatus.parse(ByteOrderConverter.swap(b.getShort())));
+				((NtCreateANDXResponse)data).setNmPipestatus(NamedPipeStatus.parse(b.getShortLE()));
 				((NtCreateANDXResponse)data).setDirectory(b.get());
 			}
-			((NtCreateANDXResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((NtCreateANDXResponse)data).setByteCount(b.getShortLE());
 		}
 		return data;
 	}
@@ -7,17 +7,16 @@ import org.krakenapps.pcap.decoder.smb.rr.FileAttributes;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0xA5
 public class NtRenameParser implements SmbDataParser{
 	@Override
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		NtRenameRequest data = new NtRenameRequest();
 		data.setWordCount(b.get());
-		data.setSearchAttributes(FileAttributes.parse(ByteOrderConverter.swap(b.getShort())));
+		data.setSearchAttributes(FileAttributes.parse(b.getShortLE()));
 		data.setInformationLevel(b.getShort());
-		data.setReserved(ByteOrderConverter.swap(b.getInt()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setReserved(b.getIntLE());
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -42,7 +41,7 @@ public class NtRenameParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		NtRenameResponse data = new NtRenameResponse();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	
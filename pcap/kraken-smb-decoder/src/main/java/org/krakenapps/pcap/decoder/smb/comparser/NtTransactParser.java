@@ -8,7 +8,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 import org.krakenapps.pcap.util.ChainBuffer;
 
 public class NtTransactParser implements SmbDataParser{
@@ -23,21 +22,21 @@ public class NtTransactParser implements SmbDataParser{
 		byte []buff;
 		data.setWordCount(b.get());
 		data.setMaxCount(b.get());
-		data.setReserved1(ByteOrderConverter.swap(b.getShort()));
-		data.setTotalparameterCount(ByteOrderConverter.swap(b.getInt()));
-		data.setTotalDataCount(ByteOrderConverter.swap(b.getInt()));
-		data.setMaxParameterCount(ByteOrderConverter.swap(b.getInt()));
-		data.setMaxDataCount(ByteOrderConverter.swap(b.getInt()));
-		data.setParameterCount(ByteOrderConverter.swap(b.getInt()));
-		data.setParameterOffset(ByteOrderConverter.swap(b.getInt()));
-		data.setDataCount(ByteOrderConverter.swap(b.getInt()));
-		data.setDataOffset(ByteOrderConverter.swap(b.getInt()));
+		data.setReserved1(b.getShortLE());
+		data.setTotalparameterCount(b.getIntLE());
+		data.setTotalDataCount(b.getIntLE());
+		data.setMaxParameterCount(b.getIntLE());
+		data.setMaxDataCount(b.getIntLE());
+		data.setParameterCount(b.getIntLE());
+		data.setParameterOffset(b.getIntLE());
+		data.setDataCount(b.getIntLE());
+		data.setDataOffset(b.getIntLE());
 		data.setSetupCount(b.get());
-		data.setFunction(ByteOrderConverter.swap(b.getShort()));
+		data.setFunction(b.getShortLE());
 		setup = new byte[data.getSetupCount()*2];
 		b.gets(setup);
 		data.setSetup(setup);
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		
 		if(data.getParameterCount() != 0){
 			pad1 = new byte[data.getParameterOffset()-b.position()];
@@ -87,14 +86,14 @@ public class NtTransactParser implements SmbDataParser{
 		if(data.getWordCount() >= 0x12){
 			b.gets(reserved1);
 			data.setReserved1(reserved1);
-			data.setTotalParameterCount(ByteOrderConverter.swap(b.getInt()));
-			data.setTotalDataCount(ByteOrderConverter.swap(b.getInt()));
-			data.setParameterCount(ByteOrderConverter.swap(b.getInt()));
-			data.setParameterOffset(ByteOrderConverter.swap(b.getInt()));
-			data.setParameterDisplacement(ByteOrderConverter.swap(b.getInt()));
-			data.setDataCount(ByteOrderConverter.swap(b.getInt()));
-			data.setDataOffset(ByteOrderConverter.swap(b.getInt()));
-			data.setDataDisplacement(ByteOrderConverter.swap(b.getInt()));
+			data.setTotalParameterCount(b.getIntLE());
+			data.setTotalDataCount(b.getIntLE());
+			data.setParameterCount(b.getIntLE());
+			data.setParameterOffset(b.getIntLE());
+			data.setParameterDisplacement(b.getIntLE());
+			data.setDataCount(b.getIntLE());
+			data.setDataOffset(b.getIntLE());
+			data.setDataDisplacement(b.getIntLE());
 			data.setSetupCount(b.get());
 			setup = new byte[data.getSetupCount()*2];
 			b.gets(setup);
@@ -104,7 +103,7 @@ public class NtTransactParser implements SmbDataParser{
 			data.setMalformed(true);
 			b.skip(data.getWordCount()*2);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(data.getByteCount() !=0){
 			if(data.getParameterCount() != 0){
 				pad1 = new byte[data.getParameterOffset()-b.position()];
@@ -135,7 +134,7 @@ public class NtTransactParser implements SmbDataParser{
 			if(setupBuffer.readableBytes() + parameterBuffer.readableBytes() + dataBuffer.readableBytes() == 0){
 				return data;
 			}
-			//TransParser parser = mapper.getParser(session.getLastNtTransCommand()NtTransactCommand.parse(ByteOrderConverter.swap(setupBuffer.getShort())));
+			//TransParser parser = mapper.getParser(session.getLastNtTransCommand()NtTransactCommand.parse(setupBuffer.getShortLE()));
 			TransParser parser = mapper.getParser(session.getSessionNtTransCommand());
 			if(parser ==null){
 				return data;
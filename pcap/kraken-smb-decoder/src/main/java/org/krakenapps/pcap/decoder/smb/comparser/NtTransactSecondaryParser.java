@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.NtTransactSecondaryResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class NtTransactSecondaryParser implements SmbDataParser{
 
@@ -20,16 +19,16 @@ public class NtTransactSecondaryParser implements SmbDataParser{
 		data.setWordCount(b.get());
 		b.gets(reserved1);
 		data.setReserved1(reserved1);
-		data.setTotalParameterCount(ByteOrderConverter.swap(b.getInt()));
-		data.setTotalDataCount((ByteOrderConverter.swap(b.getInt())));
-		data.setParameterCount((ByteOrderConverter.swap(b.getInt())));
-		data.setParameterOffset((ByteOrderConverter.swap(b.getInt())));
-		data.setParameterDisplacement((ByteOrderConverter.swap(b.getInt())));
-		data.setDataCount((ByteOrderConverter.swap(b.getInt())));
-		data.setDataOffset((ByteOrderConverter.swap(b.getInt())));
-		data.setDataDisplacement((ByteOrderConverter.swap(b.getInt())));
+		data.setTotalParameterCount(b.getIntLE());
+		data.setTotalDataCount((b.getIntLE()));
+		data.setParameterCount((b.getIntLE()));
+		data.setParameterOffset((b.getIntLE()));
+		data.setParameterDisplacement((b.getIntLE()));
+		data.setDataCount((b.getIntLE()));
+		data.setDataOffset((b.getIntLE()));
+		data.setDataDisplacement((b.getIntLE()));
 		data.setReserved2(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
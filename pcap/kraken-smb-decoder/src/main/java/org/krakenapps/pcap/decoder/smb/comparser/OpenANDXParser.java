@@ -9,7 +9,6 @@ import org.krakenapps.pcap.decoder.smb.rr.NamedPipeStatus;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class OpenANDXParser implements SmbDataParser{
 
@@ -20,18 +19,18 @@ public class OpenANDXParser implements SmbDataParser{
 		data.setWordCount(b.get());
 		data.setAndxCommand(b.get());
 		data.setAndxReserved(b.get());
-		data.setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-		data.setFlags(ByteOrderConverter.swap(b.getShort()));
-		data.setAccessMode(ByteOrderConverter.swap(b.getShort()));
-		data.setSearchAttrs(FileAttributes.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
-		data.setFileAttrs(FileAttributes.parse(ByteOrderConverter.swap(b.getShort()) & 0xffff));
+		data.setAndxOffset(b.getShortLE());
+		data.setFlags(b.getShortLE());
+		data.setAccessMode(b.getShortLE());
+		data.setSearchAttrs(FileAttributes.parse(b.getShortLE()&0xffff));
+		data.setFileAttrs(FileAttributes.parse(b.getShortLE() & 0xffff));
 		data.setCreationTime(b.getInt());
-		data.setOpenMode(ByteOrderConverter.swap(b.getShort()));
+		data.setOpenMode(b.getShortLE());
 		data.setAllocationSize(b.getInt());
 		data.setTimeout(b.getInt());
 		b.gets(reserved);
 		data.setReserved(reserved);
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -61,22 +60,22 @@ public class OpenANDXParser implements SmbDataParser{
 			if(ExtData.getWordCount() != 0){
 				ExtData.setAndxCommand(b.get());
 				ExtData.setAndxReserved(b.get());
-				ExtData.setAndxOffset(ByteOrderConverter.swap(b.getShort())); // use combine
-				ExtData.setFid(ByteOrderConverter.swap(b.getShort()));
-				ExtData.setFileAttrs(FileAttributes.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
+				ExtData.setAndxOffset(b.getShortLE()); // use combine
+				ExtData.setFid(b.getShortLE());
+				ExtData.setFileAttrs(FileAttributes.parse(b.getShortLE()&0xffff));
 				ExtData.setLastWriteTime(b.getInt());
 				ExtData.setFileDataSize(b.getInt());
-				ExtData.setAccessRights(ByteOrderConverter.swap(b.getShort()));
-				ExtData.setResourceType(ByteOrderConverter.swap(b.getShort()));
-				ExtData.setNmPipeStatus(NamedPipeStatus.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
-				ExtData.setOpenResults(ByteOrderConverter.swap(b.getShort()));
+				ExtData.setAccessRights(b.getShortLE());
+				ExtData.setResourceType(b.getShortLE());
+				ExtData.setNmPipeStatus(NamedPipeStatus.parse(b.getShortLE()&0xffff));
+				ExtData.setOpenResults(b.getShortLE());
 				ExtData.setServerFid(b.getInt());
 				b.gets(reserved);
 				ExtData.setReserved(reserved);
-				ExtData.setMaximalAccessRight(ByteOrderConverter.swap(b.getInt()));
-				ExtData.setGuestMaximalAccessRight(ByteOrderConverter.swap(b.getInt()));
+				ExtData.setMaximalAccessRight(b.getIntLE());
+				ExtData.setGuestMaximalAccessRight(b.getIntLE());
 			}
-			ExtData.setByteCount(ByteOrderConverter.swap(b.getShort()));
+			ExtData.setByteCount(b.getShortLE());
 			return ExtData;
 		}
 		else
@@ -87,19 +86,19 @@ public class OpenANDXParser implements SmbDataParser{
 			if(NotExtData.getWordCount() !=0){
 				NotExtData.setAndxCommand(b.get());
 				NotExtData.setAndxReserved(b.get());
-				NotExtData.setAndxOffset(ByteOrderConverter.swap(b.getShort())); // use combine
-				NotExtData.setFid(ByteOrderConverter.swap(b.getShort()));
-				NotExtData.setFileAttrs(FileAttributes.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
+				NotExtData.setAndxOffset(b.getShortLE()); // use combine
+				NotExtData.setFid(b.getShortLE());
+				NotExtData.setFileAttrs(FileAttributes.parse(b.getShortLE()&0xffff));
 				NotExtData.setLastWriteTime(b.getInt());
 				NotExtData.setFileDataSize(b.getInt());
-				NotExtData.setAccessRights(ByteOrderConverter.swap(b.getShort()));
-				NotExtData.setResourceType(ByteOrderConverter.swap(b.getShort()));
-				NotExtData.setNmPipeStatus(NamedPipeStatus.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
-				NotExtData.setOpenResults(ByteOrderConverter.swap(b.getShort()));
+				NotExtData.setAccessRights(b.getShortLE());
+				NotExtData.setResourceType(b.getShortLE());
+				NotExtData.setNmPipeStatus(NamedPipeStatus.parse(b.getShortLE()&0xffff));
+				NotExtData.setOpenResults(b.getShortLE());
 				b.gets(reserved);
 				NotExtData.setReserved(reserved);
 			}
-			NotExtData.setByteCount(ByteOrderConverter.swap(b.getShort()));
+			NotExtData.setByteCount(b.getShortLE());
 			return NotExtData;
 		}
 	}
@@ -16,9 +16,9 @@ public class OpenParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		OpenRequest data = new OpenRequest();
 		data.setWordCount(b.get());
-		data.setAccessMode(ByteOrderConverter.swap(b.getShort()));
-		data.setSearchAttributes(FileAttributes.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
-		data.setbyteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setAccessMode(b.getShortLE());
+		data.setSearchAttributes(FileAttributes.parse(b.getShortLE()&0xffff));
+		data.setbyteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -37,8 +37,8 @@ public class OpenParser implements SmbDataParser{
 		OpenResponse data = new OpenResponse();
 		data.setWordCount(b.get());
 		if(data.getWordCount() !=0){
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
-			data.setFileAttrs(FileAttributes.parse(ByteOrderConverter.swap(b.getShort()) & 0xffff));
+			data.setFid(b.getShortLE());
+			data.setFileAttrs(FileAttributes.parse(b.getShortLE() & 0xffff));
 		}
 		data.setByteCount(ByteOrderConverter.swap((b.getShort())));
 		return data;
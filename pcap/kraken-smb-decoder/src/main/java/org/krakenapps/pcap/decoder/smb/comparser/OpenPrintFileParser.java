@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.response.OpenPrintFileResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0xC0
 public class OpenPrintFileParser implements SmbDataParser{
 
@@ -14,9 +13,9 @@ public class OpenPrintFileParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		OpenPrintFileRequest data = new OpenPrintFileRequest();
 		data.setWordCount(b.get());
-		data.setSetupLength(ByteOrderConverter.swap(b.getShort()));
-		data.setMode(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setSetupLength(b.getShortLE());
+		data.setMode(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -35,8 +34,8 @@ public class OpenPrintFileParser implements SmbDataParser{
 		
 		OpenPrintFileResponse data = new OpenPrintFileResponse();
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFid(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
@@ -7,7 +7,6 @@ import org.krakenapps.pcap.decoder.smb.rr.FileAttributes;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 // 0x08
 public class QueryInfoParser implements SmbDataParser{
 
@@ -15,7 +14,7 @@ public class QueryInfoParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		QueryInfoRequest data = new QueryInfoRequest();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		data.setBufferFormat(b.get());
 		if(h.isFlag2Unicode()){
 			data.setFileName(NetBiosNameCodec.readSmbUnicodeName(b));
@@ -30,12 +29,12 @@ public class QueryInfoParser implements SmbDataParser{
 		QueryInfoResponse data = new QueryInfoResponse();
 		byte[]reserved = new byte[10];
 		data.setWordCount(b.get());
-		data.setFileAttributes( FileAttributes.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
-		data.setLastWriteTime(ByteOrderConverter.swap(b.getInt()));
-		data.setFileSize(ByteOrderConverter.swap(b.getInt()));
+		data.setFileAttributes( FileAttributes.parse(b.getShortLE()&0xffff));
+		data.setLastWriteTime(b.getIntLE());
+		data.setFileSize(b.getIntLE());
 		b.gets(reserved);
 		data.setReserved(reserved);
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.response.ReadANDXResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class ReadANDXParser implements SmbDataParser{
 	@Override
@@ -15,19 +14,19 @@ public class ReadANDXParser implements SmbDataParser{
 		data.setWordCount(b.get());
 		data.setAndXCommand(b.get());
 		data.setAndXReserved(b.get());
-		data.setAndXOffset(ByteOrderConverter.swap(b.getShort()));
-		data.setFID(ByteOrderConverter.swap(b.getShort()));
-		data.setOffset(ByteOrderConverter.swap(b.getInt()));
-		data.setMaxCountOfBytesToReturn(ByteOrderConverter.swap(b.getShort()));
-		data.setMinCountOfBytesToReturn(ByteOrderConverter.swap(b.getShort()));
-		data.setTimeout(ByteOrderConverter.swap(b.getInt()));
-		data.setRemaining(ByteOrderConverter.swap(b.getShort()));
+		data.setAndXOffset(b.getShortLE());
+		data.setFID(b.getShortLE());
+		data.setOffset(b.getIntLE());
+		data.setMaxCountOfBytesToReturn(b.getShortLE());
+		data.setMinCountOfBytesToReturn(b.getShortLE());
+		data.setTimeout(b.getIntLE());
+		data.setRemaining(b.getShortLE());
 		
 		if(data.getWordCount() == 0x0C){
-			data.setOffsetHigh(ByteOrderConverter.swap(b.getInt()));
+			data.setOffsetHigh(b.getIntLE());
 		}
 		
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
@@ -44,17 +43,17 @@ public class ReadANDXParser implements SmbDataParser{
 			if(((ReadANDXExtensionResponse)data).getWordCount() != 0){
 				((ReadANDXExtensionResponse)data).setAndxCommand(b.get());
 				((ReadANDXExtensionResponse)data).setAndxReserved(b.get());
-				((ReadANDXExtensionResponse)data).setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-				((ReadANDXExtensionResponse)data).setAvailable(ByteOrderConverter.swap(b.getShort()));
-				((ReadANDXExtensionResponse)data).setDataCompactionMode(ByteOrderConverter.swap(b.getShort()));
-				((ReadANDXExtensionResponse)data).setReserved1(ByteOrderConverter.swap(b.getShort()));
-				((ReadANDXExtensionResponse)data).setDataLength(ByteOrderConverter.swap(b.getShort()));
-				((ReadANDXExtensionResponse)data).setDataOffset(ByteOrderConverter.swap(b.getShort()));
-				((ReadANDXExtensionResponse)data).setDataLengthHigh(ByteOrderConverter.swap(b.getShort()));
+				((ReadANDXExtensionResponse)data).setAndxOffset(b.getShortLE());
+				((ReadANDXExtensionResponse)data).setAvailable(b.getShortLE());
+				((ReadANDXExtensionResponse)data).setDataCompactionMode(b.getShortLE());
+				((ReadANDXExtensionResponse)data).setReserved1(b.getShortLE());
+				((ReadANDXExtensionResponse)data).setDataLength(b.getShortLE());
+				((ReadANDXExtensionResponse)data).setDataOffset(b.getShortLE());
+				((ReadANDXExtensionResponse)data).setDataLengthHigh(b.getShortLE());
 				b.gets(reserved2);
 				((ReadANDXExtensionResponse)data).setReserved2(reserved2);
 			}
-			((ReadANDXExtensionResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((ReadANDXExtensionResponse)data).setByteCount(b.getShortLE());
 			if(((ReadANDXExtensionResponse)data).getByteCount()!=0){
 	//			System.out.println("ByteCount = " + ((ReadANDXExtensionResponse)data).getByteCount());
 	//			System.out.println("Datalength = " + ((ReadANDXExtensionResponse)data).getDataLength());
@@ -73,15 +72,15 @@ public class ReadANDXParser implements SmbDataParser{
 			((ReadANDXResponse)data).setWordCount(b.get());
 			((ReadANDXResponse)data).setAndxCommand(b.get());
 			((ReadANDXResponse)data).setAndxReserved(b.get());
-			((ReadANDXResponse)data).setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-			((ReadANDXResponse)data).setAvailable(ByteOrderConverter.swap(b.getShort()));
-			((ReadANDXResponse)data).setDataCompactionMode(ByteOrderConverter.swap(b.getShort()));
-			((ReadANDXResponse)data).setReserved1(ByteOrderConverter.swap(b.getShort()));
-			((ReadANDXResponse)data).setDataLength(ByteOrderConverter.swap(b.getShort()));
-			((ReadANDXResponse)data).setDataOffset(ByteOrderConverter.swap(b.getShort()));
+			((ReadANDXResponse)data).setAndxOffset(b.getShortLE());
+			((ReadANDXResponse)data).setAvailable(b.getShortLE());
+			((ReadANDXResponse)data).setDataCompactionMode(b.getShortLE());
+			((ReadANDXResponse)data).setReserved1(b.getShortLE());
+			((ReadANDXResponse)data).setDataLength(b.getShortLE());
+			((ReadANDXResponse)data).setDataOffset(b.getShortLE());
 			b.gets(reserved2);
 			((ReadANDXResponse)data).setReserved2(reserved2);
-			((ReadANDXResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((ReadANDXResponse)data).setByteCount(b.getShortLE());
 			if(b.readableBytes() != ((ReadANDXResponse)data).getByteCount()){
 				data.setMalformed(true);
 				return data;
@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.response.ReadMPXResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class ReadMPXParser implements SmbDataParser{
 	
@@ -14,13 +13,13 @@ public class ReadMPXParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h,Buffer b , SmbSession session) {
 		ReadMPXRequest data = new ReadMPXRequest();
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setOffset(ByteOrderConverter.swap(b.getInt()));
-		data.setMaxCountOfBytesToReturn(ByteOrderConverter.swap(b.getShort()));
-		data.setMinCountOfBytesToReturn(ByteOrderConverter.swap(b.getShort()));
-		data.setTimeout(ByteOrderConverter.swap(b.getInt()));
-		data.setReserved(ByteOrderConverter.swap(b.getShort()));// it only 0x0000
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFid(b.getShortLE());
+		data.setOffset(b.getIntLE());
+		data.setMaxCountOfBytesToReturn(b.getShortLE());
+		data.setMinCountOfBytesToReturn(b.getShortLE());
+		data.setTimeout(b.getIntLE());
+		data.setReserved(b.getShortLE());// it only 0x0000
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
@@ -29,14 +28,14 @@ public class ReadMPXParser implements SmbDataParser{
 		byte []pad; 
 		byte []datas;
 		data.setWordCount(b.get());
-		data.setOffset(ByteOrderConverter.swap(b.getInt()));
-		data.setCount(ByteOrderConverter.swap(b.getShort()));
-		data.setRemaining(ByteOrderConverter.swap(b.getShort()));
-		data.setDataCompactionMode(ByteOrderConverter.swap(b.getShort()));
-		data.setReserved(ByteOrderConverter.swap(b.getShort()));
-		data.setDataLength(ByteOrderConverter.swap(b.getShort()));
-		data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setOffset(b.getIntLE());
+		data.setCount(b.getShortLE());
+		data.setRemaining(b.getShortLE());
+		data.setDataCompactionMode(b.getShortLE());
+		data.setReserved(b.getShortLE());
+		data.setDataLength(b.getShortLE());
+		data.setDataOffset(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.ReadResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 
 public class ReadParser implements SmbDataParser{
@@ -14,11 +13,11 @@ public class ReadParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		ReadRequest data = new ReadRequest();
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setCountOfBytesToRead(ByteOrderConverter.swap(b.getShort()));
-		data.setReadOffSetInBytes(ByteOrderConverter.swap(b.getInt()));
-		data.setEstimateOfRemainingBytesToBeRead(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFid(b.getShortLE());
+		data.setCountOfBytesToRead(b.getShortLE());
+		data.setReadOffSetInBytes(b.getIntLE());
+		data.setEstimateOfRemainingBytesToBeRead(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
@@ -28,7 +27,7 @@ public class ReadParser implements SmbDataParser{
 		byte []bytes;
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x05){
-			data.setCountOfBytesReturned(ByteOrderConverter.swap(b.getShort()));
+			data.setCountOfBytesReturned(b.getShortLE());
 			b.gets(reserved);
 			data.setReserved(reserved);
 		}
@@ -36,7 +35,7 @@ public class ReadParser implements SmbDataParser{
 			data.setMalformed(true);
 		}
 			
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -46,7 +45,7 @@ public class ReadParser implements SmbDataParser{
 			return data;
 		}
 		data.setBufferFormat(b.get());
-		data.setCountOfBytesRead(ByteOrderConverter.swap(b.getShort()));
+		data.setCountOfBytesRead(b.getShortLE());
 		bytes = new byte[data.getCountOfBytesRead()]; 
 		b.gets(bytes);
 		data.setBytes(bytes); // it must file content
@@ -9,7 +9,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbDirectoryInfo;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.decoder.smb.structure.SmbResumeKey;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x81
 public class SearchParser implements SmbDataParser{
 
@@ -20,9 +19,9 @@ public class SearchParser implements SmbDataParser{
 		byte []serverState = new byte[16];
 		byte []clientState = new byte[4];
 		data.setWordCount(b.get());
-		data.setMaxCount(ByteOrderConverter.swap(b.getShort()));
-		data.setSearchAttribytes(FileAttributes.parse(ByteOrderConverter.swap(b.getShort()) & 0xff));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setMaxCount(b.getShortLE());
+		data.setSearchAttribytes(FileAttributes.parse(b.getShortLE() & 0xff));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -31,7 +30,7 @@ public class SearchParser implements SmbDataParser{
 		data.setFileName(NetBiosNameCodec.readSmbUnicodeName(b));
 		//System.out.println("FileName = " + data.getFileName());
 		data.setBufferFormat2(b.get());
-		data.setResumeKeyLength(ByteOrderConverter.swap(b.getShort()));
+		data.setResumeKeyLength(b.getShortLE());
 		keys = new SmbResumeKey[data.getResumeKeyLength()/21];
 		for(int i=0; i< data.getResumeKeyLength()/21;i++){
 			keys[i] = new SmbResumeKey();
@@ -54,9 +53,9 @@ public class SearchParser implements SmbDataParser{
 		//byte []name = new byte[13];
 		data.setWordCount(b.get());
 		if(data.getWordCount() != 0){
-			data.setCount(ByteOrderConverter.swap(b.getShort()));
+			data.setCount(b.getShortLE());
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(data.getByteCount() ==0 ){
 			return data;
 		}
@@ -65,7 +64,7 @@ public class SearchParser implements SmbDataParser{
 			return data;
 		}
 		data.setBufferFormat(b.get());
-		data.setDataLength(ByteOrderConverter.swap(b.getShort()));
+		data.setDataLength(b.getShortLE());
 		info = new SmbDirectoryInfo[data.getDataLength()/43];
 		key = new SmbResumeKey[data.getDataLength()/43];
 		for(int i=0;i<data.getDataLength()/43 ; i++){
@@ -80,9 +79,9 @@ public class SearchParser implements SmbDataParser{
 			//set directory info
 			info[i].setResumeKey(key[i]);
 			info[i].setFileAttributes(FileAttributes.parse(b.get() & 0xff));
-			info[i].setLastWriteTime(ByteOrderConverter.swap(b.getShort()));
-			info[i].setLastWriteDate(ByteOrderConverter.swap(b.getShort()));
-			info[i].setFileSize(ByteOrderConverter.swap(b.getInt()));
+			info[i].setLastWriteTime(b.getShortLE());
+			info[i].setLastWriteDate(b.getShortLE());
+			info[i].setFileSize(b.getIntLE());
 			info[i].setFilename(NetBiosNameCodec.readOemName(b, 13));
 		}
 		data.setDirectoryInformationData(info);
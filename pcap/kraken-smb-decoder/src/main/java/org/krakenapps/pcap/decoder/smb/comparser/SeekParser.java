@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.SeekResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SeekParser implements SmbDataParser{
 
@@ -14,15 +13,15 @@ public class SeekParser implements SmbDataParser{
 		SeekRequest data = new SeekRequest();
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x04){
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
-			data.setMode(ByteOrderConverter.swap(b.getShort()));
-			data.setOffset(ByteOrderConverter.swap(b.getInt()));
+			data.setFid(b.getShortLE());
+			data.setMode(b.getShortLE());
+			data.setOffset(b.getIntLE());
 		}
 		else{
 			data.setMalformed(true);
 			b.skip(data.getWordCount()*2);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
@@ -30,13 +29,13 @@ public class SeekParser implements SmbDataParser{
 		SeekResponse data = new SeekResponse();
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x02){
-			data.setOffset(ByteOrderConverter.swap(b.getInt()));
+			data.setOffset(b.getIntLE());
 		}
 		else{
 			data.setMalformed(true);
 			b.skip(data.getWordCount()*2);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
@@ -8,7 +8,6 @@ import org.krakenapps.pcap.decoder.smb.response.SessionSetupANDXResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SessionSetupANDXParser implements SmbDataParser{
 	@Override
@@ -29,20 +28,20 @@ public class SessionSetupANDXParser implements SmbDataParser{
 			if(((SessionSetupANDXExtendRequest)data).getWordCount() == 0x0C){
 				((SessionSetupANDXExtendRequest)data).setAndxCommand(b.get());
 				((SessionSetupANDXExtendRequest)data).setAndxReserved(b.get());
-				((SessionSetupANDXExtendRequest)data).setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXExtendRequest)data).setMaxBufferSize(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXExtendRequest)data).setMaxMpxCount(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXExtendRequest)data).setVcNumber(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXExtendRequest)data).setSessionKey(ByteOrderConverter.swap(b.getInt()));
-				((SessionSetupANDXExtendRequest)data).setSecurityBlobLenth(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXExtendRequest)data).setReserved(ByteOrderConverter.swap(b.getInt()));
-				((SessionSetupANDXExtendRequest)data).setCapabilities(ByteOrderConverter.swap(b.getInt()));
+				((SessionSetupANDXExtendRequest)data).setAndxOffset(b.getShortLE());
+				((SessionSetupANDXExtendRequest)data).setMaxBufferSize(b.getShortLE());
+				((SessionSetupANDXExtendRequest)data).setMaxMpxCount(b.getShortLE());
+				((SessionSetupANDXExtendRequest)data).setVcNumber(b.getShortLE());
+				((SessionSetupANDXExtendRequest)data).setSessionKey(b.getIntLE());
+				((SessionSetupANDXExtendRequest)data).setSecurityBlobLenth(b.getShortLE());
+				((SessionSetupANDXExtendRequest)data).setReserved(b.getIntLE());
+				((SessionSetupANDXExtendRequest)data).setCapabilities(b.getIntLE());
 			}
 			else{
 				b.skip(((SessionSetupANDXExtendRequest)data).getWordCount()*2);	
 				((SessionSetupANDXExtendRequest)data).setMalformed(true);
 			}
-			((SessionSetupANDXExtendRequest)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((SessionSetupANDXExtendRequest)data).setByteCount(b.getShortLE());
 			if(b.readableBytes() != ((SessionSetupANDXExtendRequest)data).getByteCount()){
 				data.setMalformed(true);
 				return data;
@@ -74,21 +73,21 @@ public class SessionSetupANDXParser implements SmbDataParser{
 			if(((SessionSetupANDXRequest)data).getWordCount() == 0x0D){
 				((SessionSetupANDXRequest)data).setAndxCommand(b.get());
 				((SessionSetupANDXRequest)data).setAndxReserved(b.get());
-				((SessionSetupANDXRequest)data).setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXRequest)data).setMaxBufferSize(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXRequest)data).setMaxMpxCount(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXRequest)data).setVcNumber(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXRequest)data).setSessionKey(ByteOrderConverter.swap(b.getInt()));
-				((SessionSetupANDXRequest)data).setOemPasswordLen(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXRequest)data).setUnicodePasswordLen(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXRequest)data).setReserved(ByteOrderConverter.swap(b.getInt()));
-				((SessionSetupANDXRequest)data).setCapabilities(ByteOrderConverter.swap(b.getInt()));
+				((SessionSetupANDXRequest)data).setAndxOffset(b.getShortLE());
+				((SessionSetupANDXRequest)data).setMaxBufferSize(b.getShortLE());
+				((SessionSetupANDXRequest)data).setMaxMpxCount(b.getShortLE());
+				((SessionSetupANDXRequest)data).setVcNumber(b.getShortLE());
+				((SessionSetupANDXRequest)data).setSessionKey(b.getIntLE());
+				((SessionSetupANDXRequest)data).setOemPasswordLen(b.getShortLE());
+				((SessionSetupANDXRequest)data).setUnicodePasswordLen(b.getShortLE());
+				((SessionSetupANDXRequest)data).setReserved(b.getIntLE());
+				((SessionSetupANDXRequest)data).setCapabilities(b.getIntLE());
 			}
 			else{
 				b.skip(((SessionSetupANDXRequest)data).getWordCount()*2);
 				((SessionSetupANDXRequest)data).setMalformed(true);
 			}
-			((SessionSetupANDXRequest)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((SessionSetupANDXRequest)data).setByteCount(b.getShortLE());
 			if(b.readableBytes() !=((SessionSetupANDXRequest)data).getByteCount()){
 				data.setMalformed(true);
 				return data;
@@ -147,15 +146,15 @@ public class SessionSetupANDXParser implements SmbDataParser{
 			if(((SessionSetupANDXExtendResponse)data).getWordCount() == 0x04){
 				((SessionSetupANDXExtendResponse)data).setAndxCommand(b.get());
 				((SessionSetupANDXExtendResponse)data).setAndxResrved(b.get());
-				((SessionSetupANDXExtendResponse)data).setAndxoffset(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXExtendResponse)data).setAction(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXExtendResponse)data).setSecurityBlobLenth(ByteOrderConverter.swap(b.getShort()));
+				((SessionSetupANDXExtendResponse)data).setAndxoffset(b.getShortLE());
+				((SessionSetupANDXExtendResponse)data).setAction(b.getShortLE());
+				((SessionSetupANDXExtendResponse)data).setSecurityBlobLenth(b.getShortLE());
 			}
 			else{
 				b.skip(((SessionSetupANDXExtendResponse)data).getWordCount()*2);
 				((SessionSetupANDXExtendResponse)data).setMalformed(true);
 			}
-			((SessionSetupANDXExtendResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((SessionSetupANDXExtendResponse)data).setByteCount(b.getShortLE());
 			if(b.readableBytes() != ((SessionSetupANDXExtendResponse)data).getByteCount()){
 				data.setMalformed(true);
 				return data;
@@ -186,14 +185,14 @@ public class SessionSetupANDXParser implements SmbDataParser{
 			if(((SessionSetupANDXResponse)data).getWordCount() == 0x03){
 				((SessionSetupANDXResponse)data).setAndxCommand(b.get());
 				((SessionSetupANDXResponse)data).setAndxResrved(b.get());
-				((SessionSetupANDXResponse)data).setAndxoffset(ByteOrderConverter.swap(b.getShort()));
-				((SessionSetupANDXResponse)data).setAction(ByteOrderConverter.swap(b.getShort()));
+				((SessionSetupANDXResponse)data).setAndxoffset(b.getShortLE());
+				((SessionSetupANDXResponse)data).setAction(b.getShortLE());
 			}
 			else{
 				b.skip(((SessionSetupANDXResponse)data).getWordCount()*2);
 				((SessionSetupANDXResponse)data).setMalformed(true);
 			}
-			((SessionSetupANDXResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((SessionSetupANDXResponse)data).setByteCount(b.getShortLE());
 			if(b.readableBytes() != ((SessionSetupANDXResponse)data).getByteCount()){
 				data.setMalformed(true);
 				return data;
@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.response.SetInfo2Response;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 //0x22
 public class SetInfo2Parser implements SmbDataParser {
@@ -14,14 +13,14 @@ public class SetInfo2Parser implements SmbDataParser {
 	public SmbData parseRequest(SmbHeader h, Buffer b, SmbSession session) {
 		SetInfo2Request data = new SetInfo2Request();
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setCreateDate(ByteOrderConverter.swap(b.getShort()));
-		data.setCreationTime(ByteOrderConverter.swap(b.getShort()));
-		data.setLastAccessDate(ByteOrderConverter.swap(b.getShort()));
-		data.setLastAccessTime(ByteOrderConverter.swap(b.getShort()));
-		data.setLastWriteDate(ByteOrderConverter.swap(b.getShort()));
-		data.setLastWriteTime(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFid(b.getShortLE());
+		data.setCreateDate(b.getShortLE());
+		data.setCreationTime(b.getShortLE());
+		data.setLastAccessDate(b.getShortLE());
+		data.setLastAccessTime(b.getShortLE());
+		data.setLastWriteDate(b.getShortLE());
+		data.setLastWriteTime(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 
@@ -29,7 +28,7 @@ public class SetInfo2Parser implements SmbDataParser {
 	public SmbData parseResponse(SmbHeader h, Buffer b, SmbSession session) {
 		SetInfo2Response data = new SetInfo2Response();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
@@ -7,7 +7,6 @@ import org.krakenapps.pcap.decoder.smb.rr.FileAttributes;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SetInfoParser implements SmbDataParser{
 	byte resWordCount;
@@ -17,11 +16,11 @@ public class SetInfoParser implements SmbDataParser{
 		SetInfoRequest data = new SetInfoRequest();
 		byte []reserved = new byte[10];
 		data.setWordCount(b.get());
-		data.setFileAttributes(FileAttributes.parse(ByteOrderConverter.swap(b.getShort())&0xffff));
-		data.setLastWriteTime(ByteOrderConverter.swap(b.getInt()));
+		data.setFileAttributes(FileAttributes.parse(b.getShortLE()&0xffff));
+		data.setLastWriteTime(b.getIntLE());
 		b.gets(reserved);
 		data.setReserved(reserved);
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -39,7 +38,7 @@ public class SetInfoParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		SetInfoResponse data = new SetInfoResponse();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	
@@ -10,7 +10,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 import org.krakenapps.pcap.util.ChainBuffer;
 //0x32
 public class Transaction2Parser implements SmbDataParser{
@@ -26,19 +25,19 @@ public class Transaction2Parser implements SmbDataParser{
 		byte []buff;
 		data.setWordCount(b.get());
 		if(data.getWordCount() >= 0x0E){
-			data.setTotalParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setTotalDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setMaxParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setMaxDataCount(ByteOrderConverter.swap(b.getShort()));
+			data.setTotalParameterCount(b.getShortLE());
+			data.setTotalDataCount(b.getShortLE());
+			data.setMaxParameterCount(b.getShortLE());
+			data.setMaxDataCount(b.getShortLE());
 			data.setMaxSetupCount(b.get());
 			data.setReserved1(b.get());
-			data.setFlags(ByteOrderConverter.swap(b.getShort()));
-			data.setTimeout(ByteOrderConverter.swap(b.getInt()));
-			data.setReserved2(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
+			data.setFlags(b.getShortLE());
+			data.setTimeout(b.getIntLE());
+			data.setReserved2(b.getShortLE());
+			data.setParameterCount(b.getShortLE());
+			data.setParameterOffset(b.getShortLE());
+			data.setDataCount(b.getShortLE());
+			data.setDataOffset(b.getShortLE());
 			data.setSetupCount(b.get());
 			data.setReserved3(b.get());
 			setup = new byte[data.getSetupCount()*2];
@@ -49,7 +48,7 @@ public class Transaction2Parser implements SmbDataParser{
 			data.setMalformed(true);
 			b.skip(data.getWordCount()*2);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -87,7 +86,7 @@ public class Transaction2Parser implements SmbDataParser{
 		parameterBuffer.addLast(data.getTrans2Parameters());
 		dataBuffer.addLast(data.getTrans2Data());
 		setupBuffer.mark();
-		TransParser parser = mapper.getParser(Transaction2Command.parse(ByteOrderConverter.swap(setupBuffer.getShort())));
+		TransParser parser = mapper.getParser(Transaction2Command.parse(setupBuffer.getShortLE()));
 		setupBuffer.reset();
 		data.setTransaction2Data(parser.parseRequest( setupBuffer , parameterBuffer , dataBuffer));
 		return data;
@@ -103,22 +102,22 @@ public class Transaction2Parser implements SmbDataParser{
 		byte []buff;
 		data.setWordCount(b.get());
 		if(data.getWordCount() != 0x00){
-			data.setTotalParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setTotalDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setReserved1(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterDisplacement(ByteOrderConverter.swap(b.getShort()));
-			data.setDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setDataDisplacement(ByteOrderConverter.swap(b.getShort()));
+			data.setTotalParameterCount(b.getShortLE());
+			data.setTotalDataCount(b.getShortLE());
+			data.setReserved1(b.getShortLE());
+			data.setParameterCount(b.getShortLE());
+			data.setParameterOffset(b.getShortLE());
+			data.setParameterDisplacement(b.getShortLE());
+			data.setDataCount(b.getShortLE());
+			data.setDataOffset(b.getShortLE());
+			data.setDataDisplacement(b.getShortLE());
 			data.setSetupCount(b.get());
 			data.setResreved2(b.get());
 			setup = new byte[data.getSetupCount()*2];
 			b.gets(setup);
 			data.setSetup(setup);
 		} // it final response
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
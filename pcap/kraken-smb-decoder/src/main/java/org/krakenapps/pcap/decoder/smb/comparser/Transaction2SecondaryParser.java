@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.Transaction2SecondaryResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x33
 public class Transaction2SecondaryParser implements SmbDataParser{
 
@@ -18,21 +17,21 @@ public class Transaction2SecondaryParser implements SmbDataParser{
 		byte []buff;
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x09){
-			data.setTotalParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setTotalDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterDisplacement(ByteOrderConverter.swap(b.getShort()));
-			data.setDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setDataDisplacement(ByteOrderConverter.swap(b.getShort()));
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
+			data.setTotalParameterCount(b.getShortLE());
+			data.setTotalDataCount(b.getShortLE());
+			data.setParameterCount(b.getShortLE());
+			data.setParameterOffset(b.getShortLE());
+			data.setParameterDisplacement(b.getShortLE());
+			data.setDataCount(b.getShortLE());
+			data.setDataOffset(b.getShortLE());
+			data.setDataDisplacement(b.getShortLE());
+			data.setFid(b.getShortLE());
 		}
 		else{
 			data.setMalformed(true);
 			b.skip(data.getWordCount()*2);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -11,7 +11,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.decoder.smb.structure.SmbStatus;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 import org.krakenapps.pcap.util.ChainBuffer;
 //0x25
 public class TransactionParser implements SmbDataParser{
@@ -25,25 +24,25 @@ public class TransactionParser implements SmbDataParser{
 		byte []pad2=null;
 		byte []buff=null;
 		data.setWordCount(b.get());
-		data.setTotalParameterCount(ByteOrderConverter.swap(b.getShort()));
-		data.setTotalDataCount(ByteOrderConverter.swap(b.getShort()));
-		data.setMaxParameterCount(ByteOrderConverter.swap(b.getShort()));
-		data.setMaxDataCount(ByteOrderConverter.swap(b.getShort()));
+		data.setTotalParameterCount(b.getShortLE());
+		data.setTotalDataCount(b.getShortLE());
+		data.setMaxParameterCount(b.getShortLE());
+		data.setMaxDataCount(b.getShortLE());
 		data.setMaxSetupCount(b.get());
 		data.setReserved1(b.get());
-		data.setFlags(ByteOrderConverter.swap(b.getShort()));
-		data.setTimeout(ByteOrderConverter.swap(b.getInt()));
-		data.setReserved2(ByteOrderConverter.swap(b.getShort()));
-		data.setParameterCount(ByteOrderConverter.swap(b.getShort()));
-		data.setParameterOffset(ByteOrderConverter.swap(b.getShort()));
-		data.setDataCount(ByteOrderConverter.swap(b.getShort()));
-		data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
+		data.setFlags(b.getShortLE());
+		data.setTimeout(b.getIntLE());
+		data.setReserved2(b.getShortLE());
+		data.setParameterCount(b.getShortLE());
+		data.setParameterOffset(b.getShortLE());
+		data.setDataCount(b.getShortLE());
+		data.setDataOffset(b.getShortLE());
 		data.setSetupCount(b.get());
 		data.setReserved3(b.get());
 		setup = new byte[data.getSetupCount()*2];
 		b.gets(setup);
 		data.setSetup(setup);// short type align
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -80,7 +79,7 @@ public class TransactionParser implements SmbDataParser{
 		dataBuffer.addLast(data.getTransData());
 		if(setupBuffer.readableBytes() !=0){
 			setupBuffer.mark();
-			TransParser parser = mapper.getParser(TransactionCommand.parse(ByteOrderConverter.swap(setupBuffer.getShort())));
+			TransParser parser = mapper.getParser(TransactionCommand.parse(setupBuffer.getShortLE()));
 			setupBuffer.rewind();
 			data.setTransactionData(parser.parseRequest( setupBuffer , parameterBuffer , dataBuffer));
 		}
@@ -94,7 +93,7 @@ public class TransactionParser implements SmbDataParser{
 		SmbStatus status = h.getStatus();
 		if(status.getErrorClass() != ErrorClass.SUCCESS){
 			data.setWordCount(b.get());
-			data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+			data.setByteCount(b.getShortLE());
 		}
 		else
 		{
@@ -105,21 +104,21 @@ public class TransactionParser implements SmbDataParser{
 			byte []buff;
 			data.setWordCount(b.get());
 			//System.out.println(data.getWordCount());
-			data.setTotalParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setTotalDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setReserved1(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterCount(ByteOrderConverter.swap(b.getShort()));
-			data.setParameterOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setParamterDisplacement(ByteOrderConverter.swap(b.getShort()));
-			data.setDataCount(ByteOrderConverter.swap(b.getShort()));
-			data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setDataDisplacement(ByteOrderConverter.swap(b.getShort()));
+			data.setTotalParameterCount(b.getShortLE());
+			data.setTotalDataCount(b.getShortLE());
+			data.setReserved1(b.getShortLE());
+			data.setParameterCount(b.getShortLE());
+			data.setParameterOffset(b.getShortLE());
+			data.setParamterDisplacement(b.getShortLE());
+			data.setDataCount(b.getShortLE());
+			data.setDataOffset(b.getShortLE());
+			data.setDataDisplacement(b.getShortLE());
 			data.setSetupCount(b.get());
 			data.setReserved2(b.get());
 			setup = new byte[data.getSetupCount()*2];
 			b.gets(setup);
 			data.setSetup(setup);
-			data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+			data.setByteCount(b.getShortLE());
 			if(b.readableBytes() != data.getByteCount()){
 				data.setMalformed(true);
 				return data;
@@ -154,7 +153,7 @@ public class TransactionParser implements SmbDataParser{
 			if(setupBuffer.readableBytes() + parameterBuffer.readableBytes() + dataBuffer.readableBytes() == 0){
 				return data;
 			}
-			//TransParser parser = mapper.getParser(TransactionCommand.parse(ByteOrderConverter.swap(setupBuffer.getShort())));
+			//TransParser parser = mapper.getParser(TransactionCommand.parse(setupBuffer.getShortLE()));
 			TransParser parser = mapper.getParser(session.getSessionTransCommand());
 			if(parser ==null){
 				return data;
@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.TransactionSecondaryResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x26
 public class TransactionSecondaryParser implements SmbDataParser{
 
@@ -17,15 +16,15 @@ public class TransactionSecondaryParser implements SmbDataParser{
 		byte []parameter;
 		byte []buff;
 		data.setWordCount(b.get());
-		data.setTotalParameterCount(ByteOrderConverter.swap(b.getShort()));
-		data.setTotalDataCount(ByteOrderConverter.swap(b.getShort()));
-		data.setParameterCount(ByteOrderConverter.swap(b.getShort()));
-		data.setParameterOffset(ByteOrderConverter.swap(b.getShort()));
-		data.setParameterDisplacement(ByteOrderConverter.swap(b.getShort()));
-		data.setDataCount(ByteOrderConverter.swap(b.getShort()));
-		data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
-		data.setDataDisplacement(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setTotalParameterCount(b.getShortLE());
+		data.setTotalDataCount(b.getShortLE());
+		data.setParameterCount(b.getShortLE());
+		data.setParameterOffset(b.getShortLE());
+		data.setParameterDisplacement(b.getShortLE());
+		data.setDataCount(b.getShortLE());
+		data.setDataOffset(b.getShortLE());
+		data.setDataDisplacement(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
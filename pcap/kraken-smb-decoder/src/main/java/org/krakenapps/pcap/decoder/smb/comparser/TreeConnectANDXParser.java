@@ -7,7 +7,6 @@ import org.krakenapps.pcap.decoder.smb.response.TreeConnectANDXResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class TreeConnectANDXParser implements SmbDataParser{
 	
@@ -21,15 +20,15 @@ public class TreeConnectANDXParser implements SmbDataParser{
 		if(data.getWordCount() == 0x04){
 			data.setAndxCommand(b.get());
 			data.setAndxReserved(b.get());
-			data.setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-			data.setFlags(ByteOrderConverter.swap(b.getShort()));
-			data.setPasswordLength(ByteOrderConverter.swap(b.getShort()));
+			data.setAndxOffset(b.getShortLE());
+			data.setFlags(b.getShortLE());
+			data.setPasswordLength(b.getShortLE());
 		}
 		else{
 			data.setMalformed(true);
 			b.skip(data.getWordCount()*2);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -75,16 +74,16 @@ public class TreeConnectANDXParser implements SmbDataParser{
 			if(((TreeConnectANDXExtendResponse)(data)).getWordCount() == 0x07){
 				((TreeConnectANDXExtendResponse)(data)).setAndxCommand(b.get());
 				((TreeConnectANDXExtendResponse)(data)).setAndxReserved(b.get());
-				((TreeConnectANDXExtendResponse)(data)).setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-				((TreeConnectANDXExtendResponse)(data)).setOptionalSupport(ByteOrderConverter.swap(b.getShort()));
-				((TreeConnectANDXExtendResponse)(data)).setMaximalShareAccessRight(ByteOrderConverter.swap(b.getInt()));
-				((TreeConnectANDXExtendResponse)(data)).setGuestMaximalShareAccessRight(ByteOrderConverter.swap(b.getInt()));
+				((TreeConnectANDXExtendResponse)(data)).setAndxOffset(b.getShortLE());
+				((TreeConnectANDXExtendResponse)(data)).setOptionalSupport(b.getShortLE());
+				((TreeConnectANDXExtendResponse)(data)).setMaximalShareAccessRight(b.getIntLE());
+				((TreeConnectANDXExtendResponse)(data)).setGuestMaximalShareAccessRight(b.getIntLE());
 			}	
 			else{
 				((TreeConnectANDXExtendResponse)(data)).setMalformed(true);
 				b.skip(((TreeConnectANDXExtendResponse)(data)).getWordCount()*2);
 			}
-			((TreeConnectANDXExtendResponse)(data)).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((TreeConnectANDXExtendResponse)(data)).setByteCount(b.getShortLE());
 			if(b.readableBytes() != ((TreeConnectANDXExtendResponse)data).getByteCount()){
 				data.setMalformed(true);
 				return data;
@@ -101,14 +100,14 @@ public class TreeConnectANDXParser implements SmbDataParser{
 			if(((TreeConnectANDXResponse)data).getWordCount() ==0x03){
 				((TreeConnectANDXResponse)data).setAndxCommand(b.get());
 				((TreeConnectANDXResponse)data).setAndxReserved(b.get());
-				((TreeConnectANDXResponse)data).setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-				((TreeConnectANDXResponse)data).setOptionalSupport(ByteOrderConverter.swap(b.getShort()));
+				((TreeConnectANDXResponse)data).setAndxOffset(b.getShortLE());
+				((TreeConnectANDXResponse)data).setOptionalSupport(b.getShortLE());
 			}
 			else{
 				((TreeConnectANDXResponse)data).setMalformed(true);
 				b.skip(((TreeConnectANDXResponse)data).getWordCount()*2);
 			}
-			((TreeConnectANDXResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((TreeConnectANDXResponse)data).setByteCount(b.getShortLE());
 			if(b.readableBytes() != ((TreeConnectANDXResponse)data).getByteCount()){
 				data.setMalformed(true);
 				return data;
@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.response.TreeConnectResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x70
 public class TreeConnectParser implements SmbDataParser{
 
@@ -14,7 +13,7 @@ public class TreeConnectParser implements SmbDataParser{
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		TreeConnectRequest data = new TreeConnectRequest();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -32,9 +31,9 @@ public class TreeConnectParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h,Buffer b ,SmbSession session) {
 		TreeConnectResponse data = new TreeConnectResponse();
 		data.setWordCount(b.get());
-		data.setMaxBufferSize(ByteOrderConverter.swap(b.getShort()));
-		data.setTid(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setMaxBufferSize(b.getShortLE());
+		data.setTid(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		return null;
 	}
 
@@ -5,21 +5,20 @@ import org.krakenapps.pcap.decoder.smb.response.TreeDisconnectResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x71
 public class TreeDisconnectParser implements SmbDataParser{
 	@Override
 	public SmbData parseRequest(SmbHeader h , Buffer b , SmbSession session) {
 		TreeDisconnectRequest data = new TreeDisconnectRequest();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return null;
 	}
 	@Override
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		TreeDisconnectResponse data = new TreeDisconnectResponse();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return null;
 	}
 }
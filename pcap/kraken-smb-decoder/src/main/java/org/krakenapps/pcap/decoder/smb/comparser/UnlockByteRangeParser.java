@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.UnlockByteRangeResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class UnlockByteRangeParser implements SmbDataParser{
 	
@@ -14,18 +13,18 @@ public class UnlockByteRangeParser implements SmbDataParser{
 		UnlockByteRangeRequest data = new UnlockByteRangeRequest();
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x05){
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
-			data.setCountOfBytesToLock(ByteOrderConverter.swap(b.getInt()));
-			data.setUnLockOffsetInBytes(ByteOrderConverter.swap(b.getInt()));
+			data.setFid(b.getShortLE());
+			data.setCountOfBytesToLock(b.getIntLE());
+			data.setUnLockOffsetInBytes(b.getIntLE());
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 	@Override
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		UnlockByteRangeResponse data = new UnlockByteRangeResponse();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
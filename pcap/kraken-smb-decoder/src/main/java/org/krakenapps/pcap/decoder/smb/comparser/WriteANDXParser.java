@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.response.WriteANDXResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 // 0x2F
 public class WriteANDXParser implements SmbDataParser{
 	@Override
@@ -16,19 +15,19 @@ public class WriteANDXParser implements SmbDataParser{
 		data.setWordCount(b.get());
 		data.setAndxCommand(b.get());
 		data.setAndxReserved(b.get());
-		data.setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setOffset(ByteOrderConverter.swap(b.getInt()));
-		data.setTimeout(ByteOrderConverter.swap(b.getInt()));
-		data.setWriteMode(ByteOrderConverter.swap(b.getShort()));
-		data.setRemaining(ByteOrderConverter.swap(b.getShort()));
-		data.setReserved(ByteOrderConverter.swap(b.getShort()));
-		data.setDataLength(ByteOrderConverter.swap(b.getShort()));
-		data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
+		data.setAndxOffset(b.getShortLE());
+		data.setFid(b.getShortLE());
+		data.setOffset(b.getIntLE());
+		data.setTimeout(b.getIntLE());
+		data.setWriteMode(b.getShortLE());
+		data.setRemaining(b.getShortLE());
+		data.setReserved(b.getShortLE());
+		data.setDataLength(b.getShortLE());
+		data.setDataOffset(b.getShortLE());
 		if(data.getWordCount() == 0x0C){
-			data.setOffsetHigh(ByteOrderConverter.swap(b.getInt()));
+			data.setOffsetHigh(b.getIntLE());
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -50,13 +49,13 @@ public class WriteANDXParser implements SmbDataParser{
 			if(((WriteANDXExtensionResponse)data).getWordCount() != 0){
 				((WriteANDXExtensionResponse)data).setAndxCommand(b.get());
 				((WriteANDXExtensionResponse)data).setAndxReserved(b.get());
-				((WriteANDXExtensionResponse)data).setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-				((WriteANDXExtensionResponse)data).setCount(ByteOrderConverter.swap(b.getShort()));
-				((WriteANDXExtensionResponse)data).setAvailable(ByteOrderConverter.swap(b.getShort()));
-				((WriteANDXExtensionResponse)data).setCountHigh(ByteOrderConverter.swap(b.getShort()));
-				((WriteANDXExtensionResponse)data).setReserved(ByteOrderConverter.swap(b.getShort()));
+				((WriteANDXExtensionResponse)data).setAndxOffset(b.getShortLE());
+				((WriteANDXExtensionResponse)data).setCount(b.getShortLE());
+				((WriteANDXExtensionResponse)data).setAvailable(b.getShortLE());
+				((WriteANDXExtensionResponse)data).setCountHigh(b.getShortLE());
+				((WriteANDXExtensionResponse)data).setReserved(b.getShortLE());
 			}
-			((WriteANDXExtensionResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((WriteANDXExtensionResponse)data).setByteCount(b.getShortLE());
 		}
 		else
 		{
@@ -64,11 +63,11 @@ public class WriteANDXParser implements SmbDataParser{
 			((WriteANDXResponse)data).setWordCount(b.get());
 			((WriteANDXResponse)data).setAndxCommand(b.get());
 			((WriteANDXResponse)data).setAndxReserved(b.get());
-			((WriteANDXResponse)data).setAndxOffset(ByteOrderConverter.swap(b.getShort()));
-			((WriteANDXResponse)data).setCount(ByteOrderConverter.swap(b.getShort()));
-			((WriteANDXResponse)data).setAvailable(ByteOrderConverter.swap(b.getShort()));
-			((WriteANDXResponse)data).setReserved(ByteOrderConverter.swap(b.getInt()));
-			((WriteANDXResponse)data).setByteCount(ByteOrderConverter.swap(b.getShort()));
+			((WriteANDXResponse)data).setAndxOffset(b.getShortLE());
+			((WriteANDXResponse)data).setCount(b.getShortLE());
+			((WriteANDXResponse)data).setAvailable(b.getShortLE());
+			((WriteANDXResponse)data).setReserved(b.getIntLE());
+			((WriteANDXResponse)data).setByteCount(b.getShortLE());
 		}
 		return data;
 	}
@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.WriteAndCloseResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x2C
 public class WriteAndCloseParser implements SmbDataParser{
 	@Override
@@ -16,9 +15,9 @@ public class WriteAndCloseParser implements SmbDataParser{
 		data.setWordCount(b.get());
 		if( (data.getWordCount() == (0x06)) || (data.getWordCount() == 0x0c ))
 		{
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
-			data.setCountOfBytesToWrite(ByteOrderConverter.swap(b.getShort()));
-			data.setWriteOffsetInBytes(ByteOrderConverter.swap(b.getInt()));
+			data.setFid(b.getShortLE());
+			data.setCountOfBytesToWrite(b.getShortLE());
+			data.setWriteOffsetInBytes(b.getIntLE());
 			if(data.getWordCount() == 0x0C){
 				b.gets(reserved);
 				data.setReserved(reserved); // optional
@@ -28,7 +27,7 @@ public class WriteAndCloseParser implements SmbDataParser{
 			b.skip(data.getWordCount()*2);
 			data.setMalformed(true);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -49,13 +48,13 @@ public class WriteAndCloseParser implements SmbDataParser{
 		WriteAndCloseResponse data = new WriteAndCloseResponse();
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x01){
-			data.setCountOfBytesWritten(ByteOrderConverter.swap(b.getShort()));
+			data.setCountOfBytesWritten(b.getShortLE());
 		}
 		else{
 			b.skip(data.getWordCount()*2);
 			data.setMalformed(true);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.WriteAndUnlockResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0x14
 public class WriteAndUnlockParser implements SmbDataParser{
 	@Override
@@ -14,18 +13,18 @@ public class WriteAndUnlockParser implements SmbDataParser{
 		byte []datas;
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x05){
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
-			data.setCountOfBytesToWrite(ByteOrderConverter.swap(b.getShort()));
-			data.setWriteOffsetInBytes(ByteOrderConverter.swap(b.getShort()));
-			data.setEstimateOfRemainingBytesToBeWritten(ByteOrderConverter.swap(b.getShort()));
+			data.setFid(b.getShortLE());
+			data.setCountOfBytesToWrite(b.getShortLE());
+			data.setWriteOffsetInBytes(b.getShortLE());
+			data.setEstimateOfRemainingBytesToBeWritten(b.getShortLE());
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
 		}
 		data.setBufferFormat(b.get());
-		data.setDataLength(ByteOrderConverter.swap(b.getShort()));
+		data.setDataLength(b.getShortLE());
 		datas = new byte[data.getDataLength()];
 		b.gets(datas);
 		data.setData(datas);
@@ -36,9 +35,9 @@ public class WriteAndUnlockParser implements SmbDataParser{
 		WriteAndUnlockResponse data = new WriteAndUnlockResponse();
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x01){
-			data.setCountOfBytesWritten(ByteOrderConverter.swap(b.getShort()));
+			data.setCountOfBytesWritten(b.getShortLE());
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
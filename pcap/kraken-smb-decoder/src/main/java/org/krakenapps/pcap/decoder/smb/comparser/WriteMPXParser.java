@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.WriteMPXResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class WriteMPXParser implements SmbDataParser{
 	@Override
@@ -14,16 +13,16 @@ public class WriteMPXParser implements SmbDataParser{
 		byte []pad;
 		byte []buffer;
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setTotalByteCount(ByteOrderConverter.swap(b.getShort()));
-		data.setReserved(ByteOrderConverter.swap(b.getShort()));
-		data.setByteOffsetToBeginwrite(ByteOrderConverter.swap(b.getInt()));
-		data.setTimeout(ByteOrderConverter.swap(b.getInt()));
-		data.setWriteMode(ByteOrderConverter.swap(b.getShort()));
-		data.setReqMask(ByteOrderConverter.swap(b.getInt()));
-		data.setDataLength(ByteOrderConverter.swap(b.getShort()));
-		data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFid(b.getShortLE());
+		data.setTotalByteCount(b.getShortLE());
+		data.setReserved(b.getShortLE());
+		data.setByteOffsetToBeginwrite(b.getIntLE());
+		data.setTimeout(b.getIntLE());
+		data.setWriteMode(b.getShortLE());
+		data.setReqMask(b.getIntLE());
+		data.setDataLength(b.getShortLE());
+		data.setDataOffset(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -42,8 +41,8 @@ public class WriteMPXParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		WriteMPXResponse data = new WriteMPXResponse();
 		data.setWordCount(b.get());
-		data.setResMask(ByteOrderConverter.swap(b.getInt()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setResMask(b.getIntLE());
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.WriteResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 // 0x0B
 public class WriteParser implements SmbDataParser{
 
@@ -15,15 +14,15 @@ public class WriteParser implements SmbDataParser{
 		byte []bytes;
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x05){
-			data.setFid(ByteOrderConverter.swap(b.getShort()));
-			data.setCountOfBytesToWrtie(ByteOrderConverter.swap(b.getShort()));
-			data.setWriteoffsetInBytes(ByteOrderConverter.swap(b.getInt()));
-			data.setEstimateofRemainingBytesToBeWritten(ByteOrderConverter.swap(b.getShort()));
+			data.setFid(b.getShortLE());
+			data.setCountOfBytesToWrtie(b.getShortLE());
+			data.setWriteoffsetInBytes(b.getIntLE());
+			data.setEstimateofRemainingBytesToBeWritten(b.getShortLE());
 		}
 		else{
 			data.setMalformed(true);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -33,7 +32,7 @@ public class WriteParser implements SmbDataParser{
 			return data;
 		}
 		data.setBufferFormat(b.get());
-		data.setDatalength(ByteOrderConverter.swap(b.getShort()));
+		data.setDatalength(b.getShortLE());
 		bytes = new byte[data.getCountOfBytesToWrtie()];
 		b.gets(bytes);
 		data.setData(bytes);
@@ -44,12 +43,12 @@ public class WriteParser implements SmbDataParser{
 		WriteResponse data = new WriteResponse();
 		data.setWordCount(b.get());
 		if(data.getWordCount() == 0x01){
-			data.setCountOfBytesWritten(ByteOrderConverter.swap(b.getShort()));
+			data.setCountOfBytesWritten(b.getShortLE());
 		}
 		else{
 			data.setMalformed(true);
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.WritePrintFileResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 //0xC1
 public class WritePrintFileParser implements SmbDataParser{
 
@@ -14,14 +13,14 @@ public class WritePrintFileParser implements SmbDataParser{
 		WritePrintFileRequest data = new WritePrintFileRequest();
 		byte []buff;
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setFid(b.getShortLE());
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
 		}
 		data.setBufferFormat(b.get());
-		data.setDataLength(ByteOrderConverter.swap(b.getShort()));
+		data.setDataLength(b.getShortLE());
 		buff = new byte[data.getDataLength()];
 		b.gets(buff);
 		data.setData(buff);
@@ -31,7 +30,7 @@ public class WritePrintFileParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		WritePrintFileResponse data = new WritePrintFileResponse();
 		data.setWordCount(b.get());
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 
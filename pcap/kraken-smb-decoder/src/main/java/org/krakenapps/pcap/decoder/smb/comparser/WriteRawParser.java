@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.response.WriteRawResponse;
 import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class WriteRawParser implements SmbDataParser{
 	@Override
@@ -14,20 +13,20 @@ public class WriteRawParser implements SmbDataParser{
 		byte []pad;
 		byte []bytes;
 		data.setWordCount(b.get());
-		data.setFid(ByteOrderConverter.swap(b.getShort()));
-		data.setCountOfBytes(ByteOrderConverter.swap(b.getShort()));
-		data.setReserved1(ByteOrderConverter.swap(b.getShort()));
-		data.setOffset(ByteOrderConverter.swap(b.getInt()));
-		data.setTimeout(ByteOrderConverter.swap(b.getInt()));
-		data.setWriteMode(ByteOrderConverter.swap(b.getShort()));
-		data.setReserved2(ByteOrderConverter.swap(b.getShort()));
-		data.setDataLength(ByteOrderConverter.swap(b.getInt()));
-		data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
+		data.setFid(b.getShortLE());
+		data.setCountOfBytes(b.getShortLE());
+		data.setReserved1(b.getShortLE());
+		data.setOffset(b.getIntLE());
+		data.setTimeout(b.getIntLE());
+		data.setWriteMode(b.getShortLE());
+		data.setReserved2(b.getShortLE());
+		data.setDataLength(b.getIntLE());
+		data.setDataOffset(b.getShortLE());
 		if(data.getWordCount() == 0x0E)
 		{
-			data.setOffsetHigh(ByteOrderConverter.swap(b.getInt()));
+			data.setOffsetHigh(b.getIntLE());
 		}
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -46,8 +45,8 @@ public class WriteRawParser implements SmbDataParser{
 	public SmbData parseResponse(SmbHeader h , Buffer b ,SmbSession session) {
 		WriteRawResponse data = new WriteRawResponse();
 		data.setWordCount(b.get());
-		data.setAvailable(ByteOrderConverter.swap(b.getShort())); // or Count
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setAvailable(b.getShortLE()); // or Count
+		data.setByteCount(b.getShortLE());
 		return data;
 	}
 }
@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.ntreq.NtIoctlRequest;
 import org.krakenapps.pcap.decoder.smb.ntresp.NtIoctlResponse;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class NtIoctlParser implements TransParser{
 	private final static int FSCTL_SRV_ENUMERATE_SNAPSHOTS = 0x00144064;
@@ -17,8 +16,8 @@ public class NtIoctlParser implements TransParser{
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer,  Buffer dataBuffer) {
 		NtIoctlRequest transData = new NtIoctlRequest();
 		// setupBuffer parse start 
-		transData.setFucntionCode(ByteOrderConverter.swap(setupBuffer.getInt()));
-		transData.setFid(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setFucntionCode(setupBuffer.getIntLE());
+		transData.setFid(setupBuffer.getShortLE());
 		transData.setIsFctl(setupBuffer.get());
 		transData.setIsFlags(setupBuffer.get());
 		// setupBuffer parser end
@@ -46,7 +45,7 @@ public class NtIoctlParser implements TransParser{
 	public TransData parseResponse(Buffer setupBuffer , Buffer parameterBuffer,  Buffer dataBuffer , SmbSession session) {
 		NtIoctlResponse transData = new NtIoctlResponse();
 		//start setupBuffer parse
-		transData.setFunctionCode(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setFunctionCode(setupBuffer.getShortLE());
 		//end of setupBuffer
 		// there is no parameterBuffer use
 		
@@ -9,7 +9,6 @@ import org.krakenapps.pcap.decoder.smb.rr.ExtFileAttributes;
 import org.krakenapps.pcap.decoder.smb.rr.NamedPipeStatus;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class NtTransactCreateParser implements TransParser{
 
@@ -19,18 +18,18 @@ public class NtTransactCreateParser implements TransParser{
 		//setup
 		//this packet Type that setupBuffer is null
 		// start to parameter parse
-		transData.setFlags(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setRootDirectoryFid(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setDesiredAccess(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setAllocationSize(ByteOrderConverter.swap(parameterBuffer.getLong()));
-		transData.setExtFileAttributes(ExtFileAttributes.parse(ByteOrderConverter.swap(parameterBuffer.getInt())));
-		transData.setShareAccess(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setCreateDisposition(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setCreateOptions(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setSecurityDescriptorLength(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setEaLength(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setNameLength(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setImpersonationLevel(ByteOrderConverter.swap(parameterBuffer.getInt()));
+		transData.setFlags(parameterBuffer.getIntLE());
+		transData.setRootDirectoryFid(parameterBuffer.getIntLE());
+		transData.setDesiredAccess(parameterBuffer.getIntLE());
+		transData.setAllocationSize(parameterBuffer.getLongLE());
+		transData.setExtFileAttributes(ExtFileAttributes.parse(parameterBuffer.getIntLE()));
+		transData.setShareAccess(parameterBuffer.getIntLE());
+		transData.setCreateDisposition(parameterBuffer.getIntLE());
+		transData.setCreateOptions(parameterBuffer.getIntLE());
+		transData.setSecurityDescriptorLength(parameterBuffer.getIntLE());
+		transData.setEaLength(parameterBuffer.getIntLE());
+		transData.setNameLength(parameterBuffer.getIntLE());
+		transData.setImpersonationLevel(parameterBuffer.getIntLE());
 		transData.setSecurityFlags(parameterBuffer.get());
 		byte []name = new byte[transData.getNameLength()];		// if UNICODE align 2byte
 		parameterBuffer.gets(name);
@@ -53,18 +52,18 @@ public class NtTransactCreateParser implements TransParser{
 		//there is no use setupBuffer because setupCount must be 0x00
 		transData.setOpLockLevel(parameterBuffer.get());
 		transData.setReserved(parameterBuffer.get());
-		transData.setFid(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setCreateAction(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setEaErrorOffset(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setCreationTime(ByteOrderConverter.swap(parameterBuffer.getLong()));
-		transData.setLastAccessTime(ByteOrderConverter.swap(parameterBuffer.getLong()));
-		transData.setLastWriteTime(ByteOrderConverter.swap(parameterBuffer.getLong()));
-		transData.setLastChangeTime(ByteOrderConverter.swap(parameterBuffer.getLong()));
-		transData.setExtFileAttributes(ExtFileAttributes.parse(ByteOrderConverter.swap(parameterBuffer.getInt())));
-		transData.setAllocationSize(ByteOrderConverter.swap(parameterBuffer.getLong()));
-		transData.setEndOfFile(ByteOrderConverter.swap(parameterBuffer.getLong()));
-		transData.setResourceType(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setNmPipeStatus(NamedPipeStatus.parse(ByteOrderConverter.swap(parameterBuffer.getShort())));
+		transData.setFid(parameterBuffer.getShortLE());
+		transData.setCreateAction(parameterBuffer.getIntLE());
+		transData.setEaErrorOffset(parameterBuffer.getIntLE());
+		transData.setCreationTime(parameterBuffer.getLongLE());
+		transData.setLastAccessTime(parameterBuffer.getLongLE());
+		transData.setLastWriteTime(parameterBuffer.getLongLE());
+		transData.setLastChangeTime(parameterBuffer.getLongLE());
+		transData.setExtFileAttributes(ExtFileAttributes.parse(parameterBuffer.getIntLE()));
+		transData.setAllocationSize(parameterBuffer.getLongLE());
+		transData.setEndOfFile(parameterBuffer.getLongLE());
+		transData.setResourceType(parameterBuffer.getShortLE());
+		transData.setNmPipeStatus(NamedPipeStatus.parse(parameterBuffer.getShortLE()));
 		transData.setDirectory(parameterBuffer.get());
 		// there is no use dataBuffer
 		return transData;
@@ -8,7 +8,6 @@ import org.krakenapps.pcap.decoder.smb.ntresp.NtTransactNotifyChangeResponse;
 import org.krakenapps.pcap.decoder.smb.structure.FileNotifyInformation;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class NtTransactNotifyChangeParser implements TransParser{
 
@@ -16,8 +15,8 @@ public class NtTransactNotifyChangeParser implements TransParser{
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer,  Buffer dataBuffer) {
 		NtTransactNotifyChangeRequest transData = new NtTransactNotifyChangeRequest();
 		//start setupBuffer parse
-		transData.setCompletionFiler(ByteOrderConverter.swap(setupBuffer.getInt()));
-		transData.setFid(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setCompletionFiler(setupBuffer.getIntLE());
+		transData.setFid(setupBuffer.getShortLE());
 		transData.setWatchTree(setupBuffer.get());
 		transData.setReserved(setupBuffer.get());
 		// end of setupBuffer
@@ -37,19 +36,19 @@ public class NtTransactNotifyChangeParser implements TransParser{
 		parameterBuffer.mark();
 		while(true){ // count fileNotifyInformation structure
 			i++;
-			if(ByteOrderConverter.swap(parameterBuffer.getInt()) == 0x00000000){
+			if(parameterBuffer.getIntLE() == 0x00000000){
 				break;
 			}
 			parameterBuffer.skip(4);
-			parameterBuffer.skip(ByteOrderConverter.swap(parameterBuffer.getInt()));
+			parameterBuffer.skip(parameterBuffer.getIntLE());
 		}
 		parameterBuffer.reset();
 		fileNotifyInformation = new FileNotifyInformation[i]; 
 		for(int j=0;j<i ;j++){
 			fileNotifyInformation[j] = new FileNotifyInformation();
-			fileNotifyInformation[j].setNextEntryoffset(ByteOrderConverter.swap(parameterBuffer.getInt()));
-			fileNotifyInformation[j].setAction(ByteOrderConverter.swap(parameterBuffer.getInt()));
-			fileNotifyInformation[j].setFileNameLength(ByteOrderConverter.swap(parameterBuffer.getInt()));
+			fileNotifyInformation[j].setNextEntryoffset(parameterBuffer.getIntLE());
+			fileNotifyInformation[j].setAction(parameterBuffer.getIntLE());
+			fileNotifyInformation[j].setFileNameLength(parameterBuffer.getIntLE());
 			buff = new byte[fileNotifyInformation[j].getFileNameLength()];
 			parameterBuffer.gets(buff);
 			fileNotifyInformation[j].setFileName(NetBiosNameCodec.SmbNameConvertToString(buff));
@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.ntreq.NtTransactQuerySecurityDescRequest;
 import org.krakenapps.pcap.decoder.smb.ntresp.NtTransactQuerySecurityDescResponse;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class NtTransactQuerySecurityDescParser implements TransParser{
 
@@ -14,9 +13,9 @@ public class NtTransactQuerySecurityDescParser implements TransParser{
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer,  Buffer dataBuffer) {
 		NtTransactQuerySecurityDescRequest transData = new NtTransactQuerySecurityDescRequest();
 		//there is no use of setup and data Buffer
-		transData.setFid(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setReserved(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setSecurityInforFields(ByteOrderConverter.swap(parameterBuffer.getInt()));
+		transData.setFid(parameterBuffer.getShortLE());
+		transData.setReserved(parameterBuffer.getShortLE());
+		transData.setSecurityInforFields(parameterBuffer.getIntLE());
 		return transData;
 	}
 
@@ -25,7 +24,7 @@ public class NtTransactQuerySecurityDescParser implements TransParser{
 		NtTransactQuerySecurityDescResponse transData = new NtTransactQuerySecurityDescResponse();
 		byte []securityDescriptor;
 		//there is no use of setup Buffer
-		transData.setLengthNeeded(ByteOrderConverter.swap(parameterBuffer.getInt()));
+		transData.setLengthNeeded(parameterBuffer.getIntLE());
 		securityDescriptor = new byte[dataBuffer.readableBytes()];
 		parameterBuffer.gets(securityDescriptor);
 		transData.setSecurityDescriptor(securityDescriptor);
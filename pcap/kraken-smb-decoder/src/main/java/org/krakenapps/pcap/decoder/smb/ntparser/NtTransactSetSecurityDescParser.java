@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.ntreq.NtTransactSetSecurityDescRequest;
 import org.krakenapps.pcap.decoder.smb.ntresp.NtTransactSetSecurityDescResponse;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class NtTransactSetSecurityDescParser implements TransParser{
 
@@ -15,9 +14,9 @@ public class NtTransactSetSecurityDescParser implements TransParser{
 		NtTransactSetSecurityDescRequest transData = new NtTransactSetSecurityDescRequest();
 		//there is no use setupBuffer
 		//start parameterBuffer
-		transData.setFid(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setReserved(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setSecurityinformation(ByteOrderConverter.swap(parameterBuffer.getInt()));
+		transData.setFid(parameterBuffer.getShortLE());
+		transData.setReserved(parameterBuffer.getShortLE());
+		transData.setSecurityinformation(parameterBuffer.getIntLE());
 		//end of parameterBuffer
 		//start DataBuffer
 		byte []securityDescriptor = new byte[parameterBuffer.readableBytes()];
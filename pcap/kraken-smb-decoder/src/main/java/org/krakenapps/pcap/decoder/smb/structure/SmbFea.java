@@ -2,7 +2,6 @@ package org.krakenapps.pcap.decoder.smb.structure;
 
 import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbFea {
 	byte extendedAttrbuteFlag;
@@ -13,7 +12,7 @@ public class SmbFea {
 	public SmbFea parse(Buffer b){
 		extendedAttrbuteFlag = b.get();
 		attributeNameLengthInBytes =b.get();
-		attributeValueLengthInBytes = ByteOrderConverter.swap(b.getShort());
+		attributeValueLengthInBytes = b.getShortLE();
 		attributeName = NetBiosNameCodec.readOemName(b,attributeNameLengthInBytes+1);
 		System.out.println("attributeValuelengthInBytes = " + attributeValueLengthInBytes);
 		attributeValue = new byte[attributeValueLengthInBytes];
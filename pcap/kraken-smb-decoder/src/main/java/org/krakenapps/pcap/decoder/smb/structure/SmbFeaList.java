@@ -4,14 +4,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbFeaList {
 	int sizeOfListInBytes;
 	SmbFea fea;
 	List<SmbFea> feaList = new ArrayList<SmbFea>();
 	public void parse(Buffer b){
-		sizeOfListInBytes = ByteOrderConverter.swap(b.getInt());
+		sizeOfListInBytes = b.getIntLE();
 		while(b.readableBytes()!=0 && sizeOfListInBytes !=0){
 			fea=new SmbFea();
 			fea.parse(b);
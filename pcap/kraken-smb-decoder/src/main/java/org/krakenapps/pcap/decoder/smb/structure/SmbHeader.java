@@ -6,7 +6,6 @@ import org.krakenapps.pcap.decoder.smb.rr.ErrorClass;
 import org.krakenapps.pcap.decoder.smb.rr.ErrorCode;
 import org.krakenapps.pcap.decoder.smb.rr.SmbCommand;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbHeader {
 	//header flag
@@ -280,17 +279,17 @@ public class SmbHeader {
 		b.gets(buff);
 		header.setProtocol(buff);
 		header.setCommand(SmbCommand.parse(b.get() & 0xff));
-		header.setStatus(ByteOrderConverter.swap(b.getInt()));
+		header.setStatus(b.getIntLE());
 		header.setFlags(b.get());
-		header.setFlags2(ByteOrderConverter.swap(b.getShort()));
-		header.setPidHigh(ByteOrderConverter.swap(b.getShort()));
+		header.setFlags2(b.getShortLE());
+		header.setPidHigh(b.getShortLE());
 		b.gets(sec);
 		header.setSecurityFeatures(sec);
-		header.setReserved(ByteOrderConverter.swap(b.getShort()));
-		header.setTid(ByteOrderConverter.swap(b.getShort()));
-		header.setPidLow(ByteOrderConverter.swap(b.getShort()));
-		header.setUid(ByteOrderConverter.swap(b.getShort()));
-		header.setMid(ByteOrderConverter.swap(b.getShort()));
+		header.setReserved(b.getShortLE());
+		header.setTid(b.getShortLE());
+		header.setPidLow(b.getShortLE());
+		header.setUid(b.getShortLE());
+		header.setMid(b.getShortLE());
 		return header; 
 	}
 	@Override
@@ -12,19 +12,18 @@ import org.krakenapps.pcap.decoder.smb.trans2req.FindFirst2Request;
 import org.krakenapps.pcap.decoder.smb.trans2resp.FindFirst2Response;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class FindFirst2Parser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		FindFirst2Request transData = new FindFirst2Request();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setSearchattrbibutes(FileAttributes.parse(ByteOrderConverter.swap(parameterBuffer.getShort()) & 0xffff));
-		transData.setSearchCount(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setFlags(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setInformationLevel(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setSearchStorageType(ByteOrderConverter.swap(parameterBuffer.getInt()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setSearchattrbibutes(FileAttributes.parse(parameterBuffer.getShortLE() & 0xffff));
+		transData.setSearchCount(parameterBuffer.getShortLE());
+		transData.setFlags(parameterBuffer.getShortLE());
+		transData.setInformationLevel(parameterBuffer.getShortLE());
+		transData.setSearchStorageType(parameterBuffer.getIntLE());
 		transData.setFileName(NetBiosNameCodec.readSmbUnicodeName(parameterBuffer));
 		return transData;
 	}
@@ -36,11 +35,11 @@ public class FindFirst2Parser implements TransParser{
 		FindInfoLevelMapper mapper = new FindInfoLevelMapper();
 		TransStruct []struct;
 		if(parameterBuffer.readableBytes() != 0){
-			transData.setSid(ByteOrderConverter.swap(parameterBuffer.getShort()));
-			transData.setSearchCount(ByteOrderConverter.swap(parameterBuffer.getShort()));
-			transData.setEndOfSearch(ByteOrderConverter.swap(parameterBuffer.getShort()));
-			transData.setEaErrorOffset(ByteOrderConverter.swap(parameterBuffer.getShort()));
-			transData.setLastNameOffset(ByteOrderConverter.swap(parameterBuffer.getShort()));
+			transData.setSid(parameterBuffer.getShortLE());
+			transData.setSearchCount(parameterBuffer.getShortLE());
+			transData.setEndOfSearch(parameterBuffer.getShortLE());
+			transData.setEaErrorOffset(parameterBuffer.getShortLE());
+			transData.setLastNameOffset(parameterBuffer.getShortLE());
 			
 		}
 		
@@ -11,19 +11,18 @@ import org.krakenapps.pcap.decoder.smb.trans2req.FindNext2Request;
 import org.krakenapps.pcap.decoder.smb.trans2resp.FindNext2Response;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class FindNext2Parser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer  , Buffer parameterBuffer , Buffer dataBuffer) {
 		FindNext2Request transData = new FindNext2Request();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setSid(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setSearchCount(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setInformationLevel(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setResumekey(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setFlags(ByteOrderConverter.swap(parameterBuffer.getShort()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setSid(parameterBuffer.getShortLE());
+		transData.setSearchCount(parameterBuffer.getShortLE());
+		transData.setInformationLevel(parameterBuffer.getShortLE());
+		transData.setResumekey(parameterBuffer.getIntLE());
+		transData.setFlags(parameterBuffer.getShortLE());
 		transData.setFileName(NetBiosNameCodec.readSmbUnicodeName(parameterBuffer));
 //		System.out.println(transData.getFileName());
 		// read GEA List
@@ -36,10 +35,10 @@ public class FindNext2Parser implements TransParser{
 		FindInfoLevelMapper mapper = new FindInfoLevelMapper();
 		TransStruct []struct;
 		if(parameterBuffer.readableBytes() !=0){
-			transData.setSearchCount(ByteOrderConverter.swap(parameterBuffer.getShort()));
-			transData.setEndOfSearch(ByteOrderConverter.swap(parameterBuffer.getShort()));
-			transData.setEaErrorOffset(ByteOrderConverter.swap(parameterBuffer.getShort()));
-			transData.setLastNameOffset(ByteOrderConverter.swap(parameterBuffer.getShort()));
+			transData.setSearchCount(parameterBuffer.getShortLE());
+			transData.setEndOfSearch(parameterBuffer.getShortLE());
+			transData.setEaErrorOffset(parameterBuffer.getShortLE());
+			transData.setLastNameOffset(parameterBuffer.getShortLE());
 		}
 		struct = new TransStruct[transData.getSearchCount()];
 		for(int i =0 ; i< transData.getSearchCount();  i++){
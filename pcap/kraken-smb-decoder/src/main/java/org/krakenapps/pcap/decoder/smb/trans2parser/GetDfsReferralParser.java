@@ -6,14 +6,13 @@ import org.krakenapps.pcap.decoder.smb.trans2req.GetDfsReferralRequest;
 import org.krakenapps.pcap.decoder.smb.trans2resp.GetDfsReferalResponse;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class GetDfsReferralParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		GetDfsReferralRequest transData = new GetDfsReferralRequest();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setSubcommand(setupBuffer.getShortLE());
 		byte []referralRequest = new byte[setupBuffer.readableBytes()];
 		setupBuffer.gets(referralRequest);
 		transData.setReferralRequest(referralRequest);
@@ -24,7 +23,7 @@ public class GetDfsReferralParser implements TransParser{
 	@Override
 	public TransData parseResponse(Buffer setupBuffer  , Buffer parameterBuffer , Buffer dataBuffer , SmbSession session) {
 		GetDfsReferalResponse transData = new GetDfsReferalResponse();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setSubcommand(setupBuffer.getShortLE());
 		byte []referalResponse = new byte[setupBuffer.readableBytes()];
 		setupBuffer.gets(referalResponse);
 		transData.setReferralReseponse(referalResponse);
@@ -8,7 +8,6 @@ import org.krakenapps.pcap.decoder.smb.trans2req.Open2Resquest;
 import org.krakenapps.pcap.decoder.smb.trans2resp.Open2Response;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class Open2Parser implements TransParser{
 
@@ -16,14 +15,14 @@ public class Open2Parser implements TransParser{
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		Open2Resquest transData = new Open2Resquest();
 		byte []reserved = new byte[10];
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setAccessMode(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setFlags(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setSearchAttribute(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setFileAttribute(FileAttributes.parse(ByteOrderConverter.swap(parameterBuffer.getShort())&0xffff));
-		transData.setCreationTime(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setOpenMode(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setAllocationSize(ByteOrderConverter.swap(parameterBuffer.getInt()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setAccessMode(parameterBuffer.getShortLE());
+		transData.setFlags(parameterBuffer.getShortLE());
+		transData.setSearchAttribute(parameterBuffer.getShortLE());
+		transData.setFileAttribute(FileAttributes.parse(parameterBuffer.getShortLE()&0xffff));
+		transData.setCreationTime(parameterBuffer.getIntLE());
+		transData.setOpenMode(parameterBuffer.getShortLE());
+		transData.setAllocationSize(parameterBuffer.getIntLE());
 		parameterBuffer.gets(reserved);
 		transData.setReserved(reserved);
 		transData.setFileName(NetBiosNameCodec.readSmbUnicodeName(parameterBuffer));
@@ -33,17 +32,17 @@ public class Open2Parser implements TransParser{
 	@Override
 	public TransData parseResponse(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer , SmbSession session) {
 		Open2Response transData = new Open2Response();
-		transData.setFid(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setFileAttribute(FileAttributes.parse(ByteOrderConverter.swap(parameterBuffer.getShort())& 0xffff));
-		transData.setCreationTime(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setFiledataSize(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setAccessMode(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setResourceType(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setNmPipeStatus(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setActionToken(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setReserved(ByteOrderConverter.swap(parameterBuffer.getInt()));
-		transData.setExtendedAttributeErrorOffset(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setExtendedAttributeLength(ByteOrderConverter.swap(parameterBuffer.getInt()));
+		transData.setFid(parameterBuffer.getShortLE());
+		transData.setFileAttribute(FileAttributes.parse(parameterBuffer.getShortLE()& 0xffff));
+		transData.setCreationTime(parameterBuffer.getIntLE());
+		transData.setFiledataSize(parameterBuffer.getIntLE());
+		transData.setAccessMode(parameterBuffer.getShortLE());
+		transData.setResourceType(parameterBuffer.getShortLE());
+		transData.setNmPipeStatus(parameterBuffer.getShortLE());
+		transData.setActionToken(parameterBuffer.getShortLE());
+		transData.setReserved(parameterBuffer.getIntLE());
+		transData.setExtendedAttributeErrorOffset(parameterBuffer.getShortLE());
+		transData.setExtendedAttributeLength(parameterBuffer.getIntLE());
 		// TODO : transData 
 		return transData;
 	}
@@ -6,15 +6,14 @@ import org.krakenapps.pcap.decoder.smb.trans2req.QueryFsInformationRequest;
 import org.krakenapps.pcap.decoder.smb.trans2resp.QueryFsInformationResponse;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class QueryFsInformationParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		QueryFsInformationRequest transData = new QueryFsInformationRequest();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setInformationLevel(ByteOrderConverter.swap(parameterBuffer.getShort()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setInformationLevel(parameterBuffer.getShortLE());
 		return transData;
 	}
 
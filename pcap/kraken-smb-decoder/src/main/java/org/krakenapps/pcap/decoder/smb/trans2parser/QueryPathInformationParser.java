@@ -7,16 +7,15 @@ import org.krakenapps.pcap.decoder.smb.trans2req.QueryPathInformationRequest;
 import org.krakenapps.pcap.decoder.smb.trans2resp.QueryPathInformationResponse;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class QueryPathInformationParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		QueryPathInformationRequest transData = new QueryPathInformationRequest();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setInformationLevel(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setReserved(ByteOrderConverter.swap(parameterBuffer.getInt()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setInformationLevel(parameterBuffer.getShortLE());
+		transData.setReserved(parameterBuffer.getIntLE());
 		transData.setFileName(NetBiosNameCodec.readSmbUnicodeName(parameterBuffer));
 		//TODO  read GEA List
 		return transData;
@@ -25,7 +24,7 @@ public class QueryPathInformationParser implements TransParser{
 	@Override
 	public TransData parseResponse(Buffer setupBuffer  , Buffer parameterBuffer , Buffer dataBuffer , SmbSession session) {
 		QueryPathInformationResponse transData = new QueryPathInformationResponse();
-		transData.setEaErrorOffset(ByteOrderConverter.swap(parameterBuffer.getShort()));
+		transData.setEaErrorOffset(parameterBuffer.getShortLE());
 		return transData;
 	}
 
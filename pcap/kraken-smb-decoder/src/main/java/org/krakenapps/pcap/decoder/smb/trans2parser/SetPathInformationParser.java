@@ -7,16 +7,15 @@ import org.krakenapps.pcap.decoder.smb.trans2req.SetPathInformationRequest;
 import org.krakenapps.pcap.decoder.smb.trans2resp.SetPathInformationResponse;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SetPathInformationParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		SetPathInformationRequest transData = new SetPathInformationRequest();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setInformationLevel(ByteOrderConverter.swap(parameterBuffer.getShort()));
-		transData.setReserved(ByteOrderConverter.swap(parameterBuffer.getInt()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setInformationLevel(parameterBuffer.getShortLE());
+		transData.setReserved(parameterBuffer.getIntLE());
 		transData.setFileName(NetBiosNameCodec.readSmbUnicodeName(parameterBuffer));
 		//read Data
 		//follow Informationlevel
@@ -26,7 +25,7 @@ public class SetPathInformationParser implements TransParser{
 	@Override
 	public TransData parseResponse(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer , SmbSession session) {
 		SetPathInformationResponse transData = new SetPathInformationResponse();
-		transData.setEaErrorOffset(ByteOrderConverter.swap(parameterBuffer.getShort()));
+		transData.setEaErrorOffset(parameterBuffer.getShortLE());
 		return transData;
 	}
 
@@ -7,15 +7,14 @@ import org.krakenapps.pcap.decoder.smb.trans2req.Trans2CreateDirectoryRequest;
 import org.krakenapps.pcap.decoder.smb.trans2resp.Trans2CreateDirectoryResponse;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class Trans2CreateDirectoryParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		Trans2CreateDirectoryRequest transData = new Trans2CreateDirectoryRequest();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setReserved(ByteOrderConverter.swap(parameterBuffer.getInt()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setReserved(parameterBuffer.getIntLE());
 		transData.setDirectoryName(NetBiosNameCodec.readSmbUnicodeName(parameterBuffer));
 		// TODO read smb fea list
 		return transData;
@@ -24,7 +23,7 @@ public class Trans2CreateDirectoryParser implements TransParser{
 	@Override
 	public TransData parseResponse(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer , SmbSession session) {
 		Trans2CreateDirectoryResponse transData = new Trans2CreateDirectoryResponse();
-		transData.setEaErrorOffset(ByteOrderConverter.swap(parameterBuffer.getShort()));
+		transData.setEaErrorOffset(parameterBuffer.getShortLE());
 		return transData;
 	}
 
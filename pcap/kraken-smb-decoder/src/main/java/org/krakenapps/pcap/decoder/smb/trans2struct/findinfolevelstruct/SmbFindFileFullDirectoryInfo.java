@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.decoder.smb.rr.ExtFileAttributes;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbFindFileFullDirectoryInfo implements TransStruct{
 	int nextEntryOffset;
@@ -93,17 +92,17 @@ public class SmbFindFileFullDirectoryInfo implements TransStruct{
 		this.fileName = fileName;
 	}
 	public TransStruct parse(Buffer b , SmbSession session){
-		nextEntryOffset = ByteOrderConverter.swap(b.getInt());
-		fileIndex = ByteOrderConverter.swap(b.getInt());
-		creationTime = ByteOrderConverter.swap(b.getLong());
-		lastAccessTime = ByteOrderConverter.swap(b.getLong());
-		lastWriteTime = ByteOrderConverter.swap(b.getLong());
-		lastAttrChangeTime = ByteOrderConverter.swap(b.getLong());
-		endOfFile = ByteOrderConverter.swap(b.getLong());
-		allocationSize = ByteOrderConverter.swap(b.getLong());
-		extFileAttributes = ExtFileAttributes.parse(ByteOrderConverter.swap(b.getInt()));
-		fileNameLength = ByteOrderConverter.swap(b.getInt());
-		eaSize = ByteOrderConverter.swap(b.getInt());
+		nextEntryOffset = b.getIntLE();
+		fileIndex = b.getIntLE();
+		creationTime = b.getLongLE();
+		lastAccessTime = b.getLongLE();
+		lastWriteTime = b.getLongLE();
+		lastAttrChangeTime = b.getLongLE();
+		endOfFile = b.getLongLE();
+		allocationSize = b.getLongLE();
+		extFileAttributes = ExtFileAttributes.parse(b.getIntLE());
+		fileNameLength = b.getIntLE();
+		eaSize = b.getIntLE();
 		fileName = NetBiosNameCodec.readSmbUnicodeName(b, fileNameLength);
 		b.rewind();
 		b.skip(nextEntryOffset);
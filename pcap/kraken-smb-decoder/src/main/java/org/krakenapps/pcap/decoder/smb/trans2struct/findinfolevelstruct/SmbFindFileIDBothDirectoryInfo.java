@@ -201,23 +201,23 @@ public class SmbFindFileIDBothDirectoryInfo implements TransStruct {
 	}
 
 	public TransStruct parse(Buffer b, SmbSession session) {
-		nextEntryOffset = ByteOrderConverter.swap(b.getInt());
-		fileIndex = ByteOrderConverter.swap(b.getInt());
-		creationTime = ByteOrderConverter.swap(b.getLong());
-		lastAccessTime = ByteOrderConverter.swap(b.getLong());
-		lastWriteTime = ByteOrderConverter.swap(b.getLong());
-		lastChangeTime = ByteOrderConverter.swap(b.getLong());
-		endofFile = ByteOrderConverter.swap(b.getLong());
-		allocateSize = ByteOrderConverter.swap(b.getLong());
+		nextEntryOffset = b.getIntLE();
+		fileIndex = b.getIntLE();
+		creationTime = b.getLongLE();
+		lastAccessTime = b.getLongLE();
+		lastWriteTime = b.getLongLE();
+		lastChangeTime = b.getLongLE();
+		endofFile = b.getLongLE();
+		allocateSize = b.getLongLE();
 		extFileAttributes = ExtFileAttributes.parse(ByteOrderConverter.swap(b
 				.getInt()));
-		fileNameLength = ByteOrderConverter.swap(b.getInt());
-		eaSize = ByteOrderConverter.swap(b.getInt());
+		fileNameLength = b.getIntLE();
+		eaSize = b.getIntLE();
 		shortNameLength = b.get();
 		reserved = b.get();
 		shortName = NetBiosNameCodec.readOemName(b, 12);
-		reserved2 = ByteOrderConverter.swap(b.getShort());
-		fileID = ByteOrderConverter.swap(b.getLong());
+		reserved2 = b.getShortLE();
+		fileID = b.getLongLE();
 		fileName = NetBiosNameCodec.readSmbUnicodeName(b, fileNameLength);
 		feaList = new SmbFeaList();
 		feaList.parse(b);
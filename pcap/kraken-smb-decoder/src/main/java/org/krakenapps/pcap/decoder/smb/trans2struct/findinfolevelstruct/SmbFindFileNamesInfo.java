@@ -4,7 +4,6 @@ import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbFindFileNamesInfo implements TransStruct{
 
@@ -37,9 +36,9 @@ public class SmbFindFileNamesInfo implements TransStruct{
 		this.fileName = fileName;
 	}
 	public TransStruct parse(Buffer b , SmbSession session){
-		nextEntryOffset = ByteOrderConverter.swap(b.getInt());
-		fileIndex = ByteOrderConverter.swap(b.getInt());
-		fileNameLength = ByteOrderConverter.swap(b.getInt());
+		nextEntryOffset = b.getIntLE();
+		fileIndex = b.getIntLE();
+		fileNameLength = b.getIntLE();
 		fileName = NetBiosNameCodec.readSmbUnicodeName(b, fileNameLength);
 		b.reset();
 		b.skip(nextEntryOffset);
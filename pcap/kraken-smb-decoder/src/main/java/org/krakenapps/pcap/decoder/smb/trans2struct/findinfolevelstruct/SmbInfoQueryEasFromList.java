@@ -10,7 +10,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbFeaList;
 import org.krakenapps.pcap.decoder.smb.trans2req.FindFirst2Request;
 import org.krakenapps.pcap.decoder.smb.trans2req.FindNext2Request;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 import org.krakenapps.pcap.util.ChainBuffer;
 
 public class SmbInfoQueryEasFromList implements TransStruct{
@@ -117,27 +116,27 @@ public class SmbInfoQueryEasFromList implements TransStruct{
 		Buffer tmp = new ChainBuffer();
 		tmp.addLast(((Transaction2Request) session.getUseSessionData())
 				.getSetup());
-		short subCommand = ByteOrderConverter.swap(tmp.getShort());
+		short subCommand = tmp.getShortLE();
 		if(Transaction2Command.parse(subCommand)==Transaction2Command.TRANS2_FIND_FIRST2){
 			if(((FindFirst2Request)((Transaction2Request) session.getUseSessionData()).getTransaction2Data()).isFindReturnResumeKeys()){
-				resumekey = ByteOrderConverter.swap(b.getInt());
+				resumekey = b.getIntLE();
 			}
 		}
 		else if(Transaction2Command.parse(subCommand)==Transaction2Command.TRANS2_FIND_NEXT2){
 			if(((FindNext2Request)((Transaction2Request) session.getUseSessionData()).getTransaction2Data()).isFindReturnResumeKeys()){
-				resumekey = ByteOrderConverter.swap(b.getInt());
+				resumekey = b.getIntLE();
 			}
 		}
-		creationDate = ByteOrderConverter.swap(b.getShort());
-		creationTime = ByteOrderConverter.swap(b.getShort());
-		lastAccessDate = ByteOrderConverter.swap(b.getShort());
-		lastAccessTime = ByteOrderConverter.swap(b.getShort());
-		lastWriteDate = ByteOrderConverter.swap(b.getShort());
-		lastWriteTime = ByteOrderConverter.swap(b.getShort());
-		fileDataSize = ByteOrderConverter.swap(b.getInt());
-		allocationSize = ByteOrderConverter.swap(b.getInt());
-		attributes = FileAttributes.parse(ByteOrderConverter.swap(b.getShort()));
-		eaSize = ByteOrderConverter.swap(b.getInt());
+		creationDate = b.getShortLE();
+		creationTime = b.getShortLE();
+		lastAccessDate = b.getShortLE();
+		lastAccessTime = b.getShortLE();
+		lastWriteDate = b.getShortLE();
+		lastWriteTime = b.getShortLE();
+		fileDataSize = b.getIntLE();
+		allocationSize = b.getIntLE();
+		attributes = FileAttributes.parse(b.getShortLE());
+		eaSize = b.getIntLE();
 	//	feaList = new SmbFeaList();
 	//	feaList.parse(b);
 		fileNameLength = b.get();
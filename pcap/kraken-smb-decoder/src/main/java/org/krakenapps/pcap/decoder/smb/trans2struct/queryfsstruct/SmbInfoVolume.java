@@ -4,7 +4,6 @@ import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbInfoVolume implements TransStruct{
 
@@ -30,7 +29,7 @@ public class SmbInfoVolume implements TransStruct{
 		this.volumeLabel = volumeLabel;
 	}
 	public TransStruct parse(Buffer b , SmbSession session){
-		ulVolSerualNbr = ByteOrderConverter.swap(b.getInt());
+		ulVolSerualNbr = b.getIntLE();
 		cCharCount = b.get();
 		volumeLabel = NetBiosNameCodec.readSmbUnicodeName(b, cCharCount);
 		return this;
@@ -4,7 +4,6 @@ import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFsAttributeInfo implements TransStruct{
 
@@ -31,9 +30,9 @@ public class SmbQueryFsAttributeInfo implements TransStruct{
 		this.fileSystemName = fileSystemName;
 	}
 	public TransStruct parse(Buffer b , SmbSession session){
-		fileSystemAttributes = ByteOrderConverter.swap(b.getInt());
-		maxFileNameLengthInBytes = ByteOrderConverter.swap(b.getInt());
-		lengthOfFileSystemName =ByteOrderConverter.swap(b.getInt());
+		fileSystemAttributes = b.getIntLE();
+		maxFileNameLengthInBytes = b.getIntLE();
+		lengthOfFileSystemName =b.getIntLE();
 		fileSystemName = NetBiosNameCodec.readSmbUnicodeName(b , lengthOfFileSystemName);
 		return this;
 	}
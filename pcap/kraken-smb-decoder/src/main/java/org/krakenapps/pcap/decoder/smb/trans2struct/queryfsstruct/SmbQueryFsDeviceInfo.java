@@ -3,7 +3,6 @@ package org.krakenapps.pcap.decoder.smb.trans2struct.queryfsstruct;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFsDeviceInfo implements TransStruct{
 
@@ -22,8 +21,8 @@ public class SmbQueryFsDeviceInfo implements TransStruct{
 		this.deviceCharacteristcis = deviceCharacteristcis;
 	}
 	public TransStruct parse(Buffer b , SmbSession session){
-		deviceType = ByteOrderConverter.swap(b.getInt());
-		deviceCharacteristcis = ByteOrderConverter.swap(b.getInt());
+		deviceType = b.getIntLE();
+		deviceCharacteristcis = b.getIntLE();
 		return this;
 	}
 	@Override
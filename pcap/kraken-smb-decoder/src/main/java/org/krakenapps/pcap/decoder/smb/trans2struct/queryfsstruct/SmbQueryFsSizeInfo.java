@@ -3,7 +3,6 @@ package org.krakenapps.pcap.decoder.smb.trans2struct.queryfsstruct;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFsSizeInfo implements TransStruct{
 
@@ -36,10 +35,10 @@ public class SmbQueryFsSizeInfo implements TransStruct{
 		this.bytesPerSector = bytesPerSector;
 	}
 	public TransStruct parse(Buffer b , SmbSession session){
-		totalAllocationUnits = ByteOrderConverter.swap(b.getLong());
-		totalFreeAllocationUnits = ByteOrderConverter.swap(b.getLong());
-		sectorsPerAllocationUnit = ByteOrderConverter.swap(b.getInt());
-		bytesPerSector = ByteOrderConverter.swap(b.getInt());
+		totalAllocationUnits = b.getLongLE();
+		totalFreeAllocationUnits = b.getLongLE();
+		sectorsPerAllocationUnit = b.getIntLE();
+		bytesPerSector = b.getIntLE();
 		return this;
 	}
 	@Override
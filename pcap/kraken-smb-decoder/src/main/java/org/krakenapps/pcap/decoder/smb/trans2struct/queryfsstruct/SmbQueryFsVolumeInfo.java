@@ -4,7 +4,6 @@ import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFsVolumeInfo implements TransStruct{
 
@@ -37,9 +36,9 @@ public class SmbQueryFsVolumeInfo implements TransStruct{
 		this.volumeLabel = volumeLabel;
 	}
 	public TransStruct parse(Buffer b , SmbSession session){
-		volumeCreationTime = ByteOrderConverter.swap(b.getLong());
-		serialNumber = ByteOrderConverter.swap(b.getInt());
-		volumeLabelSize = ByteOrderConverter.swap(b.getInt());
+		volumeCreationTime = b.getLongLE();
+		serialNumber = b.getIntLE();
+		volumeLabelSize = b.getIntLE();
 		volumeLabel = NetBiosNameCodec.readOemName(b, volumeLabelSize);
 		return this;
 	}
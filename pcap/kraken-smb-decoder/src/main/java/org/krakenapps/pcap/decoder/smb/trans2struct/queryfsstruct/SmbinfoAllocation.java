@@ -3,7 +3,6 @@ package org.krakenapps.pcap.decoder.smb.trans2struct.queryfsstruct;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbinfoAllocation implements TransStruct{
 
@@ -43,11 +42,11 @@ public class SmbinfoAllocation implements TransStruct{
 		this.cbSector = cbSector;
 	}
 	public TransStruct parse(Buffer b , SmbSession session){
-		idFileSystem = ByteOrderConverter.swap(b.getInt());
-		cSectorUnit = ByteOrderConverter.swap(b.getInt());
-		cUnit = ByteOrderConverter.swap(b.getInt());
-		cUnitAvailable = ByteOrderConverter.swap(b.getInt());
-		cbSector = ByteOrderConverter.swap(b.getShort());
+		idFileSystem = b.getIntLE();
+		cSectorUnit = b.getIntLE();
+		cUnit = b.getIntLE();
+		cUnitAvailable = b.getIntLE();
+		cbSector = b.getShortLE();
 		return this;
 	}
 	@Override
@@ -4,7 +4,6 @@ import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.decoder.smb.rr.FileAttributes;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbInfoQueryEaSize implements TransStruct{
 
@@ -101,16 +100,16 @@ public class SmbInfoQueryEaSize implements TransStruct{
 
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		creationDate = ByteOrderConverter.swap(b.getShort());
-		creationTime = ByteOrderConverter.swap(b.getShort());
-		lastAccessDate = ByteOrderConverter.swap(b.getShort());
-		lastAccessTime = ByteOrderConverter.swap(b.getShort());
-		lastWriteDate = ByteOrderConverter.swap(b.getShort());
-		lastWriteTime = ByteOrderConverter.swap(b.getShort());
-		fileDataSize = ByteOrderConverter.swap(b.getInt());
-		allocationSize = ByteOrderConverter.swap(b.getInt());
-		attributes = FileAttributes.parse(ByteOrderConverter.swap(b.getShort()));
-		eaSize =ByteOrderConverter.swap(b.getInt()); 
+		creationDate = b.getShortLE();
+		creationTime = b.getShortLE();
+		lastAccessDate = b.getShortLE();
+		lastAccessTime = b.getShortLE();
+		lastWriteDate = b.getShortLE();
+		lastWriteTime = b.getShortLE();
+		fileDataSize = b.getIntLE();
+		allocationSize = b.getIntLE();
+		attributes = FileAttributes.parse(b.getShortLE());
+		eaSize =b.getIntLE(); 
 		return this;
 	}
 	@Override
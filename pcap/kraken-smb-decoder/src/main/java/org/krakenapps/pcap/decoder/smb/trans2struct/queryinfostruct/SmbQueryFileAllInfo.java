@@ -5,7 +5,6 @@ import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.decoder.smb.rr.ExtFileAttributes;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFileAllInfo implements TransStruct{
 
@@ -26,20 +25,20 @@ public class SmbQueryFileAllInfo implements TransStruct{
 	String fileName;
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		creationTime = ByteOrderConverter.swap(b.getLong());
-		lastAccessTime = ByteOrderConverter.swap(b.getLong());
-		lastWriteTime = ByteOrderConverter.swap(b.getLong());
-		lastChangeTime = ByteOrderConverter.swap(b.getLong());
-		extFileAttributes = ExtFileAttributes.parse(ByteOrderConverter.swap(b.getInt()));
-		resrved1 = ByteOrderConverter.swap(b.getInt());
-		allocationSize = ByteOrderConverter.swap(b.getLong());
-		endOfFile = ByteOrderConverter.swap(b.getLong());
-		numberOfLinks = ByteOrderConverter.swap(b.getInt());
+		creationTime = b.getLongLE();
+		lastAccessTime = b.getLongLE();
+		lastWriteTime = b.getLongLE();
+		lastChangeTime = b.getLongLE();
+		extFileAttributes = ExtFileAttributes.parse(b.getIntLE());
+		resrved1 = b.getIntLE();
+		allocationSize = b.getLongLE();
+		endOfFile = b.getLongLE();
+		numberOfLinks = b.getIntLE();
 		deletePending = b.get();
 		directory = b.get();
-		reserved2 = ByteOrderConverter.swap(b.getShort());
-		eaSize = ByteOrderConverter.swap(b.getInt());
-		fileNameLength = ByteOrderConverter.swap(b.getInt());
+		reserved2 = b.getShortLE();
+		eaSize = b.getIntLE();
+		fileNameLength = b.getIntLE();
 		fileName = NetBiosNameCodec.readSmbUnicodeName(b, fileNameLength);
 		return this;
 	}
@@ -4,7 +4,6 @@ import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFileAltnameInfo implements TransStruct{
 
@@ -12,7 +11,7 @@ public class SmbQueryFileAltnameInfo implements TransStruct{
 	String fileName;
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		fileNameLength = ByteOrderConverter.swap(b.getInt());
+		fileNameLength = b.getIntLE();
 		fileName = NetBiosNameCodec.readSmbUnicodeName(b, fileNameLength);
 		return this;
 	}
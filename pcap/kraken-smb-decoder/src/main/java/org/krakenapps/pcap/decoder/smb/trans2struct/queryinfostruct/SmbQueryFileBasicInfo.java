@@ -4,7 +4,6 @@ import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.decoder.smb.rr.ExtFileAttributes;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFileBasicInfo implements TransStruct{
 
@@ -65,12 +64,12 @@ public class SmbQueryFileBasicInfo implements TransStruct{
 
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		creationTime = ByteOrderConverter.swap(b.getLong());
-		lastAccessTime = ByteOrderConverter.swap(b.getLong());
-		lastWriteTime = ByteOrderConverter.swap(b.getLong());
-		lastChangeTime = ByteOrderConverter.swap(b.getLong());
-		extFileAttributes = ExtFileAttributes.parse(ByteOrderConverter.swap(b.getInt()));
-		reserved = ByteOrderConverter.swap(b.getInt());
+		creationTime = b.getLongLE();
+		lastAccessTime = b.getLongLE();
+		lastWriteTime = b.getLongLE();
+		lastChangeTime = b.getLongLE();
+		extFileAttributes = ExtFileAttributes.parse(b.getIntLE());
+		reserved = b.getIntLE();
 		return this;
 	}
 	@Override
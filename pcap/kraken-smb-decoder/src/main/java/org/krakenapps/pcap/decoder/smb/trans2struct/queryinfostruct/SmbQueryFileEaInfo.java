@@ -3,7 +3,6 @@ package org.krakenapps.pcap.decoder.smb.trans2struct.queryinfostruct;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFileEaInfo implements TransStruct{
 
@@ -19,7 +18,7 @@ public class SmbQueryFileEaInfo implements TransStruct{
 
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		eaSize = ByteOrderConverter.swap(b.getInt());
+		eaSize = b.getIntLE();
 		return this;
 	}
 	@Override
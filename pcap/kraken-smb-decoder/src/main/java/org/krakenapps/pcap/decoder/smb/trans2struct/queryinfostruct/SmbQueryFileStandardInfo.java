@@ -3,7 +3,6 @@ package org.krakenapps.pcap.decoder.smb.trans2struct.queryinfostruct;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFileStandardInfo implements TransStruct {
 
@@ -55,9 +54,9 @@ public class SmbQueryFileStandardInfo implements TransStruct {
 
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		allocationSize = ByteOrderConverter.swap(b.getLong());
-		endOfFile = ByteOrderConverter.swap(b.getLong());
-		numberOfLinks = ByteOrderConverter.swap(b.getInt());
+		allocationSize = b.getLongLE();
+		endOfFile = b.getLongLE();
+		numberOfLinks = b.getIntLE();
 		deletePending = b.get();
 		directory = b.get();
 		return this;
@@ -4,7 +4,6 @@ import org.krakenapps.pcap.decoder.netbios.NetBiosNameCodec;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFileStreamInfo implements TransStruct{
 
@@ -15,10 +14,10 @@ public class SmbQueryFileStreamInfo implements TransStruct{
 	String streamName; // streamNameLength *2 bytes;
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		nextEnntryOffset = ByteOrderConverter.swap(b.getInt());
-		streamNameLength = ByteOrderConverter.swap(b.getInt());
-		streamSize = ByteOrderConverter.swap(b.getLong());
-		streamAllocationSize = ByteOrderConverter.swap(b.getLong());
+		nextEnntryOffset = b.getIntLE();
+		streamNameLength = b.getIntLE();
+		streamSize = b.getLongLE();
+		streamAllocationSize = b.getLongLE();
 		streamName = NetBiosNameCodec.readSmbUnicodeName(b, streamNameLength);
 		return this;
 	}
@@ -3,7 +3,6 @@ package org.krakenapps.pcap.decoder.smb.trans2struct.queryinfostruct;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbQueryFilecomressionInfo implements TransStruct{
 
@@ -15,8 +14,8 @@ public class SmbQueryFilecomressionInfo implements TransStruct{
 	byte []reserved;// = new byte[3]; 
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		compressedFileSize = ByteOrderConverter.swap(b.getLong());
-		compressionFormat = ByteOrderConverter.swap(b.getShort());
+		compressedFileSize = b.getLongLE();
+		compressionFormat = b.getShortLE();
 		compressionUnitShft = b.get();
 		chunkShift = b.get();
 		clusterShift = b.get();
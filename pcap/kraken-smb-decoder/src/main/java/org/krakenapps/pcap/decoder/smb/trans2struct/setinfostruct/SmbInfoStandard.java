@@ -3,7 +3,6 @@ package org.krakenapps.pcap.decoder.smb.trans2struct.setinfostruct;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbInfoStandard implements TransStruct{
 
@@ -73,12 +72,12 @@ public class SmbInfoStandard implements TransStruct{
 
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		creationDate = ByteOrderConverter.swap(b.getShort());
-		creationTime = ByteOrderConverter.swap(b.getShort());
-		lastAccessDate = ByteOrderConverter.swap(b.getShort());
-		lastaccessTime = ByteOrderConverter.swap(b.getShort());
-		lastWriteDate = ByteOrderConverter.swap(b.getShort()); 
-		lastWriteTime = ByteOrderConverter.swap(b.getShort());
+		creationDate = b.getShortLE();
+		creationTime = b.getShortLE();
+		lastAccessDate = b.getShortLE();
+		lastaccessTime = b.getShortLE();
+		lastWriteDate = b.getShortLE(); 
+		lastWriteTime = b.getShortLE();
 		reserved = new byte[10];
 		b.gets(reserved);
 		return this;
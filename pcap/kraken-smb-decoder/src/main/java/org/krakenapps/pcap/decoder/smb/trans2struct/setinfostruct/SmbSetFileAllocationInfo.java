@@ -3,7 +3,6 @@ package org.krakenapps.pcap.decoder.smb.trans2struct.setinfostruct;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbSetFileAllocationInfo implements TransStruct{
 
@@ -19,7 +18,7 @@ public class SmbSetFileAllocationInfo implements TransStruct{
 
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		allocationSize = ByteOrderConverter.swap(b.getLong()); 
+		allocationSize = b.getLongLE(); 
 		return this;
 	}
 	@Override
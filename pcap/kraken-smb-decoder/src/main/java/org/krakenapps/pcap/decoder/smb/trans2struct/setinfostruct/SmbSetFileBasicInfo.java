@@ -65,13 +65,13 @@ public class SmbSetFileBasicInfo implements TransStruct {
 
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		creationTime = ByteOrderConverter.swap(b.getLong());
-		lastAccessTime = ByteOrderConverter.swap(b.getLong());
-		lastWriteTime = ByteOrderConverter.swap(b.getLong());
-		changeTime = ByteOrderConverter.swap(b.getLong());
+		creationTime = b.getLongLE();
+		lastAccessTime = b.getLongLE();
+		lastWriteTime = b.getLongLE();
+		changeTime = b.getLongLE();
 		extFileAttributes = ExtFileAttributes.parse(ByteOrderConverter.swap(b
 				.getInt()));
-		reserved = ByteOrderConverter.swap(b.getInt());
+		reserved = b.getIntLE();
 		return this;
 	}
 	@Override
@@ -3,7 +3,6 @@ package org.krakenapps.pcap.decoder.smb.trans2struct.setinfostruct;
 import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransStruct;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class SmbSetFileEndOfFileInfo implements TransStruct {
 	long endOfFile;
@@ -18,7 +17,7 @@ public class SmbSetFileEndOfFileInfo implements TransStruct {
 
 	@Override
 	public TransStruct parse(Buffer b , SmbSession session) {
-		endOfFile = ByteOrderConverter.swap(b.getLong());
+		endOfFile = b.getLongLE();
 		return this;
 	}
 	@Override
@@ -5,15 +5,14 @@ import org.krakenapps.pcap.decoder.smb.TransData;
 import org.krakenapps.pcap.decoder.smb.transreq.CallNmpipeRequest;
 import org.krakenapps.pcap.decoder.smb.transresp.CallNmpipeResponse;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class CallNmpipeParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		CallNmpipeRequest transData = new CallNmpipeRequest();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setPriority(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setPriority(setupBuffer.getShortLE());
 		byte []writeData = new byte[dataBuffer.readableBytes()];
 		dataBuffer.gets(writeData);
 		transData.setWriteData(writeData);
@@ -6,16 +6,15 @@ import org.krakenapps.pcap.decoder.smb.TransData;
 import org.krakenapps.pcap.decoder.smb.transreq.QueryNmpipeInfoRequest;
 import org.krakenapps.pcap.decoder.smb.transresp.QueryNmpipeInfoResponse;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class QueryNmpipeInfoParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		QueryNmpipeInfoRequest transData = new QueryNmpipeInfoRequest();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setFid(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setLevel(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setFid(setupBuffer.getShortLE());
+		transData.setLevel(setupBuffer.getShortLE());
 		
 		return transData;
 	}
@@ -23,8 +22,8 @@ public class QueryNmpipeInfoParser implements TransParser{
 	@Override
 	public TransData parseResponse(Buffer setupBuffer , Buffer paramterBuffer , Buffer dataBuffer , SmbSession session) {
 		QueryNmpipeInfoResponse transData = new QueryNmpipeInfoResponse();
-		transData.setOutputBufferSize(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setInputBufferSize(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setOutputBufferSize(setupBuffer.getShortLE());
+		transData.setInputBufferSize(setupBuffer.getShortLE());
 		transData.setMaximumInstance(setupBuffer.get());
 		transData.setCurrentInstance(setupBuffer.get());
 		transData.setPipeNameLength(setupBuffer.get());
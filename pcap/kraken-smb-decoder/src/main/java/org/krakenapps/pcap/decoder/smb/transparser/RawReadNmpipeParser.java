@@ -5,15 +5,14 @@ import org.krakenapps.pcap.decoder.smb.TransData;
 import org.krakenapps.pcap.decoder.smb.transreq.RawReadNmpipeRequest;
 import org.krakenapps.pcap.decoder.smb.transresp.RawReadNmpipeResponse;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class RawReadNmpipeParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		RawReadNmpipeRequest transData = new RawReadNmpipeRequest();
-		transData.setSubCommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setFid(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setSubCommand(setupBuffer.getShortLE());
+		transData.setFid(setupBuffer.getShortLE());
 		// TODO Auto-generated method stub
 		return null;
 	}
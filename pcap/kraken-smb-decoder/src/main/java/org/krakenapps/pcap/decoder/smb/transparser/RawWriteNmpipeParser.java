@@ -5,15 +5,14 @@ import org.krakenapps.pcap.decoder.smb.TransData;
 import org.krakenapps.pcap.decoder.smb.transreq.RawWriteNmpipeRequest;
 import org.krakenapps.pcap.decoder.smb.transresp.RawWriteNmpipeResponse;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class RawWriteNmpipeParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		RawWriteNmpipeRequest transData = new RawWriteNmpipeRequest();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setFid(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setFid(setupBuffer.getShortLE());
 		byte []writeData = new byte[setupBuffer.readableBytes()];
 		transData.setWriteData(writeData);
 		return transData;
@@ -23,7 +22,7 @@ public class RawWriteNmpipeParser implements TransParser{
 	public TransData parseResponse(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer , SmbSession session) {
 		RawWriteNmpipeResponse transData = new RawWriteNmpipeResponse();
 		if(parameterBuffer.readableBytes() ==0x02){
-			transData.setBytesWritten(ByteOrderConverter.swap(parameterBuffer.getShort()));
+			transData.setBytesWritten(parameterBuffer.getShortLE());
 		}
 		return transData;
 	}
@@ -5,15 +5,14 @@ import org.krakenapps.pcap.decoder.smb.TransData;
 import org.krakenapps.pcap.decoder.smb.transreq.TransactNmpipeRequest;
 import org.krakenapps.pcap.decoder.smb.transresp.TransactNmpipeResponse;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class TransactNmpipeParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		TransactNmpipeRequest transData = new TransactNmpipeRequest();
-		transData.setSubcommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setFid(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setSubcommand(setupBuffer.getShortLE());
+		transData.setFid(setupBuffer.getShortLE());
 		byte []writeData = new byte[dataBuffer.readableBytes()];
 		dataBuffer.gets(writeData);
 		transData.setWriteData(writeData);
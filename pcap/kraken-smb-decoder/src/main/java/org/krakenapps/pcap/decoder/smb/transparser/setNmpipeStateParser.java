@@ -5,16 +5,15 @@ import org.krakenapps.pcap.decoder.smb.TransData;
 import org.krakenapps.pcap.decoder.smb.transreq.SetNmpipeStateRequest;
 import org.krakenapps.pcap.decoder.smb.transresp.SetNmpipeStateResponse;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class setNmpipeStateParser implements TransParser{
 
 	@Override
 	public TransData parseRequest(Buffer setupBuffer , Buffer parameterBuffer , Buffer dataBuffer) {
 		SetNmpipeStateRequest transData = new SetNmpipeStateRequest();
-		transData.setSubCommand(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setFid(ByteOrderConverter.swap(setupBuffer.getShort()));
-		transData.setPipeState(ByteOrderConverter.swap(setupBuffer.getShort()));
+		transData.setSubCommand(setupBuffer.getShortLE());
+		transData.setFid(setupBuffer.getShortLE());
+		transData.setPipeState(setupBuffer.getShortLE());
 		return transData;
 	}
 
@@ -4,7 +4,6 @@ import org.krakenapps.pcap.decoder.smb.SmbSession;
 import org.krakenapps.pcap.decoder.smb.TransData;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 
 public class MailSlotParser implements TransParser{
 
@@ -12,9 +11,9 @@ public class MailSlotParser implements TransParser{
 	public TransData parseRequest(Buffer setupBuffer, Buffer parameterBuffer,
 			Buffer DataBuffer){
 		TransData data = new MailSlot();
-		((MailSlot)data).setMailslotCode(ByteOrderConverter.swap(setupBuffer.getShort()));
-		((MailSlot)data).setPriority(ByteOrderConverter.swap(setupBuffer.getShort()));
-		((MailSlot)data).setCls(ByteOrderConverter.swap(setupBuffer.getShort()));
+		((MailSlot)data).setMailslotCode(setupBuffer.getShortLE());
+		((MailSlot)data).setPriority(setupBuffer.getShortLE());
+		((MailSlot)data).setCls(setupBuffer.getShortLE());
 		return data;
 	}
 
@@ -8,7 +8,6 @@ import org.krakenapps.pcap.decoder.smb.structure.SmbData;
 import org.krakenapps.pcap.decoder.smb.structure.SmbHeader;
 import org.krakenapps.pcap.decoder.smb.transparser.TransParser;
 import org.krakenapps.pcap.util.Buffer;
-import org.krakenapps.pcap.util.ByteOrderConverter;
 import org.krakenapps.pcap.util.ChainBuffer;
 //0x25
 public class UdpTransactionParser implements SmbDataParser{
@@ -22,25 +21,25 @@ public class UdpTransactionParser implements SmbDataParser{
 		byte []pad2=null;
 		byte []buff=null;
 		data.setWordCount(b.get());
-		data.setTotalParameterCount(ByteOrderConverter.swap(b.getShort()));
-		data.setTotalDataCount(ByteOrderConverter.swap(b.getShort()));
-		data.setMaxParameterCount(ByteOrderConverter.swap(b.getShort()));
-		data.setMaxDataCount(ByteOrderConverter.swap(b.getShort()));
+		data.setTotalParameterCount(b.getShortLE());
+		data.setTotalDataCount(b.getShortLE());
+		data.setMaxParameterCount(b.getShortLE());
+		data.setMaxDataCount(b.getShortLE());
 		data.setMaxSetupCount(b.get());
 		data.setReserved1(b.get());
-		data.setFlags(ByteOrderConverter.swap(b.getShort()));
-		data.setTimeout(ByteOrderConverter.swap(b.getInt()));
-		data.setReserved2(ByteOrderConverter.swap(b.getShort()));
-		data.setParameterCount(ByteOrderConverter.swap(b.getShort()));
-		data.setParameterOffset(ByteOrderConverter.swap(b.getShort()));
-		data.setDataCount(ByteOrderConverter.swap(b.getShort()));
-		data.setDataOffset(ByteOrderConverter.swap(b.getShort()));
+		data.setFlags(b.getShortLE());
+		data.setTimeout(b.getIntLE());
+		data.setReserved2(b.getShortLE());
+		data.setParameterCount(b.getShortLE());
+		data.setParameterOffset(b.getShortLE());
+		data.setDataCount(b.getShortLE());
+		data.setDataOffset(b.getShortLE());
 		data.setSetupCount(b.get());
 		data.setReserved3(b.get());
 		setup = new byte[data.getSetupCount()*2];
 		b.gets(setup);
 		data.setSetup(setup);// short type align
-		data.setByteCount(ByteOrderConverter.swap(b.getShort()));
+		data.setByteCount(b.getShortLE());
 		if(b.readableBytes() != data.getByteCount()){
 			data.setMalformed(true);
 			return data;
@@ -77,7 +76,7 @@ public class UdpTransactionParser implements SmbDataParser{
 		dataBuffer.addLast(data.getTransData());
 		if(setupBuffer.readableBytes() !=0){
 			setupBuffer.mark();
-			TransParser parser = mapper.getParser(UdpTransactionCommand.parse(ByteOrderConverter.swap(setupBuffer.getShort())));
+			TransParser parser = mapper.getParser(UdpTransactionCommand.parse(setupBuffer.getShortLE()));
 			setupBuffer.rewind();
 			data.setTransactionData(parser.parseRequest( setupBuffer , parameterBuffer , dataBuffer));
 		}
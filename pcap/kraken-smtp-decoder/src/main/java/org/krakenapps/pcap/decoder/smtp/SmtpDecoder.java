@@ -34,6 +34,7 @@ import org.krakenapps.pcap.decoder.smtp.impl.SmtpSession;
 import org.krakenapps.pcap.decoder.tcp.TcpProcessor;
 import org.krakenapps.pcap.decoder.tcp.TcpSessionKey;
 import org.krakenapps.pcap.util.Buffer;
+import org.krakenapps.pcap.util.BytePattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +42,8 @@ import org.slf4j.LoggerFactory;
  * @author mindori
  */
 public class SmtpDecoder implements TcpProcessor {
+	private static final BytePattern CRLF = new BytePattern(new byte[] { 0x0d, 0x0a });
+	private static final BytePattern END_OF_DATA = new BytePattern(new byte[] { 0x0d, 0x0a, 0x2e, 0x0d, 0x0a });
 	private Logger logger = LoggerFactory.getLogger(SmtpDecoder.class.getName());
 
 	private Set<SmtpProcessor> callbacks;
@@ -122,7 +125,7 @@ public class SmtpDecoder implements TcpProcessor {
 
 	private void handleClientData(SmtpSession session, Buffer txBuffer) {
 		// store until find \r\n.\r\n
-		int length = txBuffer.bytesBefore(new byte[] { 0x0d, 0x0a, 0x2e, 0x0d, 0x0a });
+		int length = txBuffer.bytesBefore(END_OF_DATA);
 		if (length == 0) {
 			return;
 		}
@@ -144,7 +147,7 @@ public class SmtpDecoder implements TcpProcessor {
 
 	private void handleClientCommand(SmtpSession session, Buffer txBuffer) {
 		while(true) { 
-			int length = txBuffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+			int length = txBuffer.bytesBefore(CRLF);
 			if (length == 0) {
 				return;
 			}
@@ -175,7 +178,7 @@ public class SmtpDecoder implements TcpProcessor {
 
 	private void handleReply(SmtpSession session, Buffer rxBuffer) {
 		while(true) { 
-			int length = rxBuffer.bytesBefore(new byte[] { 0x0d, 0x0a });
+			int length = rxBuffer.bytesBefore(CRLF);
 			if (length == 0) {
 				return;
 			}